@@ -0,0 +1,80 @@
+package com.bbay.mindnote.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Prints a side-by-side report of two JMH JSON result files (baseline vs current):
+ * primary score and normalized allocation ({@code gc.alloc.rate.norm}, from {@code -prof gc}).
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json>}
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private record Result(double score, double allocBytesPerOp) {
+    }
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        JsonMapper mapper = JsonMapper.builder().build();
+        Map<String, Result> baseline = read(mapper, new File(args[0]));
+        Map<String, Result> current = read(mapper, new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s %14s %14s %9s%n",
+                "Benchmark", "Baseline", "Current", "Delta", "Alloc base", "Alloc curr", "Delta");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s%n", entry.getKey(), "-", now.score(), "new");
+                continue;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %8.1f%% %14.1f %14.1f %8.1f%%%n",
+                    entry.getKey(),
+                    before.score(), now.score(), delta(before.score(), now.score()),
+                    before.allocBytesPerOp(), now.allocBytesPerOp(),
+                    delta(before.allocBytesPerOp(), now.allocBytesPerOp()));
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                System.out.printf("%-70s %14.3f %14s %9s%n", removed, baseline.get(removed).score(), "-", "removed");
+            }
+        }
+        System.out.println("Scores are in the benchmark's own unit (lower is better for average-time modes); "
+                + "allocation is bytes/op.");
+    }
+
+    private static Map<String, Result> read(JsonMapper mapper, File file) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : mapper.readTree(file)) {
+            StringJoiner key = new StringJoiner(",", run.get("benchmark").asString() + "(", ")");
+            JsonNode params = run.get("params");
+            if (params != null) {
+                params.properties().forEach(param -> key.add(param.getKey() + "=" + param.getValue().asString()));
+            }
+            JsonNode primary = run.get("primaryMetric");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_NORM);
+            results.put(key.toString(), new Result(
+                    primary.get("score").asDouble(),
+                    alloc.isMissingNode() ? Double.NaN : alloc.get("score").asDouble()));
+        }
+        return results;
+    }
+
+    private static double delta(double before, double now) {
+        return before == 0 ? 0 : (now - before) / before * 100.0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bbay.mindnote.benchmark;
+
+import com.bbay.mindnote.entity.Category;
+import com.bbay.mindnote.entity.Note;
+import com.bbay.mindnote.entity.Tag;
+import com.bbay.mindnote.entity.Task;
+import com.bbay.mindnote.entity.TaskPriority;
+import com.bbay.mindnote.entity.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic fixtures shared by the benchmarks, sized like real payloads.
+ */
+public final class BenchmarkData {
+
+    /** Content sizes used as JMH params: a typical short note and a pasted 100KB document. */
+    public static final String SMALL = "small";
+    public static final String LARGE = "100KB";
+
+    private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua [[Meeting Notes]] `code` **bold** ";
+
+    private BenchmarkData() {
+    }
+
+    public static String content(String size) {
+        int length = switch (size) {
+            case SMALL -> 280;
+            case LARGE -> 100 * 1024;
+            default -> throw new IllegalArgumentException("Unknown content size: " + size);
+        };
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(WORDS);
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    public static Set<String> tagNames(int count) {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            names.add("tag-" + i);
+        }
+        return names;
+    }
+
+    public static Set<Tag> tags(int count) {
+        Set<Tag> tags = new HashSet<>();
+        long id = 1;
+        for (String name : tagNames(count)) {
+            Tag tag = new Tag(name);
+            tag.setId(id++);
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    public static Category category() {
+        Category category = new Category("Work");
+        category.setId(7L);
+        return category;
+    }
+
+    public static Note note(long id, String contentSize, int tagCount) {
+        Note note = new Note();
+        note.setId(id);
+        note.setTitle("Benchmark note " + id);
+        note.setContent(content(contentSize));
+        note.setCategory(category());
+        note.setTags(tags(tagCount));
+        LocalDateTime now = LocalDateTime.of(2025, 1, 15, 10, 30);
+        note.setCreatedAt(now.minusDays(id));
+        note.setUpdatedAt(now);
+        return note;
+    }
+
+    public static Task task(long id, String descriptionSize, int tagCount) {
+        Random random = new Random(id);
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("Benchmark task " + id);
+        task.setDescription(content(descriptionSize));
+        task.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+        task.setPriority(TaskPriority.values()[random.nextInt(TaskPriority.values().length)]);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 15, 10, 30);
+        task.setDueDate(now.plusDays(id));
+        task.setCategory(category());
+        task.setTags(tags(tagCount));
+        task.setNote(note(id, SMALL, 0));
+        task.setCreatedAt(now.minusDays(1));
+        task.setUpdatedAt(now);
+        return task;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.benchmark.BenchmarkData;
+import com.bbay.mindnote.dto.NoteResponse;
+import com.bbay.mindnote.dto.TaskResponse;
+import com.bbay.mindnote.entity.Note;
+import com.bbay.mindnote.entity.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping in {@link NoteService#mapToResponse} and {@link TaskService#mapToResponse}.
+ * Repositories are not touched by the mappers, so the services are built without them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MappingBenchmark {
+
+    @Param({BenchmarkData.SMALL, BenchmarkData.LARGE})
+    public String contentSize;
+
+    @Param({"0", "5", "50"})
+    public int tagCount;
+
+    private NoteService noteService;
+    private TaskService taskService;
+    private Note note;
+    private Task task;
+
+    @Setup
+    public void setUp() {
+        noteService = new NoteService(null, null, null, null, null, null, null);
+        taskService = new TaskService(null, null, null, null, null, null, null);
+        note = BenchmarkData.note(1L, contentSize, tagCount);
+        task = BenchmarkData.task(1L, contentSize, tagCount);
+    }
+
+    @Benchmark
+    public NoteResponse noteMapToResponse() {
+        return noteService.mapToResponse(note);
+    }
+
+    @Benchmark
+    public TaskResponse taskMapToResponse() {
+        return taskService.mapToResponse(task);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.benchmark.BenchmarkData;
+import com.bbay.mindnote.config.EpochTimeModule;
+import com.bbay.mindnote.dto.NoteResponse;
+import com.bbay.mindnote.dto.PageEnvelope;
+import com.bbay.mindnote.dto.TaskResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Jackson serialization of a {@code PageEnvelope<NoteResponse>} and a
+ * {@code PageEnvelope<TaskResponse>} as returned by {@code GET /api/notes} and {@code GET /api/tasks}
+ * (default page size 20, default sort), in each negotiable format. The binary mappers are set up
+ * like {@code BinaryFormatsConfig}. Encoded sizes are printed once per trial, since JMH only
+ * reports time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({BenchmarkData.SMALL, BenchmarkData.LARGE})
+    public String contentSize;
+
+    @Param({"0", "5", "50"})
+    public int tagCount;
+
+    private ObjectMapper mapper;
+    private PageEnvelope<NoteResponse> notePage;
+    private PageEnvelope<TaskResponse> taskPage;
+
+    @Setup
+    public void setUp() {
+        mapper = switch (format) {
+            case "json" -> JsonMapper.builder().build();
+            case "cbor" -> CBORMapper.builder().addModule(new EpochTimeModule()).build();
+            case "smile" -> SmileMapper.builder().addModule(new EpochTimeModule()).build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        NoteService noteService = new NoteService(null, null, null, null, null, null, null);
+        TaskService taskService = new TaskService(null, null, null, null, null, null, null);
+        List<NoteResponse> notes = LongStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(id -> noteService.mapToResponse(BenchmarkData.note(id, contentSize, tagCount)))
+                .toList();
+        List<TaskResponse> tasks = LongStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(id -> taskService.mapToResponse(BenchmarkData.task(id, contentSize, tagCount)))
+                .toList();
+        PageRequest pageRequest = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "updatedAt"));
+        notePage = PageEnvelope.of(new PageImpl<>(notes, pageRequest, 1_000));
+        taskPage = PageEnvelope.of(new PageImpl<>(tasks, pageRequest, 1_000));
+        System.out.printf("%n%s encoded sizes: note page %d bytes, task page %d bytes%n",
+                format, serializeNotePage().length, serializeTaskPage().length);
+    }
+
+    @Benchmark
+    public byte[] serializeNotePage() {
+        return mapper.writeValueAsBytes(notePage);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskPage() {
+        return mapper.writeValueAsBytes(taskPage);
+    }
+}
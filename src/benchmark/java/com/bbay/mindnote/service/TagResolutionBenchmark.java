@@ -0,0 +1,57 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.benchmark.BenchmarkData;
+import com.bbay.mindnote.entity.Tag;
+import com.bbay.mindnote.repository.TagRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link NoteService#resolveTags} against an in-memory {@link TagRepository} stub, isolating the
+ * per-tag service overhead (lookup, Optional handling, set building) from database latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TagResolutionBenchmark {
+
+    @Param({"0", "5", "50"})
+    public int tagCount;
+
+    private NoteService noteService;
+    private Set<String> tagNames;
+
+    @Setup
+    public void setUp() {
+        Map<String, Optional<Tag>> tagsByName = BenchmarkData.tags(tagCount).stream()
+                .collect(Collectors.toMap(Tag::getName, Optional::of));
+        noteService = new NoteService(null, null, stubTagRepository(tagsByName::get), null, null, null, null);
+        tagNames = BenchmarkData.tagNames(tagCount);
+    }
+
+    @Benchmark
+    public Set<Tag> resolveTags() {
+        return noteService.resolveTags(tagNames);
+    }
+
+    private static TagRepository stubTagRepository(Function<String, Optional<Tag>> findByName) {
+        return (TagRepository) Proxy.newProxyInstance(
+                TagRepository.class.getClassLoader(),
+                new Class<?>[]{TagRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByName" -> findByName.apply((String) args[0]);
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
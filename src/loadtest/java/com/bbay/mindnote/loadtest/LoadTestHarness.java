@@ -0,0 +1,372 @@
+package com.bbay.mindnote.loadtest;
+
+import com.bbay.mindnote.MindNoteApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Macro-benchmark: boots the application against an embedded PostgreSQL, seeds a corpus of
+ * categories, notes, tasks and tags through the public API, then drives mixed read/write traffic
+ * on {@code /api/notes} and {@code /api/tasks} from virtual threads.
+ * <p>
+ * Traffic is open loop: requests are issued at a fixed rate and latency is measured from each
+ * request's intended start, so a stalled server shows up in the tail instead of silently lowering
+ * the offered load (coordinated omission). Per-endpoint throughput and p50/p99/p999 are printed,
+ * and the full histograms are written as {@code .hgrm} percentile files plus one {@code .hlog}
+ * so runs from different commits can be diffed or plotted.
+ */
+public final class LoadTestHarness {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SEED_CONCURRENCY = 32;
+    private static final int SEED_ATTEMPTS = 3;
+
+    private final LoadTestSettings settings;
+    private final HttpClient http;
+    private final JsonMapper json = JsonMapper.builder().build();
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+    private String baseUrl;
+    private List<Long> categoryIds;
+    private AtomicLongArray noteIds;
+    private AtomicLongArray taskIds;
+
+    private LoadTestHarness(LoadTestSettings settings) {
+        this.settings = settings;
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation.label, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation.label, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        System.out.println("Load test settings: " + settings);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = startApplication(postgres, settings)) {
+            LoadTestHarness harness = new LoadTestHarness(settings);
+            harness.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            harness.seed();
+            harness.drive(settings.warmup(), "warmup");
+            harness.resetRecorders();
+            long measuredNanos = harness.drive(settings.duration(), "measurement");
+            harness.report(measuredNanos);
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, LoadTestSettings settings) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.jpa.hibernate.ddl-auto", "validate");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.flyway.enabled", "true");
+        properties.put("spring.threads.virtual.enabled", "true");
+        properties.put("server.port", "0");
+        properties.put("management.endpoints.web.exposure.include", "health,prometheus");
+        // log4j2-spring.xml pins these loggers explicitly (SQL at DEBUG), so each needs overriding
+        for (String logger : List.of("root", "com.bbay.mindnote", "org.springframework", "org.hibernate",
+                "org.hibernate.SQL", "org.hibernate.type.descriptor.sql.BasicBinder")) {
+            properties.put("logging.level." + logger, settings.logLevel());
+        }
+        return new SpringApplicationBuilder(MindNoteApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    // --- Seeding ---
+
+    private void seed() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        categoryIds = new ArrayList<>();
+        for (int i = 0; i < settings.categories(); i++) {
+            categoryIds.add(idOf(send("POST", "/api/categories", "{\"name\":\"Category " + i + "\"}")));
+        }
+        noteIds = new AtomicLongArray(settings.notes());
+        seedInParallel(settings.notes(), i -> noteIds.set(i, idOf(send("POST", "/api/notes", noteBody()))));
+        taskIds = new AtomicLongArray(settings.tasks());
+        seedInParallel(settings.tasks(), i -> taskIds.set(i, idOf(send("POST", "/api/tasks", taskBody()))));
+        System.out.printf("Seeded %d categories, %d notes, %d tasks in %d ms%n",
+                settings.categories(), settings.notes(), settings.tasks(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private interface IndexedAction {
+        void run(int index) throws Exception;
+    }
+
+    private void seedInParallel(int count, IndexedAction action) throws InterruptedException {
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        // Concurrent creates of the same new tag name can collide on its unique constraint
+                        for (int attempt = 1; ; attempt++) {
+                            try {
+                                action.run(index);
+                                return;
+                            } catch (Exception e) {
+                                if (attempt == SEED_ATTEMPTS) {
+                                    System.err.println("Seeding failed: " + e.getMessage());
+                                    return;
+                                }
+                            }
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    // --- Traffic ---
+
+    private enum Operation {
+        LIST_NOTES("GET /api/notes", false),
+        GET_NOTE("GET /api/notes/{id}", false),
+        CREATE_NOTE("POST /api/notes", true),
+        UPDATE_NOTE("PUT /api/notes/{id}", true),
+        LIST_TASKS("GET /api/tasks", false),
+        GET_TASK("GET /api/tasks/{id}", false),
+        CREATE_TASK("POST /api/tasks", true),
+        UPDATE_TASK("PUT /api/tasks/{id}", true);
+
+        private final String label;
+        private final boolean write;
+
+        Operation(String label, boolean write) {
+            this.label = label;
+            this.write = write;
+        }
+    }
+
+    private long drive(Duration length, String phase) throws InterruptedException {
+        System.out.printf("Running %s for %s at %d req/s%n", phase, length, settings.rate());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, settings.rate());
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long intendedStart = start;
+            while (intendedStart < end) {
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long scheduledAt = intendedStart;
+                Operation operation = pickOperation();
+                executor.submit(() -> execute(operation, scheduledAt));
+                intendedStart += intervalNanos;
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Operation pickOperation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation[] pool = Operation.values();
+        while (true) {
+            Operation candidate = pool[random.nextInt(pool.length)];
+            boolean wantWrite = random.nextDouble() < settings.writeRatio();
+            if (candidate.write == wantWrite) {
+                return candidate;
+            }
+        }
+    }
+
+    private void execute(Operation operation, long intendedStartNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            HttpResponse<String> response = switch (operation) {
+                case LIST_NOTES -> send("GET", "/api/notes?page=" + random.nextInt(5), null);
+                case GET_NOTE -> send("GET", "/api/notes/" + randomId(noteIds), null);
+                case CREATE_NOTE -> send("POST", "/api/notes", noteBody());
+                case UPDATE_NOTE -> send("PUT", "/api/notes/" + randomId(noteIds), noteBody());
+                case LIST_TASKS -> send("GET", "/api/tasks?page=" + random.nextInt(5), null);
+                case GET_TASK -> send("GET", "/api/tasks/" + randomId(taskIds), null);
+                case CREATE_TASK -> send("POST", "/api/tasks", taskBody());
+                case UPDATE_TASK -> send("PUT", "/api/tasks/" + randomId(taskIds), taskBody());
+            };
+            if (response.statusCode() >= 400) {
+                errors.get(operation.label).incrementAndGet();
+            }
+        } catch (Exception e) {
+            errors.get(operation.label).incrementAndGet();
+        } finally {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+            recorders.get(operation.label).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        }
+    }
+
+    private static long randomId(AtomicLongArray ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = 0;
+        // Slots stay 0 when seeding that entity failed
+        for (int attempt = 0; id == 0 && attempt < 8; attempt++) {
+            id = ids.get(random.nextInt(ids.length()));
+        }
+        return id;
+    }
+
+    // --- Payloads ---
+
+    private String noteBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("title", "Note " + random.nextInt(1_000_000));
+        body.put("content", text(random.nextInt(200, 4_000)));
+        body.put("categoryId", random.nextInt(4) == 0 ? null : categoryIds.get(random.nextInt(categoryIds.size())));
+        body.put("tags", randomTags(random.nextInt(6)));
+        return json.writeValueAsString(body);
+    }
+
+    private String taskBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("title", "Task " + random.nextInt(1_000_000));
+        body.put("description", text(random.nextInt(50, 500)));
+        body.put("status", random.nextInt(3) == 0 ? "DONE" : "TODO");
+        body.put("priority", random.nextBoolean() ? "HIGH" : "MEDIUM");
+        body.put("dueDate", LocalDateTime.now().plusHours(random.nextInt(1, 24 * 60)).withNano(0).toString());
+        body.put("categoryId", categoryIds.get(random.nextInt(categoryIds.size())));
+        body.put("tags", randomTags(random.nextInt(4)));
+        body.put("noteId", noteIds != null && random.nextBoolean() ? randomId(noteIds) : null);
+        return json.writeValueAsString(body);
+    }
+
+    private List<String> randomTags(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add("tag-" + random.nextInt(settings.tags()));
+        }
+        return tags.stream().distinct().toList();
+    }
+
+    private static String text(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (sb.length() < length) {
+            sb.append("word").append(random.nextInt(1000)).append(' ');
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    // --- HTTP ---
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long idOf(HttpResponse<String> response) {
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + ": " + response.body());
+        }
+        return json.readTree(response.body()).get("id").asLong();
+    }
+
+    // --- Reporting ---
+
+    private void resetRecorders() {
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(counter -> counter.set(0));
+    }
+
+    private void report(long measuredNanos) throws IOException, InterruptedException {
+        Path dir = settings.output().resolve(settings.label());
+        Files.createDirectories(dir);
+        double seconds = measuredNanos / 1e9;
+
+        List<String> summary = new ArrayList<>();
+        summary.add("endpoint,count,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms");
+        System.out.printf("%n%-22s %9s %7s %11s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        try (PrintStream hlog = new PrintStream(Files.newOutputStream(dir.resolve("latency.hlog")))) {
+            HistogramLogWriter logWriter = new HistogramLogWriter(hlog);
+            logWriter.outputComment("mindNote load test " + settings);
+            logWriter.outputLegend();
+            for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+                String label = entry.getKey();
+                Histogram histogram = entry.getValue().getIntervalHistogram();
+                histogram.setTag(label.replace(' ', '_'));
+                logWriter.outputIntervalHistogram(histogram);
+
+                long errorCount = errors.get(label).get();
+                System.out.printf("%-22s %9d %7d %11.1f %9.2f %9.2f %9.2f %9.2f%n",
+                        label, histogram.getTotalCount(), errorCount, histogram.getTotalCount() / seconds,
+                        millis(histogram, 50.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                        histogram.getMaxValue() / 1000.0);
+                summary.add(String.format("%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f",
+                        label, histogram.getTotalCount(), errorCount, histogram.getTotalCount() / seconds,
+                        millis(histogram, 50.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                        histogram.getMaxValue() / 1000.0));
+
+                String fileName = label.replaceAll("[^A-Za-z]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+                try (PrintStream hgrm = new PrintStream(Files.newOutputStream(dir.resolve(fileName)))) {
+                    // Values are recorded in microseconds; scale the percentile table to milliseconds
+                    histogram.outputPercentileDistribution(hgrm, 1000.0);
+                }
+            }
+        }
+        Files.write(dir.resolve("summary.csv"), summary);
+        // Server-side view of the same run: per-route JDBC statement counts, transaction and pool timings
+        HttpRequest scrape = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/prometheus"))
+                .header("Accept", "text/plain")
+                .build();
+        Files.writeString(dir.resolve("prometheus.txt"), http.send(scrape, HttpResponse.BodyHandlers.ofString()).body());
+        System.out.printf("%nHistograms written to %s%n", dir.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bbay.mindnote.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Knobs of a load test run, passed as {@code key=value} program arguments.
+ *
+ * @param notes      notes seeded before the run
+ * @param tasks      tasks seeded before the run
+ * @param tags       size of the tag name pool
+ * @param categories categories seeded before the run
+ * @param rate       target requests per second (open loop, latency measured from the intended start)
+ * @param warmup     traffic discarded before measuring
+ * @param duration   measured traffic
+ * @param writeRatio share of requests that create or update
+ * @param output     directory for the HdrHistogram files
+ * @param label      run name, e.g. a commit id; becomes a sub-directory of {@code output}
+ * @param logLevel   application log level during the run (INFO logs every request)
+ */
+record LoadTestSettings(
+        int notes,
+        int tasks,
+        int tags,
+        int categories,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        double writeRatio,
+        Path output,
+        String label,
+        String logLevel
+) {
+
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            values.put(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+        return new LoadTestSettings(
+                Integer.parseInt(values.getOrDefault("notes", "2000")),
+                Integer.parseInt(values.getOrDefault("tasks", "2000")),
+                Integer.parseInt(values.getOrDefault("tags", "200")),
+                Integer.parseInt(values.getOrDefault("categories", "20")),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                duration(values.getOrDefault("warmup", "15s")),
+                duration(values.getOrDefault("duration", "60s")),
+                Double.parseDouble(values.getOrDefault("writeRatio", "0.2")),
+                Path.of(values.getOrDefault("output", "target/loadtest")),
+                values.getOrDefault("label",
+                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))),
+                values.getOrDefault("logLevel", "WARN"));
+    }
+
+    private static Duration duration(String value) {
+        String v = value.toLowerCase();
+        if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+}
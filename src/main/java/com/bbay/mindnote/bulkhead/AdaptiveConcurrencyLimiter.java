@@ -0,0 +1,150 @@
+package com.bbay.mindnote.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit for one lane of database work. Every call that finishes within the
+ * latency threshold while the lane is busy raises the limit by one; a slow or failed call cuts
+ * it by the backoff ratio. Callers over the limit wait in FIFO order until a permit frees up or
+ * their deadline passes, so a spike turns into fast rejections instead of a queue of threads all
+ * waiting on the connection pool.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long latencyThresholdNanos;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inflight;
+    private int queued;
+    private long rejected;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      int maxQueue, Duration latencyThreshold) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limit range for lane " + name + ": " + minLimit + ".." + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Takes a permit, waiting at most {@code maxWait}. Returns {@code false} when the queue is
+     * full or the deadline passes; the caller must not proceed and must not call {@link #release}.
+     */
+    public boolean tryAcquire(Duration maxWait) throws InterruptedException {
+        long remaining = maxWait.toNanos();
+        lock.lock();
+        try {
+            if (inflight < (int) limit && queued == 0) {
+                inflight++;
+                return true;
+            }
+            if (queued >= maxQueue) {
+                rejected++;
+                return false;
+            }
+            queued++;
+            try {
+                while (inflight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inflight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit and adjusts the limit from the observed call.
+     *
+     * @param latencyNanos time the call held the permit
+     * @param failed       whether the call failed for a reason that suggests overload
+     */
+    public void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            // Only grow while the lane is actually using its limit, otherwise idle periods inflate it
+            boolean busy = inflight * 2 >= limit;
+            inflight--;
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (busy) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            if (queued > 0) {
+                // A raised limit can free more than one slot
+                permitReleased.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long rejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + "[limit=" + limit() + ", inflight=" + inflight() + ", queued=" + queued() + "]";
+    }
+}
@@ -0,0 +1,132 @@
+package com.bbay.mindnote.bulkhead;
+
+import com.bbay.mindnote.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts every {@code @Transactional} service call behind an {@link AdaptiveConcurrencyLimiter},
+ * with separate lanes so a burst of writes cannot starve reads and vice versa. Virtual threads
+ * make request concurrency effectively unbounded; this keeps the number of threads competing for
+ * the connection pool close to what the database can serve and rejects the rest with 503.
+ *
+ * <p>Runs outermost so queueing time is not counted as transaction time. Only the outermost
+ * transactional call on a thread takes a permit; nested calls already hold one.</p>
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 3)
+public class BulkheadAspect {
+
+    private static final Logger logger = LogManager.getLogger(BulkheadAspect.class);
+
+    private static final ThreadLocal<Boolean> HOLDING_PERMIT = new ThreadLocal<>();
+
+    private final BulkheadProperties properties;
+    private final AdaptiveConcurrencyLimiter readLane;
+    private final AdaptiveConcurrencyLimiter writeLane;
+    private final Timer readWait;
+    private final Timer writeWait;
+
+    public BulkheadAspect(BulkheadProperties properties, MeterRegistry meterRegistry,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.properties = properties;
+        // Together the lanes admit about as many callers as there are connections, so excess load
+        // queues here, where it is limited and shed, rather than in the pool's connection wait
+        int writeShare = Math.max(1, poolSize * 3 / 10);
+        this.readLane = createLane("read", properties.read(), Math.max(1, poolSize - writeShare));
+        this.writeLane = createLane("write", properties.write(), writeShare);
+        this.readWait = bindMetrics(readLane, meterRegistry);
+        this.writeWait = bindMetrics(writeLane, meterRegistry);
+        logger.info("Database bulkhead {} with lanes {} and {}",
+                properties.enabled() ? "enabled" : "disabled", readLane, writeLane);
+    }
+
+    @Around("@annotation(transactional) && within(com.bbay.mindnote.service..*)")
+    public Object limit(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!properties.enabled() || HOLDING_PERMIT.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        AdaptiveConcurrencyLimiter lane = transactional.readOnly() ? readLane : writeLane;
+        acquire(lane, transactional.readOnly() ? readWait : writeWait, joinPoint);
+
+        HOLDING_PERMIT.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return joinPoint.proceed();
+        } catch (TransientDataAccessException | CannotCreateTransactionException ex) {
+            // Lock and query timeouts or an exhausted pool: the database is the bottleneck
+            overloaded = true;
+            throw ex;
+        } finally {
+            HOLDING_PERMIT.remove();
+            lane.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    private void acquire(AdaptiveConcurrencyLimiter lane, Timer waitTimer, ProceedingJoinPoint joinPoint) {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lane.tryAcquire(properties.maxWait());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            logger.warn("Rejected {} - {} lane saturated: {}",
+                    joinPoint.getSignature().toShortString(), lane.name(), lane);
+            throw new ServiceOverloadedException(
+                    "Service is temporarily overloaded, please retry later", properties.retryAfter());
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter createLane(String name, BulkheadProperties.Lane lane, int poolShare) {
+        int maxLimit = lane.maxLimit() != null ? lane.maxLimit() : poolShare;
+        int minLimit = lane.maxLimit() != null ? lane.minLimit() : Math.min(lane.minLimit(), maxLimit);
+        return new AdaptiveConcurrencyLimiter(name, lane.initialLimit(), minLimit, maxLimit,
+                lane.maxQueue(), lane.latencyThreshold());
+    }
+
+    private static Timer bindMetrics(AdaptiveConcurrencyLimiter lane, MeterRegistry registry) {
+        Gauge.builder("mindnote.bulkhead.limit", lane, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("lane", lane.name())
+                .register(registry);
+        Gauge.builder("mindnote.bulkhead.inflight", lane, AdaptiveConcurrencyLimiter::inflight)
+                .description("Transactions currently holding a permit")
+                .tag("lane", lane.name())
+                .register(registry);
+        Gauge.builder("mindnote.bulkhead.queued", lane, AdaptiveConcurrencyLimiter::queued)
+                .description("Callers waiting for a permit")
+                .tag("lane", lane.name())
+                .register(registry);
+        FunctionCounter.builder("mindnote.bulkhead.rejected", lane, AdaptiveConcurrencyLimiter::rejected)
+                .description("Calls rejected with 503 because the lane was saturated")
+                .tag("lane", lane.name())
+                .register(registry);
+        return Timer.builder("mindnote.bulkhead.wait")
+                .description("Time spent waiting for a permit, including rejected calls")
+                .tag("lane", lane.name())
+                .register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bbay.mindnote.bulkhead;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the database bulkhead in front of {@code @Transactional} service methods.
+ *
+ * @param enabled    whether calls go through the limiter at all
+ * @param maxWait    how long a call may queue for a permit before it is rejected with 503
+ * @param retryAfter value of the {@code Retry-After} header sent with a rejection
+ * @param read       lane for read-only transactions
+ * @param write      lane for read-write transactions
+ */
+@ConfigurationProperties(prefix = "mindnote.bulkhead")
+public record BulkheadProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("250ms") Duration maxWait,
+        @DefaultValue("1s") Duration retryAfter,
+        Lane read,
+        Lane write) {
+
+    public BulkheadProperties {
+        // Lanes default independently, so setting one value of a lane keeps the rest
+        // The ceilings stay unset here; BulkheadAspect derives them from the connection pool size
+        read = Lane.orEmpty(read).withDefaults(new Lane(4, 2, null, 200, Duration.ofMillis(250)));
+        write = Lane.orEmpty(write).withDefaults(new Lane(2, 1, null, 100, Duration.ofMillis(500)));
+    }
+
+    /**
+     * @param initialLimit     concurrent calls allowed at startup
+     * @param minLimit         floor the limit never backs off below
+     * @param maxLimit         ceiling; keep the sum of both lanes near the connection pool size.
+     *                         Unset, the pool size is split 70/30 between reads and writes
+     * @param maxQueue         callers allowed to wait at once; more are rejected immediately
+     * @param latencyThreshold calls slower than this count as congestion and shrink the limit
+     */
+    public record Lane(
+            Integer initialLimit,
+            Integer minLimit,
+            Integer maxLimit,
+            Integer maxQueue,
+            Duration latencyThreshold) {
+
+        private static Lane orEmpty(Lane lane) {
+            return lane != null ? lane : new Lane(null, null, null, null, null);
+        }
+
+        private Lane withDefaults(Lane defaults) {
+            return new Lane(
+                    initialLimit != null ? initialLimit : defaults.initialLimit,
+                    minLimit != null ? minLimit : defaults.minLimit,
+                    maxLimit != null ? maxLimit : defaults.maxLimit,
+                    maxQueue != null ? maxQueue : defaults.maxQueue,
+                    latencyThreshold != null ? latencyThreshold : defaults.latencyThreshold);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bbay.mindnote.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.boot.jackson.autoconfigure.CborMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Compact binary responses for clients that ask for them with {@code Accept: application/cbor} or
+ * {@code application/x-jackson-smile}; JSON stays the default. Both formats carry the same
+ * structure as the JSON responses, with dates and times as numbers (see {@link EpochTimeModule}),
+ * and are written by Jackson straight to the response stream. Request bodies in either format are
+ * accepted as well.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    /**
+     * Applies to the CBOR mapper Boot auto-configures; the JSON mapper is left alone.
+     */
+    @Bean
+    public CborMapperBuilderCustomizer epochTimestampsForCbor() {
+        return builder -> builder.addModule(new EpochTimeModule());
+    }
+
+    @Bean
+    public ServerHttpMessageConvertersCustomizer binaryMessageConverters(CBORMapper cborMapper,
+                                                                         ObjectProvider<JacksonModule> modules) {
+        // Boot has no Smile mapper; build one with the same modules as the others
+        SmileMapper smileMapper = SmileMapper.builder()
+                .addModules(modules.orderedStream().toList())
+                .addModule(new EpochTimeModule())
+                .build();
+        return builder -> builder
+                .withCborConverter(new JacksonCborHttpMessageConverter(cborMapper))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper));
+    }
+}
@@ -0,0 +1,76 @@
+package com.bbay.mindnote.config;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.exc.InvalidFormatException;
+import tools.jackson.databind.module.SimpleModule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Dates and times as plain numbers for the binary formats: a {@link LocalDateTime} is the epoch
+ * milliseconds of its wall-clock time read as UTC, a {@link LocalDate} the epoch day. Numbers are
+ * several times smaller than ISO-8601 strings and skip the formatter entirely. Reading accepts
+ * both numbers and ISO-8601 strings.
+ */
+public class EpochTimeModule extends SimpleModule {
+
+    public EpochTimeModule() {
+        super("EpochTimeModule");
+        addSerializer(LocalDateTime.class, new ValueSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator generator, SerializationContext context) {
+                generator.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+        });
+        addSerializer(LocalDate.class, new ValueSerializer<>() {
+            @Override
+            public void serialize(LocalDate value, JsonGenerator generator, SerializationContext context) {
+                generator.writeNumber(value.toEpochDay());
+            }
+        });
+        addDeserializer(LocalDateTime.class, new ValueDeserializer<>() {
+            @Override
+            public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) {
+                if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    return LocalDateTime.ofEpochSecond(Math.floorDiv(parser.getLongValue(), 1000),
+                            (int) Math.floorMod(parser.getLongValue(), 1000) * 1_000_000, ZoneOffset.UTC);
+                }
+                String text = parser.getValueAsString();
+                try {
+                    if (text != null) {
+                        return LocalDateTime.parse(text);
+                    }
+                } catch (DateTimeParseException ex) {
+                    // Reported below like any other unreadable value
+                }
+                throw InvalidFormatException.from(parser, "Expected epoch milliseconds or an ISO-8601 date-time", text, LocalDateTime.class);
+            }
+        });
+        addDeserializer(LocalDate.class, new ValueDeserializer<>() {
+            @Override
+            public LocalDate deserialize(JsonParser parser, DeserializationContext context) {
+                if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    return LocalDate.ofEpochDay(parser.getLongValue());
+                }
+                String text = parser.getValueAsString();
+                try {
+                    if (text != null) {
+                        return LocalDate.parse(text);
+                    }
+                } catch (DateTimeParseException ex) {
+                    // Reported below like any other unreadable value
+                }
+                throw InvalidFormatException.from(parser, "Expected an epoch day or an ISO-8601 date", text, LocalDate.class);
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.bbay.mindnote.config;
+
+import org.flywaydb.database.postgresql.PostgreSQLConfigurationExtension;
+import org.springframework.boot.flyway.autoconfigure.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Flyway's default PostgreSQL migration lock is a transaction-level advisory lock held on a
+     * separate connection. CREATE INDEX CONCURRENTLY waits for every open transaction to finish,
+     * so it would wait on that lock forever; a session-level lock avoids the self-deadlock.
+     */
+    @Bean
+    public FlywayConfigurationCustomizer sessionLevelMigrationLock() {
+        return configuration -> configuration.getPluginRegister()
+                .getExact(PostgreSQLConfigurationExtension.class)
+                .setTransactionalLock(false);
+    }
+}
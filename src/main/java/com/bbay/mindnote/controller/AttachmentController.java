@@ -0,0 +1,204 @@
+package com.bbay.mindnote.controller;
+
+import com.bbay.mindnote.dto.AttachmentResponse;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.service.AttachmentService;
+import com.bbay.mindnote.storage.BlobStorage;
+import com.bbay.mindnote.storage.StagedBlob;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/notes/{noteId}/attachments")
+public class AttachmentController {
+
+    private static final Logger logger = LogManager.getLogger(AttachmentController.class);
+
+    // Request attributes that hand the file to Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this, a plain copy is cheaper than handing the socket to the sendfile poller
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    // Types a browser may render in place; everything else is forced to download
+    private static final Set<String> INLINE_TYPES = Set.of(
+            "image/png", "image/jpeg", "image/gif", "image/webp", "application/pdf");
+
+    private final AttachmentService attachmentService;
+    private final BlobStorage blobStorage;
+
+    public AttachmentController(AttachmentService attachmentService, BlobStorage blobStorage) {
+        this.attachmentService = attachmentService;
+        this.blobStorage = blobStorage;
+        logger.info("AttachmentController initialized");
+    }
+
+    /**
+     * Uploads the raw request body (not multipart) as an attachment. The body is streamed to
+     * disk and hashed before the database is touched.
+     */
+    @PostMapping
+    public ResponseEntity<AttachmentResponse> uploadAttachment(
+            @PathVariable Long noteId,
+            @RequestParam String filename,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        logger.info("POST /api/notes/{}/attachments - Receiving {} ({} bytes announced)",
+                noteId, filename, request.getContentLengthLong());
+        StagedBlob blob = blobStorage.receive(request.getInputStream());
+        try {
+            AttachmentResponse attachment = attachmentService.attach(
+                    noteId, sanitizeFilename(filename), normalizeContentType(contentType), blob);
+            logger.info("POST /api/notes/{}/attachments - Stored attachment {} ({})",
+                    noteId, attachment.id(), attachment.sha256());
+            return ResponseEntity.status(HttpStatus.CREATED).body(attachment);
+        } finally {
+            blobStorage.discard(blob);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<AttachmentResponse>> getAttachments(@PathVariable Long noteId) {
+        logger.info("GET /api/notes/{}/attachments - Received request", noteId);
+        List<AttachmentResponse> attachments = attachmentService.getAttachments(noteId);
+        logger.info("GET /api/notes/{}/attachments - Returned {} attachments", noteId, attachments.size());
+        return ResponseEntity.ok(attachments);
+    }
+
+    /**
+     * Sends the attachment bytes without copying them through the JVM: via sendfile when the
+     * connector supports it, otherwise via {@link FileChannel#transferTo}. The content hash is a
+     * strong ETag, so {@code If-None-Match}, {@code Range} and {@code If-Range} all work.
+     */
+    @GetMapping("/{id}")
+    public void downloadAttachment(
+            @PathVariable Long noteId,
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        logger.info("GET /api/notes/{}/attachments/{} - range: {}", noteId, id, range);
+        AttachmentResponse attachment = attachmentService.getAttachment(noteId, id);
+        Path file = blobStorage.pathFor(attachment.sha256());
+        if (!Files.isReadable(file)) {
+            logger.error("Blob {} of attachment {} is missing from storage", attachment.sha256(), id);
+            throw new ResourceNotFoundException("Attachment", id);
+        }
+
+        String etag = "\"" + attachment.sha256() + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        Optional<ByteRange> resolved = ByteRange.resolve(range, ifRange, etag, attachment.size());
+        if (resolved.isEmpty()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, ByteRange.unsatisfiedContentRange(attachment.size()));
+            return;
+        }
+        ByteRange bytes = resolved.get();
+
+        response.setStatus(bytes.partial() ? HttpStatus.PARTIAL_CONTENT.value() : HttpStatus.OK.value());
+        response.setContentType(attachment.contentType());
+        response.setContentLengthLong(bytes.count());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(attachment).toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (bytes.partial()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, bytes.contentRange());
+        }
+        if (bytes.count() == 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        boolean sendfile = Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+                && bytes.count() >= SENDFILE_MIN_SIZE;
+        if (sendfile) {
+            // Tomcat writes the file straight from the page cache to the socket after we return
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, bytes.start());
+            request.setAttribute(SENDFILE_END, bytes.end() + 1);
+        } else {
+            transfer(file, bytes, response);
+        }
+        logger.info("GET /api/notes/{}/attachments/{} - Sent {} of {} bytes via {}",
+                noteId, id, bytes.count(), attachment.size(), sendfile ? "sendfile" : "transferTo");
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long noteId, @PathVariable Long id) {
+        logger.info("DELETE /api/notes/{}/attachments/{} - Received request", noteId, id);
+        attachmentService.deleteAttachment(noteId, id);
+        logger.info("DELETE /api/notes/{}/attachments/{} - Successfully deleted attachment", noteId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // --- Helper Methods ---
+
+    private static void transfer(Path file, ByteRange bytes, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = bytes.start();
+            long remaining = bytes.count();
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static ContentDisposition contentDisposition(AttachmentResponse attachment) {
+        ContentDisposition.Builder builder = INLINE_TYPES.contains(attachment.contentType())
+                ? ContentDisposition.inline()
+                : ContentDisposition.attachment();
+        return builder.filename(attachment.filename(), StandardCharsets.UTF_8).build();
+    }
+
+    private static String sanitizeFilename(String filename) {
+        // Keep only the last path segment of whatever the client sent
+        String name = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1).strip();
+        if (name.isEmpty()) {
+            return "attachment";
+        }
+        return name.length() > 255 ? name.substring(0, 255) : name;
+    }
+
+    private static String normalizeContentType(String contentType) {
+        if (contentType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        try {
+            String type = MediaType.parseMediaType(contentType).toString();
+            return type.length() <= 100 ? type : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } catch (InvalidMediaTypeException ex) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bbay.mindnote.controller;
+
+import org.springframework.http.HttpRange;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The bytes of a representation to send for a request's {@code Range} and {@code If-Range}
+ * headers (RFC 9110). Only single ranges are honoured; anything else gets the full content.
+ *
+ * @param start   first byte, inclusive
+ * @param end     last byte, inclusive
+ * @param length  total size of the representation
+ * @param partial whether this is a 206 response
+ */
+record ByteRange(long start, long end, long length, boolean partial) {
+
+    /**
+     * Resolves the range to send, or empty if the requested range cannot be satisfied (416).
+     */
+    static Optional<ByteRange> resolve(String range, String ifRange, String etag, long length) {
+        ByteRange full = new ByteRange(0, length - 1, length, false);
+        // A stale If-Range validator means the client's partial copy is outdated
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            return Optional.of(full);
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException ex) {
+            return Optional.of(full);
+        }
+        if (ranges.size() != 1) {
+            return Optional.of(full);
+        }
+
+        long start = ranges.getFirst().getRangeStart(length);
+        long end = ranges.getFirst().getRangeEnd(length);
+        if (start >= length || start > end) {
+            return Optional.empty();
+        }
+        return Optional.of(new ByteRange(start, end, length, true));
+    }
+
+    long count() {
+        return end - start + 1;
+    }
+
+    String contentRange() {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+
+    static String unsatisfiedContentRange(long length) {
+        return "bytes */" + length;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bbay.mindnote.controller;
+
+import com.bbay.mindnote.dto.CategoryMoveRequest;
+import com.bbay.mindnote.dto.CategoryRequest;
+import com.bbay.mindnote.dto.CategoryResponse;
+import com.bbay.mindnote.dto.CategoryTreeNode;
+import com.bbay.mindnote.service.CategoryService;
+import jakarta.validation.Valid;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryController {
+
+    private static final Logger logger = LogManager.getLogger(CategoryController.class);
+
+    private final CategoryService categoryService;
+
+    public CategoryController(CategoryService categoryService) {
+        this.categoryService = categoryService;
+        logger.info("CategoryController initialized");
+    }
+
+    @PostMapping
+    public ResponseEntity<CategoryResponse> createCategory(@Valid @RequestBody CategoryRequest request) {
+        logger.info("POST /api/categories - Received request to create category");
+        CategoryResponse created = categoryService.createCategory(request);
+        logger.info("POST /api/categories - Successfully created category with id: {}", created.id());
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<CategoryResponse> moveCategory(@PathVariable Long id,
+                                                         @RequestBody CategoryMoveRequest request) {
+        logger.info("PUT /api/categories/{}/parent - Moving under {}", id, request.parentId());
+        return ResponseEntity.ok(categoryService.moveCategory(id, request.parentId()));
+    }
+
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeNode>> getTree() {
+        return ResponseEntity.ok(categoryService.getTree());
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CategoryResponse>> suggest(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(categoryService.suggest(prefix, limit));
+    }
+}
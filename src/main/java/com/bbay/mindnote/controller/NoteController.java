@@ -1,19 +1,35 @@
 package com.bbay.mindnote.controller;
 
+import com.bbay.mindnote.dto.FacetCount;
+import com.bbay.mindnote.dto.FacetedPage;
+import com.bbay.mindnote.dto.NoteContentInfo;
+import com.bbay.mindnote.dto.NoteHtml;
 import com.bbay.mindnote.dto.NoteRequest;
 import com.bbay.mindnote.dto.NoteResponse;
+import com.bbay.mindnote.dto.PageEnvelope;
+import com.bbay.mindnote.service.NoteContentService;
+import com.bbay.mindnote.service.NoteHtmlService;
 import com.bbay.mindnote.service.NoteService;
 import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/notes")
@@ -22,26 +38,62 @@ public class NoteController {
     private static final Logger logger = LogManager.getLogger(NoteController.class);
 
     private final NoteService noteService;
+    private final NoteContentService noteContentService;
+    private final NoteHtmlService noteHtmlService;
 
-    public NoteController(NoteService noteService) {
+    public NoteController(NoteService noteService, NoteContentService noteContentService,
+                          NoteHtmlService noteHtmlService) {
         this.noteService = noteService;
+        this.noteContentService = noteContentService;
+        this.noteHtmlService = noteHtmlService;
         logger.info("NoteController initialized");
     }
 
+    /**
+     * One page of notes. Only the ids are queried up front; the notes are loaded and written
+     * {@link NoteService#LIST_BATCH_SIZE} at a time, each batch in its own short transaction.
+     * {@code total=false} skips the count query.
+     */
     @GetMapping
-    public ResponseEntity<Page<NoteResponse>> getAllNotes(
+    public ResponseEntity<PageEnvelope<NoteResponse>> getAllNotes(
             @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean recursive,
             @RequestParam(required = false) String tag,
+            @RequestParam(defaultValue = "true") boolean total,
             @PageableDefault(sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable) {
 
-        logger.info("GET /api/notes - Request params: cat={}, tag={}, page={}", category, tag, pageable.getPageNumber());
+        logger.info("GET /api/notes - Request params: cat={}, recursive={}, tag={}, page={}",
+                category, recursive, tag, pageable.getPageNumber());
 
-        Page<NoteResponse> notes = noteService.getAllNotes(category, tag, pageable);
+        PageEnvelope<NoteResponse> notes = noteService.getNoteIds(category, tag, recursive, total, pageable)
+                .mapInBatches(NoteService.LIST_BATCH_SIZE, noteService::getNotesByIds);
 
-        logger.info("GET /api/notes - Returned {} notes", notes.getNumberOfElements());
+        logger.info("GET /api/notes - Streaming page {} (next: {}, total: {})", notes.page(), notes.next(), notes.total());
         return ResponseEntity.ok(notes);
     }
 
+    /**
+     * Same list with facet counts, e.g. {@code ?facets=category,tag&facetLimit=10}.
+     */
+    @GetMapping(params = "facets")
+    public ResponseEntity<FacetedPage<NoteResponse>> getAllNotesWithFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean recursive,
+            @RequestParam(required = false) String tag,
+            @RequestParam Set<String> facets,
+            @RequestParam(defaultValue = "10") int facetLimit,
+            @RequestParam(defaultValue = "true") boolean total,
+            @PageableDefault(sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable) {
+
+        logger.info("GET /api/notes - Request params: cat={}, recursive={}, tag={}, facets={}, page={}",
+                category, recursive, tag, facets, pageable.getPageNumber());
+        // Facets first: an unknown facet is rejected before anything is streamed
+        Map<String, List<FacetCount>> counts = noteService.getNoteFacets(category, tag, recursive, facets, facetLimit);
+        PageEnvelope<NoteResponse> notes = noteService.getNoteIds(category, tag, recursive, total, pageable)
+                .mapInBatches(NoteService.LIST_BATCH_SIZE, noteService::getNotesByIds);
+        return ResponseEntity.ok(new FacetedPage<>(notes, counts));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<NoteResponse> getNoteById(@PathVariable Long id) {
         logger.info("GET /api/notes/{} - Received request to fetch note by id", id);
@@ -50,6 +102,79 @@ public class NoteController {
         return ResponseEntity.ok(note);
     }
 
+    /**
+     * Streams the raw content as UTF-8 text, fetched from the database in chunks. Supports a
+     * single byte range ({@code Range: bytes=start-end}, guarded by {@code If-Range}); multiple
+     * ranges are answered with the full content.
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getNoteContent(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        logger.info("GET /api/notes/{}/content - range: {}", id, range);
+        NoteContentInfo info = noteContentService.getContentInfo(id);
+        String etag = contentEtag(info);
+        long length = info.length();
+
+        Optional<ByteRange> resolved = ByteRange.resolve(range, ifRange, etag, length);
+        if (resolved.isEmpty()) {
+            logger.warn("GET /api/notes/{}/content - Unsatisfiable range {} for {} bytes", id, range, length);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, ByteRange.unsatisfiedContentRange(length))
+                    .build();
+        }
+        ByteRange bytes = resolved.get();
+
+        long first = bytes.start();
+        long count = bytes.count();
+        StreamingResponseBody body = outputStream -> {
+            for (long offset = first; offset < first + count; offset += NoteContentService.CHUNK_SIZE) {
+                int chunkLength = (int) Math.min(NoteContentService.CHUNK_SIZE, first + count - offset);
+                outputStream.write(noteContentService.readContent(info, offset, chunkLength));
+                outputStream.flush();
+            }
+        };
+
+        HttpStatus status = bytes.partial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .contentLength(count)
+                .eTag(etag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (bytes.partial()) {
+            response.header(HttpHeaders.CONTENT_RANGE, bytes.contentRange());
+        }
+        logger.info("GET /api/notes/{}/content - Streaming {} of {} bytes", id, count, length);
+        return response.body(body);
+    }
+
+    /**
+     * The content rendered from markdown to HTML. The ETag is the content hash, so it survives
+     * title and tag edits and {@code If-None-Match} revalidation costs a single small query.
+     */
+    @GetMapping("/{id}/html")
+    public ResponseEntity<StreamingResponseBody> getNoteHtml(@PathVariable Long id, WebRequest webRequest) {
+        logger.info("GET /api/notes/{}/html - Received request to fetch rendered note", id);
+        NoteHtml html = noteHtmlService.getHtml(id);
+        String hash = html.source().contentHash();
+        String etag = hash != null ? "\"" + hash + "\"" : null;
+        // Also sets the ETag header on the response, whether or not it matched
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            logger.info("GET /api/notes/{}/html - Not modified", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
+        if (html.cached() != null) {
+            // Known length only when cached; a fresh rendering goes out chunked
+            response.contentLength(html.cached().length);
+        }
+        logger.info("GET /api/notes/{}/html - Serving {} rendering", id, html.cached() != null ? "cached" : "fresh");
+        return response.body(outputStream -> noteHtmlService.writeHtml(html, outputStream));
+    }
+
     @PostMapping
     public ResponseEntity<NoteResponse> createNote(@Valid @RequestBody NoteRequest request) {
         logger.info("POST /api/notes - Received request to create note");
@@ -77,4 +202,12 @@ public class NoteController {
         logger.info("DELETE /api/notes/{} - Successfully deleted note", id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Strong validator for the content bytes: they change exactly when the note's updatedAt does.
+     */
+    private static String contentEtag(NoteContentInfo info) {
+        long micros = info.updatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000 + info.updatedAt().getNano() / 1_000;
+        return "\"" + info.noteId() + "-" + Long.toHexString(micros) + "\"";
+    }
 }
@@ -0,0 +1,43 @@
+package com.bbay.mindnote.controller;
+
+import com.bbay.mindnote.dto.NoteGraphResponse;
+import com.bbay.mindnote.dto.NoteTitle;
+import com.bbay.mindnote.service.NoteLinkService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notes/{id}")
+public class NoteLinkController {
+
+    private static final Logger logger = LogManager.getLogger(NoteLinkController.class);
+
+    private final NoteLinkService linkService;
+
+    public NoteLinkController(NoteLinkService linkService) {
+        this.linkService = linkService;
+        logger.info("NoteLinkController initialized");
+    }
+
+    @GetMapping("/backlinks")
+    public ResponseEntity<List<NoteTitle>> getBacklinks(@PathVariable Long id) {
+        logger.info("GET /api/notes/{}/backlinks - Received request", id);
+        List<NoteTitle> backlinks = linkService.getBacklinks(id);
+        logger.info("GET /api/notes/{}/backlinks - Returned {} notes", id, backlinks.size());
+        return ResponseEntity.ok(backlinks);
+    }
+
+    @GetMapping("/graph")
+    public ResponseEntity<NoteGraphResponse> getGraph(@PathVariable Long id,
+                                                      @RequestParam(defaultValue = "1") int depth) {
+        logger.info("GET /api/notes/{}/graph - depth={}", id, depth);
+        NoteGraphResponse graph = linkService.getGraph(id, depth);
+        logger.info("GET /api/notes/{}/graph - Returned {} nodes and {} links",
+                id, graph.nodes().size(), graph.edges().size());
+        return ResponseEntity.ok(graph);
+    }
+}
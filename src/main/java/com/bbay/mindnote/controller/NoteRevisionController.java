@@ -0,0 +1,46 @@
+package com.bbay.mindnote.controller;
+
+import com.bbay.mindnote.dto.NoteRevisionResponse;
+import com.bbay.mindnote.dto.NoteRevisionSummary;
+import com.bbay.mindnote.dto.PageEnvelope;
+import com.bbay.mindnote.service.NoteRevisionService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/notes/{noteId}/revisions")
+public class NoteRevisionController {
+
+    private static final Logger logger = LogManager.getLogger(NoteRevisionController.class);
+
+    private final NoteRevisionService revisionService;
+
+    public NoteRevisionController(NoteRevisionService revisionService) {
+        this.revisionService = revisionService;
+        logger.info("NoteRevisionController initialized");
+    }
+
+    @GetMapping
+    public ResponseEntity<PageEnvelope<NoteRevisionSummary>> getRevisions(
+            @PathVariable Long noteId,
+            @PageableDefault(sort = "revision", direction = Sort.Direction.DESC) Pageable pageable) {
+        logger.info("GET /api/notes/{}/revisions - page={}", noteId, pageable.getPageNumber());
+        Page<NoteRevisionSummary> revisions = revisionService.getRevisions(noteId, pageable);
+        logger.info("GET /api/notes/{}/revisions - Returned {} revisions", noteId, revisions.getNumberOfElements());
+        return ResponseEntity.ok(PageEnvelope.of(revisions));
+    }
+
+    @GetMapping("/{revision}")
+    public ResponseEntity<NoteRevisionResponse> getRevision(@PathVariable Long noteId, @PathVariable int revision) {
+        logger.info("GET /api/notes/{}/revisions/{} - Received request", noteId, revision);
+        NoteRevisionResponse response = revisionService.getRevision(noteId, revision);
+        logger.info("GET /api/notes/{}/revisions/{} - Successfully returned revision", noteId, revision);
+        return ResponseEntity.ok(response);
+    }
+}
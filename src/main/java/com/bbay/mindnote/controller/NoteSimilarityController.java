@@ -0,0 +1,45 @@
+package com.bbay.mindnote.controller;
+
+import com.bbay.mindnote.dto.DuplicateNotesResponse;
+import com.bbay.mindnote.dto.SimilarNoteResponse;
+import com.bbay.mindnote.service.NoteSimilarityService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notes")
+public class NoteSimilarityController {
+
+    private static final Logger logger = LogManager.getLogger(NoteSimilarityController.class);
+
+    private final NoteSimilarityService similarityService;
+
+    public NoteSimilarityController(NoteSimilarityService similarityService) {
+        this.similarityService = similarityService;
+        logger.info("NoteSimilarityController initialized");
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarNoteResponse>> getSimilarNotes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        logger.info("GET /api/notes/{}/similar - limit={}", id, limit);
+        List<SimilarNoteResponse> similar = similarityService.findSimilar(id, limit);
+        logger.info("GET /api/notes/{}/similar - Returned {} notes", id, similar.size());
+        return ResponseEntity.ok(similar);
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<List<DuplicateNotesResponse>> getDuplicateNotes(
+            @RequestParam(required = false) Double threshold,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("GET /api/notes/duplicates - threshold={}, limit={}", threshold, limit);
+        List<DuplicateNotesResponse> duplicates = similarityService.findDuplicates(threshold, limit);
+        logger.info("GET /api/notes/duplicates - Returned {} pairs", duplicates.size());
+        return ResponseEntity.ok(duplicates);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bbay.mindnote.controller;
+
+import com.bbay.mindnote.dto.TagResponse;
+import com.bbay.mindnote.service.TagService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tags")
+public class TagController {
+
+    private static final Logger logger = LogManager.getLogger(TagController.class);
+
+    private final TagService tagService;
+
+    public TagController(TagService tagService) {
+        this.tagService = tagService;
+        logger.info("TagController initialized");
+    }
+
+    /**
+     * Lists tags with their note/task counts. {@code sort=usage} returns the most used first,
+     * anything else sorts by name; {@code prefix} narrows the result for autocomplete.
+     */
+    @GetMapping
+    public ResponseEntity<List<TagResponse>> getTags(
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        logger.info("GET /api/tags - Request params: sort={}, prefix={}, limit={}", sort, prefix, limit);
+        List<TagResponse> tags = tagService.getTags("usage".equalsIgnoreCase(sort), prefix, limit);
+        logger.info("GET /api/tags - Returned {} tags", tags.size());
+        return ResponseEntity.ok(tags);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TagResponse>> suggest(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(tagService.suggest(prefix, limit));
+    }
+}
@@ -1,18 +1,28 @@
 package com.bbay.mindnote.controller;
 
+import com.bbay.mindnote.dto.AgendaResponse;
+import com.bbay.mindnote.dto.FacetCount;
+import com.bbay.mindnote.dto.FacetedPage;
+import com.bbay.mindnote.dto.PageEnvelope;
 import com.bbay.mindnote.dto.TaskRequest;
 import com.bbay.mindnote.dto.TaskResponse;
 import com.bbay.mindnote.entity.TaskStatus;
 import com.bbay.mindnote.service.TaskService;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
@@ -23,15 +33,81 @@ public class TaskController {
         this.taskService = taskService;
     }
 
+    /**
+     * One page of tasks, loaded and written {@link TaskService#LIST_BATCH_SIZE} at a time after
+     * a query for the ids. {@code total=false} skips the count query.
+     */
     @GetMapping
-    public ResponseEntity<Page<TaskResponse>> getAllTasks(
+    public ResponseEntity<PageEnvelope<TaskResponse>> getAllTasks(
             @RequestParam(required = false) TaskStatus status,
             @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") boolean recursive,
             @RequestParam(required = false) String tag,
             @RequestParam(required = false) Long noteId,
+            @RequestParam(defaultValue = "true") boolean total,
             @PageableDefault(size = 20, sort = "dueDate", direction = Sort.Direction.ASC) Pageable pageable) {
-        
-        return ResponseEntity.ok(taskService.getAllTasks(status, categoryId, tag, noteId, pageable));
+
+        return ResponseEntity.ok(taskService.getTaskIds(status, categoryId, recursive, tag, noteId, total, pageable)
+                .mapInBatches(TaskService.LIST_BATCH_SIZE, taskService::getTasksByIds));
+    }
+
+    @GetMapping(params = "facets")
+    public ResponseEntity<FacetedPage<TaskResponse>> getAllTasksWithFacets(
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") boolean recursive,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) Long noteId,
+            @RequestParam Set<String> facets,
+            @RequestParam(defaultValue = "10") int facetLimit,
+            @RequestParam(defaultValue = "true") boolean total,
+            @PageableDefault(size = 20, sort = "dueDate", direction = Sort.Direction.ASC) Pageable pageable) {
+
+        // Facets first: an unknown facet is rejected before anything is streamed
+        Map<String, List<FacetCount>> counts = taskService.getTaskFacets(
+                status, categoryId, recursive, tag, noteId, facets, facetLimit);
+        PageEnvelope<TaskResponse> tasks = taskService.getTaskIds(status, categoryId, recursive, tag, noteId, total, pageable)
+                .mapInBatches(TaskService.LIST_BATCH_SIZE, taskService::getTasksByIds);
+        return ResponseEntity.ok(new FacetedPage<>(tasks, counts));
+    }
+
+    /**
+     * Tasks due in {@code [dueFrom, dueTo)} by due date, with recurring tasks expanded into their
+     * occurrences in that window (at most 366 days).
+     */
+    @GetMapping(params = {"dueFrom", "dueTo"})
+    public ResponseEntity<PageEnvelope<TaskResponse>> getTasksDueBetween(
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") boolean recursive,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) Long noteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+            @PageableDefault(size = 20) Pageable pageable) {
+
+        return ResponseEntity.ok(PageEnvelope.of(taskService.getTasksDueBetween(
+                status, categoryId, recursive, tag, noteId, dueFrom, dueTo, pageable)));
+    }
+
+    /**
+     * Tasks due from {@code from} to {@code to} (inclusive, at most 366 days) grouped by day or
+     * week, with a count and the first {@code limit} tasks per bucket.
+     */
+    @GetMapping("/agenda")
+    public ResponseEntity<AgendaResponse> getAgenda(
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") boolean recursive,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) Long noteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        return ResponseEntity.ok(taskService.getAgenda(
+                status, categoryId, recursive, tag, noteId, from, to, bucket, limit));
     }
 
     @GetMapping("/{id}")
@@ -49,6 +125,18 @@ public class TaskController {
         return ResponseEntity.ok(taskService.updateTask(id, request));
     }
 
+    /**
+     * Edits or completes one occurrence of a recurring task, e.g.
+     * {@code PUT /api/tasks/5/occurrences/2025-03-10T09:00:00}.
+     */
+    @PutMapping("/{id}/occurrences/{occurrence}")
+    public ResponseEntity<TaskResponse> updateOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime occurrence,
+            @Valid @RequestBody TaskRequest request) {
+        return ResponseEntity.ok(taskService.updateOccurrence(id, occurrence, request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
         taskService.deleteTask(id);
@@ -0,0 +1,53 @@
+package com.bbay.mindnote.controller;
+
+import com.bbay.mindnote.dto.PageEnvelope;
+import com.bbay.mindnote.dto.TaskScheduleResponse;
+import com.bbay.mindnote.dto.TaskSummary;
+import com.bbay.mindnote.service.TaskDependencyService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tasks")
+public class TaskDependencyController {
+
+    private final TaskDependencyService dependencyService;
+
+    public TaskDependencyController(TaskDependencyService dependencyService) {
+        this.dependencyService = dependencyService;
+    }
+
+    @GetMapping("/{id}/blockers")
+    public ResponseEntity<List<TaskSummary>> getBlockers(@PathVariable Long id) {
+        return ResponseEntity.ok(dependencyService.getBlockers(id));
+    }
+
+    @PutMapping("/{id}/blockers/{blockerId}")
+    public ResponseEntity<Void> addBlocker(@PathVariable Long id, @PathVariable Long blockerId) {
+        dependencyService.addBlocker(id, blockerId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/blockers/{blockerId}")
+    public ResponseEntity<Void> removeBlocker(@PathVariable Long id, @PathVariable Long blockerId) {
+        dependencyService.removeBlocker(id, blockerId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Ordered by id: the ready set is kept in memory and paged there
+    @GetMapping("/ready")
+    public ResponseEntity<PageEnvelope<TaskSummary>> getReadyTasks(
+            @RequestParam(required = false) Long categoryId,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(PageEnvelope.of(dependencyService.getReadyTasks(categoryId, pageable)));
+    }
+
+    @GetMapping("/critical-path")
+    public ResponseEntity<TaskScheduleResponse> getSchedule(@RequestParam Long categoryId) {
+        return ResponseEntity.ok(dependencyService.getSchedule(categoryId));
+    }
+}
@@ -0,0 +1,18 @@
+package com.bbay.mindnote.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Tasks due in one day or week of an agenda.
+ *
+ * @param start the day, or the Monday of the week
+ * @param count all tasks due in the bucket
+ * @param tasks the first of them by due date, at most the requested limit
+ */
+public record AgendaBucket(
+        LocalDate start,
+        long count,
+        List<TaskResponse> tasks
+) {
+}
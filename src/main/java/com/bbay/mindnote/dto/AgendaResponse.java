@@ -0,0 +1,16 @@
+package com.bbay.mindnote.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Tasks due from {@code from} to {@code to} (both inclusive), grouped by day or week. Buckets
+ * without tasks are left out.
+ */
+public record AgendaResponse(
+        LocalDate from,
+        LocalDate to,
+        String bucket,
+        List<AgendaBucket> buckets
+) {
+}
@@ -0,0 +1,17 @@
+package com.bbay.mindnote.dto;
+
+import java.time.LocalDateTime;
+
+public record AttachmentResponse(
+        Long id,
+        Long noteId,
+        String filename,
+        String contentType,
+        long size,
+
+        // SHA-256 of the content; also the download's ETag
+        String sha256,
+
+        LocalDateTime createdAt
+) {
+}
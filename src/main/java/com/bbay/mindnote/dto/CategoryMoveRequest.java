@@ -0,0 +1,7 @@
+package com.bbay.mindnote.dto;
+
+public record CategoryMoveRequest(
+        // New parent; null moves the category to the top level
+        Long parentId
+) {
+}
@@ -0,0 +1,14 @@
+package com.bbay.mindnote.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record CategoryRequest(
+        @NotBlank(message = "Name is required")
+        @Size(max = 50, message = "Name must be at most 50 characters")
+        String name,
+
+        // Optional: creates a root category when null
+        Long parentId
+) {
+}
@@ -0,0 +1,8 @@
+package com.bbay.mindnote.dto;
+
+public record CategoryResponse(
+        Long id,
+        String name,
+        Long parentId
+) {
+}
@@ -0,0 +1,10 @@
+package com.bbay.mindnote.dto;
+
+import java.util.List;
+
+public record CategoryTreeNode(
+        Long id,
+        String name,
+        List<CategoryTreeNode> children
+) {
+}
@@ -0,0 +1,8 @@
+package com.bbay.mindnote.dto;
+
+public record DuplicateNotesResponse(
+        NoteTitle note,
+        NoteTitle duplicate,
+        double similarity
+) {
+}
@@ -0,0 +1,7 @@
+package com.bbay.mindnote.dto;
+
+public record FacetCount(
+        String value,
+        long count
+) {
+}
@@ -0,0 +1,14 @@
+package com.bbay.mindnote.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A result page plus, per requested facet, the most frequent values among all matching results
+ * (not just the page), ordered by count.
+ */
+public record FacetedPage<T>(
+        PageEnvelope<T> page,
+        Map<String, List<FacetCount>> facets
+) {
+}
@@ -0,0 +1,31 @@
+package com.bbay.mindnote.dto;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDateTime;
+
+/**
+ * What is stored under an {@code Idempotency-Key}: the response of the first request, or only
+ * the claim while that request is still executing.
+ */
+public record IdempotentResponse(
+        // SHA-256 of the request body the key was first used with
+        String requestHash,
+
+        // null while the original request is still executing
+        Integer status,
+
+        HttpHeaders headers,
+        byte[] body,
+
+        // When the claim was taken; identifies it when the response is stored
+        LocalDateTime claimedAt,
+
+        // End of the claim while executing, end of the TTL once completed
+        LocalDateTime expiresAt
+) {
+
+    public boolean completed() {
+        return status != null;
+    }
+}
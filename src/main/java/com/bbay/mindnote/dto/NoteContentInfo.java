@@ -0,0 +1,14 @@
+package com.bbay.mindnote.dto;
+
+import java.time.LocalDateTime;
+
+public record NoteContentInfo(
+        Long noteId,
+
+        // Size of the UTF-8 encoded content in bytes (0 if the note has no content)
+        long length,
+
+        // Identifies the version being streamed; chunk reads only match this version
+        LocalDateTime updatedAt
+) {
+}
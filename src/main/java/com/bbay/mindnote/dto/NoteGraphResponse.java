@@ -0,0 +1,13 @@
+package com.bbay.mindnote.dto;
+
+import java.util.List;
+
+public record NoteGraphResponse(
+        Long rootId,
+        int depth,
+        List<NoteTitle> nodes,
+        List<NoteLinkEdge> edges,
+        // True when the node limit stopped the walk before the requested depth was covered
+        boolean truncated
+) {
+}
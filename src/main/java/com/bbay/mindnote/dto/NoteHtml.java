@@ -0,0 +1,13 @@
+package com.bbay.mindnote.dto;
+
+/**
+ * Rendered HTML of a note: either taken from the cache, or still to be rendered from
+ * {@code source} while it is written to the response.
+ */
+public record NoteHtml(
+        NoteHtmlSource source,
+
+        // null on a cache miss
+        byte[] cached
+) {
+}
@@ -0,0 +1,21 @@
+package com.bbay.mindnote.dto;
+
+import java.time.LocalDateTime;
+
+public record NoteHtmlSource(
+        Long noteId,
+
+        // SHA-256 of the UTF-8 content; null only for rows written outside the application
+        String contentHash,
+
+        // Size of the UTF-8 encoded content in bytes (0 if the note has no content)
+        long length,
+
+        // Version the hash belongs to; content is only streamed from this version
+        LocalDateTime updatedAt
+) {
+
+    public NoteContentInfo contentInfo() {
+        return new NoteContentInfo(noteId, length, updatedAt);
+    }
+}
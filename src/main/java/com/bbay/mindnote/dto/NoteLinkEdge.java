@@ -0,0 +1,7 @@
+package com.bbay.mindnote.dto;
+
+public record NoteLinkEdge(
+        Long sourceId,
+        Long targetId
+) {
+}
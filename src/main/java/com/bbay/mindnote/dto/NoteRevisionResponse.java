@@ -0,0 +1,12 @@
+package com.bbay.mindnote.dto;
+
+import java.time.LocalDateTime;
+
+public record NoteRevisionResponse(
+        Long noteId,
+        int revision,
+        String title,
+        String content,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,20 @@
+package com.bbay.mindnote.dto;
+
+import com.bbay.mindnote.entity.RevisionKind;
+
+import java.time.LocalDateTime;
+
+public record NoteRevisionSummary(
+        int revision,
+        String title,
+
+        // Length of the content in characters (null if the revision had no content)
+        Integer contentLength,
+
+        // How the revision is stored: full snapshot or delta against the previous one
+        RevisionKind storage,
+        int storedBytes,
+
+        LocalDateTime createdAt
+) {
+}
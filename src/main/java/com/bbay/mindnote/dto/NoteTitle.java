@@ -0,0 +1,7 @@
+package com.bbay.mindnote.dto;
+
+public record NoteTitle(
+        Long id,
+        String title
+) {
+}
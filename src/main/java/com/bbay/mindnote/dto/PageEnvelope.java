@@ -0,0 +1,89 @@
+package com.bbay.mindnote.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * One page of a list response: the items, the page number and size, the number of the next page
+ * ({@code null} on the last one) and, when it was counted, the total number of matches. Replaces
+ * Spring's {@code Page} in responses, whose serialized form (pageable, sort, ...) is verbose and
+ * not a stable API.
+ * <p>
+ * {@code items} is only iterated while the response is written, so it can be a lazy view (see
+ * {@link #mapInBatches}) instead of a list held in memory.
+ */
+public record PageEnvelope<T>(
+        Iterable<T> items,
+        int page,
+        int size,
+        Integer next,
+
+        // Omitted when the client asked not to count
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long total
+) {
+
+    public static <T> PageEnvelope<T> of(Page<T> page) {
+        return new PageEnvelope<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.hasNext() ? page.getNumber() + 1 : null, page.getTotalElements());
+    }
+
+    /**
+     * Envelope for a slice, counting the matches only when {@code count} is given and the slice
+     * does not already tell the total (a last page that is not empty, or an empty first page).
+     */
+    public static <T> PageEnvelope<T> of(Slice<T> slice, LongSupplier count) {
+        Long total = null;
+        if (count != null) {
+            long offset = (long) slice.getNumber() * slice.getSize();
+            total = !slice.hasNext() && (slice.hasContent() || offset == 0)
+                    ? offset + slice.getNumberOfElements()
+                    : count.getAsLong();
+        }
+        return new PageEnvelope<>(slice.getContent(), slice.getNumber(), slice.getSize(),
+                slice.hasNext() ? slice.getNumber() + 1 : null, total);
+    }
+
+    /**
+     * The same page with items produced by {@code loader}, {@code batchSize} at a time, as the
+     * response is written. Each batch is loaded, written and dropped before the next one, so
+     * memory and time to first byte depend on the batch size rather than the page size. Items
+     * the loader no longer returns (deleted in the meantime) are left out.
+     */
+    public <R> PageEnvelope<R> mapInBatches(int batchSize, Function<List<T>, List<R>> loader) {
+        if (!(items instanceof List<T> keys)) {
+            throw new IllegalStateException("Only a page of loaded keys can be mapped in batches");
+        }
+        Iterable<R> mapped = () -> new Iterator<>() {
+            private int nextKey;
+            private Iterator<R> batch = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!batch.hasNext() && nextKey < keys.size()) {
+                    List<T> batchKeys = keys.subList(nextKey, Math.min(nextKey + batchSize, keys.size()));
+                    nextKey += batchKeys.size();
+                    batch = loader.apply(batchKeys).iterator();
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
+        return new PageEnvelope<>(mapped, page, size, next, total);
+    }
+}
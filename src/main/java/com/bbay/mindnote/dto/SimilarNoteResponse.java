@@ -0,0 +1,9 @@
+package com.bbay.mindnote.dto;
+
+public record SimilarNoteResponse(
+        Long id,
+        String title,
+        // Estimated Jaccard similarity of the word shingles, 0..1
+        double similarity
+) {
+}
@@ -0,0 +1,9 @@
+package com.bbay.mindnote.dto;
+
+public record TagResponse(
+        Long id,
+        String name,
+        long noteCount,
+        long taskCount
+) {
+}
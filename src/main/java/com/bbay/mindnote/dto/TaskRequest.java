@@ -17,7 +17,10 @@ public record TaskRequest(
         
         Long categoryId,
         Set<String> tags,
-        Long noteId 
+        Long noteId,
+
+        // RRULE subset, e.g. FREQ=WEEKLY;BYDAY=MO,TH; needs a dueDate, which is the first occurrence
+        String recurrence
 ) {
     public TaskRequest {
         if (tags == null) tags = Set.of();
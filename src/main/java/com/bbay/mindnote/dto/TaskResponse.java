@@ -13,6 +13,10 @@ public record TaskResponse(
         TaskPriority priority,
         LocalDateTime dueDate,
         LocalDateTime completedAt,
+        String recurrence,
+        // Occurrences of a series (expanded or edited) carry the series id and their original date
+        Long seriesId,
+        LocalDateTime occurrenceDate,
         Long categoryId,
         String categoryName,
         Set<String> tags,
@@ -0,0 +1,12 @@
+package com.bbay.mindnote.dto;
+
+import java.util.List;
+
+public record TaskScheduleResponse(
+        Long categoryId,
+        // Open tasks of the category, every task after the tasks blocking it
+        List<TaskSummary> order,
+        // Longest chain of open tasks blocking one another, first to last
+        List<TaskSummary> criticalPath
+) {
+}
@@ -0,0 +1,15 @@
+package com.bbay.mindnote.dto;
+
+import com.bbay.mindnote.entity.TaskPriority;
+import com.bbay.mindnote.entity.TaskStatus;
+
+import java.time.LocalDateTime;
+
+public record TaskSummary(
+        Long id,
+        String title,
+        TaskStatus status,
+        TaskPriority priority,
+        LocalDateTime dueDate
+) {
+}
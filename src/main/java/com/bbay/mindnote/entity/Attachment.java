@@ -0,0 +1,83 @@
+package com.bbay.mindnote.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A file attached to a note. The bytes are stored once per distinct content, in the blob
+ * identified by {@code blobHash}.
+ */
+@Entity
+@Table(name = "attachments")
+public class Attachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "note_id", nullable = false, updatable = false)
+    private Long noteId;
+
+    // SHA-256 of the content, hex encoded
+    @Column(name = "blob_hash", nullable = false, updatable = false, length = 64)
+    private String blobHash;
+
+    @Column(nullable = false, length = 255)
+    private String filename;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false, updatable = false)
+    private long size;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public Attachment() {
+    }
+
+    public Attachment(Long noteId, String blobHash, String filename, String contentType, long size) {
+        this.noteId = noteId;
+        this.blobHash = blobHash;
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    // Lifecycle Hooks
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public String getBlobHash() {
+        return blobHash;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
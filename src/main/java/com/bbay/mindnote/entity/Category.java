@@ -1,11 +1,13 @@
 package com.bbay.mindnote.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@BatchSize(size = 100)
 @Table(name = "categories")
 public class Category {
 
@@ -16,6 +18,17 @@ public class Category {
     @Column(nullable = false, unique = true, length = 50)
     private String name;
 
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    // Materialized path of ids from the root down to this category, e.g. "/3/17/42/"
+    @Column(nullable = false, length = 1024)
+    private String path;
+
+    // Number of ancestors; 0 for a root category
+    @Column(nullable = false)
+    private int depth;
+
     // Inverse side of the relationship
     // This field won't be saved directly; persistence is handled by the 'category' field in Note
     @OneToMany(mappedBy = "category")
@@ -64,6 +77,30 @@ public class Category {
         this.name = name;
     }
 
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
     public List<Note> getNotes() {
         return notes;
     }
@@ -87,4 +124,4 @@ public class Category {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+}
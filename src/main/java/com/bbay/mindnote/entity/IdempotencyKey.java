@@ -0,0 +1,103 @@
+package com.bbay.mindnote.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Stored outcome of a request sent with an {@code Idempotency-Key}. Written by conditional
+ * statements in IdempotencyKeyRepository, so this mapping is only used for reads.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyKey.ScopedKey.class)
+public class IdempotencyKey {
+
+    @Id
+    @Column(length = 100)
+    private String scope;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    // SHA-256 of the request body, hex encoded
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // null while the original request is still executing
+    private Integer status;
+
+    @Column(columnDefinition = "TEXT")
+    private String headers;
+
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyKey() {
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public static class ScopedKey implements Serializable {
+
+        private String scope;
+        private String idempotencyKey;
+
+        public ScopedKey() {
+        }
+
+        public ScopedKey(String scope, String idempotencyKey) {
+            this.scope = scope;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ScopedKey other
+                    && Objects.equals(scope, other.scope)
+                    && Objects.equals(idempotencyKey, other.idempotencyKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, idempotencyKey);
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.bbay.mindnote.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@BatchSize(size = 100)
+@SQLRestriction("deleted_at IS NULL")
 @Table(name = "notes")
 public class Note {
 
+    /**
+     * Notes whose UTF-8 content is at least this large also keep it in {@code content_bytes}, so
+     * it can be streamed in windows (see V14__note_content_bytes.sql).
+     */
+    public static final int LARGE_CONTENT_BYTES = 1024 * 1024;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,6 +29,10 @@ public class Note {
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // SHA-256 of the UTF-8 content, hex encoded; keys the rendered HTML cache
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     // --- New Relationships ---
 
     // 1. Category: Many Notes -> One Category
@@ -28,6 +42,7 @@ public class Note {
 
     // 2. Tags: Many Notes <-> Many Tags
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "note_tags",
             joinColumns = @JoinColumn(name = "note_id"),
@@ -43,6 +58,10 @@ public class Note {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Set by NoteService.deleteNote; the row is hard-deleted later by SoftDeletePurger
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
     public Note() {
     }
 
@@ -104,6 +123,14 @@ public class Note {
         this.content = content;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Category getCategory() {
         return category;
     }
@@ -135,4 +162,8 @@ public class Note {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
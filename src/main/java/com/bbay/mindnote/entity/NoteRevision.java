@@ -0,0 +1,127 @@
+package com.bbay.mindnote.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One saved state of a note. SNAPSHOT rows hold the full UTF-8 content; DELTA rows hold a
+ * {@code DeltaCodec} delta against {@code baseRevision}.
+ */
+@Entity
+@Table(name = "note_revisions")
+public class NoteRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "note_id", nullable = false, updatable = false)
+    private Long noteId;
+
+    @Column(nullable = false, updatable = false)
+    private int revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RevisionKind kind;
+
+    @Column(name = "base_revision")
+    private Integer baseRevision;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    // Character length of the content, null when the note had no content
+    @Column(name = "content_length")
+    private Integer contentLength;
+
+    @Column(nullable = false)
+    private byte[] payload;
+
+    // Kept alongside the payload so listings never have to read it
+    @Column(name = "payload_size", nullable = false)
+    private int payloadSize;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public NoteRevision() {
+    }
+
+    public NoteRevision(Long noteId, int revision, String title, Integer contentLength) {
+        this.noteId = noteId;
+        this.revision = revision;
+        this.title = title;
+        this.contentLength = contentLength;
+    }
+
+    // Lifecycle Hooks
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public RevisionKind getKind() {
+        return kind;
+    }
+
+    public Integer getBaseRevision() {
+        return baseRevision;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Stores the full content; a snapshot has no base revision.
+     */
+    public void setSnapshot(byte[] content) {
+        this.kind = RevisionKind.SNAPSHOT;
+        this.baseRevision = null;
+        this.payload = content;
+        this.payloadSize = content.length;
+    }
+
+    /**
+     * Stores a delta that turns {@code baseRevision}'s content into this revision's.
+     */
+    public void setDelta(int baseRevision, byte[] delta) {
+        this.kind = RevisionKind.DELTA;
+        this.baseRevision = baseRevision;
+        this.payload = delta;
+        this.payloadSize = delta.length;
+    }
+}
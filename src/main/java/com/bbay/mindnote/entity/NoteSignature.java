@@ -0,0 +1,38 @@
+package com.bbay.mindnote.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * MinHash signature of a note's content. Written by native upserts in
+ * NoteSignatureRepository, so this mapping is only used for reads.
+ */
+@Entity
+@Table(name = "note_signatures")
+public class NoteSignature {
+
+    @Id
+    @Column(name = "note_id")
+    private Long noteId;
+
+    @Column(nullable = false)
+    private byte[] signature;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public NoteSignature() {
+    }
+
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public byte[] getSignature() {
+        return signature;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
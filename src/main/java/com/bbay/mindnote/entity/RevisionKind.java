@@ -0,0 +1,6 @@
+package com.bbay.mindnote.entity;
+
+public enum RevisionKind {
+    SNAPSHOT,
+    DELTA
+}
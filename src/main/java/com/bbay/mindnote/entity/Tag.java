@@ -20,6 +20,13 @@ public class Tag {
     @ManyToMany(mappedBy = "tags")
     private Set<Note> notes = new HashSet<>();
 
+    // Denormalized usage counters, maintained by TagService whenever a tag set changes
+    @Column(name = "note_count", nullable = false)
+    private long noteCount = 0;
+
+    @Column(name = "task_count", nullable = false)
+    private long taskCount = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -71,6 +78,22 @@ public class Tag {
         this.notes = notes;
     }
 
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount = taskCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
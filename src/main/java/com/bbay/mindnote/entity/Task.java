@@ -1,11 +1,15 @@
 package com.bbay.mindnote.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@SQLRestriction("deleted_at IS NULL")
 @Table(name = "tasks")
 public class Task {
 
@@ -33,6 +37,20 @@ public class Task {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    // --- Recurrence (see RecurrenceRule) ---
+
+    // RRULE of a recurring series; dueDate is its first occurrence
+    @Column(name = "recurrence")
+    private String recurrence;
+
+    // Set on an occurrence that was edited or completed: the series it belongs to and the
+    // occurrence it replaces
+    @Column(name = "recurrence_parent_id")
+    private Long recurrenceParentId;
+
+    @Column(name = "occurrence_date")
+    private LocalDateTime occurrenceDate;
+
     // --- Relationships ---
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,6 +58,7 @@ public class Task {
     private Category category;
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(
         name = "task_tags",
         joinColumns = @JoinColumn(name = "task_id"),
@@ -52,6 +71,11 @@ public class Task {
     @JoinColumn(name = "note_id")
     private Note note;
 
+    // False while the linked note is soft-deleted: the link stays until SoftDeletePurger clears
+    // it, but the note can no longer be loaded. Null until read from the database.
+    @Formula("(SELECT n.deleted_at IS NULL FROM notes n WHERE n.id = note_id)")
+    private Boolean noteLive;
+
     // ---------------------
 
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -60,6 +84,10 @@ public class Task {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Set by TaskService.deleteTask; the row is hard-deleted later by SoftDeletePurger
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
     public Task() {
     }
 
@@ -91,14 +119,22 @@ public class Task {
     public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
     public LocalDateTime getCompletedAt() { return completedAt; }
     public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+    public Long getRecurrenceParentId() { return recurrenceParentId; }
+    public void setRecurrenceParentId(Long recurrenceParentId) { this.recurrenceParentId = recurrenceParentId; }
+    public LocalDateTime getOccurrenceDate() { return occurrenceDate; }
+    public void setOccurrenceDate(LocalDateTime occurrenceDate) { this.occurrenceDate = occurrenceDate; }
     public Category getCategory() { return category; }
     public void setCategory(Category category) { this.category = category; }
     public Set<Tag> getTags() { return tags; }
     public void setTags(Set<Tag> tags) { this.tags = tags; }
     public Note getNote() { return note; }
-    public void setNote(Note note) { this.note = note; }
+    public void setNote(Note note) { this.note = note; this.noteLive = null; }
+    public boolean isNoteDeleted() { return Boolean.FALSE.equals(noteLive); }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDateTime getDeletedAt() { return deletedAt; }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.bbay.mindnote.exception;
+
+public class AttachmentTooLargeException extends RuntimeException {
+
+    public AttachmentTooLargeException(long maxBytes) {
+        super(String.format("Attachment exceeds the maximum size of %d bytes", maxBytes));
+    }
+}
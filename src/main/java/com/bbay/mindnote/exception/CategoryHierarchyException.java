@@ -0,0 +1,8 @@
+package com.bbay.mindnote.exception;
+
+public class CategoryHierarchyException extends RuntimeException {
+
+    public CategoryHierarchyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bbay.mindnote.exception;
+
+public class DuplicateResourceException extends RuntimeException {
+
+    public DuplicateResourceException(String message) {
+        super(message);
+    }
+
+    public DuplicateResourceException(String resourceName, String name) {
+        super(String.format("%s already exists with name: %s", resourceName, name));
+    }
+}
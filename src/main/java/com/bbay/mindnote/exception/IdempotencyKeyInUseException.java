@@ -0,0 +1,21 @@
+package com.bbay.mindnote.exception;
+
+import java.time.Duration;
+
+/**
+ * The request that first used an {@code Idempotency-Key} did not complete while a duplicate
+ * waited for it.
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IdempotencyKeyInUseException(String key, Duration retryAfter) {
+        super(String.format("A request with idempotency key %s is still being processed", key));
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,11 @@
+package com.bbay.mindnote.exception;
+
+/**
+ * An {@code Idempotency-Key} reused with a different request body.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String key) {
+        super(String.format("Idempotency key %s was already used with a different request", key));
+    }
+}
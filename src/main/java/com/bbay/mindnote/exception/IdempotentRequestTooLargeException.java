@@ -0,0 +1,8 @@
+package com.bbay.mindnote.exception;
+
+public class IdempotentRequestTooLargeException extends RuntimeException {
+
+    public IdempotentRequestTooLargeException(long maxBytes) {
+        super(String.format("Request body sent with an idempotency key exceeds the maximum size of %d bytes", maxBytes));
+    }
+}
@@ -0,0 +1,11 @@
+package com.bbay.mindnote.exception;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+public class InvalidFacetException extends RuntimeException {
+
+    public InvalidFacetException(String facet, Collection<String> supported) {
+        super(String.format("Unknown facet '%s', supported facets are %s", facet, new TreeSet<>(supported)));
+    }
+}
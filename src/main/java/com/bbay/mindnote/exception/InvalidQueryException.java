@@ -0,0 +1,12 @@
+package com.bbay.mindnote.exception;
+
+/**
+ * A list query parameter outside what the endpoint supports, such as a date window that is too
+ * long or an unknown bucket size.
+ */
+public class InvalidQueryException extends RuntimeException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
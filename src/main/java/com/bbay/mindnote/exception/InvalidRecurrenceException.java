@@ -0,0 +1,8 @@
+package com.bbay.mindnote.exception;
+
+public class InvalidRecurrenceException extends RuntimeException {
+
+    public InvalidRecurrenceException(String message) {
+        super(message);
+    }
+}
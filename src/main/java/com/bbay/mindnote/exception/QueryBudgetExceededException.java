@@ -0,0 +1,12 @@
+package com.bbay.mindnote.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+
+    public QueryBudgetExceededException(String scope, int budget, String sql) {
+        super(String.format("%s exceeded its query budget of %d statements at: %s", scope, budget, sql));
+    }
+}
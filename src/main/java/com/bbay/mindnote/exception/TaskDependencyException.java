@@ -0,0 +1,8 @@
+package com.bbay.mindnote.exception;
+
+public class TaskDependencyException extends RuntimeException {
+
+    public TaskDependencyException(String message) {
+        super(message);
+    }
+}
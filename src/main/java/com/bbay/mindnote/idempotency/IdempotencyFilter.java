@@ -0,0 +1,422 @@
+package com.bbay.mindnote.idempotency;
+
+import com.bbay.mindnote.dto.IdempotentResponse;
+import com.bbay.mindnote.exception.IdempotencyKeyInUseException;
+import com.bbay.mindnote.exception.IdempotencyKeyMismatchException;
+import com.bbay.mindnote.exception.IdempotentRequestTooLargeException;
+import com.bbay.mindnote.exception.InvalidIdempotencyKeyException;
+import com.bbay.mindnote.service.IdempotencyKeyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Executes a POST sent with an {@code Idempotency-Key} at most once and answers retries with the
+ * stored response, marked with {@code Idempotent-Replayed: true}.
+ * <p>
+ * The first request claims the key in the {@code idempotency_keys} table, executes, and stores
+ * status, headers and body on the claim before the response is sent, so a client that got it can
+ * retry immediately and find it. Completed responses stay in an in-memory LRU in front of the
+ * table until their TTL ends. A duplicate that arrives while the original is still executing
+ * waits for it: on the same instance on the original's future, otherwise by polling the table.
+ * Reusing a key with a different body is rejected with 422, a body larger than the configured
+ * maximum with 413.
+ * <p>
+ * Server errors are not stored: the claim is released and the next retry executes again.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LogManager.getLogger(IdempotencyFilter.class);
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Visible ASCII only, so the key can be logged and stored as is
+    private static final Pattern VALID_KEY = Pattern.compile("[\\x21-\\x7e]{1,255}");
+
+    // Headers that describe this particular transfer rather than the response
+    private static final Set<String> NOT_REPLAYED = Set.of(
+            "connection", "content-length", "date", "keep-alive", "set-cookie", "transfer-encoding");
+
+    // Polling a key held on another instance: first and longest pause between lookups
+    private static final long MIN_POLL_MILLIS = 20;
+    private static final long MAX_POLL_MILLIS = 500;
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyKeyService keyService;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final ResponseCache cache;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter inUse;
+    private final Counter mismatched;
+
+    public IdempotencyFilter(IdempotencyProperties properties, IdempotencyKeyService keyService,
+                             @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.keyService = keyService;
+        this.exceptionResolver = exceptionResolver;
+        this.cache = new ResponseCache(properties.cacheSize().toBytes(), properties.maxCachedResponse().toBytes());
+        this.executed = requests(meterRegistry, "executed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.inUse = requests(meterRegistry, "in_use");
+        this.mismatched = requests(meterRegistry, "mismatch");
+        Gauge.builder("mindnote.idempotency.cache.bytes", cache, ResponseCache::bytes)
+                .description("Size of the responses held in the idempotency cache")
+                .register(meterRegistry);
+        Gauge.builder("mindnote.idempotency.cache.entries", cache, ResponseCache::size)
+                .description("Responses held in the idempotency cache")
+                .register(meterRegistry);
+        Gauge.builder("mindnote.idempotency.in.flight", inFlight, ConcurrentHashMap::size)
+                .description("Keys whose original request is executing on this instance")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("mindnote.idempotency.requests")
+                .description("Requests sent with an idempotency key, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled()
+                || !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(properties.header()) == null
+                || !properties.paths().contains(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(properties.header());
+        String scope = request.getMethod() + " " + path(request);
+        try {
+            if (!VALID_KEY.matcher(key).matches()) {
+                throw new InvalidIdempotencyKeyException(
+                        properties.header() + " must be 1 to 255 visible ASCII characters");
+            }
+            // The body is read up front: its hash is stored with the key and checked on every retry
+            byte[] body = readBody(request);
+            handle(scope, key, sha256(body), new BufferedBodyRequest(request, body), response, filterChain);
+        } catch (RuntimeException ex) {
+            if (ex instanceof IdempotencyKeyInUseException) {
+                inUse.increment();
+            } else if (ex instanceof IdempotencyKeyMismatchException) {
+                mismatched.increment();
+            }
+            if (response.isCommitted()) {
+                throw ex;
+            }
+            // Rendered by GlobalExceptionHandler like any error raised in a controller
+            if (exceptionResolver.resolveException(request, response, null, ex) == null) {
+                throw ex;
+            }
+        }
+    }
+
+    private void handle(String scope, String key, String requestHash, HttpServletRequest request,
+                        HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String cacheKey = scope + '\n' + key;
+        long deadline = System.nanoTime() + properties.waitTimeout().toNanos();
+        while (true) {
+            IdempotentResponse cached = cache.get(cacheKey, LocalDateTime.now());
+            if (cached != null) {
+                replay(key, requestHash, cached, response);
+                return;
+            }
+
+            CompletableFuture<IdempotentResponse> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> original = inFlight.putIfAbsent(cacheKey, claim);
+            if (original != null) {
+                IdempotentResponse completed = await(original, key, deadline);
+                if (completed != null) {
+                    replay(key, requestHash, completed, response);
+                    return;
+                }
+                // The original failed without storing a response; this request may execute instead
+                continue;
+            }
+
+            IdempotentResponse completed = null;
+            try {
+                completed = executeOnce(scope, key, requestHash, cacheKey, deadline, request, response, filterChain);
+                return;
+            } finally {
+                inFlight.remove(cacheKey, claim);
+                claim.complete(completed);
+            }
+        }
+    }
+
+    /**
+     * Claims the key and executes the request, or, when another instance holds the key, waits for
+     * its response and replays it.
+     *
+     * @return the stored response, or null if the request failed without one
+     */
+    private IdempotentResponse executeOnce(String scope, String key, String requestHash, String cacheKey, long deadline,
+                                           HttpServletRequest request, HttpServletResponse response,
+                                           FilterChain filterChain) throws ServletException, IOException {
+        long pause = MIN_POLL_MILLIS;
+        while (true) {
+            Optional<IdempotentResponse> claim = keyService.claim(scope, key, requestHash, properties.lockTimeout());
+            if (claim.isPresent()) {
+                return execute(scope, key, cacheKey, claim.get(), request, response, filterChain);
+            }
+
+            Optional<IdempotentResponse> current = keyService.find(scope, key);
+            if (current.isPresent()) {
+                IdempotentResponse stored = current.get();
+                if (!stored.requestHash().equals(requestHash)) {
+                    throw new IdempotencyKeyMismatchException(key);
+                }
+                if (stored.completed()) {
+                    cache.put(cacheKey, stored);
+                    replay(key, requestHash, stored, response);
+                    return stored;
+                }
+            }
+
+            // Still executing elsewhere (or released a moment ago, then the next claim succeeds)
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new IdempotencyKeyInUseException(key, RETRY_AFTER);
+            }
+            sleep(Math.min(pause, remainingMillis), key);
+            pause = Math.min(pause * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    private IdempotentResponse execute(String scope, String key, String cacheKey, IdempotentResponse claim,
+                                       HttpServletRequest request, HttpServletResponse response,
+                                       FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotentResponse stored = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            executed.increment();
+            if (wrapper.getStatus() < 500) {
+                stored = store(scope, key, cacheKey, claim, wrapper);
+            }
+        } finally {
+            if (stored == null) {
+                release(scope, key, claim);
+            }
+        }
+        wrapper.copyBodyToResponse();
+        return stored;
+    }
+
+    private IdempotentResponse store(String scope, String key, String cacheKey, IdempotentResponse claim,
+                                     ContentCachingResponseWrapper wrapper) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : wrapper.getHeaderNames()) {
+            if (!NOT_REPLAYED.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, List.copyOf(wrapper.getHeaders(name)));
+            }
+        }
+        if (wrapper.getContentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, wrapper.getContentType());
+        }
+        try {
+            Optional<IdempotentResponse> stored = keyService.complete(scope, key, claim, wrapper.getStatus(),
+                    headers, wrapper.getContentAsByteArray(), properties.ttl());
+            stored.ifPresent(response -> cache.put(cacheKey, response));
+            return stored.orElse(null);
+        } catch (RuntimeException ex) {
+            // The request itself succeeded; a retry after the lock timeout would execute it again
+            logger.warn("Could not store the response for idempotency key {} of {}: {}", key, scope, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void release(String scope, String key, IdempotentResponse claim) {
+        try {
+            keyService.release(scope, key, claim);
+        } catch (RuntimeException ex) {
+            // The claim then expires after the lock timeout
+            logger.warn("Could not release idempotency key {} of {}: {}", key, scope, ex.getMessage());
+        }
+    }
+
+    private IdempotentResponse await(CompletableFuture<IdempotentResponse> original, String key, long deadline) {
+        try {
+            return original.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            throw new IdempotencyKeyInUseException(key, RETRY_AFTER);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException(key, RETRY_AFTER);
+        } catch (ExecutionException ex) {
+            // Never completed exceptionally; treated like a failed original
+            return null;
+        }
+    }
+
+    private void replay(String key, String requestHash, IdempotentResponse stored, HttpServletResponse response)
+            throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(key);
+        }
+        replayed.increment();
+        logger.debug("Replaying stored response for idempotency key {}", key);
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void sleep(long millis, String key) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException(key, RETRY_AFTER);
+        }
+    }
+
+    /**
+     * The request body, read up to the configured maximum. A declared length above it is
+     * rejected before anything is read.
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        long maxBytes = properties.maxBody().toBytes();
+        if (request.getContentLengthLong() > maxBytes) {
+            throw new IdempotentRequestTooLargeException(maxBytes);
+        }
+        byte[] body = request.getInputStream().readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE));
+        if (body.length > maxBytes) {
+            throw new IdempotentRequestTooLargeException(maxBytes);
+        }
+        return body;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Serves the body that was read to hash it to the rest of the chain.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int off, int len) {
+                    return in.read(buffer, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
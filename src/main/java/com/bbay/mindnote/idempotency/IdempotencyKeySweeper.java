@@ -0,0 +1,51 @@
+package com.bbay.mindnote.idempotency;
+
+import com.bbay.mindnote.service.IdempotencyKeyService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes stored responses past their TTL, and claims whose request never finished, in small
+ * batches so the table stays bounded by the traffic of one TTL.
+ */
+@Component
+public class IdempotencyKeySweeper {
+
+    private static final Logger logger = LogManager.getLogger(IdempotencyKeySweeper.class);
+
+    // Upper bound on the work done by one run; whatever is left waits for the next one
+    private static final int MAX_BATCHES_PER_RUN = 100;
+
+    private final IdempotencyKeyService keyService;
+    private final IdempotencyProperties properties;
+
+    public IdempotencyKeySweeper(IdempotencyKeyService keyService, IdempotencyProperties properties) {
+        this.keyService = keyService;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.idempotency.sweep-interval:PT10M}",
+            fixedDelayString = "${mindnote.idempotency.sweep-interval:PT10M}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+                int deleted = keyService.purgeExpired(now, properties.purgeBatchSize());
+                total += deleted;
+                if (deleted < properties.purgeBatchSize()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Sweep of expired idempotency keys stopped early: {}", ex.getMessage());
+        }
+        if (total > 0) {
+            logger.info("Deleted {} expired idempotency keys", total);
+        }
+    }
+}
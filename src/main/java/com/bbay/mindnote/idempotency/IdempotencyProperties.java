@@ -0,0 +1,40 @@
+package com.bbay.mindnote.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Settings for replaying responses to POSTs retried with the same {@code Idempotency-Key}.
+ *
+ * @param enabled           whether the header is honoured at all
+ * @param header            request header carrying the client's key
+ * @param paths             POST endpoints that accept a key
+ * @param ttl               how long a response is kept for replay after it was stored
+ * @param lockTimeout       how long a request holds its key while executing; a request that
+ *                          neither completes nor fails within this is assumed lost, and a retry
+ *                          may execute again
+ * @param waitTimeout       how long a duplicate waits for the original to complete before it is
+ *                          answered with 409
+ * @param cacheSize         total size of the responses kept in memory in front of the table
+ * @param maxCachedResponse responses larger than this are only kept in the table
+ * @param maxBody           largest request body accepted with a key; the body is held in memory
+ *                          while the request executes, larger ones are rejected with 413
+ * @param purgeBatchSize    expired rows deleted per transaction by the sweep
+ */
+@ConfigurationProperties(prefix = "mindnote.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("Idempotency-Key") String header,
+        @DefaultValue({"/api/notes", "/api/tasks"}) Set<String> paths,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("1m") Duration lockTimeout,
+        @DefaultValue("10s") Duration waitTimeout,
+        @DefaultValue("16MB") DataSize cacheSize,
+        @DefaultValue("64KB") DataSize maxCachedResponse,
+        @DefaultValue("10MB") DataSize maxBody,
+        @DefaultValue("500") int purgeBatchSize) {
+}
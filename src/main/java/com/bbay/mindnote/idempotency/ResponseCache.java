@@ -0,0 +1,79 @@
+package com.bbay.mindnote.idempotency;
+
+import com.bbay.mindnote.dto.IdempotentResponse;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completed responses by scope and key, in front of the idempotency table. Bounded by the total
+ * size of the responses; lookups move an entry to the back, so inserts evict the least recently
+ * used first, and an entry past its TTL is dropped when it is looked up.
+ */
+final class ResponseCache {
+
+    private record Entry(IdempotentResponse response, long size) {
+    }
+
+    // Fixed overhead per entry on top of body and headers
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    ResponseCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    synchronized IdempotentResponse get(String key, LocalDateTime now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.response().expiresAt().isAfter(now)) {
+            entries.remove(key);
+            bytes -= entry.size();
+            return null;
+        }
+        return entry.response();
+    }
+
+    synchronized void put(String key, IdempotentResponse response) {
+        long size = sizeOf(response);
+        if (size > maxEntryBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(response, size));
+        bytes += size - (previous != null ? previous.size() : 0);
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static long sizeOf(IdempotentResponse response) {
+        long size = ENTRY_OVERHEAD + response.body().length;
+        for (Map.Entry<String, List<String>> header : response.headers().headerSet()) {
+            size += header.getKey().length();
+            for (String value : header.getValue()) {
+                size += value.length();
+            }
+        }
+        return size;
+    }
+}
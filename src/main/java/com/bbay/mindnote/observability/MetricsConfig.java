@@ -0,0 +1,63 @@
+package com.bbay.mindnote.observability;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Meters that get a full latency histogram (buckets exported to Prometheus, so p99 can be
+     * aggregated across instances) instead of a plain count/sum/max.
+     */
+    private static final Set<String> HISTOGRAM_METERS = Set.of(
+            "http.server.requests",
+            "hikaricp.connections.acquire",
+            "mindnote.transaction.duration",
+            "mindnote.transaction.statements",
+            "mindnote.repository.invocations",
+            "mindnote.http.jdbc.statements",
+            "mindnote.http.jdbc.time",
+            "mindnote.bulkhead.wait");
+
+    /**
+     * Turns on Hibernate statistics (picked up by Boot as {@code hibernate.*} meters: entity
+     * loads, collection fetches, second-level cache hits) and the per-request statement counter.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryMetricsHibernateProperties(QueryBudgetProperties budgetProperties) {
+        return properties -> {
+            properties.put(AvailableSettings.GENERATE_STATISTICS, "true");
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector(budgetProperties));
+        };
+    }
+
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!HISTOGRAM_METERS.contains(id.getName())) {
+                    return config;
+                }
+                DistributionStatisticConfig.Builder histogram = DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true);
+                if (id.getType() == Meter.Type.TIMER) {
+                    histogram.minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                            .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos());
+                } else {
+                    histogram.minimumExpectedValue(1.0).maximumExpectedValue(1000.0);
+                }
+                return histogram.build().merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.bbay.mindnote.observability;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements a method may issue, including the flush at commit.
+ * Depending on {@code mindnote.query-budget.mode} an overrun is logged or fails the call,
+ * which lets tests lock in the expected statement count of a code path.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+
+    /**
+     * Maximum number of statements the method may issue.
+     */
+    int max();
+}
@@ -0,0 +1,59 @@
+package com.bbay.mindnote.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enforces {@link QueryBudget} on service methods. Runs outside the transaction so the
+ * statements flushed at commit count against the budget too.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class QueryBudgetAspect {
+
+    private static final Logger logger = LogManager.getLogger(QueryBudgetAspect.class);
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetAspect(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(budget)")
+    public Object enforceBudget(ProceedingJoinPoint joinPoint, QueryBudget budget) throws Throwable {
+        if (!properties.enabled()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+
+        QueryStats existing = QueryStats.current();
+        QueryStats stats = existing != null ? existing : QueryStats.begin();
+        int before = stats.statements();
+        QueryStats.Limit previous = stats.limitFurther(budget.max(), method);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            stats.restoreLimit(previous);
+            int used = stats.statements() - before;
+            if (used > budget.max()) {
+                meterRegistry.counter("mindnote.query.budget.exceeded", "scope", method).increment();
+                logger.warn("{} issued {} SQL statements, budget is {}; repeated statements: {}",
+                        method, used, budget.max(), stats.repeatedShapes());
+            }
+            if (existing == null) {
+                QueryStats.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bbay.mindnote.observability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for {@link QueryBudget} enforcement and repeated-query detection.
+ *
+ * @param mode            {@code off}, {@code warn} (log and count) or {@code fail} (throw at the
+ *                        first statement over budget, rolling the transaction back)
+ * @param requestMax      statement budget for a whole HTTP request, 0 to disable
+ * @param repeatThreshold how many statements of the same shape in one request count as N+1
+ */
+@ConfigurationProperties(prefix = "mindnote.query-budget")
+public record QueryBudgetProperties(
+        @DefaultValue("warn") Mode mode,
+        @DefaultValue("50") int requestMax,
+        @DefaultValue("5") int repeatThreshold) {
+
+    public enum Mode {
+        OFF, WARN, FAIL
+    }
+
+    boolean enabled() {
+        return mode != Mode.OFF;
+    }
+
+    boolean failing() {
+        return mode == Mode.FAIL;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bbay.mindnote.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the JDBC work done by each request, tagged with the matched route so that a
+ * statement count that grows with page size (N+1) is visible per endpoint. Also applies the
+ * request-wide query budget and reports statement shapes that repeated within the request.
+ */
+@Component
+public class QueryMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LogManager.getLogger(QueryMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetProperties budgetProperties;
+
+    public QueryMetricsFilter(MeterRegistry meterRegistry, QueryBudgetProperties budgetProperties) {
+        this.meterRegistry = meterRegistry;
+        this.budgetProperties = budgetProperties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin();
+        if (budgetProperties.enabled() && budgetProperties.requestMax() > 0) {
+            stats.limitFurther(budgetProperties.requestMax(), request.getMethod() + " " + request.getRequestURI());
+        }
+        boolean failed = false;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            failed = true;
+            throw ex;
+        } finally {
+            QueryStats.end();
+            record(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Unmatched paths all share one tag value to keep cardinality bounded
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("uri", uri, "method", request.getMethod(), "status", String.valueOf(status));
+
+        DistributionSummary.builder("mindnote.http.jdbc.statements")
+                .description("JDBC statements issued per HTTP request")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.statements());
+        Timer.builder("mindnote.http.jdbc.time")
+                .description("Time spent in repository calls per HTTP request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.repositoryNanos(), TimeUnit.NANOSECONDS);
+
+        stats.statementsByRepository().forEach((repository, count) ->
+                meterRegistry.counter("mindnote.repository.statements", "uri", uri, "repository", repository)
+                        .increment(count));
+
+        if (!stats.repeatedShapes().isEmpty()) {
+            meterRegistry.counter("mindnote.jdbc.repeated.requests", "uri", uri).increment();
+            stats.repeatedShapes().forEach((shape, callSite) ->
+                    logger.warn("{} {} repeated a statement at least {} times (N+1?) from {}: {}",
+                            request.getMethod(), uri, budgetProperties.repeatThreshold(), callSite, shape));
+        }
+        if (budgetProperties.enabled() && budgetProperties.requestMax() > 0
+                && stats.statements() > budgetProperties.requestMax()) {
+            meterRegistry.counter("mindnote.query.budget.exceeded", "scope", request.getMethod() + " " + uri)
+                    .increment();
+            logger.warn("{} {} issued {} SQL statements, request budget is {}",
+                    request.getMethod(), uri, stats.statements(), budgetProperties.requestMax());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.bbay.mindnote.observability;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-thread tally of the JDBC statements issued while serving one request, attributed to the
+ * repository method that was running when each statement was prepared. Statements prepared
+ * outside any repository call (lazy association loads during mapping) are attributed to
+ * {@link #LAZY_LOAD}, which is where N+1 selects show up.
+ */
+public final class QueryStats {
+
+    public static final String LAZY_LOAD = "lazy-load";
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> statementsByRepository = new HashMap<>();
+    private final Map<String, Integer> statementsByShape = new HashMap<>();
+    private final Map<String, String> repeatedShapes = new LinkedHashMap<>();
+    private String repository;
+    private int statements;
+    private long repositoryNanos;
+    private int limit = Integer.MAX_VALUE;
+    private String limitOwner;
+    private int limitBudget;
+
+    private QueryStats() {
+    }
+
+    /**
+     * Starts collecting for the current thread and returns the new tally.
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stops collecting for the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The tally for the current thread, or {@code null} outside a request.
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Counts one statement and returns how many times its shape has now been seen
+     * (0 when shapes are not tracked).
+     */
+    int recordStatement(String shape) {
+        statements++;
+        statementsByRepository.merge(repository != null ? repository : LAZY_LOAD, 1, Integer::sum);
+        return shape != null ? statementsByShape.merge(shape, 1, Integer::sum) : 0;
+    }
+
+    void markRepeated(String shape, String callSite) {
+        repeatedShapes.putIfAbsent(shape, callSite);
+    }
+
+    /**
+     * Marks the repository method now running and returns the previous one, so nested
+     * calls can restore it.
+     */
+    String enterRepository(String name) {
+        String previous = repository;
+        repository = name;
+        return previous;
+    }
+
+    void exitRepository(String previous, long elapsedNanos) {
+        repository = previous;
+        // Only the outermost repository call counts, nested calls are already inside its time
+        if (previous == null) {
+            repositoryNanos += elapsedNanos;
+        }
+    }
+
+    /**
+     * Caps the total statement count at {@code max} more statements from now, unless an
+     * enclosing scope already has a tighter cap. Returns a handle for {@link #restoreLimit}.
+     */
+    Limit limitFurther(int max, String owner) {
+        Limit previous = new Limit(limit, limitOwner, limitBudget);
+        long candidate = (long) statements + max;
+        if (candidate < limit) {
+            limit = (int) candidate;
+            limitOwner = owner;
+            limitBudget = max;
+        }
+        return previous;
+    }
+
+    void restoreLimit(Limit previous) {
+        limit = previous.limit();
+        limitOwner = previous.owner();
+        limitBudget = previous.budget();
+    }
+
+    boolean overLimit() {
+        return statements > limit;
+    }
+
+    String limitOwner() {
+        return limitOwner;
+    }
+
+    int limitBudget() {
+        return limitBudget;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long repositoryNanos() {
+        return repositoryNanos;
+    }
+
+    public Map<String, Integer> statementsByRepository() {
+        return Collections.unmodifiableMap(statementsByRepository);
+    }
+
+    /**
+     * Shapes that crossed the repeat threshold, with the application frame that first
+     * issued them past it.
+     */
+    public Map<String, String> repeatedShapes() {
+        return Collections.unmodifiableMap(repeatedShapes);
+    }
+
+    record Limit(int limit, String owner, int budget) {
+    }
+}
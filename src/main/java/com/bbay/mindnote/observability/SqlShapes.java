@@ -0,0 +1,26 @@
+package com.bbay.mindnote.observability;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces SQL to its shape: literals become {@code ?}, IN lists and batch-fetch arrays collapse
+ * to a single placeholder and whitespace is normalized. Two statements with the same shape differ
+ * only in their parameters, which is what an N+1 loop looks like.
+ */
+final class SqlShapes {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlShapes() {
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").strip();
+        return IN_LIST.matcher(shape).replaceAll("in (?)").toLowerCase();
+    }
+}
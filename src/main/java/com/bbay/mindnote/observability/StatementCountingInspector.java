@@ -0,0 +1,62 @@
+package com.bbay.mindnote.observability;
+
+import com.bbay.mindnote.exception.QueryBudgetExceededException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Optional;
+
+/**
+ * Counts every SQL statement Hibernate prepares against the current request's {@link QueryStats},
+ * flags statement shapes that repeat past the threshold and, in {@code fail} mode, rejects the
+ * statement that takes a scope over its budget. The SQL itself is passed through untouched.
+ */
+class StatementCountingInspector implements StatementInspector {
+
+    private static final String APPLICATION_PACKAGE = "com.bbay.mindnote.";
+    private static final String OWN_PACKAGE = "com.bbay.mindnote.observability.";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final QueryBudgetProperties properties;
+
+    StatementCountingInspector(QueryBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats == null) {
+            return sql;
+        }
+        if (!properties.enabled()) {
+            stats.recordStatement(null);
+            return sql;
+        }
+
+        String shape = SqlShapes.normalize(sql);
+        if (stats.recordStatement(shape) == properties.repeatThreshold()) {
+            // Walk the stack once per shape, when it first looks like a loop
+            stats.markRepeated(shape, callSite());
+        }
+        if (properties.failing() && stats.overLimit()) {
+            throw new QueryBudgetExceededException(stats.limitOwner(), stats.limitBudget(), shape);
+        }
+        return sql;
+    }
+
+    /**
+     * The innermost application frame below the persistence layer, e.g. the mapping loop
+     * that touched a lazy association.
+     */
+    private static String callSite() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(f -> !f.getClassName().startsWith(OWN_PACKAGE))
+                .filter(f -> !f.getClassName().contains("$$"))
+                .findFirst());
+        return frame.map(f -> f.getClassName().substring(APPLICATION_PACKAGE.length())
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("unknown");
+    }
+}
@@ -0,0 +1,62 @@
+package com.bbay.mindnote.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records the duration and statement count of every {@code @Transactional} service method,
+ * including the commit. Ordered just ahead of the transaction interceptor so it wraps begin
+ * and commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class TransactionMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public TransactionMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(transactional)")
+    public Object timeTransaction(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        QueryStats existing = QueryStats.current();
+        QueryStats stats = existing != null ? existing : QueryStats.begin();
+        int before = stats.statements();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            outcome = "error";
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("mindnote.transaction.duration")
+                    .description("Duration of @Transactional service methods including commit")
+                    .tag("method", method)
+                    .tag("read.only", String.valueOf(transactional.readOnly()))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            DistributionSummary.builder("mindnote.transaction.statements")
+                    .description("SQL statements issued by @Transactional service methods")
+                    .baseUnit("statements")
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(stats.statements() - before);
+            if (existing == null) {
+                QueryStats.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bbay.mindnote.repository;
+
+import com.bbay.mindnote.dto.AttachmentResponse;
+import com.bbay.mindnote.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    @Query("SELECT new com.bbay.mindnote.dto.AttachmentResponse(" +
+            "a.id, a.noteId, a.filename, a.contentType, a.size, a.blobHash, a.createdAt) " +
+            "FROM Attachment a WHERE a.noteId = :noteId ORDER BY a.createdAt, a.id")
+    List<AttachmentResponse> findResponsesByNoteId(@Param("noteId") Long noteId);
+
+    Optional<Attachment> findByIdAndNoteId(Long id, Long noteId);
+
+    List<Attachment> findByNoteIdIn(Collection<Long> noteIds);
+
+    /**
+     * Creates the blob row with one reference, or adds a reference to an existing one. The row
+     * lock taken here serializes with {@link #deleteIfUnreferenced} for the same hash.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blobs (hash, size, ref_count, created_at, updated_at) " +
+            "VALUES (:hash, :size, 1, :now, :now) " +
+            "ON CONFLICT (hash) DO UPDATE SET ref_count = attachment_blobs.ref_count + 1, updated_at = :now",
+            nativeQuery = true)
+    int acquireBlob(@Param("hash") String hash, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    /**
+     * Drops references; done in SQL so concurrent writers never lose a decrement.
+     */
+    @Modifying
+    @Query(value = "UPDATE attachment_blobs SET ref_count = ref_count - :count, updated_at = :now WHERE hash = :hash",
+            nativeQuery = true)
+    int releaseBlob(@Param("hash") String hash, @Param("count") int count, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM attachment_blobs WHERE hash = :hash AND ref_count = 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    /**
+     * Unreferenced blobs not touched since {@code before}, oldest first.
+     */
+    @Query(value = "SELECT hash FROM attachment_blobs WHERE ref_count = 0 AND updated_at < :before " +
+            "ORDER BY updated_at LIMIT :limit",
+            nativeQuery = true)
+    List<String> findUnreferencedBlobs(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -1,12 +1,98 @@
 package com.bbay.mindnote.repository;
 
+import com.bbay.mindnote.dto.CategoryResponse;
 import com.bbay.mindnote.entity.Category;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id FROM Category c WHERE c.name = :name")
+    Optional<Long> findIdByName(@Param("name") String name);
+
+    /**
+     * Ids of the named category and every category beneath it, found by a range scan over the
+     * materialized path. Empty when there is no such category.
+     */
+    @Query("SELECT c.id FROM Category c " +
+            "WHERE c.path >= (SELECT r.path FROM Category r WHERE r.name = :name) " +
+            "AND c.path < (SELECT CONCAT(r.path, '~') FROM Category r WHERE r.name = :name)")
+    List<Long> findSubtreeIds(@Param("name") String name);
+
+    /**
+     * Streams every category as a DTO projection for building the in-memory indexes.
+     * Must be consumed inside a transaction and closed.
+     */
+    @Query("SELECT new com.bbay.mindnote.dto.CategoryResponse(c.id, c.name, c.parentId) FROM Category c")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<CategoryResponse> streamAll();
+
+    /**
+     * Takes the hierarchy lock exclusively until the transaction ends. Moves hold it, so they
+     * run one after the other: two moves locking disjoint rows could otherwise each pass the
+     * cycle check against the other's old paths and together build a cycle.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('categories.hierarchy'))", nativeQuery = true)
+    int lockHierarchy();
+
+    /**
+     * Takes the hierarchy lock shared until the transaction ends. Creates of child categories
+     * hold it, so they run in parallel with each other but never overlap a move, whose subtree
+     * UPDATE would otherwise miss a child inserted under a category it re-roots.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext('categories.hierarchy'))", nativeQuery = true)
+    int lockHierarchyShared();
+
+    /**
+     * Locks the given categories in id order, so a move and the creates waiting on it see each
+     * other's rows without deadlocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Category c WHERE c.id IN :ids ORDER BY c.id")
+    List<Category> lockAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads a category and share-locks its row until the transaction ends, so a move cannot
+     * rewrite its path while a new child copies it. Waits for a move already holding the row and
+     * then returns the moved path.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM Category c WHERE c.id = :id")
+    Optional<Category> lockSharedById(@Param("id") Long id);
+
+    /**
+     * Depth of the deepest category in the subtree rooted at {@code path}.
+     */
+    @Query("SELECT MAX(c.depth) FROM Category c WHERE c.path >= :path AND c.path < CONCAT(:path, '~')")
+    int findMaxDepthInSubtree(@Param("path") String path);
+
+    /**
+     * Re-roots a whole subtree in one statement: rewrites the path prefix and shifts the depth
+     * of the category at {@code oldPath} and all its descendants. Touches only the subtree rows.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE categories SET path = :newPath || substring(path FROM length(:oldPath) + 1), " +
+            "depth = depth + :depthDelta " +
+            "WHERE path >= :oldPath AND path < :oldPath || '~'",
+            nativeQuery = true)
+    int moveSubtree(@Param("oldPath") String oldPath,
+                    @Param("newPath") String newPath,
+                    @Param("depthDelta") int depthDelta);
+}
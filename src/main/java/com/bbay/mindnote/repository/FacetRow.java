@@ -0,0 +1,13 @@
+package com.bbay.mindnote.repository;
+
+/**
+ * One row of a grouped facet query: a value of one facet and how many results carry it.
+ */
+public interface FacetRow {
+
+    String getFacet();
+
+    String getValue();
+
+    long getCount();
+}
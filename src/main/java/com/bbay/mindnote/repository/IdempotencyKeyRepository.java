@@ -0,0 +1,74 @@
+package com.bbay.mindnote.repository;
+
+import com.bbay.mindnote.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.ScopedKey> {
+
+    /**
+     * Claims a key for a request about to execute: inserts a row without a status, or takes over
+     * one whose claim or stored response has expired.
+     *
+     * @return 1 if the key is now held by the caller, 0 if another request holds it or already
+     * completed it
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, created_at, expires_at) " +
+            "VALUES (:scope, :key, :requestHash, :now, :lockedUntil) " +
+            "ON CONFLICT (scope, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+            "status = NULL, headers = NULL, body = NULL, " +
+            "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at <= EXCLUDED.created_at",
+            nativeQuery = true)
+    int claim(@Param("scope") String scope,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    Optional<IdempotencyKey> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Stores the response on a claimed key, identified by the time it was claimed. Does nothing if
+     * the claim expired and was taken over in the meantime.
+     */
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET status = :status, headers = :headers, body = :body, " +
+            "expires_at = :expiresAt " +
+            "WHERE scope = :scope AND idempotency_key = :key AND created_at = :claimedAt AND status IS NULL",
+            nativeQuery = true)
+    int complete(@Param("scope") String scope,
+                 @Param("key") String key,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("status") int status,
+                 @Param("headers") String headers,
+                 @Param("body") byte[] body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Gives up a claim without a stored response, so the next retry executes again.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys " +
+            "WHERE scope = :scope AND idempotency_key = :key AND created_at = :claimedAt AND status IS NULL",
+            nativeQuery = true)
+    int release(@Param("scope") String scope, @Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Deletes up to {@code limit} expired rows, oldest first.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE (scope, idempotency_key) IN (" +
+            "SELECT scope, idempotency_key FROM idempotency_keys WHERE expires_at < :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
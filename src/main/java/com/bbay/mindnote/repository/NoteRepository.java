@@ -1,25 +1,272 @@
 package com.bbay.mindnote.repository;
 
+import com.bbay.mindnote.dto.NoteContentInfo;
+import com.bbay.mindnote.dto.NoteHtmlSource;
+import com.bbay.mindnote.dto.NoteTitle;
 import com.bbay.mindnote.entity.Note;
+import com.bbay.mindnote.entity.Tag;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface NoteRepository extends JpaRepository<Note, Long> {
 
+    // The category is given by id so the planner can use its statistics for that value; a filter
+    // on the name through a join is estimated as an average category and misses small ones.
+    // The tag filter is a semi-join, so no DISTINCT is needed and any note property can be sorted on
+    String FILTERS = "FROM Note n " +
+            "WHERE (:categoryId IS NULL OR n.category.id = :categoryId) " +
+            "AND (:tag IS NULL OR EXISTS (SELECT 1 FROM Note tn JOIN tn.tags t WHERE tn = n AND t.name = :tag))";
+
+    // A subtree is given as the ids of its categories (see CategoryRepository.findSubtreeIds), as
+    // the planner can estimate a list of values but not the notes reached through a path range
+    String SUBTREE_FILTERS = "FROM Note n " +
+            "WHERE n.category.id IN :categoryIds " +
+            "AND (:tag IS NULL OR EXISTS (SELECT 1 FROM Note tn JOIN tn.tags t WHERE tn = n AND t.name = :tag))";
+
+    /**
+     * Ids of one page of notes matching the filters, in the requested order. A slice fetches one
+     * extra row to tell whether there is a next page and never runs a count query.
+     */
+    @Query("SELECT n.id " + FILTERS)
+    Slice<Long> findPageIds(@Param("categoryId") Long categoryId,
+                            @Param("tag") String tag,
+                            Pageable pageable);
+
+    /**
+     * Like {@link #findPageIds}, but matches any of the given categories, a category and every
+     * category beneath it.
+     */
+    @Query("SELECT n.id " + SUBTREE_FILTERS)
+    Slice<Long> findPageIdsInSubtree(@Param("categoryIds") Collection<Long> categoryIds,
+                                     @Param("tag") String tag,
+                                     Pageable pageable);
+
+    @Query("SELECT COUNT(n) " + FILTERS)
+    long countByFilters(@Param("categoryId") Long categoryId, @Param("tag") String tag);
+
+    @Query("SELECT COUNT(n) " + SUBTREE_FILTERS)
+    long countByFiltersInSubtree(@Param("categoryIds") Collection<Long> categoryIds, @Param("tag") String tag);
+
+    /**
+     * Facet counts for the notes matching the same filters as {@link #findPageIds} and
+     * {@link #findPageIdsInSubtree}, computed in one pass with GROUPING SETS: one group per
+     * category name and one per tag name, each counting distinct notes, truncated to the top
+     * {@code limit} values per facet. The category and tag joins are only made when
+     * {@code withCategories}/{@code withTags} is set, so an unrequested tag facet does not
+     * multiply rows.
+     */
+    @Query(value = "SELECT facet, value, count FROM (" +
+            "  SELECT facet, value, count, ROW_NUMBER() OVER (PARTITION BY facet ORDER BY count DESC, value) AS rank " +
+            "  FROM (" +
+            "    SELECT CASE WHEN GROUPING(c.name) = 0 THEN 'category' ELSE 'tag' END AS facet, " +
+            "           COALESCE(c.name, t.name) AS value, " +
+            "           COUNT(DISTINCT n.id) AS count " +
+            "    FROM notes n " +
+            "    LEFT JOIN categories c ON c.id = n.category_id AND :withCategories " +
+            "    LEFT JOIN note_tags nt ON nt.note_id = n.id AND :withTags " +
+            "    LEFT JOIN tags t ON t.id = nt.tag_id " +
+            "    WHERE n.deleted_at IS NULL " +
+            "    AND (CAST(:category AS VARCHAR) IS NULL OR n.category_id IN (" +
+            "         SELECT fc.id FROM categories fc JOIN categories root ON root.name = :category " +
+            "         WHERE fc.id = root.id OR (:recursive AND fc.path >= root.path AND fc.path < root.path || '~'))) " +
+            "    AND (CAST(:tag AS VARCHAR) IS NULL OR EXISTS (" +
+            "         SELECT 1 FROM note_tags ft JOIN tags ftn ON ftn.id = ft.tag_id " +
+            "         WHERE ft.note_id = n.id AND ftn.name = :tag)) " +
+            "    GROUP BY GROUPING SETS ((c.name), (t.name))" +
+            "  ) grouped WHERE value IS NOT NULL" +
+            ") ranked WHERE rank <= :limit",
+            nativeQuery = true)
+    List<FacetRow> countFacets(@Param("category") String category,
+                               @Param("recursive") boolean recursive,
+                               @Param("tag") String tag,
+                               @Param("withCategories") boolean withCategories,
+                               @Param("withTags") boolean withTags,
+                               @Param("limit") int limit);
+
+    /**
+     * Size and version of a note's content, without loading the content itself.
+     */
+    @Query("SELECT new com.bbay.mindnote.dto.NoteContentInfo(n.id, COALESCE(OCTET_LENGTH(n.content), 0), n.updatedAt) " +
+            "FROM Note n WHERE n.id = :id")
+    Optional<NoteContentInfo> findContentInfo(@Param("id") Long id);
+
+    /**
+     * Reads a window of the UTF-8 encoded content. {@code offset} is 1-based as in SQL. For large
+     * notes only the TOAST chunks covering the window are fetched from {@code content_bytes} (see
+     * V14__note_content_bytes.sql); other notes are encoded whole. Returns null when the note no
+     * longer exists or was updated since {@code version} was read, so a download never mixes bytes
+     * of two versions.
+     */
+    @Query(value = "SELECT substring(COALESCE(content_bytes, convert_to(COALESCE(content, ''), 'UTF8')) " +
+            "FROM CAST(:offset AS INT) FOR :length) " +
+            "FROM notes WHERE id = :id AND updated_at = :version AND deleted_at IS NULL",
+            nativeQuery = true)
+    byte[] findContentChunk(@Param("id") Long id,
+                            @Param("version") LocalDateTime version,
+                            @Param("offset") long offset,
+                            @Param("length") int length);
+
+    /**
+     * Brings a note's {@code content_bytes} in line with its content after a save: a copy for
+     * large content, null otherwise. Pending changes are flushed first so the copy sees them.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE notes SET content_bytes = CASE WHEN octet_length(content) >= " + Note.LARGE_CONTENT_BYTES +
+            " THEN convert_to(content, 'UTF8') END WHERE id = :id",
+            nativeQuery = true)
+    int syncContentBytes(@Param("id") Long id);
+
+    /**
+     * Copies the content of a batch of large notes written before {@code content_bytes} existed,
+     * inside the database so the content is never transferred. Rows locked by a concurrent save
+     * are skipped; that save writes the copy itself.
+     *
+     * @return the number of notes copied; less than {@code limit} means none are left
+     */
+    @Modifying
+    @Query(value = "UPDATE notes SET content_bytes = convert_to(content, 'UTF8') " +
+            "WHERE id IN (SELECT id FROM notes WHERE content_bytes IS NULL " +
+            "AND octet_length(content) >= " + Note.LARGE_CONTENT_BYTES + " ORDER BY id LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int copyMissingContentBytes(@Param("limit") int limit);
+
+    /**
+     * Loads a note and locks its row until the transaction ends, so concurrent saves of one note
+     * run one after the other and each sees the content the previous one left behind.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Note n WHERE n.id = :id")
+    Optional<Note> lockById(@Param("id") Long id);
+
+    @Query("SELECT new com.bbay.mindnote.dto.NoteTitle(n.id, n.title) FROM Note n WHERE n.id IN :ids")
+    List<NoteTitle> findTitles(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT tag FROM Note n JOIN n.tags tag WHERE n.id = :noteId")
+    List<Tag> findTagsByNoteId(@Param("noteId") Long noteId);
+
+    /**
+     * Marks a note deleted in one statement, without loading its content or collections. Tasks
+     * keep their link until SoftDeletePurger removes the note; until then they show no note.
+     *
+     * @return 1 if the note existed and was not deleted yet, otherwise 0
+     */
+    @Modifying
+    @Query(value = "UPDATE notes SET deleted_at = :now WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int softDelete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Content hash, size and version of a note, without loading the content itself.
+     */
+    @Query("SELECT new com.bbay.mindnote.dto.NoteHtmlSource(n.id, n.contentHash, " +
+            "COALESCE(OCTET_LENGTH(n.content), 0), n.updatedAt) FROM Note n WHERE n.id = :id")
+    Optional<NoteHtmlSource> findHtmlSource(@Param("id") Long id);
+
+    // --- Content hash backfill (see NoteContentHashBackfill) ---
+
+    /**
+     * Hashes the content of a batch of notes written before content hashes existed, inside the
+     * database so the content is never transferred. Rows locked by a concurrent save are skipped;
+     * that save writes the hash itself.
+     *
+     * @return the number of notes hashed; less than {@code limit} means none are left
+     */
+    @Modifying
+    @Query(value = "UPDATE notes SET content_hash = encode(sha256(convert_to(COALESCE(content, ''), 'UTF8')), 'hex') " +
+            "WHERE id IN (SELECT id FROM notes WHERE content_hash IS NULL ORDER BY id LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int hashMissingContent(@Param("limit") int limit);
+
+    // --- Wiki links (see NoteLinkService) ---
+
+    interface LinkRow {
+        Long getSourceId();
+
+        String getTargetKey();
+    }
+
+    interface PendingLinks {
+        Long getId();
+
+        String getTitle();
+
+        String getContent();
+
+        Boolean getLive();
+    }
+
+    @Query("SELECT new com.bbay.mindnote.dto.NoteTitle(n.id, n.title) FROM Note n")
+    Stream<NoteTitle> streamTitles();
+
+    /**
+     * Outgoing links of every live note.
+     */
+    @Query(value = "SELECT l.source_id AS \"sourceId\", l.target_key AS \"targetKey\" FROM note_links l " +
+            "JOIN notes n ON n.id = l.source_id AND n.deleted_at IS NULL",
+            nativeQuery = true)
+    Stream<LinkRow> streamLinks();
+
+    @Modifying
+    @Query(value = "INSERT INTO note_links (source_id, target_key) SELECT :sourceId, unnest(:keys) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertLinks(@Param("sourceId") Long sourceId, @Param("keys") String[] keys);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_links WHERE source_id = :sourceId AND target_key IN (:keys)", nativeQuery = true)
+    int deleteLinks(@Param("sourceId") Long sourceId, @Param("keys") Collection<String> keys);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_links WHERE source_id = :sourceId", nativeQuery = true)
+    int deleteAllLinks(@Param("sourceId") Long sourceId);
+
+    /**
+     * Locks a batch of notes whose links were never parsed (see V8__note_links.sql), deleted ones
+     * included. Rows locked by a concurrent save are skipped and picked up by a later batch.
+     */
+    @Query(value = "SELECT id, title, content, deleted_at IS NULL AS live FROM notes WHERE links_pending " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<PendingLinks> lockPendingLinks(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE notes SET links_pending = false WHERE id IN (:ids)", nativeQuery = true)
+    int clearLinksPending(@Param("ids") Collection<Long> ids);
+
+    // --- Purge of soft-deleted rows (see SoftDeletePurger) ---
+
+    /**
+     * Locks a batch of notes deleted before the cutoff; rows locked by a concurrent purge are skipped.
+     */
+    @Query(value = "SELECT id FROM notes WHERE deleted_at < :before ORDER BY deleted_at LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockPurgeable(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_tags WHERE note_id IN (:ids)", nativeQuery = true)
+    int deleteTagLinks(@Param("ids") Collection<Long> ids);
+
     /**
-     * Finds notes matching filters with pagination support.
+     * Hard-deletes notes; their revisions go with them (ON DELETE CASCADE).
      */
-    @Query("SELECT DISTINCT n FROM Note n " +
-            "LEFT JOIN n.category c " +
-            "LEFT JOIN n.tags t " +
-            "WHERE (:category IS NULL OR c.name = :category) " +
-            "AND (:tag IS NULL OR t.name = :tag)")
-    Page<Note> findByFilters(@Param("category") String category,
-                             @Param("tag") String tag,
-                             Pageable pageable);
-}
\ No newline at end of file
+    @Modifying
+    @Query(value = "DELETE FROM notes WHERE id IN (:ids)", nativeQuery = true)
+    int hardDelete(@Param("ids") Collection<Long> ids);
+}
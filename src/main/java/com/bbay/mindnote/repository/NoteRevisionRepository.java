@@ -0,0 +1,58 @@
+package com.bbay.mindnote.repository;
+
+import com.bbay.mindnote.dto.NoteRevisionSummary;
+import com.bbay.mindnote.entity.NoteRevision;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NoteRevisionRepository extends JpaRepository<NoteRevision, Long> {
+
+    Optional<NoteRevision> findTopByNoteIdOrderByRevisionDesc(Long noteId);
+
+    /**
+     * Number of deltas stored since the most recent snapshot, i.e. how many a reader of the
+     * latest revision would have to apply.
+     */
+    @Query("SELECT COUNT(r) FROM NoteRevision r WHERE r.noteId = :noteId AND r.revision > " +
+            "(SELECT COALESCE(MAX(s.revision), 0) FROM NoteRevision s " +
+            "WHERE s.noteId = :noteId AND s.kind = com.bbay.mindnote.entity.RevisionKind.SNAPSHOT)")
+    long countDeltasSinceSnapshot(@Param("noteId") Long noteId);
+
+    /**
+     * Loads the rows needed to rebuild one revision: the closest snapshot at or before it and
+     * every delta from there up to the revision, in chain order.
+     */
+    @Query("SELECT r FROM NoteRevision r WHERE r.noteId = :noteId AND r.revision <= :revision " +
+            "AND r.revision >= (SELECT MAX(s.revision) FROM NoteRevision s WHERE s.noteId = :noteId " +
+            "AND s.revision <= :revision AND s.kind = com.bbay.mindnote.entity.RevisionKind.SNAPSHOT) " +
+            "ORDER BY r.revision")
+    List<NoteRevision> findChain(@Param("noteId") Long noteId, @Param("revision") int revision);
+
+    List<NoteRevision> findByNoteIdOrderByRevision(Long noteId);
+
+    /**
+     * Lists revisions without their payloads.
+     */
+    @Query(value = "SELECT new com.bbay.mindnote.dto.NoteRevisionSummary(" +
+            "r.revision, r.title, r.contentLength, r.kind, r.payloadSize, r.createdAt) " +
+            "FROM NoteRevision r WHERE r.noteId = :noteId",
+            countQuery = "SELECT COUNT(r) FROM NoteRevision r WHERE r.noteId = :noteId")
+    Page<NoteRevisionSummary> findSummaries(@Param("noteId") Long noteId, Pageable pageable);
+
+    /**
+     * Notes that still have more than one revision per day older than the cutoff.
+     */
+    @Query(value = "SELECT DISTINCT note_id FROM note_revisions WHERE created_at < :cutoff " +
+            "GROUP BY note_id, CAST(created_at AS DATE) HAVING COUNT(*) > 1 LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findCompactionCandidates(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,100 @@
+package com.bbay.mindnote.repository;
+
+import com.bbay.mindnote.entity.NoteSignature;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NoteSignatureRepository extends JpaRepository<NoteSignature, Long> {
+
+    interface UnsignedNote {
+        Long getId();
+
+        String getContent();
+    }
+
+    interface CandidatePair {
+        Long getNoteId();
+
+        Long getOtherNoteId();
+    }
+
+    /**
+     * The signature of a live note. Empty when the note is not signed yet, and also when it is
+     * deleted, since deleted notes keep their signature until purged.
+     */
+    @Query(value = "SELECT s.* FROM note_signatures s JOIN notes n ON n.id = s.note_id " +
+            "WHERE s.note_id = :noteId AND n.deleted_at IS NULL",
+            nativeQuery = true)
+    Optional<NoteSignature> findLiveById(@Param("noteId") Long noteId);
+
+    @Modifying
+    @Query(value = "INSERT INTO note_signatures (note_id, signature, updated_at) VALUES (:noteId, :signature, :now) " +
+            "ON CONFLICT (note_id) DO UPDATE SET signature = EXCLUDED.signature, updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int upsert(@Param("noteId") Long noteId, @Param("signature") byte[] signature, @Param("now") LocalDateTime now);
+
+    /**
+     * Backfill write: never overwrites a signature that a concurrent note update stored meanwhile.
+     *
+     * @return 1 if the signature was inserted, 0 if one existed already
+     */
+    @Modifying
+    @Query(value = "INSERT INTO note_signatures (note_id, signature, updated_at) VALUES (:noteId, :signature, :now) " +
+            "ON CONFLICT (note_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("noteId") Long noteId, @Param("signature") byte[] signature, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_lsh_bands WHERE note_id = :noteId", nativeQuery = true)
+    int deleteBands(@Param("noteId") Long noteId);
+
+    /**
+     * Inserts all band buckets of a note in one statement; element {@code i} is band {@code i}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO note_lsh_bands (band, bucket, note_id) " +
+            "SELECT b.ordinality - 1, b.bucket, :noteId FROM unnest(:buckets) WITH ORDINALITY AS b(bucket, ordinality)",
+            nativeQuery = true)
+    int insertBands(@Param("noteId") Long noteId, @Param("buckets") long[] buckets);
+
+    /**
+     * Notes other than {@code noteId} that share at least one band bucket, most shared bands
+     * first. Element {@code i} of {@code buckets} is band {@code i}; each band is one primary-key
+     * lookup, so the cost follows the number of collisions rather than the number of notes.
+     */
+    @Query(value = "SELECT l.note_id FROM unnest(:buckets) WITH ORDINALITY AS b(bucket, ordinality) " +
+            "JOIN note_lsh_bands l ON l.band = b.ordinality - 1 AND l.bucket = b.bucket " +
+            "WHERE l.note_id <> :noteId " +
+            "GROUP BY l.note_id ORDER BY COUNT(*) DESC, l.note_id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findCandidates(@Param("noteId") Long noteId, @Param("buckets") long[] buckets,
+                              @Param("limit") int limit);
+
+    /**
+     * Pairs of notes that share a band bucket, most shared bands first: the candidate set for a
+     * duplicate report, proportional to bucket collisions instead of all pairs of notes.
+     */
+    @Query(value = "SELECT a.note_id AS \"noteId\", b.note_id AS \"otherNoteId\" FROM note_lsh_bands a " +
+            "JOIN note_lsh_bands b ON b.band = a.band AND b.bucket = a.bucket AND b.note_id > a.note_id " +
+            "GROUP BY a.note_id, b.note_id ORDER BY COUNT(*) DESC, a.note_id, b.note_id LIMIT :limit",
+            nativeQuery = true)
+    List<CandidatePair> findCandidatePairs(@Param("limit") int limit);
+
+    /**
+     * Live notes without a signature yet, in id order after {@code afterId}.
+     */
+    @Query(value = "SELECT n.id AS id, n.content AS content FROM notes n " +
+            "WHERE n.id > :afterId AND n.deleted_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM note_signatures s WHERE s.note_id = n.id) " +
+            "ORDER BY n.id LIMIT :limit",
+            nativeQuery = true)
+    List<UnsignedNote> findUnsigned(@Param("afterId") long afterId, @Param("limit") int limit);
+}
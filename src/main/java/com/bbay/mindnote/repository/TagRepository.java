@@ -1,12 +1,54 @@
 package com.bbay.mindnote.repository;
 
+import com.bbay.mindnote.dto.TagResponse;
 import com.bbay.mindnote.entity.Tag;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findByName(String name);
-}
\ No newline at end of file
+
+    /**
+     * Streams every tag as a DTO projection (no managed entities) for building the in-memory indexes.
+     * Must be consumed inside a transaction and closed.
+     */
+    @Query("SELECT new com.bbay.mindnote.dto.TagResponse(t.id, t.name, t.noteCount, t.taskCount) FROM Tag t")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<TagResponse> streamAllUsage();
+
+    /**
+     * Atomically shifts the note counter of the given tags; done in SQL so concurrent
+     * writers never lose an increment.
+     */
+    @Modifying
+    @Query("UPDATE Tag t SET t.noteCount = t.noteCount + :delta WHERE t.id IN :ids")
+    int adjustNoteCount(@Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Tag t SET t.taskCount = t.taskCount + :delta WHERE t.id IN :ids")
+    int adjustTaskCount(@Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    /**
+     * Recomputes every counter from the join tables. Only meant as a one-off repair
+     * (e.g. after the counter columns were added to an existing database).
+     */
+    @Modifying
+    @Query(value = "UPDATE tags t SET " +
+            "note_count = (SELECT COUNT(*) FROM note_tags nt WHERE nt.tag_id = t.id), " +
+            "task_count = (SELECT COUNT(*) FROM task_tags tt WHERE tt.tag_id = t.id)",
+            nativeQuery = true)
+    int recalculateUsageCounts();
+}
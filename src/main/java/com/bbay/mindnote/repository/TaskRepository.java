@@ -1,29 +1,370 @@
 package com.bbay.mindnote.repository;
 
+import com.bbay.mindnote.dto.TaskSummary;
+import com.bbay.mindnote.entity.Tag;
 import com.bbay.mindnote.entity.Task;
 import com.bbay.mindnote.entity.TaskStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
+    // A deleted note keeps its task links until it is purged; filtering by it matches no task
+    String LIVE_NOTE = "EXISTS (SELECT 1 FROM Note n WHERE n.id = :noteId AND n.deletedAt IS NULL)";
+    String NATIVE_LIVE_NOTE = "EXISTS (SELECT 1 FROM notes n WHERE n.id = :noteId AND n.deleted_at IS NULL)";
+
+    // The tag filter is a semi-join, so no DISTINCT is needed and any task property can be sorted on
+    String FILTERS = "FROM Task t LEFT JOIN t.category c " +
+           "WHERE (:status IS NULL OR t.status = :status) " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "AND (:tagName IS NULL OR EXISTS (SELECT 1 FROM Task tt JOIN tt.tags tag WHERE tt = t AND tag.name = :tagName)) " +
+           "AND (:noteId IS NULL OR (t.note.id = :noteId AND " + LIVE_NOTE + "))";
+
+    // The category and every category beneath it, through a range scan over the materialized path
+    String SUBTREE_FILTERS = "FROM Task t JOIN t.category c " +
+           "WHERE c.path >= (SELECT r.path FROM Category r WHERE r.id = :categoryId) " +
+           "AND c.path < (SELECT CONCAT(r.path, '~') FROM Category r WHERE r.id = :categoryId) " +
+           "AND (:status IS NULL OR t.status = :status) " +
+           "AND (:tagName IS NULL OR EXISTS (SELECT 1 FROM Task tt JOIN tt.tags tag WHERE tt = t AND tag.name = :tagName)) " +
+           "AND (:noteId IS NULL OR (t.note.id = :noteId AND " + LIVE_NOTE + "))";
+
+    /**
+     * Ids of one page of tasks matching the filters, in the requested order, without a count
+     * query.
+     */
+    @Query("SELECT t.id " + FILTERS)
+    Slice<Long> findPageIds(
+            @Param("status") TaskStatus status,
+            @Param("categoryId") Long categoryId,
+            @Param("tagName") String tagName,
+            @Param("noteId") Long noteId,
+            Pageable pageable
+    );
+
+    /**
+     * Like {@link #findPageIds}, but matches the category and every category beneath it.
+     */
+    @Query("SELECT t.id " + SUBTREE_FILTERS)
+    Slice<Long> findPageIdsInSubtree(
+            @Param("status") TaskStatus status,
+            @Param("categoryId") Long categoryId,
+            @Param("tagName") String tagName,
+            @Param("noteId") Long noteId,
+            Pageable pageable
+    );
+
+    @Query("SELECT COUNT(t) " + FILTERS)
+    long countByFilters(@Param("status") TaskStatus status,
+                        @Param("categoryId") Long categoryId,
+                        @Param("tagName") String tagName,
+                        @Param("noteId") Long noteId);
+
+    @Query("SELECT COUNT(t) " + SUBTREE_FILTERS)
+    long countByFiltersInSubtree(@Param("status") TaskStatus status,
+                                 @Param("categoryId") Long categoryId,
+                                 @Param("tagName") String tagName,
+                                 @Param("noteId") Long noteId);
+
+    /**
+     * Facet counts for the tasks matching the same filters as {@link #findPageIds} and
+     * {@link #findPageIdsInSubtree}: one GROUPING SETS pass over category, tag, status and
+     * priority, counting distinct tasks and keeping the top {@code limit} values per facet.
+     * The category and tag joins are only made when requested.
+     */
+    @Query(value = "SELECT facet, value, count FROM (" +
+            "  SELECT facet, value, count, ROW_NUMBER() OVER (PARTITION BY facet ORDER BY count DESC, value) AS rank " +
+            "  FROM (" +
+            "    SELECT CASE WHEN GROUPING(c.name) = 0 THEN 'category' " +
+            "                WHEN GROUPING(tg.name) = 0 THEN 'tag' " +
+            "                WHEN GROUPING(t.status) = 0 THEN 'status' " +
+            "                ELSE 'priority' END AS facet, " +
+            "           COALESCE(c.name, tg.name, t.status, t.priority) AS value, " +
+            "           COUNT(DISTINCT t.id) AS count " +
+            "    FROM tasks t " +
+            "    LEFT JOIN categories c ON c.id = t.category_id AND :withCategories " +
+            "    LEFT JOIN task_tags tt ON tt.task_id = t.id AND :withTags " +
+            "    LEFT JOIN tags tg ON tg.id = tt.tag_id " +
+            "    WHERE t.deleted_at IS NULL " +
+            "    AND (CAST(:status AS VARCHAR) IS NULL OR t.status = :status) " +
+            "    AND (CAST(:categoryId AS BIGINT) IS NULL OR t.category_id IN (" +
+            "         SELECT fc.id FROM categories fc JOIN categories root ON root.id = :categoryId " +
+            "         WHERE fc.id = root.id OR (:recursive AND fc.path >= root.path AND fc.path < root.path || '~'))) " +
+            "    AND (CAST(:tagName AS VARCHAR) IS NULL OR EXISTS (" +
+            "         SELECT 1 FROM task_tags ft JOIN tags ftn ON ftn.id = ft.tag_id " +
+            "         WHERE ft.task_id = t.id AND ftn.name = :tagName)) " +
+            "    AND (CAST(:noteId AS BIGINT) IS NULL OR (t.note_id = :noteId AND " + NATIVE_LIVE_NOTE + ")) " +
+            "    GROUP BY GROUPING SETS ((c.name), (tg.name), (t.status), (t.priority))" +
+            "  ) grouped WHERE value IS NOT NULL" +
+            ") ranked WHERE rank <= :limit",
+            nativeQuery = true)
+    List<FacetRow> countFacets(@Param("status") String status,
+                               @Param("categoryId") Long categoryId,
+                               @Param("recursive") boolean recursive,
+                               @Param("tagName") String tagName,
+                               @Param("noteId") Long noteId,
+                               @Param("withCategories") boolean withCategories,
+                               @Param("withTags") boolean withTags,
+                               @Param("limit") int limit);
+
+    // --- Agenda (see TaskService.getAgenda) ---
+
+    interface AgendaRow {
+        Long getId();
+
+        LocalDateTime getBucket();
+
+        Long getBucketCount();
+    }
+
+    /**
+     * Ids of the first {@code limit} tasks by due date in every {@code unit} ('day' or 'week')
+     * bucket of {@code [from, to)}, with the total per bucket, ordered by bucket and due date.
+     * One range scan over idx_tasks_due_date feeds the window functions; the filters are those
+     * of {@link #countFacets}. Recurring series are left out, their occurrences are expanded
+     * separately.
+     */
+    @Query(value = "SELECT id, bucket, bucket_count AS \"bucketCount\" FROM (" +
+            "  SELECT t.id, t.due_date, date_trunc(:unit, t.due_date) AS bucket, " +
+            "         COUNT(*) OVER (PARTITION BY date_trunc(:unit, t.due_date)) AS bucket_count, " +
+            "         ROW_NUMBER() OVER (PARTITION BY date_trunc(:unit, t.due_date) ORDER BY t.due_date, t.id) AS rank " +
+            "  FROM tasks t " +
+            "  WHERE t.due_date >= :from AND t.due_date < :to " +
+            "  AND t.deleted_at IS NULL AND t.recurrence IS NULL " +
+            "  AND (CAST(:status AS VARCHAR) IS NULL OR t.status = :status) " +
+            "  AND (CAST(:categoryId AS BIGINT) IS NULL OR t.category_id IN (" +
+            "       SELECT fc.id FROM categories fc JOIN categories root ON root.id = :categoryId " +
+            "       WHERE fc.id = root.id OR (:recursive AND fc.path >= root.path AND fc.path < root.path || '~'))) " +
+            "  AND (CAST(:tagName AS VARCHAR) IS NULL OR EXISTS (" +
+            "       SELECT 1 FROM task_tags ft JOIN tags ftn ON ftn.id = ft.tag_id " +
+            "       WHERE ft.task_id = t.id AND ftn.name = :tagName)) " +
+            "  AND (CAST(:noteId AS BIGINT) IS NULL OR (t.note_id = :noteId AND " + NATIVE_LIVE_NOTE + "))" +
+            ") ranked WHERE rank <= :limit ORDER BY bucket, due_date, id",
+            nativeQuery = true)
+    List<AgendaRow> findAgenda(@Param("status") String status,
+                               @Param("categoryId") Long categoryId,
+                               @Param("recursive") boolean recursive,
+                               @Param("tagName") String tagName,
+                               @Param("noteId") Long noteId,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("unit") String unit,
+                               @Param("limit") int limit);
+
+    // --- Recurring tasks (see TaskService.getTasksDueBetween) ---
+
+    /**
+     * Tasks due in {@code [from, to)} matching the list filters, without recurring series, whose
+     * occurrences are expanded separately. {@code recursive} widens the category filter to its
+     * subtree like {@link #findPageIdsInSubtree}.
+     */
     @Query("SELECT DISTINCT t FROM Task t " +
            "LEFT JOIN t.category c " +
            "LEFT JOIN t.tags tag " +
-           "WHERE (:status IS NULL OR t.status = :status) " +
-           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "WHERE t.recurrence IS NULL AND t.dueDate >= :from AND t.dueDate < :to " +
+           "AND (:status IS NULL OR t.status = :status) " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId OR (:recursive = TRUE " +
+           "     AND c.path >= (SELECT r.path FROM Category r WHERE r.id = :categoryId) " +
+           "     AND c.path < (SELECT CONCAT(r.path, '~') FROM Category r WHERE r.id = :categoryId))) " +
            "AND (:tagName IS NULL OR tag.name = :tagName) " +
-           "AND (:noteId IS NULL OR t.note.id = :noteId)")
-    Page<Task> findByFilters(
+           "AND (:noteId IS NULL OR (t.note.id = :noteId AND " + LIVE_NOTE + "))")
+    Page<Task> findDueBetween(
             @Param("status") TaskStatus status,
             @Param("categoryId") Long categoryId,
+            @Param("recursive") boolean recursive,
             @Param("tagName") String tagName,
             @Param("noteId") Long noteId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    /**
+     * Recurring series matching the list filters whose first occurrence is before {@code to}.
+     */
+    @Query("SELECT DISTINCT t FROM Task t " +
+           "LEFT JOIN t.category c " +
+           "LEFT JOIN t.tags tag " +
+           "WHERE t.recurrence IS NOT NULL AND t.dueDate < :to " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId OR (:recursive = TRUE " +
+           "     AND c.path >= (SELECT r.path FROM Category r WHERE r.id = :categoryId) " +
+           "     AND c.path < (SELECT CONCAT(r.path, '~') FROM Category r WHERE r.id = :categoryId))) " +
+           "AND (:tagName IS NULL OR tag.name = :tagName) " +
+           "AND (:noteId IS NULL OR (t.note.id = :noteId AND " + LIVE_NOTE + ")) " +
+           "ORDER BY t.id")
+    List<Task> findSeriesStartingBefore(
+            @Param("categoryId") Long categoryId,
+            @Param("recursive") boolean recursive,
+            @Param("tagName") String tagName,
+            @Param("noteId") Long noteId,
+            @Param("to") LocalDateTime to
+    );
+
+    interface OccurrenceRow {
+        Long getSeriesId();
+
+        LocalDateTime getOccurrenceDate();
+    }
+
+    /**
+     * Occurrences in {@code [from, to)} of the given series that have a row of their own.
+     */
+    @Query("SELECT t.recurrenceParentId AS seriesId, t.occurrenceDate AS occurrenceDate FROM Task t " +
+           "WHERE t.recurrenceParentId IN :seriesIds AND t.occurrenceDate >= :from AND t.occurrenceDate < :to")
+    List<OccurrenceRow> findEditedOccurrences(@Param("seriesIds") Collection<Long> seriesIds,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    Optional<Task> findByRecurrenceParentIdAndOccurrenceDate(Long seriesId, LocalDateTime occurrenceDate);
+
+    @Query("SELECT tag FROM Task t JOIN t.tags tag WHERE t.id = :taskId")
+    List<Tag> findTagsByTaskId(@Param("taskId") Long taskId);
+
+    /**
+     * Marks a task deleted in one statement, without loading it.
+     *
+     * @return 1 if the task existed and was not deleted yet, otherwise 0
+     */
+    @Modifying
+    @Query(value = "UPDATE tasks SET deleted_at = :now WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int softDelete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // --- Dependencies (see TaskDependencyService) ---
+
+    interface DependencyNodeRow {
+        Long getId();
+
+        Long getCategoryId();
+
+        Boolean getDone();
+    }
+
+    interface DependencyRow {
+        Long getTaskId();
+
+        Long getBlockerId();
+    }
+
+    @Query(value = "SELECT id, category_id AS \"categoryId\", status = 'DONE' AS done FROM tasks WHERE deleted_at IS NULL",
+            nativeQuery = true)
+    Stream<DependencyNodeRow> streamDependencyNodes();
+
+    @Query(value = "SELECT d.task_id AS \"taskId\", d.blocker_id AS \"blockerId\" FROM task_dependencies d " +
+            "JOIN tasks t ON t.id = d.task_id AND t.deleted_at IS NULL " +
+            "JOIN tasks b ON b.id = d.blocker_id AND b.deleted_at IS NULL",
+            nativeQuery = true)
+    Stream<DependencyRow> streamDependencies();
+
+    @Query("SELECT new com.bbay.mindnote.dto.TaskSummary(t.id, t.title, t.status, t.priority, t.dueDate) " +
+            "FROM Task t WHERE t.id IN :ids")
+    List<TaskSummary> findSummaries(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @return 1 if the dependency was added, 0 if it existed already
+     */
+    @Modifying
+    @Query(value = "INSERT INTO task_dependencies (task_id, blocker_id, created_at) VALUES (:taskId, :blockerId, :now) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertDependency(@Param("taskId") Long taskId, @Param("blockerId") Long blockerId,
+                         @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_dependencies WHERE task_id = :taskId AND blocker_id = :blockerId",
+            nativeQuery = true)
+    int deleteDependency(@Param("taskId") Long taskId, @Param("blockerId") Long blockerId);
+
+    /**
+     * Removes every dependency a task takes part in, on either side.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM task_dependencies WHERE task_id = :id OR blocker_id = :id", nativeQuery = true)
+    int deleteDependencies(@Param("id") Long id);
+
+    // --- Due-date reminders (see TaskReminderScheduler) ---
+
+    interface PendingDueRow {
+        Long getId();
+
+        LocalDateTime getDueDate();
+
+        Boolean getReminded();
+    }
+
+    /**
+     * Open tasks due up to {@code until} whose overdue event has not fired yet, including those
+     * already past due. Matches the predicate of idx_tasks_pending_due_date, so only pending
+     * rows are read. Recurring series are left out; an occurrence gets reminders once it has a row.
+     */
+    @Query(value = "SELECT id, due_date AS \"dueDate\", reminded_due_date IS NOT DISTINCT FROM due_date AS reminded " +
+            "FROM tasks WHERE deleted_at IS NULL AND status <> 'DONE' AND overdue_due_date IS DISTINCT FROM due_date " +
+            "AND due_date <= :until AND recurrence IS NULL",
+            nativeQuery = true)
+    Stream<PendingDueRow> streamPendingDue(@Param("until") LocalDateTime until);
+
+    /**
+     * Records the reminder for the given due date.
+     *
+     * @return 1 the first time for this due date while the task is open, otherwise 0
+     */
+    @Modifying
+    @Query(value = "UPDATE tasks SET reminded_due_date = due_date " +
+            "WHERE id = :id AND due_date = :dueDate AND deleted_at IS NULL AND status <> 'DONE' AND recurrence IS NULL " +
+            "AND reminded_due_date IS DISTINCT FROM due_date",
+            nativeQuery = true)
+    int markReminded(@Param("id") Long id, @Param("dueDate") LocalDateTime dueDate);
+
+    /**
+     * Records that the task went overdue for the given due date and, with {@code escalate}, raises
+     * its priority by one level in the same statement.
+     *
+     * @return 1 the first time for this due date while the task is open, otherwise 0
+     */
+    @Modifying
+    @Query(value = "UPDATE tasks SET overdue_due_date = due_date, reminded_due_date = due_date, " +
+            "priority = CASE WHEN :escalate AND priority = 'LOW' THEN 'MEDIUM' WHEN :escalate THEN 'HIGH' ELSE priority END, " +
+            "updated_at = CASE WHEN :escalate AND priority <> 'HIGH' THEN :now ELSE updated_at END " +
+            "WHERE id = :id AND due_date = :dueDate AND deleted_at IS NULL AND status <> 'DONE' AND recurrence IS NULL " +
+            "AND overdue_due_date IS DISTINCT FROM due_date",
+            nativeQuery = true)
+    int markOverdue(@Param("id") Long id, @Param("dueDate") LocalDateTime dueDate,
+                    @Param("escalate") boolean escalate, @Param("now") LocalDateTime now);
+
+    // --- Purge of soft-deleted rows (see SoftDeletePurger) ---
+
+    /**
+     * Locks a batch of tasks deleted before the cutoff; rows locked by a concurrent purge are skipped.
+     */
+    @Query(value = "SELECT id FROM tasks WHERE deleted_at < :before ORDER BY deleted_at LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockPurgeable(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_tags WHERE task_id IN (:ids)", nativeQuery = true)
+    int deleteTagLinks(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE id IN (:ids)", nativeQuery = true)
+    int hardDelete(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Detaches tasks from notes that are about to be purged. Deleting a note leaves its task links
+     * in place, so this is where they are cleared.
+     */
+    @Modifying
+    @Query(value = "UPDATE tasks SET note_id = NULL WHERE note_id IN (:noteIds)", nativeQuery = true)
+    int unlinkNotes(@Param("noteIds") Collection<Long> noteIds);
+}
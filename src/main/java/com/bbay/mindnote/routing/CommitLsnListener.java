@@ -0,0 +1,66 @@
+package com.bbay.mindnote.routing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * After a write transaction commits during an HTTP request, reads the primary's WAL position and
+ * hands it to the client as its consistency token. The controller has not written the response
+ * yet at that point, so the header still goes out with it.
+ * <p>
+ * The position is read on the transaction's own connection, which stays bound until the
+ * transaction is cleaned up, so a write never needs a second pooled connection. Read after the
+ * commit, it is never older than the commit record.
+ */
+class CommitLsnListener implements TransactionExecutionListener {
+
+    private static final Logger logger = LogManager.getLogger(CommitLsnListener.class);
+
+    private final DataSource dataSource;
+    private final String header;
+
+    CommitLsnListener(DataSource dataSource, String header) {
+        this.dataSource = dataSource;
+        this.header = header;
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)
+                || servletAttributes.getResponse() == null) {
+            return;
+        }
+        if (!(TransactionSynchronizationManager.getResource(dataSource) instanceof ConnectionHolder holder)) {
+            return;
+        }
+        // The statement opens a new transaction on the connection; the pool rolls it back on return
+        Connection connection = holder.getConnection();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+            rs.next();
+            String lsn = rs.getString(1);
+            ConsistencyToken.require(ConsistencyToken.parse(lsn));
+            servletAttributes.getResponse().setHeader(header, lsn);
+        } catch (SQLException ex) {
+            // Without a token the client may read stale data from a replica, but the write succeeded
+            logger.warn("Could not read the primary WAL position after commit: {}", ex.getMessage());
+        }
+    }
+}
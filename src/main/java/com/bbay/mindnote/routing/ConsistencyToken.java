@@ -0,0 +1,67 @@
+package com.bbay.mindnote.routing;
+
+/**
+ * The primary WAL position a client has already observed, carried between requests so reads
+ * after a client's own write are only served by replicas that have replayed at least that far.
+ * PostgreSQL prints LSNs as two hex halves, e.g. {@code 16/B374D848}. LSNs are unsigned 64-bit
+ * positions, so they are compared with {@link #compare(long, long)} rather than {@code <}.
+ */
+public final class ConsistencyToken {
+
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+
+    private ConsistencyToken() {
+    }
+
+    /**
+     * The LSN reads on this thread must observe, or 0 when any healthy replica will do.
+     */
+    public static long requiredLsn() {
+        Long lsn = REQUIRED_LSN.get();
+        return lsn != null ? lsn : 0L;
+    }
+
+    /**
+     * Raises the LSN reads on this thread must observe; never lowers it.
+     */
+    public static void require(long lsn) {
+        if (compare(lsn, requiredLsn()) > 0) {
+            REQUIRED_LSN.set(lsn);
+        }
+    }
+
+    /**
+     * Orders two LSNs as the unsigned positions they are.
+     */
+    public static int compare(long lsn, long other) {
+        return Long.compareUnsigned(lsn, other);
+    }
+
+    public static void clear() {
+        REQUIRED_LSN.remove();
+    }
+
+    /**
+     * Parses a PostgreSQL LSN; returns 0 for missing or malformed input so a bad token only
+     * costs stickiness, never the request.
+     */
+    public static long parse(String lsn) {
+        if (lsn == null) {
+            return 0L;
+        }
+        int slash = lsn.indexOf('/');
+        if (slash <= 0 || slash == lsn.length() - 1) {
+            return 0L;
+        }
+        try {
+            return (Long.parseLong(lsn.substring(0, slash).strip(), 16) << 32)
+                    | Long.parseLong(lsn.substring(slash + 1).strip(), 16);
+        } catch (NumberFormatException ex) {
+            return 0L;
+        }
+    }
+
+    public static String format(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
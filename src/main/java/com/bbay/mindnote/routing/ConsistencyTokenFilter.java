@@ -0,0 +1,33 @@
+package com.bbay.mindnote.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies the client's consistency token (the LSN returned by its last write) to the reads of
+ * this request.
+ */
+class ConsistencyTokenFilter extends OncePerRequestFilter {
+
+    private final String header;
+
+    ConsistencyTokenFilter(String header) {
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConsistencyToken.require(ConsistencyToken.parse(request.getHeader(header)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConsistencyToken.clear();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.bbay.mindnote.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces Boot's single pooled DataSource with a primary pool plus replica pools when
+ * {@code mindnote.routing.enabled=true}. Flyway, writes and read-write transactions keep using
+ * the primary; only read-only transactions are routed.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "mindnote.routing", name = "enabled", havingValue = "true")
+public class ReadReplicaRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                                 RoutingProperties routingProperties,
+                                                 Environment environment,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        // Keep honouring spring.datasource.hikari.* for the primary, as Boot's own pool would
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<ReplicaMonitor.Replica> replicas = new ArrayList<>();
+        for (RoutingProperties.Replica settings : routingProperties.replicas()) {
+            String name = "replica-" + (replicas.size() + 1);
+            replicas.add(new ReplicaMonitor.Replica(name, replicaPool(name, settings, dataSourceProperties, registry)));
+        }
+        ReplicaMonitor monitor = new ReplicaMonitor(replicas, routingProperties, registry);
+        monitor.start();
+
+        return new ReadWriteRoutingDataSource(primary, new ReplicaRoutingDataSource(primary, monitor, registry), monitor);
+    }
+
+    @Bean
+    public ConsistencyTokenFilter consistencyTokenFilter(RoutingProperties routingProperties) {
+        return new ConsistencyTokenFilter(routingProperties.tokenHeader());
+    }
+
+    /**
+     * Registered with the transaction manager by Boot, which applies every
+     * {@code TransactionExecutionListener} bean.
+     */
+    @Bean
+    public CommitLsnListener commitLsnListener(ReadWriteRoutingDataSource dataSource,
+                                               RoutingProperties routingProperties) {
+        return new CommitLsnListener(dataSource, routingProperties.tokenHeader());
+    }
+
+    private static HikariDataSource replicaPool(String name, RoutingProperties.Replica settings,
+                                                DataSourceProperties primary, MeterRegistry registry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(settings.url());
+        pool.setUsername(settings.username() != null ? settings.username() : primary.determineUsername());
+        pool.setPassword(settings.password() != null ? settings.password() : primary.determinePassword());
+        pool.setMaximumPoolSize(settings.maxPoolSize());
+        pool.setReadOnly(true);
+        // Let the monitor report a down replica instead of failing startup
+        pool.setInitializationFailTimeout(-1);
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return pool;
+    }
+}
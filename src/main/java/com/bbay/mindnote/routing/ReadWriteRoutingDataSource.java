@@ -0,0 +1,29 @@
+package com.bbay.mindnote.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * The application's DataSource when replica routing is on. Connections are resolved lazily on the
+ * first statement, after the transaction manager has marked the connection read-only, so
+ * {@code @Transactional(readOnly = true)} work lands on {@link ReplicaRoutingDataSource} and
+ * everything else on the primary pool.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final ReplicaMonitor monitor;
+
+    ReadWriteRoutingDataSource(HikariDataSource primary, ReplicaRoutingDataSource replicas, ReplicaMonitor monitor) {
+        super(primary);
+        setReadOnlyDataSource(replicas);
+        this.primary = primary;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void close() {
+        monitor.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,163 @@
+package com.bbay.mindnote.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the replica connection pools and polls each replica for health, replay position and lag.
+ * Routing decisions read the last observed state, so a request never waits on a health check.
+ */
+public class ReplicaMonitor implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ReplicaMonitor.class);
+
+    // pg_current_wal_lsn() fails during recovery, so each branch only runs on the matching server type
+    private static final String STATUS_QUERY = """
+            SELECT pg_is_in_recovery(),
+                   (CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END)::text,
+                   CASE WHEN NOT pg_is_in_recovery() THEN 0
+                        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                             AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final List<Replica> replicas;
+    private final RoutingProperties properties;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaMonitor(List<Replica> replicas, RoutingProperties properties, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.properties = properties;
+        if (meterRegistry != null) {
+            for (Replica replica : this.replicas) {
+                Gauge.builder("mindnote.routing.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                        .description("Whether the replica currently receives read-only transactions")
+                        .tag("replica", replica.name())
+                        .register(meterRegistry);
+                Gauge.builder("mindnote.routing.replica.lag", replica, r -> r.lagSeconds)
+                        .description("Replication lag observed at the last health check")
+                        .baseUnit("seconds")
+                        .tag("replica", replica.name())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Checks every replica once synchronously, so reads can use them right after startup,
+     * then keeps polling in the background.
+     */
+    public void start() {
+        checkAll();
+        long interval = properties.healthCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Takes a replica out of rotation until the next successful health check.
+     */
+    void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            logger.warn("Replica {} failed to provide a connection, routing reads to other replicas: {}",
+                    replica.name(), cause.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    private void checkAll() {
+        for (Replica replica : replicas) {
+            check(replica);
+        }
+    }
+
+    private void check(Replica replica) {
+        boolean healthy;
+        try (Connection connection = replica.pool().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(STATUS_QUERY)) {
+            rs.next();
+            boolean inRecovery = rs.getBoolean(1);
+            replica.replayLsn = ConsistencyToken.parse(rs.getString(2));
+            replica.lagSeconds = rs.getDouble(3);
+            healthy = (inRecovery || !properties.requireRecovery())
+                    && replica.lagSeconds <= properties.maxLag().toMillis() / 1000.0;
+            if (!inRecovery && properties.requireRecovery()) {
+                logger.warn("Replica {} is not in recovery; it is not a streaming replica and will not be used",
+                        replica.name());
+            }
+        } catch (SQLException | RuntimeException ex) {
+            healthy = false;
+            if (replica.healthy) {
+                logger.warn("Replica {} health check failed: {}", replica.name(), ex.getMessage());
+            }
+        }
+        if (healthy != replica.healthy) {
+            logger.info("Replica {} is now {} (lag {}s)", replica.name(), healthy ? "healthy" : "out of rotation",
+                    replica.lagSeconds);
+        }
+        replica.healthy = healthy;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        replicas.forEach(replica -> replica.pool().close());
+    }
+
+    /**
+     * A replica pool plus the state from its last health check.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+        private volatile long replayLsn;
+        private volatile double lagSeconds;
+
+        public Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        HikariDataSource pool() {
+            return pool;
+        }
+
+        public boolean healthy() {
+            return healthy;
+        }
+
+        /**
+         * Whether the replica is in rotation and has replayed at least {@code requiredLsn}.
+         */
+        boolean canServe(long requiredLsn) {
+            return healthy && ConsistencyToken.compare(replayLsn, requiredLsn) >= 0;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bbay.mindnote.routing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection source for read-only transactions: round-robins over the replicas that are healthy
+ * and have replayed the client's consistency token, skipping any that fail to hand out a
+ * connection, and falls back to the primary when none qualifies.
+ */
+class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaMonitor monitor;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReplicaRoutingDataSource(DataSource primary, ReplicaMonitor monitor, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.monitor = monitor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long requiredLsn = ConsistencyToken.requiredLsn();
+        List<ReplicaMonitor.Replica> replicas = monitor.replicas();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        boolean anyHealthy = false;
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaMonitor.Replica replica = replicas.get((start + i) % replicas.size());
+            anyHealthy |= replica.healthy();
+            if (!replica.canServe(requiredLsn)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool().getConnection();
+                count(replica.name(), "replica");
+                return connection;
+            } catch (SQLException ex) {
+                monitor.markDown(replica, ex);
+            }
+        }
+        // A healthy replica that is behind the token means read-your-writes forced the primary
+        count("primary", anyHealthy ? "consistency" : "no-replica");
+        return primary.getConnection();
+    }
+
+    /**
+     * Not supported: each replica pool connects with its configured credentials.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing uses the configured credentials");
+    }
+
+    private void count(String target, String reason) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("mindnote.routing.reads", "target", target, "reason", reason).increment();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bbay.mindnote.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-replica routing for read-only transactions.
+ *
+ * @param enabled             route {@code @Transactional(readOnly = true)} work to replicas
+ * @param replicas            replica connection settings; credentials default to the primary's
+ * @param maxLag              replicas further behind the primary than this are skipped
+ * @param healthCheckInterval how often replica health and lag are polled
+ * @param requireRecovery     only accept servers in recovery (real streaming replicas); turn off
+ *                            to point at an independent database in local tests
+ * @param tokenHeader         request/response header carrying the client's consistency token
+ */
+@ConfigurationProperties(prefix = "mindnote.routing")
+public record RoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("1s") Duration healthCheckInterval,
+        @DefaultValue("true") boolean requireRecovery,
+        @DefaultValue("X-Consistency-Token") String tokenHeader) {
+
+    /**
+     * @param url         JDBC URL of the replica
+     * @param username    defaults to {@code spring.datasource.username}
+     * @param password    defaults to {@code spring.datasource.password}
+     * @param maxPoolSize connections kept to this replica
+     */
+    public record Replica(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maxPoolSize) {
+    }
+}
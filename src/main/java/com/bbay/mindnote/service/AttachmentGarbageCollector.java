@@ -0,0 +1,99 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.repository.AttachmentRepository;
+import com.bbay.mindnote.storage.AttachmentProperties;
+import com.bbay.mindnote.storage.BlobStorage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Deletes blobs whose reference count dropped to zero. Runs right after the commit that released
+ * the last reference, and periodically as a sweep for anything missed (e.g. a crash between
+ * commit and collection).
+ *
+ * <p>The row is deleted and the file removed in one transaction, while the row is locked. An
+ * upload of the same content blocks on that lock and, once it gets through, recreates both the
+ * row and the file, so a live blob never ends up without its file.</p>
+ */
+@Component
+public class AttachmentGarbageCollector {
+
+    private static final Logger logger = LogManager.getLogger(AttachmentGarbageCollector.class);
+
+    private static final Duration STALE_UPLOAD_AGE = Duration.ofDays(1);
+
+    private final AttachmentRepository attachmentRepository;
+    private final BlobStorage blobStorage;
+    private final AttachmentProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public AttachmentGarbageCollector(AttachmentRepository attachmentRepository,
+                                      BlobStorage blobStorage,
+                                      AttachmentProperties properties,
+                                      PlatformTransactionManager transactionManager) {
+        this.attachmentRepository = attachmentRepository;
+        this.blobStorage = blobStorage;
+        this.properties = properties;
+        // Also called from afterCommit callbacks, where the finished transaction is still bound
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Deletes the given blobs if they are no longer referenced. Failures are logged and left
+     * for the next sweep.
+     */
+    public void collect(Collection<String> hashes) {
+        int collected = 0;
+        for (String hash : hashes) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> collectOne(hash)))) {
+                    collected++;
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Failed to collect attachment blob {}", hash, ex);
+            }
+        }
+        if (collected > 0) {
+            logger.info("Collected {} unreferenced attachment blobs", collected);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.attachments.gc-interval:PT10M}",
+            fixedDelayString = "${mindnote.attachments.gc-interval:PT10M}")
+    public void sweep() {
+        List<String> hashes = attachmentRepository.findUnreferencedBlobs(
+                LocalDateTime.now().minus(properties.gcGracePeriod()), properties.gcBatch());
+        collect(hashes);
+        try {
+            blobStorage.deleteStaleUploads(STALE_UPLOAD_AGE);
+        } catch (IOException ex) {
+            logger.warn("Could not clean up stale uploads", ex);
+        }
+    }
+
+    private boolean collectOne(String hash) {
+        if (attachmentRepository.deleteIfUnreferenced(hash) == 0) {
+            return false;
+        }
+        try {
+            blobStorage.delete(hash);
+        } catch (IOException ex) {
+            // Roll back so the row, and with it the file, is retried by the next sweep
+            throw new UncheckedIOException("Could not delete blob file " + hash, ex);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,137 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.AttachmentResponse;
+import com.bbay.mindnote.entity.Attachment;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.repository.AttachmentRepository;
+import com.bbay.mindnote.repository.NoteRepository;
+import com.bbay.mindnote.storage.BlobStorage;
+import com.bbay.mindnote.storage.StagedBlob;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Attachment metadata and blob reference counting. Bytes are written by {@link BlobStorage}
+ * before any transaction starts, so a slow upload never holds a database connection.
+ */
+@Service
+public class AttachmentService {
+
+    private static final Logger logger = LogManager.getLogger(AttachmentService.class);
+
+    private final AttachmentRepository attachmentRepository;
+    private final NoteRepository noteRepository;
+    private final BlobStorage blobStorage;
+    private final AttachmentGarbageCollector garbageCollector;
+
+    public AttachmentService(AttachmentRepository attachmentRepository,
+                             NoteRepository noteRepository,
+                             BlobStorage blobStorage,
+                             AttachmentGarbageCollector garbageCollector) {
+        this.attachmentRepository = attachmentRepository;
+        this.noteRepository = noteRepository;
+        this.blobStorage = blobStorage;
+        this.garbageCollector = garbageCollector;
+    }
+
+    /**
+     * Links an uploaded blob to a note. The staged file becomes the blob's file unless the same
+     * content is already stored; the caller discards the staged file afterwards either way.
+     */
+    @Transactional
+    public AttachmentResponse attach(Long noteId, String filename, String contentType, StagedBlob blob) {
+        logger.info("Attaching {} ({} bytes) to note {}", filename, blob.size(), noteId);
+        if (!noteRepository.existsById(noteId)) {
+            logger.error("Cannot attach - Note not found with id: {}", noteId);
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+
+        attachmentRepository.acquireBlob(blob.hash(), blob.size(), LocalDateTime.now());
+        blobStorage.publish(blob);
+        Attachment attachment = attachmentRepository.save(
+                new Attachment(noteId, blob.hash(), filename, contentType, blob.size()));
+        logger.info("Successfully attached {} to note {} as attachment {}", filename, noteId, attachment.getId());
+        return mapToResponse(attachment);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AttachmentResponse> getAttachments(Long noteId) {
+        logger.info("Fetching attachments of note {}", noteId);
+        if (!noteRepository.existsById(noteId)) {
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+        return attachmentRepository.findResponsesByNoteId(noteId);
+    }
+
+    @Transactional(readOnly = true)
+    public AttachmentResponse getAttachment(Long noteId, Long id) {
+        if (!noteRepository.existsById(noteId)) {
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+        return attachmentRepository.findByIdAndNoteId(id, noteId)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", id));
+    }
+
+    @Transactional
+    public void deleteAttachment(Long noteId, Long id) {
+        logger.info("Deleting attachment {} of note {}", id, noteId);
+        if (!noteRepository.existsById(noteId)) {
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+        Attachment attachment = attachmentRepository.findByIdAndNoteId(id, noteId)
+                .orElseThrow(() -> {
+                    logger.error("Cannot delete - Attachment not found with id: {}", id);
+                    return new ResourceNotFoundException("Attachment", id);
+                });
+        attachmentRepository.delete(attachment);
+        release(Map.of(attachment.getBlobHash(), 1L));
+        logger.info("Successfully deleted attachment {}", id);
+    }
+
+    /**
+     * Removes every attachment of notes that are about to be hard-deleted. Runs in the caller's
+     * transaction; blobs left without references are collected once it commits.
+     */
+    public void detachAll(Collection<Long> noteIds) {
+        List<Attachment> attachments = attachmentRepository.findByNoteIdIn(noteIds);
+        if (attachments.isEmpty()) {
+            return;
+        }
+        attachmentRepository.deleteAllInBatch(attachments);
+        release(attachments.stream()
+                .collect(Collectors.groupingBy(Attachment::getBlobHash, Collectors.counting())));
+        logger.debug("Detached {} attachments from {} notes", attachments.size(), noteIds.size());
+    }
+
+    // --- Helper Methods ---
+
+    private void release(Map<String, Long> referencesByHash) {
+        LocalDateTime now = LocalDateTime.now();
+        referencesByHash.forEach((hash, count) ->
+                attachmentRepository.releaseBlob(hash, count.intValue(), now));
+        Set<String> hashes = Set.copyOf(referencesByHash.keySet());
+        TransactionHooks.afterCommit(() -> garbageCollector.collect(hashes));
+    }
+
+    private AttachmentResponse mapToResponse(Attachment attachment) {
+        return new AttachmentResponse(
+                attachment.getId(),
+                attachment.getNoteId(),
+                attachment.getFilename(),
+                attachment.getContentType(),
+                attachment.getSize(),
+                attachment.getBlobHash(),
+                attachment.getCreatedAt()
+        );
+    }
+}
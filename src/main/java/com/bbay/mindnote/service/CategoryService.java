@@ -0,0 +1,197 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.CategoryRequest;
+import com.bbay.mindnote.dto.CategoryResponse;
+import com.bbay.mindnote.dto.CategoryTreeNode;
+import com.bbay.mindnote.entity.Category;
+import com.bbay.mindnote.exception.CategoryHierarchyException;
+import com.bbay.mindnote.exception.DuplicateResourceException;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.repository.CategoryRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class CategoryService {
+
+    private static final Logger logger = LogManager.getLogger(CategoryService.class);
+
+    static final int MAX_SUGGESTIONS = 20;
+
+    private static final String NAME_CONSTRAINT = "uk_categories_name";
+
+    // Bounds the path length (at most 20 characters per level) and the sidebar nesting
+    static final int MAX_DEPTH = 32;
+
+    private final CategoryRepository categoryRepository;
+
+    // Categories carry no usage counters, so every entry has weight 0 and ranking falls back to name
+    private final PrefixTrie suggestions = new PrefixTrie(MAX_SUGGESTIONS);
+
+    private final CategoryTree tree = new CategoryTree();
+
+    public CategoryService(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+        logger.info("CategoryService initialized");
+    }
+
+    /**
+     * Loads the suggestions and the tree from the database. The tree stays locked until both are
+     * replaced, so a category created or moved meanwhile updates them afterwards instead of being
+     * overwritten by the load. Reads from the primary, which has every commit whose update ran
+     * before the load started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadSuggestions() {
+        synchronized (tree) {
+            List<CategoryResponse> categories;
+            try (Stream<CategoryResponse> stream = categoryRepository.streamAll()) {
+                categories = stream.toList();
+            }
+            List<PrefixTrie.Entry> entries = new ArrayList<>(categories.size());
+            categories.forEach(category -> entries.add(new PrefixTrie.Entry(category.id(), category.name(), 0)));
+            suggestions.clear();
+            suggestions.putAll(entries);
+            tree.replaceAll(categories);
+        }
+        logger.info("Category suggestions and tree loaded with {} categories", suggestions.size());
+    }
+
+    @Transactional
+    public CategoryResponse createCategory(CategoryRequest request) {
+        String name = request.name().strip();
+        logger.info("Creating new category with name: {} under parent: {}", name, request.parentId());
+        if (categoryRepository.findByName(name).isPresent()) {
+            throw new DuplicateResourceException("Category", name);
+        }
+
+        Category category = new Category(name);
+        String parentPath = "/";
+        if (request.parentId() != null) {
+            categoryRepository.lockHierarchyShared();
+            // Locked so the path copied below is the parent's current one until the insert commits
+            Category parent = categoryRepository.lockSharedById(request.parentId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", request.parentId()));
+            if (parent.getDepth() + 1 >= MAX_DEPTH) {
+                throw new CategoryHierarchyException(
+                        String.format("Categories can be nested at most %d levels deep", MAX_DEPTH));
+            }
+            category.setParentId(parent.getId());
+            category.setDepth(parent.getDepth() + 1);
+            parentPath = parent.getPath();
+        }
+        // The path ends with the category's own id, which only exists after the insert
+        category.setPath(parentPath);
+        Category saved;
+        try {
+            saved = categoryRepository.save(category);
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent create of the same name committed after the check above
+            if (ex.getCause() instanceof ConstraintViolationException violation
+                    && NAME_CONSTRAINT.equals(violation.getConstraintName())) {
+                throw new DuplicateResourceException("Category", name);
+            }
+            throw ex;
+        }
+        saved.setPath(parentPath + saved.getId() + "/");
+
+        TransactionHooks.afterCommit(() -> {
+            synchronized (tree) {
+                suggestions.put(saved.getId(), saved.getName(), 0);
+                tree.put(saved.getId(), saved.getName(), saved.getParentId());
+            }
+        });
+        logger.info("Successfully created category with id: {}", saved.getId());
+        return mapToResponse(saved);
+    }
+
+    /**
+     * Moves a category, with everything beneath it, under another parent (or to the top level
+     * when {@code parentId} is null). The subtree is rewritten by one set-based UPDATE whose cost
+     * is bounded by the size of the subtree; notes and tasks keep their category ids untouched.
+     * Moves are serialized by the hierarchy lock; they are rare next to reads and creates.
+     */
+    @Transactional
+    public CategoryResponse moveCategory(Long id, Long parentId) {
+        logger.info("Moving category {} under parent: {}", id, parentId);
+        if (id.equals(parentId)) {
+            throw new CategoryHierarchyException("A category cannot be its own parent");
+        }
+        // Moves run one at a time, so the cycle check below sees every path as it will be
+        categoryRepository.lockHierarchy();
+        List<Long> ids = parentId == null ? List.of(id) : List.of(id, parentId);
+        Map<Long, Category> locked = categoryRepository.lockAllById(ids).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        Category category = locked.get(id);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category", id);
+        }
+        if (Objects.equals(category.getParentId(), parentId)) {
+            return mapToResponse(category);
+        }
+
+        String newParentPath = "/";
+        int newDepth = 0;
+        if (parentId != null) {
+            Category parent = locked.get(parentId);
+            if (parent == null) {
+                throw new ResourceNotFoundException("Category", parentId);
+            }
+            if (parent.getPath().startsWith(category.getPath())) {
+                throw new CategoryHierarchyException(
+                        String.format("Category %d cannot be moved beneath its own descendant %d", id, parentId));
+            }
+            newParentPath = parent.getPath();
+            newDepth = parent.getDepth() + 1;
+        }
+        int depthDelta = newDepth - category.getDepth();
+        if (depthDelta > 0 && categoryRepository.findMaxDepthInSubtree(category.getPath()) + depthDelta >= MAX_DEPTH) {
+            throw new CategoryHierarchyException(
+                    String.format("Categories can be nested at most %d levels deep", MAX_DEPTH));
+        }
+
+        String oldPath = category.getPath();
+        category.setParentId(parentId);
+        int moved = categoryRepository.moveSubtree(oldPath, newParentPath + id + "/", depthDelta);
+
+        TransactionHooks.afterCommit(() -> tree.move(id, parentId));
+        logger.info("Moved category {} and {} descendants", id, moved - 1);
+        return new CategoryResponse(id, category.getName(), parentId);
+    }
+
+    /**
+     * The whole hierarchy for the folder sidebar, served from memory without any query.
+     */
+    public List<CategoryTreeNode> getTree() {
+        return tree.roots();
+    }
+
+    /**
+     * Keystroke autocomplete served from the in-memory trie, without any query.
+     */
+    public List<CategoryResponse> suggest(String prefix, int limit) {
+        int boundedLimit = Math.clamp(limit, 1, MAX_SUGGESTIONS);
+        return suggestions.suggest(prefix, boundedLimit).stream()
+                .map(entry -> new CategoryResponse(entry.id(), entry.name(), tree.parentOf(entry.id())))
+                .toList();
+    }
+
+    private CategoryResponse mapToResponse(Category category) {
+        return new CategoryResponse(category.getId(), category.getName(), category.getParentId());
+    }
+}
@@ -0,0 +1,106 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.CategoryResponse;
+import com.bbay.mindnote.dto.CategoryTreeNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the category hierarchy for the folder sidebar.
+ * <p>
+ * Writers update a flat id -> (name, parent) map; readers get an immutable nested snapshot that
+ * is built on the first read after a change and then shared by every request until the next
+ * change, so rendering the sidebar costs neither queries nor allocations.
+ */
+final class CategoryTree {
+
+    private record Node(long id, String name, Long parentId) {
+    }
+
+    private static final Comparator<CategoryTreeNode> BY_NAME = Comparator
+            .comparing(CategoryTreeNode::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(CategoryTreeNode::id);
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+
+    // null once a write has made it stale
+    private volatile List<CategoryTreeNode> snapshot = List.of();
+
+    synchronized void replaceAll(Collection<CategoryResponse> categories) {
+        nodes.clear();
+        categories.forEach(category ->
+                nodes.put(category.id(), new Node(category.id(), category.name(), category.parentId())));
+        snapshot = null;
+    }
+
+    /**
+     * Adds a category or moves/renames an existing one.
+     */
+    synchronized void put(long id, String name, Long parentId) {
+        nodes.put(id, new Node(id, name, parentId));
+        snapshot = null;
+    }
+
+    synchronized void move(long id, Long parentId) {
+        Node node = nodes.get(id);
+        if (node != null) {
+            nodes.put(id, new Node(id, node.name(), parentId));
+            snapshot = null;
+        }
+    }
+
+    synchronized Long parentOf(long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.parentId() : null;
+    }
+
+    synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Top-level categories with their descendants, siblings ordered by name.
+     */
+    List<CategoryTreeNode> roots() {
+        List<CategoryTreeNode> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    private List<CategoryTreeNode> build() {
+        Map<Long, List<Node>> childrenByParent = new HashMap<>();
+        List<Node> roots = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            // A parent not loaded (yet) would hide the whole branch; show it at the top instead
+            if (node.parentId() == null || !nodes.containsKey(node.parentId())) {
+                roots.add(node);
+            } else {
+                childrenByParent.computeIfAbsent(node.parentId(), parent -> new ArrayList<>()).add(node);
+            }
+        }
+        return toTreeNodes(roots, childrenByParent);
+    }
+
+    private static List<CategoryTreeNode> toTreeNodes(List<Node> level, Map<Long, List<Node>> childrenByParent) {
+        // Depth is capped by CategoryService.MAX_DEPTH, so recursion stays shallow
+        List<CategoryTreeNode> result = new ArrayList<>(level.size());
+        for (Node node : level) {
+            List<Node> children = childrenByParent.getOrDefault(node.id(), List.of());
+            result.add(new CategoryTreeNode(node.id(), node.name(), toTreeNodes(children, childrenByParent)));
+        }
+        result.sort(BY_NAME);
+        return List.copyOf(result);
+    }
+}
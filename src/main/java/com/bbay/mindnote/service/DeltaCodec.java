@@ -0,0 +1,191 @@
+package com.bbay.mindnote.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary delta between two byte arrays, in the spirit of rsync/xdelta: the base is indexed in
+ * fixed-size blocks, the target is scanned with a rolling hash, and matches become COPY
+ * instructions while everything else is carried as INSERT literals. A typical autosave (a few
+ * characters changed in a long note) encodes to a few dozen bytes.
+ *
+ * <p>Format: {@code varint targetLength} followed by instructions, each either
+ * {@code 0x00 varint offset varint length} (copy from base) or {@code 0x01 varint length bytes}
+ * (insert literal).</p>
+ */
+final class DeltaCodec {
+
+    static final int BLOCK = 16;
+
+    private static final byte COPY = 0x00;
+    private static final byte INSERT = 0x01;
+    private static final int HASH_BASE = 31;
+    // HASH_BASE^BLOCK, used to roll the oldest byte out of the window
+    private static final int HASH_OUT;
+
+    static {
+        int power = 1;
+        for (int i = 0; i < BLOCK; i++) {
+            power *= HASH_BASE;
+        }
+        HASH_OUT = power;
+    }
+
+    private DeltaCodec() {
+    }
+
+    static byte[] encode(byte[] base, byte[] target) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        writeVarint(out, target.length);
+
+        // Shared prefix and suffix cover most edits without touching the block index
+        int prefix = 0;
+        int maxAffix = Math.min(base.length, target.length);
+        while (prefix < maxAffix && base[prefix] == target[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxAffix - prefix
+                && base[base.length - 1 - suffix] == target[target.length - 1 - suffix]) {
+            suffix++;
+        }
+
+        if (prefix > 0) {
+            writeCopy(out, 0, prefix);
+        }
+        encodeMiddle(out, base, target, prefix, target.length - suffix);
+        if (suffix > 0) {
+            writeCopy(out, base.length - suffix, suffix);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] apply(byte[] base, byte[] delta) {
+        int[] pos = {0};
+        int length = readVarint(delta, pos);
+        byte[] result = new byte[length];
+        int written = 0;
+        while (pos[0] < delta.length) {
+            byte op = delta[pos[0]++];
+            if (op == COPY) {
+                int offset = readVarint(delta, pos);
+                int count = readVarint(delta, pos);
+                System.arraycopy(base, offset, result, written, count);
+                written += count;
+            } else if (op == INSERT) {
+                int count = readVarint(delta, pos);
+                System.arraycopy(delta, pos[0], result, written, count);
+                pos[0] += count;
+                written += count;
+            } else {
+                throw new IllegalArgumentException("Corrupt delta: unknown instruction " + op);
+            }
+        }
+        if (written != length) {
+            throw new IllegalArgumentException("Corrupt delta: produced " + written + " of " + length + " bytes");
+        }
+        return result;
+    }
+
+    private static void encodeMiddle(ByteArrayOutputStream out, byte[] base, byte[] target, int from, int to) {
+        if (to - from < BLOCK || base.length < BLOCK) {
+            writeInsert(out, target, from, to - from);
+            return;
+        }
+
+        // First occurrence of each block hash in the base, at block-aligned offsets
+        Map<Integer, Integer> blocks = new HashMap<>();
+        for (int offset = 0; offset + BLOCK <= base.length; offset += BLOCK) {
+            blocks.putIfAbsent(hash(base, offset), offset);
+        }
+
+        int literalStart = from;
+        int i = from;
+        int h = hash(target, i);
+        while (i + BLOCK <= to) {
+            Integer candidate = blocks.get(h);
+            if (candidate != null && regionMatches(base, candidate, target, i, BLOCK)) {
+                // Extend the match backwards into pending literals, then forwards
+                int baseStart = candidate;
+                int targetStart = i;
+                while (targetStart > literalStart && baseStart > 0
+                        && base[baseStart - 1] == target[targetStart - 1]) {
+                    baseStart--;
+                    targetStart--;
+                }
+                int end = i + BLOCK;
+                int baseEnd = candidate + BLOCK;
+                while (end < to && baseEnd < base.length && base[baseEnd] == target[end]) {
+                    end++;
+                    baseEnd++;
+                }
+                writeInsert(out, target, literalStart, targetStart - literalStart);
+                writeCopy(out, baseStart, end - targetStart);
+                literalStart = end;
+                i = end;
+                if (i + BLOCK <= to) {
+                    h = hash(target, i);
+                }
+                continue;
+            }
+            if (i + BLOCK < to) {
+                h = h * HASH_BASE - target[i] * HASH_OUT + target[i + BLOCK];
+            }
+            i++;
+        }
+        writeInsert(out, target, literalStart, to - literalStart);
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int h = 0;
+        for (int i = offset; i < offset + BLOCK; i++) {
+            h = h * HASH_BASE + data[i];
+        }
+        return h;
+    }
+
+    private static boolean regionMatches(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeCopy(ByteArrayOutputStream out, int offset, int length) {
+        out.write(COPY);
+        writeVarint(out, offset);
+        writeVarint(out, length);
+    }
+
+    private static void writeInsert(ByteArrayOutputStream out, byte[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        out.write(INSERT);
+        writeVarint(out, length);
+        out.write(data, offset, length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
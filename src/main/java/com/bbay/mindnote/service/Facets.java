@@ -0,0 +1,72 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.FacetCount;
+import com.bbay.mindnote.exception.InvalidFacetException;
+import com.bbay.mindnote.repository.FacetRow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request parsing and result shaping for the {@code ?facets=} parameter of the list endpoints.
+ */
+final class Facets {
+
+    static final String CATEGORY = "category";
+    static final String TAG = "tag";
+    static final String STATUS = "status";
+    static final String PRIORITY = "priority";
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 100;
+
+    private Facets() {
+    }
+
+    /**
+     * Normalizes the requested facet names, keeping their order.
+     *
+     * @throws InvalidFacetException for a name not in {@code supported}
+     */
+    static Set<String> parse(Collection<String> requested, Set<String> supported) {
+        Set<String> facets = new LinkedHashSet<>();
+        for (String name : requested) {
+            String facet = name.strip().toLowerCase(Locale.ROOT);
+            if (facet.isEmpty()) {
+                continue;
+            }
+            if (!supported.contains(facet)) {
+                throw new InvalidFacetException(facet, supported);
+            }
+            facets.add(facet);
+        }
+        return facets;
+    }
+
+    static int limit(int requested) {
+        return Math.clamp(requested, 1, MAX_LIMIT);
+    }
+
+    /**
+     * Groups the rows of a facet query by facet. Every requested facet gets an entry, empty when
+     * no result has a value for it; rows of facets that were not requested are dropped.
+     */
+    static Map<String, List<FacetCount>> group(List<FacetRow> rows, Set<String> facets) {
+        Map<String, List<FacetCount>> result = new LinkedHashMap<>();
+        facets.forEach(facet -> result.put(facet, new ArrayList<>()));
+        for (FacetRow row : rows) {
+            List<FacetCount> values = result.get(row.getFacet());
+            if (values != null) {
+                values.add(new FacetCount(row.getValue(), row.getCount()));
+            }
+        }
+        result.replaceAll((facet, values) -> List.copyOf(values));
+        return result;
+    }
+}
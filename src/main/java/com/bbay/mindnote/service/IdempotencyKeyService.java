@@ -0,0 +1,112 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.IdempotentResponse;
+import com.bbay.mindnote.entity.IdempotencyKey;
+import com.bbay.mindnote.repository.IdempotencyKeyRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Durable store behind {@code IdempotencyFilter}. Every call is one short transaction on the
+ * primary, including the lookup: a replica may not have seen a claim or response yet.
+ */
+@Service
+public class IdempotencyKeyService {
+
+    private static final Logger logger = LogManager.getLogger(IdempotencyKeyService.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    public IdempotencyKeyService(IdempotencyKeyRepository idempotencyKeyRepository) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+    }
+
+    /**
+     * @return the claim if the caller now holds the key and should execute the request, or empty
+     * if another request holds it or already completed it
+     */
+    @Transactional
+    public Optional<IdempotentResponse> claim(String scope, String key, String requestHash, Duration lockTimeout) {
+        // Stored with microsecond precision; truncated so the claim can be matched on it later
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime lockedUntil = now.plus(lockTimeout);
+        if (idempotencyKeyRepository.claim(scope, key, requestHash, now, lockedUntil) == 0) {
+            return Optional.empty();
+        }
+        logger.debug("Claimed idempotency key {} for {}", key, scope);
+        return Optional.of(new IdempotentResponse(requestHash, null, null, null, now, lockedUntil));
+    }
+
+    // Not read-only on purpose: read-only transactions may be routed to a replica
+    @Transactional
+    public Optional<IdempotentResponse> find(String scope, String key) {
+        return idempotencyKeyRepository.findByScopeAndIdempotencyKey(scope, key)
+                .map(IdempotencyKeyService::toResponse);
+    }
+
+    /**
+     * Stores the response on the claim and keeps it for {@code ttl}.
+     *
+     * @return the stored response, or empty if the claim had expired and was taken over
+     */
+    @Transactional
+    public Optional<IdempotentResponse> complete(String scope, String key, IdempotentResponse claim,
+                                                 int status, HttpHeaders headers, byte[] body, Duration ttl) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        int updated = idempotencyKeyRepository.complete(scope, key, claim.claimedAt(), status,
+                encodeHeaders(headers), body, expiresAt);
+        if (updated == 0) {
+            logger.warn("Claim on idempotency key {} for {} was lost before its response was stored", key, scope);
+            return Optional.empty();
+        }
+        return Optional.of(new IdempotentResponse(claim.requestHash(), status, headers, body, claim.claimedAt(), expiresAt));
+    }
+
+    @Transactional
+    public void release(String scope, String key, IdempotentResponse claim) {
+        idempotencyKeyRepository.release(scope, key, claim.claimedAt());
+    }
+
+    /**
+     * @return the number of rows removed; less than {@code limit} means nothing expired is left
+     */
+    @Transactional
+    public int purgeExpired(LocalDateTime now, int limit) {
+        return idempotencyKeyRepository.deleteExpired(now, limit);
+    }
+
+    private static IdempotentResponse toResponse(IdempotencyKey row) {
+        return new IdempotentResponse(row.getRequestHash(), row.getStatus(), decodeHeaders(row.getHeaders()),
+                row.getBody(), row.getCreatedAt(), row.getExpiresAt());
+    }
+
+    // One "name: value" line per header value; names and values cannot contain line breaks
+    private static String encodeHeaders(HttpHeaders headers) {
+        StringBuilder encoded = new StringBuilder();
+        headers.forEach((name, values) -> values.forEach(value ->
+                encoded.append(name).append(": ").append(value).append('\n')));
+        return encoded.toString();
+    }
+
+    private static HttpHeaders decodeHeaders(String encoded) {
+        HttpHeaders headers = new HttpHeaders();
+        if (encoded == null) {
+            return headers;
+        }
+        for (String line : encoded.split("\n")) {
+            int colon = line.indexOf(": ");
+            if (colon > 0) {
+                headers.add(line.substring(0, colon), line.substring(colon + 2));
+            }
+        }
+        return headers;
+    }
+}
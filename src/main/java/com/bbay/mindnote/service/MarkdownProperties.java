@@ -0,0 +1,21 @@
+package com.bbay.mindnote.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for server-side markdown rendering.
+ *
+ * @param cacheSize                total size of the rendered HTML kept in memory, least recently used evicted first
+ * @param maxCachedHtml            renderings larger than this are streamed but never cached
+ * @param backfillBatchSize        notes given a content hash per backfill transaction
+ * @param backfillMaxBatchesPerRun upper bound on the work done by one scheduled backfill run
+ */
+@ConfigurationProperties(prefix = "mindnote.markdown")
+public record MarkdownProperties(
+        @DefaultValue("64MB") DataSize cacheSize,
+        @DefaultValue("1MB") DataSize maxCachedHtml,
+        @DefaultValue("200") int backfillBatchSize,
+        @DefaultValue("50") int backfillMaxBatchesPerRun) {
+}
@@ -0,0 +1,141 @@
+package com.bbay.mindnote.service;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * CommonMark to HTML in bounded memory.
+ * <p>
+ * The markdown is read as a stream and cut into sections of about {@link #SECTION_CHARS}
+ * characters, each parsed and rendered on its own and flushed before the next one is read. Cuts
+ * fall on a blank line outside a fenced code block, where CommonMark starts a new block anyway,
+ * so notes shorter than one section render exactly as a whole document would. Across sections
+ * two things are lost: link reference definitions only resolve within their own section, and a
+ * loose list interrupted by the cut continues as a second list.
+ * <p>
+ * A section that finds no such blank line is cut at {@link #MAX_SECTION_CHARS} regardless; an open
+ * code fence is closed there and reopened in the next section, so one huge code block renders as
+ * consecutive {@code <pre>} blocks instead of falling out of the fence. Raw HTML is escaped and
+ * unsafe link schemes are dropped, since the content is user input.
+ */
+final class MarkdownRenderer {
+
+    static final int SECTION_CHARS = 64 * 1024;
+    static final int MAX_SECTION_CHARS = 1024 * 1024;
+
+    // Both are immutable and thread-safe
+    private static final Parser PARSER = Parser.builder().build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+
+    private final Writer html;
+    private final StringBuilder section = new StringBuilder();
+
+    // Opening line of the fenced code block the section currently ends in, or null
+    private String fenceLine;
+    private char fenceChar;
+    private int fenceLength;
+
+    private MarkdownRenderer(Writer html) {
+        this.html = html;
+    }
+
+    /**
+     * Renders all of {@code markdown} to {@code html}, flushing after every section. Neither
+     * stream is closed.
+     */
+    static void render(Reader markdown, Writer html) throws IOException {
+        MarkdownRenderer renderer = new MarkdownRenderer(html);
+        StringBuilder line = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = markdown.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                line.append(buffer[i]);
+                // An endless line is handed over in pieces so it cannot grow past one section
+                if (buffer[i] == '\n' || line.length() >= MAX_SECTION_CHARS) {
+                    renderer.line(line);
+                    line.setLength(0);
+                }
+            }
+        }
+        if (!line.isEmpty()) {
+            renderer.line(line);
+        }
+        renderer.flushSection();
+    }
+
+    private void line(CharSequence line) throws IOException {
+        boolean blank = line.chars().allMatch(Character::isWhitespace);
+        trackFence(line);
+        section.append(line);
+        if (line.charAt(line.length() - 1) != '\n') {
+            section.append('\n');
+        }
+
+        if (blank && fenceLine == null && section.length() >= SECTION_CHARS) {
+            flushSection();
+        } else if (section.length() >= MAX_SECTION_CHARS) {
+            String reopen = fenceLine;
+            if (reopen != null) {
+                section.append(String.valueOf(fenceChar).repeat(fenceLength)).append('\n');
+            }
+            flushSection();
+            if (reopen != null) {
+                section.append(reopen);
+            }
+        }
+    }
+
+    private void flushSection() throws IOException {
+        if (section.isEmpty()) {
+            return;
+        }
+        RENDERER.render(PARSER.parse(section.toString()), html);
+        html.flush();
+        section.setLength(0);
+    }
+
+    /**
+     * Follows opening and closing code fences: up to three spaces of indentation, then at least
+     * three backticks or tildes. A closing fence uses the same character, at least as many times,
+     * and nothing else.
+     */
+    private void trackFence(CharSequence line) {
+        int start = 0;
+        while (start < 3 && start < line.length() && line.charAt(start) == ' ') {
+            start++;
+        }
+        if (start == line.length() || (line.charAt(start) != '`' && line.charAt(start) != '~')) {
+            return;
+        }
+        char c = line.charAt(start);
+        int end = start;
+        while (end < line.length() && line.charAt(end) == c) {
+            end++;
+        }
+        int length = end - start;
+        if (length < 3) {
+            return;
+        }
+        String rest = line.subSequence(end, line.length()).toString();
+
+        if (fenceLine == null) {
+            // The info string of a backtick fence cannot contain backticks
+            if (c == '`' && rest.indexOf('`') >= 0) {
+                return;
+            }
+            fenceLine = line.charAt(line.length() - 1) == '\n' ? line.toString() : line + "\n";
+            fenceChar = c;
+            fenceLength = length;
+        } else if (c == fenceChar && length >= fenceLength && rest.isBlank()) {
+            fenceLine = null;
+        }
+    }
+}
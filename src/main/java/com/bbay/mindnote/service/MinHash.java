@@ -0,0 +1,158 @@
+package com.bbay.mindnote.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over word shingles, with locality-sensitive hashing bands.
+ * <p>
+ * Text is lower-cased and split into words; every run of {@link #SHINGLE_SIZE} consecutive words
+ * is one shingle. Each of the {@link #NUM_HASHES} hash functions keeps the minimum it sees over
+ * all shingles, and the fraction of positions where two signatures agree estimates the Jaccard
+ * similarity of the two shingle sets.
+ * <p>
+ * For lookups the signature is cut into {@link #BANDS} bands of {@link #ROWS_PER_BAND} values
+ * and each band is hashed to a bucket. Two notes become candidates when any band lands in the
+ * same bucket, which happens with probability {@code 1 - (1 - s^8)^16}: about 95% at similarity
+ * 0.8, about 1% at 0.4. The hash seeds are fixed because stored signatures depend on them.
+ */
+final class MinHash {
+
+    static final int SHINGLE_SIZE = 3;
+    static final int NUM_HASHES = 128;
+    static final int BANDS = 16;
+    static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+
+    // Multiply-shift hash functions h(x) = (a * x + b) >>> 33 with odd multipliers: 31 high bits
+    private static final long[] MULTIPLIERS = new long[NUM_HASHES];
+    private static final long[] OFFSETS = new long[NUM_HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x6d696e644e6f7465L);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1L;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    private static final int[] EMPTY = new int[0];
+
+    private MinHash() {
+    }
+
+    /**
+     * @return the signature, or an empty array when the text contains no words
+     */
+    static int[] signature(String text) {
+        if (text == null || text.isEmpty()) {
+            return EMPTY;
+        }
+        long[] words = wordHashes(text);
+        if (words.length == 0) {
+            return EMPTY;
+        }
+
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        // Short notes still get one shingle made of all their words
+        int shingles = Math.max(1, words.length - SHINGLE_SIZE + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = 0;
+            for (int i = start; i < Math.min(start + SHINGLE_SIZE, words.length); i++) {
+                shingle = mix(shingle * 31 + words[i]);
+            }
+            for (int h = 0; h < NUM_HASHES; h++) {
+                // 31 bits keep the value non-negative, so signed comparison orders it correctly
+                int value = (int) ((MULTIPLIERS[h] * shingle + OFFSETS[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the shingle sets behind two signatures.
+     */
+    static double similarity(int[] a, int[] b) {
+        if (a.length != NUM_HASHES || b.length != NUM_HASHES) {
+            return 0;
+        }
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    /**
+     * One bucket per band; element {@code i} is the bucket of band {@code i}.
+     */
+    static long[] bandBuckets(int[] signature) {
+        long[] buckets = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                hash = mix(hash * 31 + signature[band * ROWS_PER_BAND + row]);
+            }
+            buckets[band] = hash;
+        }
+        return buckets;
+    }
+
+    static byte[] encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    static int[] decode(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of every lower-cased run of letters and digits.
+     */
+    private static long[] wordHashes(String text) {
+        long[] hashes = new long[16];
+        int count = 0;
+        long hash = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    hash = 0xcbf29ce484222325L;
+                    inWord = true;
+                }
+                hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            } else if (inWord) {
+                if (count == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, count * 2);
+                }
+                hashes[count++] = hash;
+                inWord = false;
+            }
+        }
+        if (inWord) {
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count + 1);
+            }
+            hashes[count++] = hash;
+        }
+        return Arrays.copyOf(hashes, count);
+    }
+
+    // SplitMix64 finalizer: spreads every input bit over the whole output
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
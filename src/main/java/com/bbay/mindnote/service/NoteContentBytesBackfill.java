@@ -0,0 +1,47 @@
+package com.bbay.mindnote.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives large notes written before {@code content_bytes} existed their byte copy, so they can be
+ * streamed window by window. Each batch is one short UPDATE that copies inside the database; notes
+ * saved meanwhile are copied by NoteService and left alone. Until a note is copied its downloads
+ * still work, only slower. Once every large note has its copy a run is one index probe.
+ */
+@Component
+public class NoteContentBytesBackfill {
+
+    private static final Logger logger = LogManager.getLogger(NoteContentBytesBackfill.class);
+
+    private final NoteContentService noteContentService;
+    private final NoteContentProperties properties;
+
+    public NoteContentBytesBackfill(NoteContentService noteContentService, NoteContentProperties properties) {
+        this.noteContentService = noteContentService;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.content.backfill-interval:PT30S}",
+            fixedDelayString = "${mindnote.content.backfill-interval:PT30S}")
+    public void backfill() {
+        int copied = 0;
+        try {
+            for (int i = 0; i < properties.backfillMaxBatchesPerRun(); i++) {
+                int batch = noteContentService.backfillContentBytes(properties.backfillBatchSize());
+                copied += batch;
+                if (batch < properties.backfillBatchSize()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Overload rejections included; whatever is left waits for the next run
+            logger.warn("Content bytes backfill stopped early: {}", ex.getMessage());
+        }
+        if (copied > 0) {
+            logger.info("Copied the content of {} existing large notes", copied);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.bbay.mindnote.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives notes written before content hashes existed their hash, so their renderings can be
+ * cached. Each batch is one short UPDATE that hashes inside the database; notes saved meanwhile
+ * are hashed by NoteService and left alone. Once every note has a hash a run is one index probe.
+ */
+@Component
+public class NoteContentHashBackfill {
+
+    private static final Logger logger = LogManager.getLogger(NoteContentHashBackfill.class);
+
+    private final NoteHtmlService noteHtmlService;
+    private final MarkdownProperties properties;
+
+    public NoteContentHashBackfill(NoteHtmlService noteHtmlService, MarkdownProperties properties) {
+        this.noteHtmlService = noteHtmlService;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.markdown.backfill-interval:PT30S}",
+            fixedDelayString = "${mindnote.markdown.backfill-interval:PT30S}")
+    public void backfill() {
+        int hashed = 0;
+        try {
+            for (int i = 0; i < properties.backfillMaxBatchesPerRun(); i++) {
+                int batch = noteHtmlService.backfillContentHashes(properties.backfillBatchSize());
+                hashed += batch;
+                if (batch < properties.backfillBatchSize()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Overload rejections included; whatever is left waits for the next run
+            logger.warn("Content hash backfill stopped early: {}", ex.getMessage());
+        }
+        if (hashed > 0) {
+            logger.info("Computed content hashes for {} existing notes", hashed);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.bbay.mindnote.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for streaming note content.
+ *
+ * @param backfillBatchSize        large notes given their byte copy per backfill transaction; each
+ *                                 is at least a megabyte, so batches stay small
+ * @param backfillMaxBatchesPerRun upper bound on the work done by one scheduled backfill run
+ */
+@ConfigurationProperties(prefix = "mindnote.content")
+public record NoteContentProperties(
+        @DefaultValue("10") int backfillBatchSize,
+        @DefaultValue("50") int backfillMaxBatchesPerRun) {
+}
@@ -0,0 +1,69 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteContentInfo;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.repository.NoteRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serves note content in byte windows so large notes can be streamed without holding the whole
+ * text (and its JSON-escaped copy) on the heap. Every window is its own short read-only
+ * transaction, so a slow client never pins a connection or a bulkhead permit between chunks.
+ */
+@Service
+public class NoteContentService {
+
+    private static final Logger logger = LogManager.getLogger(NoteContentService.class);
+
+    /**
+     * Bytes fetched per query: large enough to keep round trips rare for multi-megabyte notes,
+     * small enough that concurrent downloads stay cheap.
+     */
+    public static final int CHUNK_SIZE = 256 * 1024;
+
+    private final NoteRepository noteRepository;
+
+    public NoteContentService(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public NoteContentInfo getContentInfo(Long id) {
+        logger.info("Fetching content info of note with id: {}", id);
+        return noteRepository.findContentInfo(id)
+                .orElseThrow(() -> {
+                    logger.error("Note not found with id: {}", id);
+                    return new ResourceNotFoundException("Note", id);
+                });
+    }
+
+    /**
+     * Copies the content of one batch of large notes that have no byte copy yet (see
+     * {@link NoteContentBytesBackfill}).
+     *
+     * @return the number of notes copied; less than {@code limit} means none are left
+     */
+    @Transactional
+    public int backfillContentBytes(int limit) {
+        return noteRepository.copyMissingContentBytes(limit);
+    }
+
+    /**
+     * Reads {@code length} bytes of content starting at the 0-based {@code offset}, from the
+     * version described by {@code info}.
+     *
+     * @throws IllegalStateException if the note was updated or deleted since {@code info} was read
+     */
+    @Transactional(readOnly = true)
+    public byte[] readContent(NoteContentInfo info, long offset, int length) {
+        byte[] chunk = noteRepository.findContentChunk(info.noteId(), info.updatedAt(), offset + 1, length);
+        if (chunk == null) {
+            logger.warn("Note {} changed while its content was being streamed", info.noteId());
+            throw new IllegalStateException("Note " + info.noteId() + " was modified during the download");
+        }
+        return chunk;
+    }
+}
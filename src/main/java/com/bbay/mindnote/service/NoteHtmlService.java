@@ -0,0 +1,228 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteContentInfo;
+import com.bbay.mindnote.dto.NoteHtml;
+import com.bbay.mindnote.dto.NoteHtmlSource;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.repository.NoteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Serves notes rendered from markdown to HTML. Renderings are cached by content hash, and the
+ * hash is stored on the note, so a cache hit costs one small query that never reads the content.
+ * A miss streams the content from the database chunk by chunk through {@link MarkdownRenderer}
+ * straight into the response; only renderings under {@code mindnote.markdown.max-cached-html}
+ * are kept on the side for the cache.
+ */
+@Service
+public class NoteHtmlService {
+
+    private static final Logger logger = LogManager.getLogger(NoteHtmlService.class);
+
+    private final NoteRepository noteRepository;
+    private final NoteContentService noteContentService;
+    private final RenderedHtmlCache cache;
+    private final int maxCachedHtml;
+    private final Counter hits;
+    private final Counter misses;
+
+    public NoteHtmlService(NoteRepository noteRepository, NoteContentService noteContentService,
+                           MarkdownProperties properties, MeterRegistry meterRegistry) {
+        this.noteRepository = noteRepository;
+        this.noteContentService = noteContentService;
+        this.cache = new RenderedHtmlCache(properties.cacheSize().toBytes());
+        this.maxCachedHtml = (int) Math.min(properties.maxCachedHtml().toBytes(), Integer.MAX_VALUE - 8);
+        this.hits = Counter.builder("mindnote.markdown.cache.requests")
+                .description("Rendered HTML requests by cache outcome")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("mindnote.markdown.cache.requests")
+                .description("Rendered HTML requests by cache outcome")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("mindnote.markdown.cache.bytes", cache, RenderedHtmlCache::bytes)
+                .description("Size of the rendered HTML held in the cache")
+                .register(meterRegistry);
+        Gauge.builder("mindnote.markdown.cache.entries", cache, RenderedHtmlCache::size)
+                .description("Renderings held in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * SHA-256 of the UTF-8 encoded content, hex encoded; a note without content hashes like the
+     * empty string.
+     */
+    public static String contentHash(String content) {
+        try {
+            byte[] bytes = (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Hashes one batch of notes that have no content hash yet (see {@link NoteContentHashBackfill}).
+     *
+     * @return the number of notes hashed; less than {@code limit} means none are left
+     */
+    @Transactional
+    public int backfillContentHashes(int limit) {
+        return noteRepository.hashMissingContent(limit);
+    }
+
+    /**
+     * Looks up the note's content hash and, if its rendering is cached, the HTML.
+     */
+    @Transactional(readOnly = true)
+    public NoteHtml getHtml(Long id) {
+        logger.info("Fetching rendered HTML of note with id: {}", id);
+        NoteHtmlSource source = noteRepository.findHtmlSource(id)
+                .orElseThrow(() -> {
+                    logger.error("Note not found with id: {}", id);
+                    return new ResourceNotFoundException("Note", id);
+                });
+        byte[] cached = source.contentHash() != null ? cache.get(source.contentHash()) : null;
+        (cached != null ? hits : misses).increment();
+        logger.debug("Rendered HTML of note {} {}", id, cached != null ? "found in cache" : "not cached");
+        return new NoteHtml(source, cached);
+    }
+
+    /**
+     * Writes the HTML to {@code out}, rendering it if it was not cached. Not transactional: every
+     * content chunk is read in its own short transaction, as for a raw content download.
+     *
+     * @throws IllegalStateException if the note was updated or deleted since {@code html} was read
+     */
+    public void writeHtml(NoteHtml html, OutputStream out) throws IOException {
+        if (html.cached() != null) {
+            out.write(html.cached());
+            return;
+        }
+
+        NoteHtmlSource source = html.source();
+        // Without a hash there is no key; such a rendering is streamed but not cached
+        CapturingOutputStream capture = new CapturingOutputStream(out, source.contentHash() != null ? maxCachedHtml : -1);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(capture, StandardCharsets.UTF_8));
+        Reader markdown = new InputStreamReader(contentStream(source.contentInfo()), StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        MarkdownRenderer.render(markdown, writer);
+        writer.flush();
+
+        byte[] rendered = capture.captured();
+        if (rendered != null) {
+            cache.put(source.contentHash(), rendered);
+        }
+        logger.info("Rendered note {} ({} bytes of markdown) in {} ms{}", source.noteId(), source.length(),
+                (System.nanoTime() - start) / 1_000_000, rendered != null ? ", cached" : "");
+    }
+
+    /**
+     * The content of one version as a stream, fetched {@link NoteContentService#CHUNK_SIZE} bytes
+     * at a time; the reader on top takes care of characters split between chunks.
+     */
+    private InputStream contentStream(NoteContentInfo info) {
+        return new InputStream() {
+            private long offset;
+            private byte[] chunk = new byte[0];
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                return fill() ? chunk[position++] & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+                int count = Math.min(len, chunk.length - position);
+                System.arraycopy(chunk, position, buffer, off, count);
+                position += count;
+                return count;
+            }
+
+            private boolean fill() {
+                if (position < chunk.length) {
+                    return true;
+                }
+                if (offset >= info.length()) {
+                    return false;
+                }
+                int length = (int) Math.min(NoteContentService.CHUNK_SIZE, info.length() - offset);
+                chunk = noteContentService.readContent(info, offset, length);
+                position = 0;
+                offset += length;
+                return chunk.length > 0;
+            }
+        };
+    }
+
+    /**
+     * Passes everything through and keeps a copy until it exceeds {@code limit} bytes.
+     */
+    private static final class CapturingOutputStream extends FilterOutputStream {
+
+        private final int limit;
+        private ByteArrayOutputStream copy;
+
+        CapturingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+            this.copy = limit >= 0 ? new ByteArrayOutputStream() : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+            capture(bytes, off, len);
+        }
+
+        private void capture(byte[] bytes, int off, int len) {
+            if (copy == null) {
+                return;
+            }
+            if (copy.size() + len > limit) {
+                copy = null;
+            } else {
+                copy.write(bytes, off, len);
+            }
+        }
+
+        byte[] captured() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+    }
+}
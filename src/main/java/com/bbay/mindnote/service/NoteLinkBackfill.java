@@ -0,0 +1,46 @@
+package com.bbay.mindnote.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores the links of notes that were written before note_links existed. Each batch is parsed
+ * with WikiLinks, like a save, and written in one short transaction; notes saved meanwhile are
+ * skipped and picked up by a later batch. Once every note is parsed a run is one index probe.
+ */
+@Component
+public class NoteLinkBackfill {
+
+    private static final Logger logger = LogManager.getLogger(NoteLinkBackfill.class);
+
+    private final NoteLinkService noteLinkService;
+    private final NoteLinkProperties properties;
+
+    public NoteLinkBackfill(NoteLinkService noteLinkService, NoteLinkProperties properties) {
+        this.noteLinkService = noteLinkService;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.links.backfill-interval:PT30S}",
+            fixedDelayString = "${mindnote.links.backfill-interval:PT30S}")
+    public void backfill() {
+        int parsed = 0;
+        try {
+            for (int i = 0; i < properties.backfillMaxBatchesPerRun(); i++) {
+                int batch = noteLinkService.backfillLinks(properties.backfillBatchSize());
+                parsed += batch;
+                if (batch < properties.backfillBatchSize()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Overload rejections included; whatever is left waits for the next run
+            logger.warn("Link backfill stopped early: {}", ex.getMessage());
+        }
+        if (parsed > 0) {
+            logger.info("Stored wiki links of {} existing notes", parsed);
+        }
+    }
+}
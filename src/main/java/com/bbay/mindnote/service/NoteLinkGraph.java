@@ -0,0 +1,245 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteGraphResponse;
+import com.bbay.mindnote.dto.NoteLinkEdge;
+import com.bbay.mindnote.dto.NoteTitle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory link graph between notes, for backlinks and the graph view.
+ * <p>
+ * Writers update flat maps: each note's title, and the link keys found in its content. Links
+ * point at title keys, not ids, so renaming a note re-targets every link to it without touching
+ * the linking notes. Readers get an immutable snapshot in compressed sparse row form (note ids
+ * sorted into one array, outgoing and incoming neighbours as offsets into two int arrays) that
+ * is built on the first read after a change and shared until the next one. A walk over it
+ * allocates nothing per edge and never hashes.
+ */
+final class NoteLinkGraph {
+
+    private record Snapshot(long[] ids, String[] titles,
+                            int[] outStart, int[] out,
+                            int[] inStart, int[] in) {
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, id);
+        }
+
+        NoteTitle title(int index) {
+            return new NoteTitle(ids[index], titles[index]);
+        }
+    }
+
+    private final Map<Long, String> titles = new HashMap<>();
+    // Several notes can share a title; a link resolves to the oldest of them
+    private final Map<String, TreeSet<Long>> idsByKey = new HashMap<>();
+    private final Map<Long, Set<String>> links = new HashMap<>();
+
+    // null once a write has made it stale
+    private volatile Snapshot snapshot;
+
+    synchronized void replaceAll(Collection<NoteTitle> notes, Map<Long, Set<String>> linksBySource) {
+        titles.clear();
+        idsByKey.clear();
+        links.clear();
+        notes.forEach(note -> putTitle(note.id(), note.title()));
+        linksBySource.forEach((id, keys) -> {
+            if (titles.containsKey(id)) {
+                links.put(id, Set.copyOf(keys));
+            }
+        });
+        snapshot = null;
+    }
+
+    /**
+     * Adds a note or updates an existing one.
+     *
+     * @param linkKeys the note's outgoing link keys, or {@code null} to keep the current ones
+     */
+    synchronized void put(long id, String title, Set<String> linkKeys) {
+        putTitle(id, title);
+        if (linkKeys != null) {
+            links.put(id, Set.copyOf(linkKeys));
+        }
+        snapshot = null;
+    }
+
+    synchronized void remove(long id) {
+        String title = titles.remove(id);
+        if (title != null) {
+            removeKey(id, WikiLinks.key(title));
+        }
+        links.remove(id);
+        snapshot = null;
+    }
+
+    synchronized int size() {
+        return titles.size();
+    }
+
+    /**
+     * Notes linking to the given one, ordered by id, or {@code null} when the note is unknown.
+     */
+    List<NoteTitle> backlinks(long id) {
+        Snapshot graph = snapshot();
+        int index = graph.indexOf(id);
+        if (index < 0) {
+            return null;
+        }
+        List<NoteTitle> result = new ArrayList<>(graph.inStart[index + 1] - graph.inStart[index]);
+        for (int i = graph.inStart[index]; i < graph.inStart[index + 1]; i++) {
+            result.add(graph.title(graph.in[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Notes reachable from the given one within {@code depth} links in either direction, visited
+     * breadth-first and capped at {@code maxNodes}, with the links between them. Returns
+     * {@code null} when the note is unknown.
+     */
+    NoteGraphResponse neighborhood(long id, int depth, int maxNodes) {
+        Snapshot graph = snapshot();
+        int root = graph.indexOf(id);
+        if (root < 0) {
+            return null;
+        }
+
+        BitSet visited = new BitSet(graph.ids.length);
+        int[] order = new int[Math.min(graph.ids.length, maxNodes)];
+        order[0] = root;
+        visited.set(root);
+        int head = 0;
+        int tail = 1;
+        boolean truncated = false;
+        for (int level = 0; level < depth && head < tail && !truncated; level++) {
+            int levelEnd = tail;
+            for (; head < levelEnd && !truncated; head++) {
+                int node = order[head];
+                tail = visit(graph.out, graph.outStart[node], graph.outStart[node + 1], visited, order, tail);
+                tail = visit(graph.in, graph.inStart[node], graph.inStart[node + 1], visited, order, tail);
+                truncated = tail < 0;
+            }
+        }
+        if (truncated) {
+            tail = order.length;
+        }
+
+        List<NoteTitle> nodes = new ArrayList<>(tail);
+        List<NoteLinkEdge> edges = new ArrayList<>();
+        for (int i = 0; i < tail; i++) {
+            int node = order[i];
+            nodes.add(graph.title(node));
+            for (int e = graph.outStart[node]; e < graph.outStart[node + 1]; e++) {
+                if (visited.get(graph.out[e])) {
+                    edges.add(new NoteLinkEdge(graph.ids[node], graph.ids[graph.out[e]]));
+                }
+            }
+        }
+        return new NoteGraphResponse(id, depth, nodes, edges, truncated);
+    }
+
+    /**
+     * Appends the unvisited neighbours in {@code adjacency[from, to)} to the queue.
+     *
+     * @return the new queue length, or -1 when the queue filled up with neighbours left over
+     */
+    private static int visit(int[] adjacency, int from, int to, BitSet visited, int[] order, int tail) {
+        if (tail < 0) {
+            return tail;
+        }
+        for (int e = from; e < to; e++) {
+            int neighbour = adjacency[e];
+            if (!visited.get(neighbour)) {
+                if (tail == order.length) {
+                    return -1;
+                }
+                visited.set(neighbour);
+                order[tail++] = neighbour;
+            }
+        }
+        return tail;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot build() {
+        long[] ids = titles.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        String[] names = new String[ids.length];
+        int[] outStart = new int[ids.length + 1];
+        int[] out = new int[16];
+        int edgeCount = 0;
+        for (int i = 0; i < ids.length; i++) {
+            names[i] = titles.get(ids[i]);
+            outStart[i] = edgeCount;
+            for (String key : links.getOrDefault(ids[i], Set.of())) {
+                TreeSet<Long> targets = idsByKey.get(key);
+                if (targets == null || targets.first() == ids[i]) {
+                    continue;
+                }
+                if (edgeCount == out.length) {
+                    out = Arrays.copyOf(out, edgeCount * 2);
+                }
+                out[edgeCount++] = Arrays.binarySearch(ids, targets.first());
+            }
+            Arrays.sort(out, outStart[i], edgeCount);
+        }
+        outStart[ids.length] = edgeCount;
+        out = Arrays.copyOf(out, edgeCount);
+
+        // Incoming lists by counting sort over the targets; sources stay in id order
+        int[] inStart = new int[ids.length + 1];
+        for (int target : out) {
+            inStart[target + 1]++;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            inStart[i + 1] += inStart[i];
+        }
+        int[] in = new int[edgeCount];
+        int[] next = Arrays.copyOf(inStart, ids.length);
+        for (int source = 0; source < ids.length; source++) {
+            for (int e = outStart[source]; e < outStart[source + 1]; e++) {
+                in[next[out[e]]++] = source;
+            }
+        }
+        return new Snapshot(ids, names, outStart, out, inStart, in);
+    }
+
+    private void putTitle(long id, String title) {
+        String previous = titles.put(id, title);
+        if (previous != null) {
+            removeKey(id, WikiLinks.key(previous));
+        }
+        idsByKey.computeIfAbsent(WikiLinks.key(title), key -> new TreeSet<>()).add(id);
+    }
+
+    private void removeKey(long id, String key) {
+        TreeSet<Long> ids = idsByKey.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByKey.remove(key);
+            }
+        }
+    }
+}
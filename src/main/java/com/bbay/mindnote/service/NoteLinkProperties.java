@@ -0,0 +1,16 @@
+package com.bbay.mindnote.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for wiki links.
+ *
+ * @param backfillBatchSize        notes whose links are parsed per backfill transaction
+ * @param backfillMaxBatchesPerRun upper bound on the work done by one scheduled backfill run
+ */
+@ConfigurationProperties(prefix = "mindnote.links")
+public record NoteLinkProperties(
+        @DefaultValue("200") int backfillBatchSize,
+        @DefaultValue("50") int backfillMaxBatchesPerRun) {
+}
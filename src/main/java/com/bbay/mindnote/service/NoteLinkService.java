@@ -0,0 +1,164 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteGraphResponse;
+import com.bbay.mindnote.dto.NoteTitle;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.repository.NoteRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@code [[wiki link]]} graph between notes: the note_links table is the durable copy,
+ * {@link NoteLinkGraph} the in-memory one that answers backlink and graph queries without SQL.
+ */
+@Service
+public class NoteLinkService {
+
+    private static final Logger logger = LogManager.getLogger(NoteLinkService.class);
+
+    static final int MAX_DEPTH = 3;
+
+    // Keeps the graph view readable and the response small around hub notes
+    static final int MAX_GRAPH_NODES = 500;
+
+    private final NoteRepository noteRepository;
+
+    private final NoteLinkGraph graph = new NoteLinkGraph();
+
+    public NoteLinkService(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+        logger.info("NoteLinkService initialized");
+    }
+
+    /**
+     * Loads the graph from the database. The graph stays locked until the load is applied, so a
+     * save that commits meanwhile updates it afterwards instead of being overwritten by the load.
+     * Reads from the primary, which has every commit whose update ran before the load started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadGraph() {
+        Map<Long, Set<String>> links = new HashMap<>();
+        synchronized (graph) {
+            List<NoteTitle> notes;
+            try (Stream<NoteTitle> stream = noteRepository.streamTitles()) {
+                notes = stream.toList();
+            }
+            try (Stream<NoteRepository.LinkRow> stream = noteRepository.streamLinks()) {
+                // Re-normalized in case the database lower-cases some character differently
+                stream.forEach(row -> links.computeIfAbsent(row.getSourceId(), id -> new HashSet<>())
+                        .add(WikiLinks.key(row.getTargetKey())));
+            }
+            graph.replaceAll(notes, links);
+        }
+        logger.info("Note link graph loaded with {} notes and {} linking notes", graph.size(), links.size());
+    }
+
+    /**
+     * Brings the stored links of a saved note up to date. Only the links that differ between the
+     * previous and the new content are written; a title change alone writes nothing, because
+     * links are stored by title and re-resolve in memory.
+     *
+     * @param previousContent the content before this save, {@code null} for a new note
+     */
+    @Transactional
+    public void recordNoteSaved(Long noteId, String title, String previousContent, String content) {
+        Set<String> linkKeys = null;
+        if (!Objects.equals(previousContent, content)) {
+            Set<String> before = WikiLinks.parse(previousContent);
+            linkKeys = WikiLinks.parse(content);
+
+            Set<String> removed = new HashSet<>(before);
+            removed.removeAll(linkKeys);
+            Set<String> added = new LinkedHashSet<>(linkKeys);
+            added.removeAll(before);
+            if (!removed.isEmpty()) {
+                noteRepository.deleteLinks(noteId, removed);
+            }
+            if (!added.isEmpty()) {
+                noteRepository.insertLinks(noteId, added.toArray(String[]::new));
+            }
+            logger.debug("Note {} links: {} added, {} removed", noteId, added.size(), removed.size());
+        }
+
+        Set<String> keys = linkKeys;
+        TransactionHooks.afterCommit(() -> graph.put(noteId, title, keys));
+    }
+
+    /**
+     * Parses and stores the links of one batch of notes written before note_links existed (see
+     * {@link NoteLinkBackfill}). The stored links are replaced as a whole, since a save of a
+     * pending note only wrote the links its edit changed. The batch is locked, so a save of one
+     * of its notes waits and then writes its changes on top.
+     *
+     * @return the number of notes parsed; less than {@code limit} means none are left
+     */
+    @Transactional
+    public int backfillLinks(int limit) {
+        List<NoteRepository.PendingLinks> batch = noteRepository.lockPendingLinks(limit);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (NoteRepository.PendingLinks note : batch) {
+            Set<String> keys = WikiLinks.parse(note.getContent());
+            noteRepository.deleteAllLinks(note.getId());
+            if (!keys.isEmpty()) {
+                noteRepository.insertLinks(note.getId(), keys.toArray(String[]::new));
+            }
+            if (Boolean.TRUE.equals(note.getLive())) {
+                TransactionHooks.afterCommit(() -> graph.put(note.getId(), note.getTitle(), keys));
+            }
+            ids.add(note.getId());
+        }
+        noteRepository.clearLinksPending(ids);
+        return batch.size();
+    }
+
+    /**
+     * Drops a deleted note from the graph. Its rows in note_links go when the note is purged.
+     */
+    public void recordNoteDeleted(Long noteId) {
+        TransactionHooks.afterCommit(() -> graph.remove(noteId));
+    }
+
+    /**
+     * Notes linking to the given one, served from memory without any query.
+     */
+    public List<NoteTitle> getBacklinks(Long noteId) {
+        List<NoteTitle> backlinks = graph.backlinks(noteId);
+        if (backlinks == null) {
+            logger.error("Note not found with id: {}", noteId);
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+        return backlinks;
+    }
+
+    /**
+     * The notes within {@code depth} links of the given one, in either direction, and the links
+     * between them. The walk is breadth-first and bounded by {@link #MAX_DEPTH} and
+     * {@link #MAX_GRAPH_NODES}.
+     */
+    public NoteGraphResponse getGraph(Long noteId, int depth) {
+        NoteGraphResponse response = graph.neighborhood(noteId, Math.clamp(depth, 1, MAX_DEPTH), MAX_GRAPH_NODES);
+        if (response == null) {
+            logger.error("Note not found with id: {}", noteId);
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.repository.NoteRevisionRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically thins old revision history. Each note is compacted in its own transaction so a
+ * run never holds locks on more than one note's revisions at a time.
+ */
+@Component
+public class NoteRevisionCompactor {
+
+    private static final Logger logger = LogManager.getLogger(NoteRevisionCompactor.class);
+
+    private final NoteRevisionRepository revisionRepository;
+    private final NoteRevisionService revisionService;
+    private final NoteRevisionProperties properties;
+
+    public NoteRevisionCompactor(NoteRevisionRepository revisionRepository,
+                                 NoteRevisionService revisionService,
+                                 NoteRevisionProperties properties) {
+        this.revisionRepository = revisionRepository;
+        this.revisionService = revisionService;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.revisions.compaction-interval:PT1H}",
+            fixedDelayString = "${mindnote.revisions.compaction-interval:PT1H}")
+    public void compactOldRevisions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.keepAllFor());
+        List<Long> noteIds = revisionRepository.findCompactionCandidates(cutoff, properties.compactionBatch());
+        if (noteIds.isEmpty()) {
+            return;
+        }
+
+        int removed = 0;
+        for (Long noteId : noteIds) {
+            try {
+                removed += revisionService.compact(noteId, cutoff);
+            } catch (RuntimeException ex) {
+                // One bad chain must not stop the rest of the batch
+                logger.error("Failed to compact revisions of note {}", noteId, ex);
+            }
+        }
+        logger.info("Revision compaction removed {} revisions across {} notes", removed, noteIds.size());
+    }
+}
@@ -0,0 +1,28 @@
+package com.bbay.mindnote.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for note revision history.
+ *
+ * @param snapshotInterval every this many revisions a full snapshot is stored, so rebuilding
+ *                         any revision applies fewer than this many deltas
+ * @param keepAllFor       revisions younger than this are never compacted; older ones are
+ *                         thinned to the last revision of each day
+ * @param compactionBatch  notes compacted per scheduled run
+ */
+@ConfigurationProperties(prefix = "mindnote.revisions")
+public record NoteRevisionProperties(
+        @DefaultValue("10") int snapshotInterval,
+        @DefaultValue("7d") Duration keepAllFor,
+        @DefaultValue("100") int compactionBatch) {
+
+    public NoteRevisionProperties {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("mindnote.revisions.snapshot-interval must be at least 1");
+        }
+    }
+}
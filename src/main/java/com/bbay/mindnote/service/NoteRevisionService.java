@@ -0,0 +1,205 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteRevisionResponse;
+import com.bbay.mindnote.dto.NoteRevisionSummary;
+import com.bbay.mindnote.entity.Note;
+import com.bbay.mindnote.entity.NoteRevision;
+import com.bbay.mindnote.entity.RevisionKind;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.repository.NoteRepository;
+import com.bbay.mindnote.repository.NoteRevisionRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the history of note edits. Every save becomes a revision stored either as a full
+ * snapshot or as a {@link DeltaCodec} delta against the revision before it; every
+ * {@code snapshotInterval}-th revision is a snapshot, so rebuilding any revision applies fewer
+ * than that many deltas.
+ */
+@Service
+public class NoteRevisionService {
+
+    private static final Logger logger = LogManager.getLogger(NoteRevisionService.class);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final NoteRevisionRepository revisionRepository;
+    private final NoteRepository noteRepository;
+    private final NoteRevisionProperties properties;
+
+    public NoteRevisionService(NoteRevisionRepository revisionRepository,
+                               NoteRepository noteRepository,
+                               NoteRevisionProperties properties) {
+        this.revisionRepository = revisionRepository;
+        this.noteRepository = noteRepository;
+        this.properties = properties;
+        logger.info("NoteRevisionService initialized with a snapshot every {} revisions",
+                properties.snapshotInterval());
+    }
+
+    /**
+     * Records the first revision of a newly saved note. Runs in the caller's transaction.
+     */
+    public void recordCreated(Note note) {
+        NoteRevision revision = new NoteRevision(note.getId(), 1, note.getTitle(), lengthOf(note.getContent()));
+        revision.setSnapshot(encode(note.getContent()));
+        revisionRepository.save(revision);
+    }
+
+    /**
+     * Records the note's current state as a new revision, given the state it had before the
+     * update. Saves that leave title and content unchanged are not recorded. Runs in the
+     * caller's transaction.
+     */
+    public void recordUpdated(Note note, String previousTitle, String previousContent) {
+        if (Objects.equals(note.getTitle(), previousTitle) && Objects.equals(note.getContent(), previousContent)) {
+            return;
+        }
+
+        NoteRevision latest = revisionRepository.findTopByNoteIdOrderByRevisionDesc(note.getId()).orElse(null);
+        if (latest == null) {
+            // Note predates revision history: keep the state being overwritten as revision 1
+            latest = new NoteRevision(note.getId(), 1, previousTitle, lengthOf(previousContent));
+            latest.setSnapshot(encode(previousContent));
+            latest = revisionRepository.save(latest);
+        }
+
+        byte[] content = encode(note.getContent());
+        NoteRevision revision = new NoteRevision(note.getId(), latest.getRevision() + 1,
+                note.getTitle(), lengthOf(note.getContent()));
+        if (revisionRepository.countDeltasSinceSnapshot(note.getId()) + 1 >= properties.snapshotInterval()) {
+            revision.setSnapshot(content);
+        } else {
+            storeAgainst(revision, latest.getRevision(), encode(previousContent), content);
+        }
+        revisionRepository.save(revision);
+        logger.debug("Recorded revision {} of note {} as {} ({} bytes)",
+                revision.getRevision(), note.getId(), revision.getKind(), revision.getPayload().length);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<NoteRevisionSummary> getRevisions(Long noteId, Pageable pageable) {
+        logger.info("Fetching revisions of note {} - page: {}", noteId, pageable.getPageNumber());
+        if (!noteRepository.existsById(noteId)) {
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+        return revisionRepository.findSummaries(noteId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public NoteRevisionResponse getRevision(Long noteId, int revision) {
+        logger.info("Fetching revision {} of note {}", revision, noteId);
+        if (!noteRepository.existsById(noteId)) {
+            throw new ResourceNotFoundException("Note", noteId);
+        }
+        List<NoteRevision> chain = revisionRepository.findChain(noteId, revision);
+        if (chain.isEmpty() || chain.getLast().getRevision() != revision) {
+            // Never existed, or thinned out by compaction
+            throw new ResourceNotFoundException(
+                    String.format("Revision %d not found for note with id: %d", revision, noteId));
+        }
+
+        byte[] content = chain.getFirst().getPayload();
+        for (NoteRevision delta : chain.subList(1, chain.size())) {
+            content = DeltaCodec.apply(content, delta.getPayload());
+        }
+        NoteRevision target = chain.getLast();
+        logger.debug("Rebuilt revision {} of note {} from {} deltas", revision, noteId, chain.size() - 1);
+        return new NoteRevisionResponse(noteId, revision, target.getTitle(),
+                decode(content, target.getContentLength()), target.getCreatedAt());
+    }
+
+    /**
+     * Thins the revisions of one note older than {@code cutoff} down to the last one of each
+     * day, then re-encodes the remaining chain so deltas point at revisions that still exist.
+     * The latest revision is always kept and revision numbers never change.
+     *
+     * @return the number of revisions removed
+     */
+    @Transactional
+    public int compact(Long noteId, LocalDateTime cutoff) {
+        List<NoteRevision> revisions = revisionRepository.findByNoteIdOrderByRevision(noteId);
+        if (revisions.size() < 2) {
+            return 0;
+        }
+
+        // One forward pass: each revision's content is rebuilt from its stored payload before that
+        // payload is re-encoded, so only the running content and the last kept one are held
+        List<NoteRevision> removed = new ArrayList<>();
+        byte[] content = EMPTY;
+        NoteRevision previousKept = null;
+        byte[] previousContent = null;
+        int deltasSinceSnapshot = 0;
+        for (int i = 0; i < revisions.size(); i++) {
+            NoteRevision revision = revisions.get(i);
+            content = revision.getKind() == RevisionKind.SNAPSHOT
+                    ? revision.getPayload()
+                    : DeltaCodec.apply(content, revision.getPayload());
+            if (isThinnedOut(revision, i + 1 < revisions.size() ? revisions.get(i + 1) : null, cutoff)) {
+                removed.add(revision);
+                continue;
+            }
+            if (previousKept == null || deltasSinceSnapshot + 1 >= properties.snapshotInterval()) {
+                revision.setSnapshot(content);
+            } else {
+                storeAgainst(revision, previousKept.getRevision(), previousContent, content);
+            }
+            deltasSinceSnapshot = revision.getKind() == RevisionKind.SNAPSHOT ? 0 : deltasSinceSnapshot + 1;
+            previousKept = revision;
+            previousContent = content;
+        }
+
+        revisionRepository.deleteAll(removed);
+        if (!removed.isEmpty()) {
+            logger.info("Compacted note {}: removed {} of {} revisions", noteId, removed.size(), revisions.size());
+        }
+        return removed.size();
+    }
+
+    // --- Helper Methods ---
+
+    private static boolean isThinnedOut(NoteRevision revision, NoteRevision next, LocalDateTime cutoff) {
+        if (next == null || !revision.getCreatedAt().isBefore(cutoff)) {
+            return false;
+        }
+        // Keep the last revision of each day
+        LocalDate day = revision.getCreatedAt().toLocalDate();
+        return next.getCreatedAt().toLocalDate().equals(day);
+    }
+
+    /**
+     * Stores a delta against the base revision, or a snapshot when the delta would not be smaller.
+     */
+    private static void storeAgainst(NoteRevision revision, int baseRevision, byte[] base, byte[] content) {
+        byte[] delta = DeltaCodec.encode(base, content);
+        if (delta.length < content.length) {
+            revision.setDelta(baseRevision, delta);
+        } else {
+            revision.setSnapshot(content);
+        }
+    }
+
+    private static Integer lengthOf(String content) {
+        return content != null ? content.length() : null;
+    }
+
+    private static byte[] encode(String content) {
+        return content != null ? content.getBytes(StandardCharsets.UTF_8) : EMPTY;
+    }
+
+    private static String decode(byte[] content, Integer length) {
+        return length != null ? new String(content, StandardCharsets.UTF_8) : null;
+    }
+}
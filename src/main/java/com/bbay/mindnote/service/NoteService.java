@@ -1,11 +1,14 @@
 package com.bbay.mindnote.service;
 
+import com.bbay.mindnote.dto.FacetCount;
 import com.bbay.mindnote.dto.NoteRequest;
 import com.bbay.mindnote.dto.NoteResponse;
+import com.bbay.mindnote.dto.PageEnvelope;
 import com.bbay.mindnote.entity.Category;
 import com.bbay.mindnote.entity.Note;
 import com.bbay.mindnote.entity.Tag;
 import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.observability.QueryBudget;
 import com.bbay.mindnote.repository.CategoryRepository;
 import com.bbay.mindnote.repository.NoteRepository;
 import com.bbay.mindnote.repository.TagRepository;
@@ -13,12 +16,19 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,41 +36,114 @@ public class NoteService {
 
     private static final Logger logger = LogManager.getLogger(NoteService.class);
 
+    static final Set<String> FACETS = Set.of(Facets.CATEGORY, Facets.TAG);
+
+    /**
+     * Notes loaded per query while a list response is written. Bounds the memory per request
+     * whatever the page size, large notes included.
+     */
+    public static final int LIST_BATCH_SIZE = 25;
+
     private final NoteRepository noteRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
+    private final TagService tagService;
+    private final NoteRevisionService revisionService;
+    private final NoteSimilarityService similarityService;
+    private final NoteLinkService linkService;
 
     public NoteService(NoteRepository noteRepository,
                        CategoryRepository categoryRepository,
-                       TagRepository tagRepository) {
+                       TagRepository tagRepository,
+                       TagService tagService,
+                       NoteRevisionService revisionService,
+                       NoteSimilarityService similarityService,
+                       NoteLinkService linkService) {
         this.noteRepository = noteRepository;
         this.categoryRepository = categoryRepository;
         this.tagRepository = tagRepository;
+        this.tagService = tagService;
+        this.revisionService = revisionService;
+        this.similarityService = similarityService;
+        this.linkService = linkService;
         logger.info("NoteService initialized with Category and Tag support");
     }
 
+    /**
+     * Ids of one page of notes, in the requested order. The notes themselves are loaded with
+     * {@link #getNotesByIds}, {@link #LIST_BATCH_SIZE} at a time, while the response is written.
+     * The matches are only counted when {@code withTotal} is set and the page does not already
+     * tell the total. The category name is resolved to ids first, so the list query filters on
+     * values the planner can estimate; an unknown category matches no notes.
+     */
+    @QueryBudget(max = 3)
     @Transactional(readOnly = true)
-    public Page<NoteResponse> getAllNotes(String category, String tag, Pageable pageable) {
-        logger.info("Fetching notes - category: {}, tag: {}, page: {}",
-                category, tag, pageable.getPageNumber());
+    public PageEnvelope<Long> getNoteIds(String category, String tag, boolean recursive, boolean withTotal,
+                                         Pageable pageable) {
+        logger.info("Fetching note ids - category: {}, recursive: {}, tag: {}, page: {}",
+                category, recursive, tag, pageable.getPageNumber());
 
-        Page<Note> notesPage;
+        if (category != null && recursive) {
+            List<Long> categoryIds = categoryRepository.findSubtreeIds(category);
+            if (categoryIds.isEmpty()) {
+                return noNotes(category, withTotal, pageable);
+            }
+            Slice<Long> ids = noteRepository.findPageIdsInSubtree(categoryIds, tag, pageable);
+            logger.debug("Retrieved {} note ids (has next: {})", ids.getNumberOfElements(), ids.hasNext());
+            return PageEnvelope.of(ids, withTotal ? () -> noteRepository.countByFiltersInSubtree(categoryIds, tag) : null);
+        }
 
-        if (category == null && tag == null) {
-            // Use standard JPA repository method for non-filtered request
-            notesPage = noteRepository.findAll(pageable);
-        } else {
-            // Use custom query for filtered request
-            notesPage = noteRepository.findByFilters(category, tag, pageable);
+        Long categoryId = category != null ? categoryRepository.findIdByName(category).orElse(null) : null;
+        if (category != null && categoryId == null) {
+            return noNotes(category, withTotal, pageable);
         }
+        Slice<Long> ids = noteRepository.findPageIds(categoryId, tag, pageable);
+        LongSupplier count = () -> noteRepository.countByFilters(categoryId, tag);
+
+        logger.debug("Retrieved {} note ids (has next: {})", ids.getNumberOfElements(), ids.hasNext());
+        return PageEnvelope.of(ids, withTotal ? count : null);
+    }
 
-        logger.debug("Retrieved {} notes (Total: {})",
-                notesPage.getNumberOfElements(), notesPage.getTotalElements());
+    private static PageEnvelope<Long> noNotes(String category, boolean withTotal, Pageable pageable) {
+        logger.debug("Category {} does not exist, no notes match", category);
+        return PageEnvelope.of(new SliceImpl<>(List.of(), pageable, false), withTotal ? () -> 0L : null);
+    }
+
+    /**
+     * The notes with the given ids, in the same order; ids of notes deleted in the meantime are
+     * skipped. Tags and categories of the whole batch are fetched with one query each.
+     */
+    @QueryBudget(max = 3)
+    @Transactional(readOnly = true)
+    public List<NoteResponse> getNotesByIds(List<Long> ids) {
+        Map<Long, Note> notes = new HashMap<>();
+        noteRepository.findAllById(ids).forEach(note -> notes.put(note.getId(), note));
+        return ids.stream()
+                .map(notes::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .toList();
+    }
 
-        // Convert Page<Note> to Page<NoteResponse>
-        return notesPage.map(this::mapToResponse);
+    /**
+     * Facet counts over all notes matching the filters. The counts for every requested facet
+     * come from a single grouped query, whatever the number of values.
+     */
+    @QueryBudget(max = 1)
+    @Transactional(readOnly = true)
+    public Map<String, List<FacetCount>> getNoteFacets(String category, String tag, boolean recursive,
+                                                       Collection<String> facetNames, int facetLimit) {
+        Set<String> facets = Facets.parse(facetNames, FACETS);
+        if (facets.isEmpty()) {
+            return Map.of();
+        }
+        return Facets.group(
+                noteRepository.countFacets(category, recursive, tag,
+                        facets.contains(Facets.CATEGORY), facets.contains(Facets.TAG), Facets.limit(facetLimit)),
+                facets);
     }
 
+    @QueryBudget(max = 3)
     @Transactional(readOnly = true)
     public NoteResponse getNoteById(Long id) {
         logger.info("Fetching note with id: {}", id);
@@ -80,6 +163,7 @@ public class NoteService {
         Note note = new Note();
         note.setTitle(request.title());
         note.setContent(request.content());
+        note.setContentHash(NoteHtmlService.contentHash(request.content()));
 
         // Handle Category
         assignCategory(note, request.categoryId());
@@ -89,6 +173,13 @@ public class NoteService {
         note.setTags(tags);
 
         Note savedNote = noteRepository.save(note);
+        if (mayBeLarge(savedNote.getContent())) {
+            noteRepository.syncContentBytes(savedNote.getId());
+        }
+        tagService.recordNoteTagChange(Set.of(), tags);
+        revisionService.recordCreated(savedNote);
+        similarityService.index(savedNote.getId(), savedNote.getContent());
+        linkService.recordNoteSaved(savedNote.getId(), savedNote.getTitle(), null, savedNote.getContent());
         logger.info("Successfully created note with id: {}", savedNote.getId());
         return mapToResponse(savedNote);
     }
@@ -96,41 +187,69 @@ public class NoteService {
     @Transactional
     public NoteResponse updateNote(Long id, NoteRequest request) {
         logger.info("Updating note with id: {}", id);
-        Note note = noteRepository.findById(id)
+        // Locked so that the revision recorded below is a delta from the content this save replaces
+        Note note = noteRepository.lockById(id)
                 .orElseThrow(() -> {
                     logger.error("Cannot update - Note not found with id: {}", id);
                     return new ResourceNotFoundException("Note", id);
                 });
 
+        String previousTitle = note.getTitle();
+        String previousContent = note.getContent();
         note.setTitle(request.title());
         note.setContent(request.content());
+        note.setContentHash(NoteHtmlService.contentHash(request.content()));
 
         // Handle Category Update
         assignCategory(note, request.categoryId());
 
         // Handle Tags Update (Replace existing tags with new set)
+        Set<Tag> previousTags = new HashSet<>(note.getTags());
         Set<Tag> tags = resolveTags(request.tags());
         note.setTags(tags);
 
         Note updatedNote = noteRepository.save(note);
+        if (mayBeLarge(previousContent) || mayBeLarge(updatedNote.getContent())) {
+            noteRepository.syncContentBytes(id);
+        }
+        tagService.recordNoteTagChange(previousTags, tags);
+        revisionService.recordUpdated(updatedNote, previousTitle, previousContent);
+        if (!Objects.equals(previousContent, updatedNote.getContent())) {
+            similarityService.index(id, updatedNote.getContent());
+        }
+        linkService.recordNoteSaved(id, updatedNote.getTitle(), previousContent, updatedNote.getContent());
         logger.info("Successfully updated note with id: {}", id);
         return mapToResponse(updatedNote);
     }
 
+    /**
+     * Soft-deletes the note in a single statement; SoftDeletePurger removes the row, its tag
+     * links, task links, revisions and attachments later.
+     */
     @Transactional
     public void deleteNote(Long id) {
         logger.info("Deleting note with id: {}", id);
-        Note note = noteRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("Cannot delete - Note not found with id: {}", id);
-                    return new ResourceNotFoundException("Note", id);
-                });
-        noteRepository.delete(note);
+        // Read before the note disappears from queries
+        List<Tag> tags = noteRepository.findTagsByNoteId(id);
+        if (noteRepository.softDelete(id, LocalDateTime.now()) == 0) {
+            logger.error("Cannot delete - Note not found with id: {}", id);
+            throw new ResourceNotFoundException("Note", id);
+        }
+        tagService.recordNoteTagChange(tags, Set.of());
+        linkService.recordNoteDeleted(id);
         logger.info("Successfully deleted note with id: {}", id);
     }
 
     // --- Helper Methods ---
 
+    /**
+     * Whether content may reach {@link Note#LARGE_CONTENT_BYTES} and so needs its byte copy
+     * written or cleared; UTF-8 takes at most three bytes per char.
+     */
+    private static boolean mayBeLarge(String content) {
+        return content != null && content.length() * 3L >= Note.LARGE_CONTENT_BYTES;
+    }
+
     private void assignCategory(Note note, Long categoryId) {
         if (categoryId != null) {
             Category category = categoryRepository.findById(categoryId)
@@ -141,7 +260,7 @@ public class NoteService {
         }
     }
 
-    private Set<Tag> resolveTags(Set<String> tagNames) {
+    Set<Tag> resolveTags(Set<String> tagNames) {
         if (tagNames == null || tagNames.isEmpty()) {
             return new HashSet<>();
         }
@@ -156,7 +275,7 @@ public class NoteService {
         return tags;
     }
 
-    private NoteResponse mapToResponse(Note note) {
+    NoteResponse mapToResponse(Note note) {
         // Extract Category info safely
         Long catId = (note.getCategory() != null) ? note.getCategory().getId() : null;
         String catName = (note.getCategory() != null) ? note.getCategory().getName() : null;
@@ -0,0 +1,96 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.repository.NoteSignatureRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Signs notes that were written before signatures existed. Each run walks the unsigned notes in
+ * id order, hashes a batch on a pool of platform threads (MinHash is pure CPU work) and stores it
+ * in one short transaction; notes written meanwhile are signed by NoteService and left alone.
+ */
+@Component
+public class NoteSignatureBackfill {
+
+    private static final Logger logger = LogManager.getLogger(NoteSignatureBackfill.class);
+
+    private final NoteSignatureRepository signatureRepository;
+    private final NoteSimilarityService similarityService;
+    private final NoteSimilarityProperties properties;
+    private final ExecutorService executor;
+
+    public NoteSignatureBackfill(NoteSignatureRepository signatureRepository,
+                                 NoteSimilarityService similarityService,
+                                 NoteSimilarityProperties properties) {
+        this.signatureRepository = signatureRepository;
+        this.similarityService = similarityService;
+        this.properties = properties;
+        int threads = properties.backfillThreads() > 0
+                ? properties.backfillThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform()
+                .name("note-signature-", 0)
+                .daemon(true)
+                .factory());
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.similarity.backfill-interval:PT30S}",
+            fixedDelayString = "${mindnote.similarity.backfill-interval:PT30S}")
+    public void backfill() {
+        long afterId = 0;
+        int signed = 0;
+        try {
+            for (int i = 0; i < properties.backfillMaxBatchesPerRun(); i++) {
+                List<NoteSignatureRepository.UnsignedNote> batch =
+                        signatureRepository.findUnsigned(afterId, properties.backfillBatchSize());
+                if (batch.isEmpty()) {
+                    break;
+                }
+                signed += similarityService.storeBackfilled(sign(batch));
+                afterId = batch.getLast().getId();
+                if (batch.size() < properties.backfillBatchSize()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | ExecutionException ex) {
+            // Overload rejections included; whatever is left waits for the next run
+            logger.warn("Signature backfill stopped early: {}", ex.getMessage());
+        }
+        if (signed > 0) {
+            logger.info("Computed similarity signatures for {} existing notes", signed);
+        }
+    }
+
+    private Map<Long, int[]> sign(List<NoteSignatureRepository.UnsignedNote> batch)
+            throws InterruptedException, ExecutionException {
+        List<Future<int[]>> futures = new ArrayList<>(batch.size());
+        for (NoteSignatureRepository.UnsignedNote note : batch) {
+            String content = note.getContent();
+            futures.add(executor.submit(() -> MinHash.signature(content)));
+        }
+        Map<Long, int[]> signatures = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            signatures.put(batch.get(i).getId(), futures.get(i).get());
+        }
+        return signatures;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,22 @@
+package com.bbay.mindnote.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for near-duplicate detection.
+ *
+ * @param minSimilarity           lowest estimated similarity reported as a similar note or duplicate
+ * @param candidateLimit          LSH candidates verified per lookup, most shared bands first
+ * @param backfillBatchSize       notes signed per backfill transaction
+ * @param backfillThreads         threads computing signatures during the backfill; 0 uses every core
+ * @param backfillMaxBatchesPerRun upper bound on the work done by one scheduled backfill run
+ */
+@ConfigurationProperties(prefix = "mindnote.similarity")
+public record NoteSimilarityProperties(
+        @DefaultValue("0.5") double minSimilarity,
+        @DefaultValue("200") int candidateLimit,
+        @DefaultValue("200") int backfillBatchSize,
+        @DefaultValue("0") int backfillThreads,
+        @DefaultValue("50") int backfillMaxBatchesPerRun) {
+}
@@ -0,0 +1,216 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.DuplicateNotesResponse;
+import com.bbay.mindnote.dto.NoteTitle;
+import com.bbay.mindnote.dto.SimilarNoteResponse;
+import com.bbay.mindnote.entity.NoteSignature;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.observability.QueryBudget;
+import com.bbay.mindnote.repository.NoteRepository;
+import com.bbay.mindnote.repository.NoteSignatureRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds notes with nearly the same content through MinHash signatures and LSH band buckets.
+ * <p>
+ * A lookup fetches the notes that share a bucket with the given one, then keeps those whose
+ * signatures really agree in enough positions; notes that share no bucket are never read.
+ */
+@Service
+public class NoteSimilarityService {
+
+    private static final Logger logger = LogManager.getLogger(NoteSimilarityService.class);
+
+    static final int MAX_RESULTS = 100;
+
+    // Candidate pairs inspected by the duplicate report per requested result
+    private static final int PAIRS_PER_RESULT = 10;
+
+    private static final Comparator<Scored> BY_SIMILARITY = Comparator
+            .comparingDouble(Scored::similarity).reversed()
+            .thenComparingLong(Scored::noteId)
+            .thenComparingLong(Scored::otherNoteId);
+
+    private record Scored(long noteId, long otherNoteId, double similarity) {
+    }
+
+    private final NoteSignatureRepository signatureRepository;
+    private final NoteRepository noteRepository;
+    private final NoteSimilarityProperties properties;
+
+    public NoteSimilarityService(NoteSignatureRepository signatureRepository,
+                                 NoteRepository noteRepository,
+                                 NoteSimilarityProperties properties) {
+        this.signatureRepository = signatureRepository;
+        this.noteRepository = noteRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Stores the signature of the note's current content and replaces its band buckets. Called in
+     * the transaction that writes the content, so signature and content never disagree.
+     */
+    @Transactional
+    public void index(Long noteId, String content) {
+        int[] signature = MinHash.signature(content);
+        signatureRepository.upsert(noteId, MinHash.encode(signature), LocalDateTime.now());
+        signatureRepository.deleteBands(noteId);
+        if (signature.length > 0) {
+            signatureRepository.insertBands(noteId, MinHash.bandBuckets(signature));
+        }
+    }
+
+    /**
+     * Writes signatures computed by the backfill. A note that got a signature in the meantime
+     * (created or edited since the batch was read) keeps it, and its bands are left alone.
+     *
+     * @return the number of signatures stored
+     */
+    @Transactional
+    public int storeBackfilled(Map<Long, int[]> signatures) {
+        LocalDateTime now = LocalDateTime.now();
+        int stored = 0;
+        for (Map.Entry<Long, int[]> entry : signatures.entrySet()) {
+            int[] signature = entry.getValue();
+            if (signatureRepository.insertIfAbsent(entry.getKey(), MinHash.encode(signature), now) == 0) {
+                continue;
+            }
+            if (signature.length > 0) {
+                signatureRepository.insertBands(entry.getKey(), MinHash.bandBuckets(signature));
+            }
+            stored++;
+        }
+        return stored;
+    }
+
+    /**
+     * Notes whose content is similar to the given note's, most similar first.
+     */
+    @QueryBudget(max = 5)
+    @Transactional(readOnly = true)
+    public List<SimilarNoteResponse> findSimilar(Long noteId, int limit) {
+        logger.info("Finding notes similar to note {}", noteId);
+        int[] signature = loadSignature(noteId);
+        if (signature.length == 0) {
+            return List.of();
+        }
+
+        List<Long> candidates = signatureRepository.findCandidates(
+                noteId, MinHash.bandBuckets(signature), properties.candidateLimit());
+        List<Scored> matches = new ArrayList<>();
+        for (NoteSignature other : signatureRepository.findAllById(candidates)) {
+            double similarity = MinHash.similarity(signature, MinHash.decode(other.getSignature()));
+            if (similarity >= properties.minSimilarity()) {
+                matches.add(new Scored(noteId, other.getNoteId(), similarity));
+            }
+        }
+        matches.sort(BY_SIMILARITY);
+
+        Map<Long, NoteTitle> titles = findTitles(matches.stream().map(Scored::otherNoteId).collect(Collectors.toSet()));
+        List<SimilarNoteResponse> result = new ArrayList<>();
+        for (Scored match : matches) {
+            // Deleted notes keep their bands until purged
+            NoteTitle title = titles.get(match.otherNoteId());
+            if (title != null) {
+                result.add(new SimilarNoteResponse(title.id(), title.title(), match.similarity()));
+                if (result.size() == clampLimit(limit)) {
+                    break;
+                }
+            }
+        }
+        logger.debug("Note {}: {} LSH candidates, {} similar", noteId, candidates.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Pairs of notes at or above {@code threshold} similarity across the whole collection, most
+     * similar first. Only pairs that collide in some LSH band are compared, so the report costs
+     * time proportional to the number of near-duplicates instead of the square of the notes.
+     */
+    @QueryBudget(max = 4)
+    @Transactional(readOnly = true)
+    public List<DuplicateNotesResponse> findDuplicates(Double threshold, int limit) {
+        double minSimilarity = threshold != null ? Math.clamp(threshold, 0.0, 1.0) : properties.minSimilarity();
+        int maxResults = clampLimit(limit);
+        logger.info("Building duplicate report - threshold: {}, limit: {}", minSimilarity, maxResults);
+
+        List<NoteSignatureRepository.CandidatePair> pairs =
+                signatureRepository.findCandidatePairs(maxResults * PAIRS_PER_RESULT);
+        Set<Long> ids = new HashSet<>();
+        pairs.forEach(pair -> {
+            ids.add(pair.getNoteId());
+            ids.add(pair.getOtherNoteId());
+        });
+        Map<Long, int[]> signatures = new HashMap<>();
+        signatureRepository.findAllById(ids)
+                .forEach(signature -> signatures.put(signature.getNoteId(), MinHash.decode(signature.getSignature())));
+
+        List<Scored> duplicates = new ArrayList<>();
+        for (NoteSignatureRepository.CandidatePair pair : pairs) {
+            int[] a = signatures.get(pair.getNoteId());
+            int[] b = signatures.get(pair.getOtherNoteId());
+            double similarity = a != null && b != null ? MinHash.similarity(a, b) : 0;
+            if (similarity >= minSimilarity) {
+                duplicates.add(new Scored(pair.getNoteId(), pair.getOtherNoteId(), similarity));
+            }
+        }
+        duplicates.sort(BY_SIMILARITY);
+
+        Map<Long, NoteTitle> titles = findTitles(ids);
+        List<DuplicateNotesResponse> result = new ArrayList<>();
+        for (Scored duplicate : duplicates) {
+            NoteTitle note = titles.get(duplicate.noteId());
+            NoteTitle other = titles.get(duplicate.otherNoteId());
+            if (note != null && other != null) {
+                result.add(new DuplicateNotesResponse(note, other, duplicate.similarity()));
+                if (result.size() == maxResults) {
+                    break;
+                }
+            }
+        }
+        logger.info("Duplicate report: {} candidate pairs, {} duplicates", pairs.size(), result.size());
+        return result;
+    }
+
+    /**
+     * The stored signature, or one computed from the content when the backfill has not reached
+     * the note yet. A signed note costs one query; only for an unsigned one is the note loaded,
+     * which is also what tells a missing note apart.
+     */
+    private int[] loadSignature(Long noteId) {
+        return signatureRepository.findLiveById(noteId)
+                .map(signature -> MinHash.decode(signature.getSignature()))
+                .orElseGet(() -> noteRepository.findById(noteId)
+                        .map(note -> MinHash.signature(note.getContent()))
+                        .orElseThrow(() -> {
+                            logger.error("Note not found with id: {}", noteId);
+                            return new ResourceNotFoundException("Note", noteId);
+                        }));
+    }
+
+    private Map<Long, NoteTitle> findTitles(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return noteRepository.findTitles(ids).stream()
+                .collect(Collectors.toMap(NoteTitle::id, Function.identity()));
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.clamp(limit, 1, MAX_RESULTS);
+    }
+}
@@ -0,0 +1,245 @@
+package com.bbay.mindnote.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact prefix tree over normalized names used for keystroke autocomplete.
+ * <p>
+ * Every node caches the best {@code topK} entries of its subtree (ordered by weight, then name),
+ * so a lookup is a walk down the prefix plus an array copy, independent of how many names
+ * share the prefix. Writes refresh the cached lists bottom-up along the changed path only.
+ */
+final class PrefixTrie {
+
+    record Entry(long id, String name, long weight) {
+    }
+
+    static final Comparator<Entry> RANKING = Comparator
+            .comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::name)
+            .thenComparingLong(Entry::id);
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        Entry[] terminals = NO_ENTRIES;
+        Entry[] top = NO_ENTRIES;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int insertAt = -i - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+
+    private final int topK;
+    private final Node root = new Node();
+    private final Map<Long, String> keysById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    PrefixTrie(int topK) {
+        this.topK = topK;
+    }
+
+    int topK() {
+        return topK;
+    }
+
+    /**
+     * Adds or re-weights an entry; renames move it to the new key.
+     */
+    void put(long id, String name, long weight) {
+        lock.writeLock().lock();
+        try {
+            putInternal(id, name, weight, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bulk load used at startup: inserts everything first and ranks the tree once at the end.
+     */
+    void putAll(Iterable<Entry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : entries) {
+                putInternal(entry.id(), entry.name(), entry.weight(), false);
+            }
+            rankSubtree(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String key = keysById.remove(id);
+            if (key != null) {
+                removeFromKey(key, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            root.keys = new char[0];
+            root.children = new Node[0];
+            root.terminals = NO_ENTRIES;
+            root.top = NO_ENTRIES;
+            keysById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return keysById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best entries whose normalized name starts with {@code prefix}; at most {@link #topK()}.
+     */
+    List<Entry> suggest(String prefix, int limit) {
+        String key = TagUsageIndex.normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            int count = Math.min(Math.min(limit, topK), node.top.length);
+            return List.of(Arrays.copyOf(node.top, count));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putInternal(long id, String name, long weight, boolean rank) {
+        String key = TagUsageIndex.normalize(name);
+        String previousKey = keysById.put(id, key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            removeFromKey(previousKey, id);
+        }
+
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            path[i + 1] = node;
+        }
+
+        Entry entry = new Entry(id, name, weight);
+        Entry[] terminals = node.terminals;
+        int existing = indexOf(terminals, id);
+        if (existing >= 0) {
+            terminals = terminals.clone();
+            terminals[existing] = entry;
+        } else {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = entry;
+        }
+        node.terminals = terminals;
+
+        if (rank) {
+            rankPath(path);
+        }
+    }
+
+    private void removeFromKey(String key, long id) {
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+            path[i + 1] = node;
+        }
+        if (node == null) {
+            return;
+        }
+        int index = indexOf(node.terminals, id);
+        if (index < 0) {
+            return;
+        }
+        Entry[] terminals = new Entry[node.terminals.length - 1];
+        System.arraycopy(node.terminals, 0, terminals, 0, index);
+        System.arraycopy(node.terminals, index + 1, terminals, index, terminals.length - index);
+        node.terminals = terminals;
+        // Empty branches are left in place; they are tiny and get reused by later inserts
+        rankPath(path);
+    }
+
+    private void rankPath(Node[] path) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            rank(path[i]);
+        }
+    }
+
+    private void rankSubtree(Node node) {
+        for (Node child : node.children) {
+            rankSubtree(child);
+        }
+        rank(node);
+    }
+
+    private void rank(Node node) {
+        List<Entry> candidates = new ArrayList<>(node.terminals.length + node.children.length * topK);
+        candidates.addAll(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        int count = Math.min(topK, candidates.size());
+        node.top = count == 0 ? NO_ENTRIES : candidates.subList(0, count).toArray(NO_ENTRIES);
+    }
+
+    private static int indexOf(Entry[] entries, long id) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].id() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bbay.mindnote.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for hard-deleting soft-deleted notes and tasks.
+ *
+ * @param gracePeriod      how long deleted rows are kept before they are purged
+ * @param batchSize        rows removed per transaction
+ * @param maxBatchesPerRun upper bound on the work done by one scheduled run
+ */
+@ConfigurationProperties(prefix = "mindnote.purge")
+public record PurgeProperties(
+        @DefaultValue("1h") Duration gracePeriod,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("50") int maxBatchesPerRun) {
+}
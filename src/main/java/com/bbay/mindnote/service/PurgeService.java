@@ -0,0 +1,65 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.repository.NoteRepository;
+import com.bbay.mindnote.repository.TaskRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hard-deletes soft-deleted rows one bounded batch per transaction, using set-based statements
+ * so no entity is ever loaded. Tag counters were already adjusted at soft-delete time.
+ */
+@Service
+public class PurgeService {
+
+    private static final Logger logger = LogManager.getLogger(PurgeService.class);
+
+    private final NoteRepository noteRepository;
+    private final TaskRepository taskRepository;
+    private final AttachmentService attachmentService;
+
+    public PurgeService(NoteRepository noteRepository,
+                        TaskRepository taskRepository,
+                        AttachmentService attachmentService) {
+        this.noteRepository = noteRepository;
+        this.taskRepository = taskRepository;
+        this.attachmentService = attachmentService;
+    }
+
+    /**
+     * @return the number of notes removed; less than {@code limit} means the queue is drained
+     */
+    @Transactional
+    public int purgeNotes(LocalDateTime deletedBefore, int limit) {
+        List<Long> ids = noteRepository.lockPurgeable(deletedBefore, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int unlinkedTasks = taskRepository.unlinkNotes(ids);
+        noteRepository.deleteTagLinks(ids);
+        attachmentService.detachAll(ids);
+        int purged = noteRepository.hardDelete(ids);
+        logger.debug("Purged {} notes, unlinked {} tasks", purged, unlinkedTasks);
+        return purged;
+    }
+
+    /**
+     * @return the number of tasks removed; less than {@code limit} means the queue is drained
+     */
+    @Transactional
+    public int purgeTasks(LocalDateTime deletedBefore, int limit) {
+        List<Long> ids = taskRepository.lockPurgeable(deletedBefore, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        taskRepository.deleteTagLinks(ids);
+        int purged = taskRepository.hardDelete(ids);
+        logger.debug("Purged {} tasks", purged);
+        return purged;
+    }
+}
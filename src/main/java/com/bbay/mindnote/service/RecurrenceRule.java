@@ -0,0 +1,387 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.exception.InvalidRecurrenceException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The subset of iCalendar RRULEs (RFC 5545) that recurring tasks support:
+ * {@code FREQ=DAILY|WEEKLY|MONTHLY} with optional {@code INTERVAL}, {@code BYDAY} (weekly),
+ * {@code BYMONTHDAY} (monthly, negative values count from the end of the month) and either
+ * {@code COUNT} or {@code UNTIL}. The task's due date is the first occurrence (DTSTART) and every
+ * occurrence keeps its time of day.
+ * <p>
+ * Rules are immutable and cached by their text, so a list request parses each distinct rule at
+ * most once. {@link #expand} works on epoch days and bit masks and only allocates its output.
+ */
+final class RecurrenceRule {
+
+    enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    static final int MAX_INTERVAL = 1000;
+    static final int MAX_COUNT = 10_000;
+
+    private static final int CACHE_LIMIT = 1024;
+    private static final Map<String, RecurrenceRule> CACHE = new ConcurrentHashMap<>();
+
+    private static final DateTimeFormatter UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final Frequency frequency;
+    private final int interval;
+    // Bit i = DayOfWeek.of(i + 1); 0 means the weekday of the first occurrence
+    private final int weekdays;
+    // Bit d = day d of the month, counted from the start / from the end; both 0 means the day of the first occurrence
+    private final long monthDays;
+    private final long monthDaysFromEnd;
+    // 0 = unlimited
+    private final int count;
+    private final LocalDateTime until;
+
+    private RecurrenceRule(Frequency frequency, int interval, int weekdays, long monthDays, long monthDaysFromEnd,
+                           int count, LocalDateTime until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.weekdays = weekdays;
+        this.monthDays = monthDays;
+        this.monthDaysFromEnd = monthDaysFromEnd;
+        this.count = count;
+        this.until = until;
+    }
+
+    /**
+     * Parses a rule such as {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;COUNT=10}. An {@code RRULE:}
+     * prefix is accepted.
+     *
+     * @throws InvalidRecurrenceException if the rule is malformed or outside the supported subset
+     */
+    static RecurrenceRule parse(String text) {
+        RecurrenceRule cached = CACHE.get(text);
+        if (cached != null) {
+            return cached;
+        }
+        RecurrenceRule rule = doParse(text);
+        if (CACHE.size() >= CACHE_LIMIT) {
+            // Distinct rules are few in practice; a full cache means junk input, so start over
+            CACHE.clear();
+        }
+        CACHE.put(text, rule);
+        return rule;
+    }
+
+    private static RecurrenceRule doParse(String text) {
+        String body = text.strip().toUpperCase(Locale.ROOT);
+        if (body.startsWith("RRULE:")) {
+            body = body.substring("RRULE:".length());
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        int weekdays = 0;
+        long monthDays = 0;
+        long monthDaysFromEnd = 0;
+        int count = 0;
+        LocalDateTime until = null;
+        for (String part : body.split(";")) {
+            int equals = part.indexOf('=');
+            if (equals <= 0) {
+                throw invalid("Malformed recurrence part '" + part + "'");
+            }
+            String name = part.substring(0, equals);
+            String value = part.substring(equals + 1);
+            switch (name) {
+                case "FREQ" -> {
+                    try {
+                        frequency = Frequency.valueOf(value);
+                    } catch (IllegalArgumentException ex) {
+                        throw invalid("Unsupported FREQ '" + value + "', supported are DAILY, WEEKLY and MONTHLY");
+                    }
+                }
+                case "INTERVAL" -> interval = parseInt(name, value, 1, MAX_INTERVAL);
+                case "COUNT" -> count = parseInt(name, value, 1, MAX_COUNT);
+                case "UNTIL" -> until = parseUntil(value);
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        int index = indexOf(DAY_CODES, day);
+                        if (index < 0) {
+                            throw invalid("Invalid BYDAY value '" + day + "'");
+                        }
+                        weekdays |= 1 << index;
+                    }
+                }
+                case "BYMONTHDAY" -> {
+                    for (String day : value.split(",")) {
+                        int monthDay = parseInt(name, day, -31, 31);
+                        if (monthDay > 0) {
+                            monthDays |= 1L << monthDay;
+                        } else if (monthDay < 0) {
+                            monthDaysFromEnd |= 1L << -monthDay;
+                        } else {
+                            throw invalid("BYMONTHDAY cannot be 0");
+                        }
+                    }
+                }
+                default -> throw invalid("Unsupported recurrence part '" + name + "'");
+            }
+        }
+        if (frequency == null) {
+            throw invalid("Recurrence rule needs a FREQ");
+        }
+        if (count > 0 && until != null) {
+            throw invalid("COUNT and UNTIL cannot be combined");
+        }
+        if (weekdays != 0 && frequency != Frequency.WEEKLY) {
+            throw invalid("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if ((monthDays | monthDaysFromEnd) != 0 && frequency != Frequency.MONTHLY) {
+            throw invalid("BYMONTHDAY is only supported with FREQ=MONTHLY");
+        }
+        return new RecurrenceRule(frequency, interval, weekdays, monthDays, monthDaysFromEnd, count, until);
+    }
+
+    /**
+     * Writes the occurrences of a series starting at {@code start} that fall in
+     * {@code [from, to)} into {@code out}, in order, as local epoch seconds (see
+     * {@link #toDateTime}). Occurrences that do not fit are still counted.
+     *
+     * @return the number of occurrences in the window
+     */
+    int expand(LocalDateTime start, LocalDateTime from, LocalDateTime to, long[] out) {
+        long startKey = toKey(start);
+        // Whole seconds: ceil the lower bound, the upper bound is exclusive
+        long fromKey = toKey(from) + (from.getNano() > 0 ? 1 : 0);
+        long toKey = toKey(to) + (to.getNano() > 0 ? 1 : 0);
+        if (until != null) {
+            toKey = Math.min(toKey, toKey(until) + 1);
+        }
+        if (toKey <= Math.max(startKey, fromKey)) {
+            return 0;
+        }
+
+        long startDay = Math.floorDiv(startKey, SECONDS_PER_DAY);
+        long timeOfDay = Math.floorMod(startKey, SECONDS_PER_DAY);
+        long lastDay = Math.floorDiv(toKey - 1, SECONDS_PER_DAY);
+        // COUNT has to be counted from the start; without it skip straight to the window
+        long fromDay = count > 0 ? startDay : Math.max(startDay, Math.floorDiv(fromKey, SECONDS_PER_DAY));
+
+        Expansion expansion = new Expansion(startDay, timeOfDay, fromKey, toKey, out);
+        switch (frequency) {
+            case DAILY -> {
+                for (long day = startDay + Math.ceilDiv(fromDay - startDay, interval) * (long) interval;
+                     day <= lastDay && expansion.accept(day); day += interval) {
+                }
+            }
+            case WEEKLY -> {
+                int days = weekdays != 0 ? weekdays : 1 << LocalDate.ofEpochDay(startDay).getDayOfWeek().ordinal();
+                long firstMonday = startDay - LocalDate.ofEpochDay(startDay).getDayOfWeek().ordinal();
+                long step = 7L * interval;
+                for (long monday = firstMonday + Math.floorDiv(fromDay - firstMonday, step) * step;
+                     monday <= lastDay; monday += step) {
+                    if (!acceptDays(expansion, monday, days, 7)) {
+                        break;
+                    }
+                }
+            }
+            case MONTHLY -> {
+                LocalDate startDate = LocalDate.ofEpochDay(startDay);
+                long positive = monthDays;
+                long fromEnd = monthDaysFromEnd;
+                if ((positive | fromEnd) == 0) {
+                    positive = 1L << startDate.getDayOfMonth();
+                }
+                long firstMonth = startDate.getYear() * 12L + startDate.getMonthValue() - 1;
+                long fromMonth = monthIndex(LocalDate.ofEpochDay(fromDay));
+                for (long month = firstMonth + Math.floorDiv(fromMonth - firstMonth, interval) * (long) interval;
+                     ; month += interval) {
+                    LocalDate first = LocalDate.of((int) Math.floorDiv(month, 12), (int) Math.floorMod(month, 12) + 1, 1);
+                    long firstDay = first.toEpochDay();
+                    if (firstDay > lastDay || !acceptMonthDays(expansion, firstDay, first.lengthOfMonth(), positive, fromEnd)) {
+                        break;
+                    }
+                }
+            }
+        }
+        return expansion.found;
+    }
+
+    /**
+     * Whether {@code candidate} is an occurrence of the series starting at {@code start}.
+     */
+    boolean isOccurrence(LocalDateTime start, LocalDateTime candidate) {
+        long[] found = new long[1];
+        return expand(start, candidate, candidate.plusSeconds(1), found) == 1 && found[0] == toKey(candidate)
+                && candidate.getNano() == 0;
+    }
+
+    static LocalDateTime toDateTime(long key) {
+        return LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * The canonical text of the rule, which is what gets stored.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            text.append(";INTERVAL=").append(interval);
+        }
+        if (weekdays != 0) {
+            text.append(";BYDAY=");
+            appendDays(text, weekdays);
+        }
+        if ((monthDays | monthDaysFromEnd) != 0) {
+            text.append(";BYMONTHDAY=");
+            String separator = "";
+            for (int day = 1; day <= 31; day++) {
+                if ((monthDays & (1L << day)) != 0) {
+                    text.append(separator).append(day);
+                    separator = ",";
+                }
+            }
+            for (int day = 1; day <= 31; day++) {
+                if ((monthDaysFromEnd & (1L << day)) != 0) {
+                    text.append(separator).append(-day);
+                    separator = ",";
+                }
+            }
+        }
+        if (count > 0) {
+            text.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            text.append(";UNTIL=").append(UNTIL_DATE_TIME.format(until));
+        }
+        return text.toString();
+    }
+
+    private static boolean acceptDays(Expansion expansion, long firstDay, int days, int length) {
+        for (int i = 0; i < length; i++) {
+            if ((days & (1 << i)) != 0 && !expansion.accept(firstDay + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean acceptMonthDays(Expansion expansion, long firstDay, int length, long positive, long fromEnd) {
+        for (int day = 1; day <= length; day++) {
+            if (((positive >>> day) & 1) != 0 || ((fromEnd >>> (length - day + 1)) & 1) != 0) {
+                if (!expansion.accept(firstDay + day - 1)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Filters candidate days in ascending order: drops those before the start, applies COUNT and
+     * the window, and stops the walk once past it.
+     */
+    private final class Expansion {
+        private final long startDay;
+        private final long timeOfDay;
+        private final long fromKey;
+        private final long toKey;
+        private final long[] out;
+        private int seen;
+        int found;
+
+        Expansion(long startDay, long timeOfDay, long fromKey, long toKey, long[] out) {
+            this.startDay = startDay;
+            this.timeOfDay = timeOfDay;
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+            this.out = out;
+        }
+
+        /**
+         * @return whether later candidates can still match
+         */
+        boolean accept(long day) {
+            if (day < startDay) {
+                return true;
+            }
+            if (count > 0 && ++seen > count) {
+                return false;
+            }
+            long key = day * SECONDS_PER_DAY + timeOfDay;
+            if (key >= toKey) {
+                return false;
+            }
+            if (key >= fromKey) {
+                if (found < out.length) {
+                    out[found] = key;
+                }
+                found++;
+            }
+            return true;
+        }
+    }
+
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long monthIndex(LocalDate date) {
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    private static int parseInt(String name, String value, int min, int max) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw invalid(name + " must be a number between " + min + " and " + max);
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        try {
+            if (value.length() == 8) {
+                // A date UNTIL includes that whole day
+                return LocalDate.parse(value, UNTIL_DATE).atTime(LocalTime.MAX).withNano(0);
+            }
+            return LocalDateTime.parse(value, UNTIL_DATE_TIME);
+        } catch (DateTimeParseException ex) {
+            throw invalid("UNTIL must be a local date (yyyyMMdd) or date-time (yyyyMMdd'T'HHmmss)");
+        }
+    }
+
+    private static void appendDays(StringBuilder text, int days) {
+        String separator = "";
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((days & (1 << day.ordinal())) != 0) {
+                text.append(separator).append(DAY_CODES[day.ordinal()]);
+                separator = ",";
+            }
+        }
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static InvalidRecurrenceException invalid(String message) {
+        return new InvalidRecurrenceException(message);
+    }
+}
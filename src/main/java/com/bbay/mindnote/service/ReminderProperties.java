@@ -0,0 +1,25 @@
+package com.bbay.mindnote.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for due-date reminders and overdue handling.
+ *
+ * @param enabled         whether tasks are scheduled at all
+ * @param lead            how long before the due date the reminder fires; zero sends none
+ * @param horizon         how far ahead due dates are held in memory; later ones are loaded by the
+ *                        next refresh, which runs every {@code mindnote.reminders.refresh-interval}
+ * @param escalateOverdue raise the priority of a task by one level when it goes overdue
+ * @param retryDelay      when to try again after firing failed, for example under overload
+ */
+@ConfigurationProperties(prefix = "mindnote.reminders")
+public record ReminderProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("15m") Duration lead,
+        @DefaultValue("6h") Duration horizon,
+        @DefaultValue("false") boolean escalateOverdue,
+        @DefaultValue("30s") Duration retryDelay) {
+}
@@ -0,0 +1,46 @@
+package com.bbay.mindnote.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rendered HTML by content hash, bounded by the total size of the HTML rather than the number of
+ * entries. Lookups move an entry to the back, so inserts evict the least recently used first.
+ * Notes with identical content share one entry.
+ */
+final class RenderedHtmlCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    RenderedHtmlCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized byte[] get(String contentHash) {
+        return entries.get(contentHash);
+    }
+
+    synchronized void put(String contentHash, byte[] html) {
+        if (html.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(contentHash, html);
+        bytes += html.length - (previous != null ? previous.length : 0);
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.bbay.mindnote.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.BiFunction;
+
+/**
+ * Periodically hard-deletes notes and tasks that were soft-deleted longer than the grace period
+ * ago. Each batch is its own short transaction, so the purge never holds locks for long and
+ * competes with requests through the same bulkhead as any other write.
+ */
+@Component
+public class SoftDeletePurger {
+
+    private static final Logger logger = LogManager.getLogger(SoftDeletePurger.class);
+
+    private final PurgeService purgeService;
+    private final PurgeProperties properties;
+
+    public SoftDeletePurger(PurgeService purgeService, PurgeProperties properties) {
+        this.purgeService = purgeService;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${mindnote.purge.interval:PT1M}",
+            fixedDelayString = "${mindnote.purge.interval:PT1M}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.gracePeriod());
+        try {
+            int notes = drain(purgeService::purgeNotes, cutoff);
+            int tasks = drain(purgeService::purgeTasks, cutoff);
+            if (notes + tasks > 0) {
+                logger.info("Purged {} deleted notes and {} deleted tasks", notes, tasks);
+            }
+        } catch (RuntimeException ex) {
+            // Overload rejections included; whatever is left waits for the next run
+            logger.warn("Purge of deleted rows stopped early: {}", ex.getMessage());
+        }
+    }
+
+    private int drain(BiFunction<LocalDateTime, Integer, Integer> batch, LocalDateTime cutoff) {
+        int total = 0;
+        for (int i = 0; i < properties.maxBatchesPerRun(); i++) {
+            int purged = batch.apply(cutoff, properties.batchSize());
+            total += purged;
+            if (purged < properties.batchSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+}
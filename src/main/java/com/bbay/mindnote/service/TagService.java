@@ -0,0 +1,152 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.TagResponse;
+import com.bbay.mindnote.entity.Tag;
+import com.bbay.mindnote.repository.TagRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+public class TagService {
+
+    private static final Logger logger = LogManager.getLogger(TagService.class);
+
+    static final int MAX_LIMIT = 500;
+    static final int MAX_SUGGESTIONS = 20;
+
+    private final TagRepository tagRepository;
+    private final boolean reconcileOnStartup;
+    private final TagUsageIndex usageIndex = new TagUsageIndex();
+    private final PrefixTrie suggestions = new PrefixTrie(MAX_SUGGESTIONS);
+
+    public TagService(TagRepository tagRepository,
+                      @Value("${mindnote.tags.reconcile-on-startup:false}") boolean reconcileOnStartup) {
+        this.tagRepository = tagRepository;
+        this.reconcileOnStartup = reconcileOnStartup;
+        logger.info("TagService initialized");
+    }
+
+    /**
+     * Loads the usage index and suggestions from the database. The index stays locked until the
+     * load is applied, so a tag change that commits meanwhile adjusts it afterwards instead of
+     * being overwritten by the load. Reads from the primary, which has every commit whose
+     * adjustment ran before the load started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadUsageIndex() {
+        if (reconcileOnStartup) {
+            int updated = tagRepository.recalculateUsageCounts();
+            logger.info("Reconciled usage counters for {} tags", updated);
+        }
+        synchronized (usageIndex) {
+            usageIndex.clear();
+            List<PrefixTrie.Entry> entries = new ArrayList<>();
+            try (Stream<TagResponse> tags = tagRepository.streamAllUsage()) {
+                tags.forEach(tag -> {
+                    usageIndex.put(tag);
+                    entries.add(new PrefixTrie.Entry(tag.id(), tag.name(), TagUsageIndex.usage(tag)));
+                });
+            }
+            suggestions.clear();
+            suggestions.putAll(entries);
+        }
+        logger.info("Tag usage index loaded with {} tags", usageIndex.size());
+    }
+
+    /**
+     * Keystroke autocomplete: best-ranked tags for a prefix, answered from the trie without any query.
+     */
+    public List<TagResponse> suggest(String prefix, int limit) {
+        int boundedLimit = Math.clamp(limit, 1, MAX_SUGGESTIONS);
+        List<TagResponse> result = new ArrayList<>(boundedLimit);
+        for (PrefixTrie.Entry entry : suggestions.suggest(prefix, boundedLimit)) {
+            TagResponse tag = usageIndex.get(entry.id());
+            result.add(tag != null ? tag : new TagResponse(entry.id(), entry.name(), entry.weight(), 0));
+        }
+        return result;
+    }
+
+    /**
+     * Lists tags from the in-memory index, either alphabetically or by usage.
+     */
+    public List<TagResponse> getTags(boolean sortByUsage, String prefix, int limit) {
+        int boundedLimit = Math.clamp(limit, 1, MAX_LIMIT);
+        logger.info("Fetching tags - sortByUsage: {}, prefix: {}, limit: {}", sortByUsage, prefix, boundedLimit);
+        return sortByUsage
+                ? usageIndex.topByUsage(prefix, boundedLimit)
+                : usageIndex.byName(prefix, boundedLimit);
+    }
+
+    /**
+     * Keeps the note counters in sync when a note's tag set goes from {@code previous} to {@code current}.
+     * Must be called inside the transaction that writes the note.
+     */
+    @Transactional
+    public void recordNoteTagChange(Collection<Tag> previous, Collection<Tag> current) {
+        applyChange(previous, current, true);
+    }
+
+    /**
+     * Task counterpart of {@link #recordNoteTagChange(Collection, Collection)}.
+     */
+    @Transactional
+    public void recordTaskTagChange(Collection<Tag> previous, Collection<Tag> current) {
+        applyChange(previous, current, false);
+    }
+
+    private void applyChange(Collection<Tag> previous, Collection<Tag> current, boolean notes) {
+        // tag id -> (tag, delta); unchanged tags cancel out to zero
+        Map<Long, Tag> tagsById = new HashMap<>();
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (Tag tag : previous) {
+            if (tag.getId() != null) {
+                tagsById.put(tag.getId(), tag);
+                deltas.merge(tag.getId(), -1, Integer::sum);
+            }
+        }
+        for (Tag tag : current) {
+            if (tag.getId() != null) {
+                tagsById.put(tag.getId(), tag);
+                deltas.merge(tag.getId(), 1, Integer::sum);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> added = deltas.entrySet().stream().filter(e -> e.getValue() > 0).map(Map.Entry::getKey).toList();
+        List<Long> removed = deltas.entrySet().stream().filter(e -> e.getValue() < 0).map(Map.Entry::getKey).toList();
+        if (notes) {
+            if (!added.isEmpty()) tagRepository.adjustNoteCount(added, 1);
+            if (!removed.isEmpty()) tagRepository.adjustNoteCount(removed, -1);
+        } else {
+            if (!added.isEmpty()) tagRepository.adjustTaskCount(added, 1);
+            if (!removed.isEmpty()) tagRepository.adjustTaskCount(removed, -1);
+        }
+        logger.debug("Tag usage changed - notes: {}, added: {}, removed: {}", notes, added, removed);
+
+        TransactionHooks.afterCommit(() -> {
+            synchronized (usageIndex) {
+                deltas.forEach((id, delta) -> {
+                    usageIndex.adjust(id, tagsById.get(id).getName(), notes ? delta : 0, notes ? 0 : delta);
+                    TagResponse updated = usageIndex.get(id);
+                    suggestions.put(id, updated.name(), TagUsageIndex.usage(updated));
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.TagResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory mirror of the tag usage counters, so listing tags never touches the join tables.
+ * Prefix lookups walk a sorted map of normalized names; top-K by usage is a bounded
+ * min-heap selection over the candidates (O(n log k)).
+ */
+final class TagUsageIndex {
+
+    static final Comparator<TagResponse> BY_USAGE = Comparator
+            .comparingLong(TagUsageIndex::usage)
+            .thenComparing(TagResponse::name, Comparator.reverseOrder());
+
+    private final Map<Long, TagResponse> byId = new ConcurrentHashMap<>();
+
+    // Key is "<normalized name>\0<id>" so names differing only by case stay distinct
+    private final NavigableMap<String, Long> byName = new ConcurrentSkipListMap<>();
+
+    static long usage(TagResponse tag) {
+        return tag.noteCount() + tag.taskCount();
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    void put(TagResponse tag) {
+        TagResponse previous = byId.put(tag.id(), tag);
+        if (previous == null) {
+            byName.put(nameKey(tag.name(), tag.id()), tag.id());
+        }
+    }
+
+    void adjust(Long id, String name, long noteDelta, long taskDelta) {
+        TagResponse updated = byId.compute(id, (key, current) -> current == null
+                ? new TagResponse(id, name, Math.max(0, noteDelta), Math.max(0, taskDelta))
+                : new TagResponse(id, current.name(),
+                        Math.max(0, current.noteCount() + noteDelta),
+                        Math.max(0, current.taskCount() + taskDelta)));
+        byName.putIfAbsent(nameKey(updated.name(), id), id);
+    }
+
+    void clear() {
+        byId.clear();
+        byName.clear();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    TagResponse get(Long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Tags whose normalized name starts with {@code prefix}, in name order.
+     */
+    List<TagResponse> byName(String prefix, int limit) {
+        List<TagResponse> result = new ArrayList<>(Math.min(limit, 64));
+        for (Long id : candidates(prefix).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            TagResponse tag = byId.get(id);
+            if (tag != null) {
+                result.add(tag);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The {@code limit} most used tags whose normalized name starts with {@code prefix}.
+     */
+    List<TagResponse> topByUsage(String prefix, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Min-heap of the best k seen so far; the root is the weakest one and gets evicted first
+        PriorityQueue<TagResponse> heap = new PriorityQueue<>(limit + 1, BY_USAGE);
+        for (Long id : candidates(prefix).values()) {
+            TagResponse tag = byId.get(id);
+            if (tag == null) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(tag);
+            } else if (BY_USAGE.compare(tag, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(tag);
+            }
+        }
+        List<TagResponse> result = new ArrayList<>(heap);
+        result.sort(BY_USAGE.reversed());
+        return result;
+    }
+
+    private NavigableMap<String, Long> candidates(String prefix) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return byName;
+        }
+        return byName.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+    }
+
+    private static String nameKey(String name, Long id) {
+        return normalize(name) + '\0' + id;
+    }
+}
@@ -0,0 +1,391 @@
+package com.bbay.mindnote.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * In-memory blocked-by graph over all live tasks.
+ * <p>
+ * Every task gets a dense slot; its category, done flag and count of unfinished blockers live in
+ * parallel arrays, and its edges in small int lists of slots in both directions. Each write
+ * adjusts only the tasks it touches, and the set of ready tasks (not done, every blocker done) is
+ * kept up to date as statuses and edges change, so listing ready tasks never walks the graph.
+ * Topological orders are computed per category on first use and cached until an edge or task
+ * inside that category changes. Not thread-safe; TaskDependencyService synchronizes on it.
+ */
+final class TaskDependencyGraph {
+
+    record Schedule(long[] order, long[] criticalPath) {
+    }
+
+    record ReadyPage(List<Long> ids, int total) {
+    }
+
+    // Task and category ids start at 1
+    private static final long NO_CATEGORY = 0;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;
+
+    private long[] ids = new long[64];
+    private long[] categories = new long[64];
+    private int[] openBlockers = new int[64];
+    private IntList[] blockers = new IntList[64];
+    private IntList[] dependents = new IntList[64];
+    private final BitSet done = new BitSet();
+
+    private final NavigableSet<Long> ready = new TreeSet<>();
+    private final Map<Long, NavigableSet<Long>> readyByCategory = new HashMap<>();
+
+    // Slots of a category's tasks in dependency order; dropped when the category changes
+    private final Map<Long, int[]> topologicalOrders = new HashMap<>();
+
+    void clear() {
+        slots.clear();
+        freeSlots.clear();
+        slotCount = 0;
+        Arrays.fill(blockers, null);
+        Arrays.fill(dependents, null);
+        done.clear();
+        ready.clear();
+        readyByCategory.clear();
+        topologicalOrders.clear();
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    boolean contains(long id) {
+        return slots.containsKey(id);
+    }
+
+    /**
+     * Adds a task or updates the category and status of an existing one.
+     */
+    void putTask(long id, Long categoryId, boolean isDone) {
+        long category = categoryId != null ? categoryId : NO_CATEGORY;
+        Integer existing = slots.get(id);
+        int slot;
+        if (existing == null) {
+            slot = allocate(id, category);
+            topologicalOrders.remove(category);
+        } else {
+            slot = existing;
+            setReady(slot, false);
+            if (categories[slot] != category) {
+                topologicalOrders.remove(categories[slot]);
+                topologicalOrders.remove(category);
+                categories[slot] = category;
+            }
+            if (done.get(slot) != isDone) {
+                IntList next = dependents[slot];
+                for (int i = 0; i < next.size; i++) {
+                    openBlockers[next.values[i]] += isDone ? -1 : 1;
+                    refreshReady(next.values[i]);
+                }
+            }
+        }
+        done.set(slot, isDone);
+        refreshReady(slot);
+    }
+
+    void removeTask(long id) {
+        Integer removed = slots.remove(id);
+        if (removed == null) {
+            return;
+        }
+        int slot = removed;
+        setReady(slot, false);
+        IntList next = dependents[slot];
+        for (int i = 0; i < next.size; i++) {
+            int dependent = next.values[i];
+            blockers[dependent].remove(slot);
+            if (!done.get(slot)) {
+                openBlockers[dependent]--;
+                refreshReady(dependent);
+            }
+        }
+        IntList previous = blockers[slot];
+        for (int i = 0; i < previous.size; i++) {
+            dependents[previous.values[i]].remove(slot);
+        }
+        topologicalOrders.remove(categories[slot]);
+        blockers[slot] = null;
+        dependents[slot] = null;
+        done.clear(slot);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * Whether making {@code taskId} wait for {@code blockerId} would close a cycle, that is,
+     * whether the blocker already waits for the task, directly or through other tasks. Walks only
+     * the blockers reachable from {@code blockerId}.
+     */
+    boolean wouldCreateCycle(long taskId, long blockerId) {
+        Integer task = slots.get(taskId);
+        Integer blocker = slots.get(blockerId);
+        if (task == null || blocker == null) {
+            return false;
+        }
+        if (task.intValue() == blocker.intValue()) {
+            return true;
+        }
+        BitSet visited = new BitSet(slotCount);
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(blocker);
+        visited.set(blocker);
+        while (!stack.isEmpty()) {
+            IntList next = blockers[stack.pop()];
+            for (int i = 0; i < next.size; i++) {
+                int slot = next.values[i];
+                if (slot == task) {
+                    return true;
+                }
+                if (!visited.get(slot)) {
+                    visited.set(slot);
+                    stack.push(slot);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the edge was new; unknown tasks are ignored
+     */
+    boolean addEdge(long taskId, long blockerId) {
+        Integer task = slots.get(taskId);
+        Integer blocker = slots.get(blockerId);
+        if (task == null || blocker == null || blockers[task].contains(blocker)) {
+            return false;
+        }
+        blockers[task].add(blocker);
+        dependents[blocker].add(task);
+        if (!done.get(blocker)) {
+            openBlockers[task]++;
+            refreshReady(task);
+        }
+        if (categories[task] == categories[blocker]) {
+            topologicalOrders.remove(categories[task]);
+        }
+        return true;
+    }
+
+    void removeEdge(long taskId, long blockerId) {
+        Integer task = slots.get(taskId);
+        Integer blocker = slots.get(blockerId);
+        if (task == null || blocker == null || !blockers[task].remove(blocker)) {
+            return;
+        }
+        dependents[blocker].remove(task);
+        if (!done.get(blocker)) {
+            openBlockers[task]--;
+            refreshReady(task);
+        }
+        if (categories[task] == categories[blocker]) {
+            topologicalOrders.remove(categories[task]);
+        }
+    }
+
+    /**
+     * Ids of the tasks the given task waits for, or {@code null} when the task is unknown.
+     */
+    long[] blockersOf(long taskId) {
+        Integer task = slots.get(taskId);
+        if (task == null) {
+            return null;
+        }
+        IntList list = blockers[task];
+        long[] result = new long[list.size];
+        for (int i = 0; i < list.size; i++) {
+            result[i] = ids[list.values[i]];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * One page of ready tasks in id order, optionally restricted to a category.
+     */
+    ReadyPage ready(Long categoryId, int offset, int limit) {
+        NavigableSet<Long> candidates = categoryId == null
+                ? ready
+                : readyByCategory.getOrDefault(categoryId, new TreeSet<>());
+        List<Long> page = candidates.stream().skip(offset).limit(limit).toList();
+        return new ReadyPage(page, candidates.size());
+    }
+
+    /**
+     * The open tasks of a category in dependency order, and the longest chain among them. Edges
+     * to tasks in other categories are not part of a category's schedule.
+     */
+    Schedule schedule(long categoryId) {
+        int[] order = topologicalOrders.computeIfAbsent(categoryId, this::topologicalOrder);
+        Map<Integer, Integer> position = new HashMap<>();
+        int[] length = new int[order.length];
+        int[] previous = new int[order.length];
+        long[] open = new long[order.length];
+        int openCount = 0;
+        int end = -1;
+        for (int i = 0; i < order.length; i++) {
+            int slot = order[i];
+            position.put(slot, i);
+            if (done.get(slot)) {
+                continue;
+            }
+            open[openCount++] = ids[slot];
+            length[i] = 1;
+            previous[i] = -1;
+            IntList before = blockers[slot];
+            for (int b = 0; b < before.size; b++) {
+                Integer j = position.get(before.values[b]);
+                if (j != null && length[j] + 1 > length[i]) {
+                    length[i] = length[j] + 1;
+                    previous[i] = j;
+                }
+            }
+            if (end < 0 || length[i] > length[end]) {
+                end = i;
+            }
+        }
+
+        long[] path = new long[end < 0 ? 0 : length[end]];
+        for (int i = end, p = path.length - 1; i >= 0; i = previous[i], p--) {
+            path[p] = ids[order[i]];
+        }
+        return new Schedule(Arrays.copyOf(open, openCount), path);
+    }
+
+    /**
+     * Kahn's algorithm over the tasks of one category, lowest id first among the tasks whose
+     * blockers are all placed.
+     */
+    private int[] topologicalOrder(long category) {
+        List<Integer> members = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (blockers[slot] != null && categories[slot] == category) {
+                members.add(slot);
+            }
+        }
+        Map<Integer, Integer> waitingOn = new HashMap<>();
+        PriorityQueue<Integer> available = new PriorityQueue<>((a, b) -> Long.compare(ids[a], ids[b]));
+        for (int slot : members) {
+            int count = 0;
+            IntList before = blockers[slot];
+            for (int i = 0; i < before.size; i++) {
+                if (categories[before.values[i]] == category) {
+                    count++;
+                }
+            }
+            waitingOn.put(slot, count);
+            if (count == 0) {
+                available.add(slot);
+            }
+        }
+
+        int[] order = new int[members.size()];
+        int placed = 0;
+        while (!available.isEmpty()) {
+            int slot = available.poll();
+            order[placed++] = slot;
+            IntList next = dependents[slot];
+            for (int i = 0; i < next.size; i++) {
+                int dependent = next.values[i];
+                if (categories[dependent] == category && waitingOn.merge(dependent, -1, Integer::sum) == 0) {
+                    available.add(dependent);
+                }
+            }
+        }
+        // Inserts reject cycles, so this only matters if the table was edited by hand
+        for (int slot : members) {
+            if (waitingOn.get(slot) > 0) {
+                order[placed++] = slot;
+            }
+        }
+        return order;
+    }
+
+    private int allocate(long id, long category) {
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        if (slot == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            openBlockers = Arrays.copyOf(openBlockers, capacity);
+            blockers = Arrays.copyOf(blockers, capacity);
+            dependents = Arrays.copyOf(dependents, capacity);
+        }
+        ids[slot] = id;
+        categories[slot] = category;
+        openBlockers[slot] = 0;
+        blockers[slot] = new IntList();
+        dependents[slot] = new IntList();
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private void refreshReady(int slot) {
+        setReady(slot, !done.get(slot) && openBlockers[slot] == 0);
+    }
+
+    private void setReady(int slot, boolean isReady) {
+        long id = ids[slot];
+        long category = categories[slot];
+        if (isReady) {
+            ready.add(id);
+            readyByCategory.computeIfAbsent(category, key -> new TreeSet<>()).add(id);
+        } else if (ready.remove(id)) {
+            NavigableSet<Long> inCategory = readyByCategory.get(category);
+            inCategory.remove(id);
+            if (inCategory.isEmpty()) {
+                readyByCategory.remove(category);
+            }
+        }
+    }
+
+    /**
+     * Growable list of slots; most tasks have a handful of edges, so a plain array beats a set.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    System.arraycopy(values, i + 1, values, i, size - i - 1);
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
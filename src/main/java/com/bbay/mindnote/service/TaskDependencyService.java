@@ -0,0 +1,232 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.TaskScheduleResponse;
+import com.bbay.mindnote.dto.TaskSummary;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.exception.TaskDependencyException;
+import com.bbay.mindnote.observability.QueryBudget;
+import com.bbay.mindnote.repository.CategoryRepository;
+import com.bbay.mindnote.repository.TaskRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Blocked-by relations between tasks. The task_dependencies table is the durable copy,
+ * {@link TaskDependencyGraph} the in-memory one that answers blocker, ready and schedule queries
+ * and rejects cycles before a dependency is stored.
+ */
+@Service
+public class TaskDependencyService {
+
+    private static final Logger logger = LogManager.getLogger(TaskDependencyService.class);
+
+    private final TaskRepository taskRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final TaskDependencyGraph graph = new TaskDependencyGraph();
+
+    // Held from the cycle check until the new edge is in the graph, so two concurrent inserts
+    // cannot each pass the check and close a cycle together
+    private final ReentrantLock edgeInsertLock = new ReentrantLock(true);
+
+    public TaskDependencyService(TaskRepository taskRepository, CategoryRepository categoryRepository) {
+        this.taskRepository = taskRepository;
+        this.categoryRepository = categoryRepository;
+        logger.info("TaskDependencyService initialized");
+    }
+
+    /**
+     * Loads the graph from the database. The graph stays locked until the load is applied, so a
+     * change that commits meanwhile updates it afterwards instead of being overwritten by the load.
+     * Reads from the primary, which has every commit whose update ran before the load started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadGraph() {
+        int edges = 0;
+        synchronized (graph) {
+            graph.clear();
+            try (Stream<TaskRepository.DependencyNodeRow> stream = taskRepository.streamDependencyNodes()) {
+                stream.forEach(row -> graph.putTask(row.getId(), row.getCategoryId(), row.getDone()));
+            }
+            try (Stream<TaskRepository.DependencyRow> stream = taskRepository.streamDependencies()) {
+                for (TaskRepository.DependencyRow row : (Iterable<TaskRepository.DependencyRow>) stream::iterator) {
+                    if (graph.addEdge(row.getTaskId(), row.getBlockerId())) {
+                        edges++;
+                    }
+                }
+            }
+        }
+        logger.info("Task dependency graph loaded with {} tasks and {} dependencies", graph.size(), edges);
+    }
+
+    /**
+     * Makes {@code taskId} wait for {@code blockerId}. Adding an existing dependency is a no-op.
+     *
+     * @throws TaskDependencyException if the blocker already waits for the task, directly or
+     *                                 through other tasks
+     */
+    @Transactional
+    public void addBlocker(Long taskId, Long blockerId) {
+        logger.info("Adding blocker {} to task {}", blockerId, taskId);
+        if (taskId.equals(blockerId)) {
+            throw new TaskDependencyException("A task cannot block itself");
+        }
+        requireTask(taskId);
+        requireTask(blockerId);
+
+        edgeInsertLock.lock();
+        TransactionHooks.afterCompletion(edgeInsertLock::unlock);
+        synchronized (graph) {
+            if (graph.wouldCreateCycle(taskId, blockerId)) {
+                throw new TaskDependencyException(String.format(
+                        "Task %d cannot be blocked by task %d, which already waits for it", taskId, blockerId));
+            }
+        }
+        if (taskRepository.insertDependency(taskId, blockerId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (graph) {
+                graph.addEdge(taskId, blockerId);
+            }
+        });
+    }
+
+    @Transactional
+    public void removeBlocker(Long taskId, Long blockerId) {
+        logger.info("Removing blocker {} from task {}", blockerId, taskId);
+        if (taskRepository.deleteDependency(taskId, blockerId) == 0) {
+            throw new ResourceNotFoundException(
+                    String.format("Task %d is not blocked by task %d", taskId, blockerId));
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (graph) {
+                graph.removeEdge(taskId, blockerId);
+            }
+        });
+    }
+
+    /**
+     * Keeps the graph in step with a created or updated task; called by TaskService.
+     */
+    public void recordTaskSaved(Long taskId, Long categoryId, boolean done) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (graph) {
+                graph.putTask(taskId, categoryId, done);
+            }
+        });
+    }
+
+    /**
+     * Drops the dependencies of a deleted task, so it no longer blocks anything; called by
+     * TaskService in the transaction that deletes the task.
+     */
+    @Transactional
+    public void recordTaskDeleted(Long taskId) {
+        taskRepository.deleteDependencies(taskId);
+        TransactionHooks.afterCommit(() -> {
+            synchronized (graph) {
+                graph.removeTask(taskId);
+            }
+        });
+    }
+
+    /**
+     * The tasks the given task waits for, done or not.
+     */
+    @QueryBudget(max = 1)
+    @Transactional(readOnly = true)
+    public List<TaskSummary> getBlockers(Long taskId) {
+        long[] blockers;
+        synchronized (graph) {
+            blockers = graph.blockersOf(taskId);
+        }
+        if (blockers == null) {
+            throw new ResourceNotFoundException("Task", taskId);
+        }
+        return loadSummaries(blockers);
+    }
+
+    /**
+     * Open tasks whose blockers are all done, in id order. The ready set is maintained as tasks
+     * and dependencies change, so a page costs one lookup of the tasks on it.
+     */
+    @QueryBudget(max = 1)
+    @Transactional(readOnly = true)
+    public Page<TaskSummary> getReadyTasks(Long categoryId, Pageable pageable) {
+        TaskDependencyGraph.ReadyPage ready;
+        synchronized (graph) {
+            ready = graph.ready(categoryId, (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE),
+                    pageable.getPageSize());
+        }
+        long[] ids = ready.ids().stream().mapToLong(Long::longValue).toArray();
+        return new PageImpl<>(loadSummaries(ids), pageable, ready.total());
+    }
+
+    /**
+     * The open tasks of a category in an order that respects their dependencies, and the
+     * critical path: the longest chain of open tasks that have to be finished one after another.
+     */
+    @QueryBudget(max = 2)
+    @Transactional(readOnly = true)
+    public TaskScheduleResponse getSchedule(Long categoryId) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", categoryId);
+        }
+        TaskDependencyGraph.Schedule schedule;
+        synchronized (graph) {
+            schedule = graph.schedule(categoryId);
+        }
+        Map<Long, TaskSummary> summaries = findSummaries(schedule.order());
+        return new TaskScheduleResponse(categoryId, inOrder(schedule.order(), summaries),
+                inOrder(schedule.criticalPath(), summaries));
+    }
+
+    private void requireTask(Long id) {
+        if (!taskRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Task", id);
+        }
+    }
+
+    private List<TaskSummary> loadSummaries(long[] ids) {
+        return inOrder(ids, findSummaries(ids));
+    }
+
+    private Map<Long, TaskSummary> findSummaries(long[] ids) {
+        if (ids.length == 0) {
+            return Map.of();
+        }
+        return taskRepository.findSummaries(Arrays.stream(ids).boxed().toList()).stream()
+                .collect(Collectors.toMap(TaskSummary::id, Function.identity()));
+    }
+
+    private static List<TaskSummary> inOrder(long[] ids, Map<Long, TaskSummary> summaries) {
+        List<TaskSummary> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            // Missing when deleted after the graph was read
+            TaskSummary summary = summaries.get(id);
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bbay.mindnote.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after commit, once per task and due date, when a reminder or overdue transition
+ * fires. Delivered to {@code @EventListener} methods on the scheduler thread, so listeners that
+ * do slow work should hand it off.
+ *
+ * @param escalated whether overdue escalation was applied; a task that was HIGH already stays HIGH
+ */
+public record TaskReminderEvent(Long taskId, LocalDateTime dueDate, Kind kind, boolean escalated) {
+
+    public enum Kind {
+        DUE_SOON,
+        OVERDUE
+    }
+}
@@ -0,0 +1,145 @@
+package com.bbay.mindnote.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Fires due-date reminders and overdue transitions from an in-process {@link TimingWheel}
+ * instead of polling the tasks table.
+ * <p>
+ * The wheel holds the open tasks due within {@link ReminderProperties#horizon()}. They are loaded
+ * at startup, and then every refresh interval, by a range scan over a partial index that only
+ * contains tasks whose overdue event is still to come. Task writes update the wheel after commit.
+ * Each task has one timer at a time: the reminder {@code lead} before its due date, then the
+ * overdue transition at the due date. Firing is recorded in the database once per due date
+ * (TaskReminderService), so a restart resumes exactly where it stopped and fires anything missed
+ * while the application was down.
+ */
+@Component
+public class TaskReminderScheduler {
+
+    private static final Logger logger = LogManager.getLogger(TaskReminderScheduler.class);
+
+    // 1s ticks, 64 slots per level, 4 levels: about 194 days before the overflow queue
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+    private static final int LEVELS = 4;
+
+    private record Timer(long taskId, LocalDateTime dueDate, TaskReminderEvent.Kind kind) {
+    }
+
+    private final TaskReminderService reminderService;
+    private final ReminderProperties properties;
+    private final TimingWheel<Long, Timer> wheel;
+
+    // Due dates up to here are in the wheel; later ones wait for the next refresh
+    private volatile LocalDateTime loadedUntil;
+
+    public TaskReminderScheduler(TaskReminderService reminderService,
+                                 ReminderProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.reminderService = reminderService;
+        this.properties = properties;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, LEVELS, System.currentTimeMillis());
+        Gauge.builder("mindnote.reminders.pending", wheel, TimingWheel::size)
+                .description("Reminder and overdue timers waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Moves the horizon forward. Re-adding a task that is already scheduled just replaces its
+     * timer, so the refresh also repairs the wheel after any missed update.
+     */
+    @Scheduled(initialDelayString = "${mindnote.reminders.refresh-interval:PT1H}",
+            fixedDelayString = "${mindnote.reminders.refresh-interval:PT1H}")
+    public void refresh() {
+        if (!properties.enabled()) {
+            return;
+        }
+        LocalDateTime until = LocalDateTime.now().plus(properties.horizon());
+        try {
+            // Set first: tasks committed while the scan runs are scheduled by recordTaskSaved
+            loadedUntil = until;
+            int loaded = reminderService.forEachPending(until,
+                    row -> schedule(row.getId(), row.getDueDate(), row.getReminded()));
+            logger.info("Reminder timers loaded for {} tasks due until {}", loaded, until);
+        } catch (RuntimeException ex) {
+            logger.warn("Loading reminder timers failed, retrying at the next refresh: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${mindnote.reminders.tick:PT1S}")
+    public void tick() {
+        if (!properties.enabled()) {
+            return;
+        }
+        List<Timer> fired = wheel.advance(System.currentTimeMillis());
+        fired.forEach(this::fire);
+    }
+
+    /**
+     * Reschedules a created or updated task once its transaction commits; called by TaskService
+     * when the due date or status may have changed.
+     */
+    public void recordTaskSaved(Long taskId, LocalDateTime dueDate, boolean done) {
+        TransactionHooks.afterCommit(() -> {
+            LocalDateTime horizon = loadedUntil;
+            if (done || dueDate == null || horizon == null || dueDate.isAfter(horizon)) {
+                wheel.cancel(taskId);
+            } else {
+                // Not known whether this due date was reminded before; firing twice is a no-op
+                schedule(taskId, dueDate, false);
+            }
+        });
+    }
+
+    public void recordTaskDeleted(Long taskId) {
+        TransactionHooks.afterCommit(() -> wheel.cancel(taskId));
+    }
+
+    private void schedule(long taskId, LocalDateTime dueDate, boolean reminded) {
+        if (!reminded && !properties.lead().isZero() && LocalDateTime.now().isBefore(dueDate)) {
+            wheel.schedule(taskId, toMillis(dueDate.minus(properties.lead())),
+                    new Timer(taskId, dueDate, TaskReminderEvent.Kind.DUE_SOON));
+        } else {
+            wheel.schedule(taskId, toMillis(dueDate), new Timer(taskId, dueDate, TaskReminderEvent.Kind.OVERDUE));
+        }
+    }
+
+    private void fire(Timer timer) {
+        try {
+            if (timer.kind() == TaskReminderEvent.Kind.DUE_SOON) {
+                reminderService.fireReminder(timer.taskId(), timer.dueDate());
+                // Unless the task was rescheduled while this timer fired
+                wheel.scheduleIfAbsent(timer.taskId(), toMillis(timer.dueDate()),
+                        new Timer(timer.taskId(), timer.dueDate(), TaskReminderEvent.Kind.OVERDUE));
+            } else {
+                reminderService.fireOverdue(timer.taskId(), timer.dueDate(), properties.escalateOverdue());
+            }
+        } catch (RuntimeException ex) {
+            // Overload rejections included; the UPDATE did not commit, so the retry fires once
+            logger.warn("Firing {} for task {} failed, retrying in {}: {}",
+                    timer.kind(), timer.taskId(), properties.retryDelay(), ex.getMessage());
+            wheel.scheduleIfAbsent(timer.taskId(), System.currentTimeMillis() + properties.retryDelay().toMillis(), timer);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,85 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.repository.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Database side of due-date reminders: reads pending due dates and records fired events. Each
+ * event is recorded with a conditional UPDATE that only succeeds once per due date, so a timer
+ * that fires twice (after a restart, a refresh or a retry) publishes one event.
+ */
+@Service
+public class TaskReminderService {
+
+    private static final Logger logger = LogManager.getLogger(TaskReminderService.class);
+
+    private final TaskRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public TaskReminderService(TaskRepository taskRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Streams the open tasks due up to {@code until} that have not gone overdue yet.
+     */
+    @Transactional(readOnly = true)
+    public int forEachPending(LocalDateTime until, Consumer<TaskRepository.PendingDueRow> action) {
+        int count = 0;
+        try (Stream<TaskRepository.PendingDueRow> stream = taskRepository.streamPendingDue(until)) {
+            for (TaskRepository.PendingDueRow row : (Iterable<TaskRepository.PendingDueRow>) stream::iterator) {
+                action.accept(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return whether the reminder fired now; false if it already had, or the task was finished,
+     * deleted or rescheduled in the meantime
+     */
+    @Transactional
+    public boolean fireReminder(Long taskId, LocalDateTime dueDate) {
+        if (taskRepository.markReminded(taskId, dueDate) == 0) {
+            return false;
+        }
+        logger.info("Task {} is due at {}", taskId, dueDate);
+        publish(new TaskReminderEvent(taskId, dueDate, TaskReminderEvent.Kind.DUE_SOON, false));
+        return true;
+    }
+
+    /**
+     * @return whether the overdue transition happened now
+     */
+    @Transactional
+    public boolean fireOverdue(Long taskId, LocalDateTime dueDate, boolean escalate) {
+        if (taskRepository.markOverdue(taskId, dueDate, escalate, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        logger.info("Task {} is overdue since {}{}", taskId, dueDate, escalate ? ", priority escalated" : "");
+        publish(new TaskReminderEvent(taskId, dueDate, TaskReminderEvent.Kind.OVERDUE, escalate));
+        return true;
+    }
+
+    private void publish(TaskReminderEvent event) {
+        TransactionHooks.afterCommit(() -> {
+            meterRegistry.counter("mindnote.reminders.fired", "kind", event.kind().name()).increment();
+            eventPublisher.publishEvent(event);
+        });
+    }
+}
@@ -1,20 +1,47 @@
 package com.bbay.mindnote.service;
 
+import com.bbay.mindnote.dto.AgendaBucket;
+import com.bbay.mindnote.dto.AgendaResponse;
+import com.bbay.mindnote.dto.FacetCount;
+import com.bbay.mindnote.dto.PageEnvelope;
 import com.bbay.mindnote.dto.TaskRequest;
 import com.bbay.mindnote.dto.TaskResponse;
 import com.bbay.mindnote.entity.*;
+import com.bbay.mindnote.exception.InvalidQueryException;
+import com.bbay.mindnote.exception.InvalidRecurrenceException;
 import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.observability.QueryBudget;
 import com.bbay.mindnote.repository.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,36 +49,299 @@ public class TaskService {
 
     private static final Logger logger = LogManager.getLogger(TaskService.class);
 
+    static final Set<String> FACETS = Set.of(Facets.CATEGORY, Facets.TAG, Facets.STATUS, Facets.PRIORITY);
+
+    // Bounds the occurrences a series can expand to in one request
+    static final Duration MAX_DUE_WINDOW = Duration.ofDays(366);
+
+    static final int MAX_AGENDA_LIMIT = 100;
+
+    /**
+     * Tasks loaded per query while a list response is written, see {@link NoteService#LIST_BATCH_SIZE}.
+     */
+    public static final int LIST_BATCH_SIZE = 25;
+
+    private static final Sort DUE_ORDER = Sort.by("dueDate", "id");
+
+    private record Occurrence(long key, Task series) {
+    }
+
+    private static final Comparator<Occurrence> OCCURRENCE_ORDER = Comparator
+            .comparingLong(Occurrence::key)
+            .thenComparing(occurrence -> occurrence.series().getId());
+
     private final TaskRepository taskRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
     private final NoteRepository noteRepository;
+    private final TagService tagService;
+    private final TaskDependencyService dependencyService;
+    private final TaskReminderScheduler reminderScheduler;
 
     public TaskService(TaskRepository taskRepository,
                        CategoryRepository categoryRepository,
                        TagRepository tagRepository,
-                       NoteRepository noteRepository) {
+                       NoteRepository noteRepository,
+                       TagService tagService,
+                       TaskDependencyService dependencyService,
+                       TaskReminderScheduler reminderScheduler) {
         this.taskRepository = taskRepository;
         this.categoryRepository = categoryRepository;
         this.tagRepository = tagRepository;
         this.noteRepository = noteRepository;
+        this.tagService = tagService;
+        this.dependencyService = dependencyService;
+        this.reminderScheduler = reminderScheduler;
         logger.info("TaskService initialized");
     }
 
+    /**
+     * Ids of one page of tasks, in the requested order. The tasks themselves are loaded with
+     * {@link #getTasksByIds}, {@link #LIST_BATCH_SIZE} at a time, while the response is written.
+     * The matches are only counted when {@code withTotal} is set and the page does not already
+     * tell the total.
+     */
+    @QueryBudget(max = 2)
     @Transactional(readOnly = true)
-    public Page<TaskResponse> getAllTasks(TaskStatus status, Long categoryId, String tagName, Long noteId, Pageable pageable) {
-        logger.info("Fetching tasks with filters");
-        Page<Task> tasks;
-        
-        if (status == null && categoryId == null && tagName == null && noteId == null) {
-            tasks = taskRepository.findAll(pageable);
-        } else {
-            tasks = taskRepository.findByFilters(status, categoryId, tagName, noteId, pageable);
+    public PageEnvelope<Long> getTaskIds(TaskStatus status, Long categoryId, boolean recursive,
+                                         String tagName, Long noteId, boolean withTotal, Pageable pageable) {
+        logger.info("Fetching task ids with filters");
+        boolean subtree = categoryId != null && recursive;
+        Slice<Long> ids = subtree
+                ? taskRepository.findPageIdsInSubtree(status, categoryId, tagName, noteId, pageable)
+                : taskRepository.findPageIds(status, categoryId, tagName, noteId, pageable);
+        LongSupplier count = subtree
+                ? () -> taskRepository.countByFiltersInSubtree(status, categoryId, tagName, noteId)
+                : () -> taskRepository.countByFilters(status, categoryId, tagName, noteId);
+        return PageEnvelope.of(ids, withTotal ? count : null);
+    }
+
+    /**
+     * The tasks with the given ids, in the same order; ids of tasks deleted in the meantime are
+     * skipped. Tags, categories and notes of the whole batch are fetched with one query each.
+     */
+    @QueryBudget(max = 4)
+    @Transactional(readOnly = true)
+    public List<TaskResponse> getTasksByIds(List<Long> ids) {
+        Map<Long, Task> tasks = new HashMap<>();
+        taskRepository.findAllById(ids).forEach(task -> tasks.put(task.getId(), task));
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    /**
+     * Facet counts over all tasks matching the filters, from a single grouped query.
+     */
+    @QueryBudget(max = 1)
+    @Transactional(readOnly = true)
+    public Map<String, List<FacetCount>> getTaskFacets(TaskStatus status, Long categoryId, boolean recursive,
+                                                       String tagName, Long noteId,
+                                                       Collection<String> facetNames, int facetLimit) {
+        Set<String> facets = Facets.parse(facetNames, FACETS);
+        if (facets.isEmpty()) {
+            return Map.of();
         }
-        
-        return tasks.map(this::mapToResponse);
+        return Facets.group(
+                taskRepository.countFacets(status != null ? status.name() : null, categoryId, recursive, tagName,
+                        noteId, facets.contains(Facets.CATEGORY), facets.contains(Facets.TAG),
+                        Facets.limit(facetLimit)),
+                facets);
+    }
+
+    /**
+     * Tasks due in {@code [from, to)}, ordered by due date, with recurring series expanded into
+     * their occurrences in that window. Occurrences without a row of their own are returned with
+     * a null id, the series id, status TODO and everything else taken from the series; the
+     * series rows themselves are not listed. Only the first {@code offset + size} tasks and
+     * occurrences are loaded, and both come in due-date order, so a page is a merge of the two.
+     */
+    @QueryBudget(max = 8)
+    @Transactional(readOnly = true)
+    public Page<TaskResponse> getTasksDueBetween(TaskStatus status, Long categoryId, boolean recursive,
+                                                 String tagName, Long noteId,
+                                                 LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(MAX_DUE_WINDOW) > 0) {
+            throw new InvalidQueryException("dueTo must be after dueFrom and at most "
+                    + MAX_DUE_WINDOW.toDays() + " days later");
+        }
+        logger.info("Fetching tasks due between {} and {}", from, to);
+        int needed = Math.toIntExact(Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE));
+        Page<Task> tasks = taskRepository.findDueBetween(status, categoryId, recursive, tagName, noteId, from, to,
+                PageRequest.of(0, needed, DUE_ORDER));
+
+        // Expanded occurrences are open, so a status filter other than TODO only matches rows
+        List<Occurrence> occurrences = new ArrayList<>();
+        long occurrenceCount = 0;
+        if (status == null || status == TaskStatus.TODO) {
+            occurrenceCount = expandSeries(categoryId, recursive, tagName, noteId, from, to, needed, occurrences);
+        }
+
+        List<TaskResponse> content = new ArrayList<>(pageable.getPageSize());
+        List<Task> rows = tasks.getContent();
+        int row = 0;
+        int occurrence = 0;
+        for (long position = 0; content.size() < pageable.getPageSize(); position++) {
+            boolean rowsLeft = row < rows.size();
+            boolean occurrencesLeft = occurrence < occurrences.size();
+            if (!rowsLeft && !occurrencesLeft) {
+                break;
+            }
+            boolean inPage = position >= pageable.getOffset();
+            if (!occurrencesLeft || (rowsLeft && !rows.get(row).getDueDate()
+                    .isAfter(RecurrenceRule.toDateTime(occurrences.get(occurrence).key())))) {
+                Task task = rows.get(row++);
+                if (inPage) {
+                    content.add(mapToResponse(task));
+                }
+            } else {
+                Occurrence next = occurrences.get(occurrence++);
+                if (inPage) {
+                    content.add(mapOccurrence(next.series(), RecurrenceRule.toDateTime(next.key())));
+                }
+            }
+        }
+        return new PageImpl<>(content, pageable, tasks.getTotalElements() + occurrenceCount);
     }
 
+    /**
+     * Tasks due from {@code from} to {@code to} (inclusive days) grouped into day or week buckets,
+     * with the total per bucket and the first {@code limit} tasks of each by due date. Stored
+     * tasks come from one windowed query; occurrences of recurring series in the range are
+     * expanded and merged into the same buckets.
+     */
+    @QueryBudget(max = 8)
+    @Transactional(readOnly = true)
+    public AgendaResponse getAgenda(TaskStatus status, Long categoryId, boolean recursive, String tagName,
+                                    Long noteId, LocalDate from, LocalDate to, String bucket, int limit) {
+        String unit = bucket.strip().toLowerCase(Locale.ROOT);
+        if (!unit.equals("day") && !unit.equals("week")) {
+            throw new InvalidQueryException("Unknown bucket '" + bucket + "', supported are day and week");
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_DUE_WINDOW.toDays()) {
+            throw new InvalidQueryException("to must not be before from and at most "
+                    + (MAX_DUE_WINDOW.toDays() - 1) + " days later");
+        }
+        int perBucket = Math.clamp(limit, 1, MAX_AGENDA_LIMIT);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        logger.info("Fetching agenda from {} to {} by {}", from, to, unit);
+
+        List<TaskRepository.AgendaRow> rows = taskRepository.findAgenda(status != null ? status.name() : null,
+                categoryId, recursive, tagName, noteId, start, end, unit, perBucket);
+        Map<Long, Task> tasks = new HashMap<>();
+        if (!rows.isEmpty()) {
+            taskRepository.findAllById(rows.stream().map(TaskRepository.AgendaRow::getId).toList())
+                    .forEach(task -> tasks.put(task.getId(), task));
+        }
+
+        // Expanded occurrences are open, so a status filter other than TODO only matches rows
+        List<Occurrence> occurrences = new ArrayList<>();
+        if (status == null || status == TaskStatus.TODO) {
+            // At most one occurrence per day and series, so this takes all of them
+            int needed = Math.toIntExact(ChronoUnit.DAYS.between(start, end));
+            expandSeries(categoryId, recursive, tagName, noteId, start, end, needed, occurrences);
+        }
+
+        Map<LocalDate, AgendaBuilder> buckets = new TreeMap<>();
+        for (TaskRepository.AgendaRow row : rows) {
+            AgendaBuilder builder = buckets.computeIfAbsent(row.getBucket().toLocalDate(), date -> new AgendaBuilder());
+            builder.count = row.getBucketCount();
+            Task task = tasks.get(row.getId());
+            if (task != null) {
+                builder.rows.add(task);
+            }
+        }
+        for (Occurrence occurrence : occurrences) {
+            LocalDate date = RecurrenceRule.toDateTime(occurrence.key()).toLocalDate();
+            LocalDate bucketStart = unit.equals("week") ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : date;
+            AgendaBuilder builder = buckets.computeIfAbsent(bucketStart, day -> new AgendaBuilder());
+            builder.count++;
+            if (builder.occurrences.size() < perBucket) {
+                builder.occurrences.add(occurrence);
+            }
+        }
+
+        List<AgendaBucket> result = new ArrayList<>(buckets.size());
+        buckets.forEach((bucketStart, builder) ->
+                result.add(new AgendaBucket(bucketStart, builder.count, builder.firstTasks(perBucket))));
+        return new AgendaResponse(from, to, unit, result);
+    }
+
+    private final class AgendaBuilder {
+        long count;
+        final List<Task> rows = new ArrayList<>();
+        final List<Occurrence> occurrences = new ArrayList<>();
+
+        // Both lists are in due-date order
+        List<TaskResponse> firstTasks(int limit) {
+            List<TaskResponse> first = new ArrayList<>(Math.min(limit, rows.size() + occurrences.size()));
+            int row = 0;
+            int occurrence = 0;
+            while (first.size() < limit && (row < rows.size() || occurrence < occurrences.size())) {
+                if (occurrence == occurrences.size() || (row < rows.size() && !rows.get(row).getDueDate()
+                        .isAfter(RecurrenceRule.toDateTime(occurrences.get(occurrence).key())))) {
+                    first.add(mapToResponse(rows.get(row++)));
+                } else {
+                    Occurrence next = occurrences.get(occurrence++);
+                    first.add(mapOccurrence(next.series(), RecurrenceRule.toDateTime(next.key())));
+                }
+            }
+            return first;
+        }
+    }
+
+    /**
+     * Adds the first {@code needed} occurrences in the window of every matching series, minus
+     * those that have a row of their own (those rows are listed as regular tasks), sorted.
+     *
+     * @return the number of such occurrences in the whole window
+     */
+    private long expandSeries(Long categoryId, boolean recursive, String tagName, Long noteId,
+                              LocalDateTime from, LocalDateTime to, int needed, List<Occurrence> occurrences) {
+        List<Task> series = taskRepository.findSeriesStartingBefore(categoryId, recursive, tagName, noteId, to);
+        if (series.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Set<LocalDateTime>> edited = new HashMap<>();
+        for (TaskRepository.OccurrenceRow row : taskRepository.findEditedOccurrences(
+                series.stream().map(Task::getId).toList(), from, to)) {
+            edited.computeIfAbsent(row.getSeriesId(), id -> new HashSet<>()).add(row.getOccurrenceDate());
+        }
+
+        long count = 0;
+        long[] buffer = new long[0];
+        for (Task task : series) {
+            RecurrenceRule rule = RecurrenceRule.parse(task.getRecurrence());
+            Set<LocalDateTime> editedDates = edited.getOrDefault(task.getId(), Set.of());
+            // Room for the edited ones, which are skipped
+            int capacity = needed + editedDates.size();
+            if (buffer.length < capacity) {
+                buffer = new long[capacity];
+            }
+            int found = rule.expand(task.getDueDate(), from, to, buffer);
+            int taken = 0;
+            for (int i = 0; i < Math.min(found, capacity) && taken < needed; i++) {
+                if (editedDates.isEmpty() || !editedDates.contains(RecurrenceRule.toDateTime(buffer[i]))) {
+                    occurrences.add(new Occurrence(buffer[i], task));
+                    taken++;
+                }
+            }
+            count += found;
+            for (LocalDateTime date : editedDates) {
+                // Rows left over from before the rule changed are no longer occurrences
+                if (rule.isOccurrence(task.getDueDate(), date)) {
+                    count--;
+                }
+            }
+        }
+        occurrences.sort(OCCURRENCE_ORDER);
+        return count;
+    }
+
+    @QueryBudget(max = 4)
     @Transactional(readOnly = true)
     public TaskResponse getTaskById(Long id) {
         Task task = taskRepository.findById(id)
@@ -62,7 +352,39 @@ public class TaskService {
     @Transactional
     public TaskResponse createTask(TaskRequest request) {
         logger.info("Creating task: {}", request.title());
+        return mapToResponse(create(new Task(), request));
+    }
+
+    /**
+     * Edits or completes one occurrence of a recurring series. The first time, this gives the
+     * occurrence a row of its own that replaces it in due-date lists; later calls update that row.
+     * A null {@code dueDate} keeps the occurrence date.
+     */
+    @Transactional
+    public TaskResponse updateOccurrence(Long seriesId, LocalDateTime occurrence, TaskRequest request) {
+        Task series = taskRepository.findById(seriesId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", seriesId));
+        if (series.getRecurrence() == null
+                || !RecurrenceRule.parse(series.getRecurrence()).isOccurrence(series.getDueDate(), occurrence)) {
+            throw new ResourceNotFoundException("Task " + seriesId + " has no occurrence at " + occurrence);
+        }
+        Optional<Task> edited = taskRepository.findByRecurrenceParentIdAndOccurrenceDate(seriesId, occurrence);
+        if (edited.isPresent()) {
+            return updateTask(edited.get().getId(), request);
+        }
+
+        logger.info("Materializing occurrence {} of task {}", occurrence, seriesId);
         Task task = new Task();
+        task.setRecurrenceParentId(seriesId);
+        task.setOccurrenceDate(occurrence);
+        task.setPriority(series.getPriority());
+        if (request.status() == TaskStatus.DONE) {
+            task.setCompletedAt(LocalDateTime.now());
+        }
+        return mapToResponse(create(task, request));
+    }
+
+    private Task create(Task task, TaskRequest request) {
         updateTaskFromRequest(task, request);
         
         // Default logic for creation
@@ -70,7 +392,13 @@ public class TaskService {
         if (request.priority() != null) task.setPriority(request.priority());
         
         Task savedTask = taskRepository.save(task);
-        return mapToResponse(savedTask);
+        tagService.recordTaskTagChange(Set.of(), task.getTags());
+        recordDependencyNode(savedTask);
+        if (reminderDueDate(savedTask) != null) {
+            reminderScheduler.recordTaskSaved(savedTask.getId(), reminderDueDate(savedTask),
+                    savedTask.getStatus() == TaskStatus.DONE);
+        }
+        return savedTask;
     }
 
     @Transactional
@@ -79,6 +407,9 @@ public class TaskService {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", id));
         
+        Set<Tag> previousTags = new HashSet<>(task.getTags());
+        LocalDateTime previousDueDate = reminderDueDate(task);
+        TaskStatus previousStatus = task.getStatus();
         updateTaskFromRequest(task, request);
         
         // Handle specific status changes logic
@@ -93,22 +424,43 @@ public class TaskService {
         
         if (request.priority() != null) task.setPriority(request.priority());
         
-        return mapToResponse(taskRepository.save(task));
+        Task savedTask = taskRepository.save(task);
+        tagService.recordTaskTagChange(previousTags, task.getTags());
+        recordDependencyNode(savedTask);
+        if (!Objects.equals(previousDueDate, reminderDueDate(savedTask)) || previousStatus != savedTask.getStatus()) {
+            reminderScheduler.recordTaskSaved(id, reminderDueDate(savedTask), savedTask.getStatus() == TaskStatus.DONE);
+        }
+        return mapToResponse(savedTask);
     }
 
     @Transactional
     public void deleteTask(Long id) {
         logger.info("Deleting task: {}", id);
-        if (!taskRepository.existsById(id)) {
+        // Read before the task disappears from queries
+        List<Tag> tags = taskRepository.findTagsByTaskId(id);
+        if (taskRepository.softDelete(id, LocalDateTime.now()) == 0) {
             throw new ResourceNotFoundException("Task", id);
         }
-        taskRepository.deleteById(id);
+        tagService.recordTaskTagChange(tags, Set.of());
+        dependencyService.recordTaskDeleted(id);
+        reminderScheduler.recordTaskDeleted(id);
+    }
+
+    private void recordDependencyNode(Task task) {
+        Long categoryId = task.getCategory() != null ? task.getCategory().getId() : null;
+        dependencyService.recordTaskSaved(task.getId(), categoryId, task.getStatus() == TaskStatus.DONE);
+    }
+
+    // A series is not reminded itself, so for the scheduler it has no due date
+    private static LocalDateTime reminderDueDate(Task task) {
+        return task.getRecurrence() == null ? task.getDueDate() : null;
     }
 
     private void updateTaskFromRequest(Task task, TaskRequest request) {
         task.setTitle(request.title());
         task.setDescription(request.description());
-        task.setDueDate(request.dueDate());
+        task.setDueDate(request.dueDate() != null ? request.dueDate() : task.getOccurrenceDate());
+        task.setRecurrence(normalizeRecurrence(task, request));
 
         // Category
         if (request.categoryId() != null) {
@@ -140,23 +492,55 @@ public class TaskService {
         }
     }
 
-    private TaskResponse mapToResponse(Task task) {
+    private static String normalizeRecurrence(Task task, TaskRequest request) {
+        if (request.recurrence() == null || request.recurrence().isBlank()) {
+            return null;
+        }
+        if (task.getRecurrenceParentId() != null) {
+            throw new InvalidRecurrenceException("An occurrence of a recurring task cannot repeat itself");
+        }
+        if (request.dueDate() == null) {
+            throw new InvalidRecurrenceException("A recurring task needs a dueDate, its first occurrence");
+        }
+        return RecurrenceRule.parse(request.recurrence()).toString();
+    }
+
+    TaskResponse mapToResponse(Task task) {
+        return toResponse(task, task.getId(), task.getStatus(), task.getDueDate(), task.getCompletedAt(),
+                task.getRecurrenceParentId(), task.getOccurrenceDate());
+    }
+
+    /**
+     * An occurrence of a series that has no row of its own: open, due at the occurrence, and
+     * otherwise a copy of the series.
+     */
+    private TaskResponse mapOccurrence(Task series, LocalDateTime occurrence) {
+        return toResponse(series, null, TaskStatus.TODO, occurrence, null, series.getId(), occurrence);
+    }
+
+    private TaskResponse toResponse(Task task, Long id, TaskStatus status, LocalDateTime dueDate,
+                                    LocalDateTime completedAt, Long seriesId, LocalDateTime occurrenceDate) {
         String catName = (task.getCategory() != null) ? task.getCategory().getName() : null;
         Long catId = (task.getCategory() != null) ? task.getCategory().getId() : null;
         
         Set<String> tags = task.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
         
-        Long noteId = (task.getNote() != null) ? task.getNote().getId() : null;
-        String noteTitle = (task.getNote() != null) ? task.getNote().getTitle() : null;
+        // A soft-deleted note is shown as no note; the purger clears the link later
+        Note note = task.isNoteDeleted() ? null : task.getNote();
+        Long noteId = (note != null) ? note.getId() : null;
+        String noteTitle = (note != null) ? note.getTitle() : null;
 
         return new TaskResponse(
-                task.getId(),
+                id,
                 task.getTitle(),
                 task.getDescription(),
-                task.getStatus(),
+                status,
                 task.getPriority(),
-                task.getDueDate(),
-                task.getCompletedAt(),
+                dueDate,
+                completedAt,
+                task.getRecurrence(),
+                seriesId,
+                occurrenceDate,
                 catId,
                 catName,
                 tags,
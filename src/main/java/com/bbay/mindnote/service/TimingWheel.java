@@ -0,0 +1,168 @@
+package com.bbay.mindnote.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Hierarchical timing wheel: timers keyed by {@code K}, each firing once with its value.
+ * <p>
+ * Level 0 has one slot per tick; every higher level has slots {@code wheelSize} times as wide.
+ * A timer is placed in the lowest level whose range covers its deadline and moves down a level
+ * each time the wheel reaches its slot, so scheduling, cancelling and firing cost O(1) no matter
+ * how many timers are pending. Timers beyond the top level wait in an overflow queue. Deadlines
+ * are rounded up to the next tick, so timers fire at most one tick late and never early.
+ */
+final class TimingWheel<K, V> {
+
+    private final class Entry {
+        final K key;
+        final long deadlineTick;
+        final V value;
+        boolean cancelled;
+
+        Entry(K key, long deadlineTick, V value) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+            this.value = value;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    // spans[level] = ticks covered by one slot of that level
+    private final long[] spans;
+    private final List<List<List<Entry>>> levels;
+    private final PriorityQueue<Entry> overflow =
+            new PriorityQueue<>(Comparator.comparingLong((Entry entry) -> entry.deadlineTick));
+    private final List<Entry> expired = new ArrayList<>();
+    private final Map<K, Entry> entries = new HashMap<>();
+
+    // Last tick that was processed
+    private long currentTick;
+
+    TimingWheel(long tickMillis, int wheelSize, int levelCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levelCount];
+        this.levels = new ArrayList<>(levelCount);
+        long span = 1;
+        for (int level = 0; level < levelCount; level++) {
+            spans[level] = span;
+            List<List<Entry>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a timer, replacing any pending timer with the same key. A deadline that has
+     * already passed fires on the next {@link #advance}.
+     */
+    synchronized void schedule(K key, long deadlineMillis, V value) {
+        long deadlineTick = Math.ceilDiv(deadlineMillis, tickMillis);
+        Entry entry = new Entry(key, deadlineTick, value);
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        place(entry);
+    }
+
+    /**
+     * Like {@link #schedule}, but keeps a timer already pending for the key.
+     *
+     * @return whether the timer was scheduled
+     */
+    synchronized boolean scheduleIfAbsent(K key, long deadlineMillis, V value) {
+        if (entries.containsKey(key)) {
+            return false;
+        }
+        schedule(key, deadlineMillis, value);
+        return true;
+    }
+
+    synchronized boolean cancel(K key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        // Left in its slot and skipped when the wheel gets there
+        entry.cancelled = true;
+        return true;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns the values of the timers that fired, in
+     * deadline order. A clock that went backwards fires nothing until it catches up.
+     */
+    synchronized List<V> advance(long nowMillis) {
+        List<V> fired = new ArrayList<>();
+        collectExpired(fired);
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            while (!overflow.isEmpty() && overflow.peek().deadlineTick - currentTick < spans[spans.length - 1] * wheelSize) {
+                place(overflow.poll());
+            }
+            // Higher levels first: what they release may land in a lower level's current slot
+            for (int level = spans.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    List<Entry> slot = levels.get(level).get(slotIndex(currentTick, level));
+                    List<Entry> cascading = new ArrayList<>(slot);
+                    slot.clear();
+                    cascading.forEach(this::place);
+                }
+            }
+            List<Entry> slot = levels.get(0).get(slotIndex(currentTick, 0));
+            expired.addAll(slot);
+            slot.clear();
+            collectExpired(fired);
+        }
+        return fired;
+    }
+
+    private void place(Entry entry) {
+        if (entry.cancelled) {
+            return;
+        }
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            expired.add(entry);
+            return;
+        }
+        for (int level = 0; level < spans.length; level++) {
+            if (delta < spans[level] * wheelSize) {
+                levels.get(level).get(slotIndex(entry.deadlineTick, level)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void collectExpired(List<V> fired) {
+        expired.sort(Comparator.comparingLong(entry -> entry.deadlineTick));
+        for (Entry entry : expired) {
+            if (!entry.cancelled) {
+                entries.remove(entry.key);
+                fired.add(entry.value);
+            }
+        }
+        expired.clear();
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) ((tick / spans[level]) % wheelSize);
+    }
+}
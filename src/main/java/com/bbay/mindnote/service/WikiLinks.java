@@ -0,0 +1,52 @@
+package com.bbay.mindnote.service;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses {@code [[Note Title]]} links out of note content. {@code [[Title|shown text]]} and
+ * {@code [[Title#Heading]]} link to {@code Title}. Links are identified by a normalized key of the
+ * target title. Saves and {@link NoteLinkBackfill} both parse with this class, so every stored link
+ * follows the same rules and limits.
+ */
+final class WikiLinks {
+
+    // Bounds the rows a single note can add to note_links
+    static final int MAX_LINKS_PER_NOTE = 1000;
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final Pattern LINK = Pattern.compile("\\[\\[([^\\[\\]|#]+)(?:[|#][^\\[\\]]*)?]]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private WikiLinks() {
+    }
+
+    /**
+     * Distinct link keys in order of first appearance.
+     */
+    static Set<String> parse(String content) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (content == null || content.indexOf("[[") < 0) {
+            return keys;
+        }
+        Matcher matcher = LINK.matcher(content);
+        while (matcher.find() && keys.size() < MAX_LINKS_PER_NOTE) {
+            String key = key(matcher.group(1));
+            if (!key.isEmpty() && key.length() <= MAX_KEY_LENGTH) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * The key a title is linked by: case and whitespace differences do not matter.
+     */
+    static String key(String title) {
+        return WHITESPACE.matcher(title).replaceAll(" ").strip().toLowerCase(Locale.ROOT);
+    }
+}
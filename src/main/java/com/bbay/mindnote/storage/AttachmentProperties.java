@@ -0,0 +1,24 @@
+package com.bbay.mindnote.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for note attachments.
+ *
+ * @param directory     root of the content-addressed blob store; must be on local disk
+ * @param maxSize       largest accepted upload
+ * @param gcGracePeriod unreferenced blobs younger than this are left alone by the periodic sweep
+ * @param gcBatch       blobs collected per sweep
+ */
+@ConfigurationProperties(prefix = "mindnote.attachments")
+public record AttachmentProperties(
+        @DefaultValue("data/attachments") Path directory,
+        @DefaultValue("25MB") DataSize maxSize,
+        @DefaultValue("10m") Duration gcGracePeriod,
+        @DefaultValue("100") int gcBatch) {
+}
@@ -0,0 +1,147 @@
+package com.bbay.mindnote.storage;
+
+import com.bbay.mindnote.exception.AttachmentTooLargeException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed file store for attachment bytes. A blob lives at
+ * {@code <directory>/ab/cd/abcd...} where the name is the SHA-256 of its content, so identical
+ * uploads end up as one file. Uploads are streamed into {@code <directory>/tmp} while being
+ * hashed and only then moved into place.
+ *
+ * <p>Which blobs are still referenced is tracked in the database; this class only manages files.</p>
+ */
+@Component
+public class BlobStorage {
+
+    private static final Logger logger = LogManager.getLogger(BlobStorage.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path staging;
+    private final long maxSize;
+
+    public BlobStorage(AttachmentProperties properties) throws IOException {
+        this.root = properties.directory().toAbsolutePath().normalize();
+        this.staging = root.resolve("tmp");
+        this.maxSize = properties.maxSize().toBytes();
+        Files.createDirectories(staging);
+        logger.info("Attachment blobs stored in {}", root);
+    }
+
+    /**
+     * Streams the upload to a temporary file, hashing it on the way.
+     *
+     * @throws AttachmentTooLargeException if the stream is longer than the configured maximum
+     */
+    public StagedBlob receive(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path file = Files.createTempFile(staging, "upload-", ".part");
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new AttachmentTooLargeException(maxSize);
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        return new StagedBlob(HexFormat.of().formatHex(digest.digest()), size, file);
+    }
+
+    /**
+     * Makes the staged content available under its hash, unless a file with that hash exists
+     * already. Called while holding the blob's database row lock, so it also restores a file
+     * that garbage collection removed just before the row was re-referenced.
+     */
+    public void publish(StagedBlob blob) {
+        Path target = pathFor(blob.hash());
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(blob.file(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ex) {
+            // Same content published concurrently
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store attachment blob " + blob.hash(), ex);
+        }
+    }
+
+    /**
+     * Removes the temporary file of an upload, if it was not published.
+     */
+    public void discard(StagedBlob blob) {
+        try {
+            Files.deleteIfExists(blob.file());
+        } catch (IOException ex) {
+            logger.warn("Could not delete staged upload {}", blob.file(), ex);
+        }
+    }
+
+    public Path pathFor(String hash) {
+        if (hash.length() != 64 || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(pathFor(hash));
+    }
+
+    /**
+     * Deletes staged uploads left behind by a crash.
+     */
+    public void deleteStaleUploads(Duration olderThan) throws IOException {
+        FileTime cutoff = FileTime.from(Instant.now().minus(olderThan));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(staging, "upload-*.part")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(file);
+                    logger.info("Deleted stale upload {}", file);
+                }
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.bbay.mindnote.storage;
+
+import java.nio.file.Path;
+
+/**
+ * An upload written to a temporary file and hashed, not yet visible under its hash.
+ *
+ * @param hash SHA-256 of the content, hex encoded
+ * @param size content length in bytes
+ * @param file temporary file holding the content
+ */
+public record StagedBlob(String hash, long size, Path file) {
+}
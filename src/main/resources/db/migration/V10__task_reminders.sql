@@ -0,0 +1,19 @@
+-- Due-date reminders (see TaskReminderScheduler). Each column holds the due date its event was
+-- fired for, which makes firing idempotent: a conditional UPDATE succeeds once per due date, and
+-- moving the due date re-arms both events without any reset.
+-- The pending index is built CONCURRENTLY, which cannot run inside a transaction, hence
+-- V10__task_reminders.sql.conf.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS reminded_due_date TIMESTAMP(6);
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS overdue_due_date TIMESTAMP(6);
+
+-- Tasks that are already past due are not announced (or escalated) retroactively
+UPDATE tasks
+SET reminded_due_date = due_date,
+    overdue_due_date  = due_date
+WHERE due_date < LOCALTIMESTAMP;
+
+-- Only open tasks whose overdue event is still to come: the startup load and the periodic
+-- horizon refresh range-scan this instead of the table
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_pending_due_date ON tasks (due_date)
+    WHERE deleted_at IS NULL AND status <> 'DONE' AND overdue_due_date IS DISTINCT FROM due_date;
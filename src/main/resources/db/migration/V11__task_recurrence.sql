@@ -0,0 +1,20 @@
+-- Recurring tasks (see RecurrenceRule). A series is one row with an RRULE; its occurrences are
+-- expanded on read and only get a row of their own once they are edited or completed.
+-- The indexes are built CONCURRENTLY, which cannot run inside a transaction, hence
+-- V11__task_recurrence.sql.conf.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS recurrence VARCHAR(255);
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS recurrence_parent_id BIGINT REFERENCES tasks (id) ON DELETE SET NULL;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS occurrence_date TIMESTAMP(6);
+
+-- Series overlapping a due-date window
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_recurring_due_date ON tasks (due_date)
+    WHERE recurrence IS NOT NULL AND deleted_at IS NULL;
+
+-- At most one live row per occurrence; also finds the edited occurrences of a window
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_occurrence ON tasks (recurrence_parent_id, occurrence_date)
+    WHERE recurrence_parent_id IS NOT NULL AND deleted_at IS NULL;
+
+-- ON DELETE SET NULL when the purge removes a series
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_recurrence_parent_id ON tasks (recurrence_parent_id)
+    WHERE recurrence_parent_id IS NOT NULL;
@@ -0,0 +1,11 @@
+-- SHA-256 of the UTF-8 encoded content, written together with the content (NoteHtmlService.contentHash).
+-- Rendered HTML is cached under this hash, so serving a cached rendering never reads the content.
+-- Existing notes are hashed in small batches by NoteContentHashBackfill rather than here, so the
+-- migration neither reads every note nor rewrites the table; until then they render uncached.
+-- The index is built CONCURRENTLY, which cannot run inside a transaction, hence
+-- V12__note_content_hash.sql.conf.
+
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+-- Notes the backfill still has to hash; empty once it is done, so its runs cost nothing
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_content_hash_missing ON notes (id) WHERE content_hash IS NULL;
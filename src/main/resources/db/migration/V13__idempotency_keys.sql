@@ -0,0 +1,18 @@
+-- Responses to POSTs sent with an Idempotency-Key header (see IdempotencyFilter). A row without a
+-- status is a claim held by the request that is still executing; its expires_at is the lock
+-- timeout, after which another request may take it over. A completed row expires after the TTL.
+
+CREATE TABLE idempotency_keys (
+    scope           VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    status          INT,
+    headers         TEXT,
+    body            BYTEA,
+    created_at      TIMESTAMP(6) NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+-- The sweep deletes expired rows oldest first
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,20 @@
+-- Copy of the content of large notes as UTF-8 bytes, stored out of line without compression.
+-- substring() on such a value fetches only the TOAST chunks of the requested window, so streaming
+-- a note chunk by chunk (NoteRepository.findContentChunk) reads each byte once. On TEXT, every
+-- window has to decode the note from its start, which makes a full download quadratic in its size.
+-- Only notes of at least 1 MiB (Note.LARGE_CONTENT_BYTES) get a copy. Smaller notes are streamed
+-- in at most four windows, where decoding the prefix is cheap, and content itself stays compressed
+-- TEXT for every note and every other read. The copy costs each large note its uncompressed size
+-- once more, which is what makes a window read proportional to the window.
+-- Adding a nullable column does not rewrite the table. NoteService writes the copy together with
+-- the content; existing large notes are copied in small batches by NoteContentBytesBackfill, and
+-- reads fall back to converting content until then.
+-- The index is built CONCURRENTLY, which cannot run inside a transaction, hence
+-- V14__note_content_bytes.sql.conf.
+
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS content_bytes BYTEA;
+ALTER TABLE notes ALTER COLUMN content_bytes SET STORAGE EXTERNAL;
+
+-- Large notes the backfill still has to copy; empty once it is done, so its runs cost nothing
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_content_bytes_missing ON notes (id)
+    WHERE content_bytes IS NULL AND octet_length(content) >= 1048576;
@@ -0,0 +1,25 @@
+-- Indexes backing TaskRepository/NoteRepository.findByFilters and the default list sorts.
+-- CONCURRENTLY keeps a live database writable while they build; it cannot run inside a
+-- transaction, hence V2__query_indexes.sql.conf.
+
+-- GET /api/tasks?status=... ORDER BY due_date
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_status_due_date ON tasks (status, due_date);
+
+-- GET /api/tasks (default sort: due_date ASC)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_due_date ON tasks (due_date);
+
+-- GET /api/tasks?noteId=... and the Task -> Note foreign key
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_note_id ON tasks (note_id);
+
+-- GET /api/tasks?categoryId=... and the Task -> Category foreign key
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_category_id ON tasks (category_id);
+
+-- GET /api/notes?category=... ORDER BY updated_at DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_category_id_updated_at ON notes (category_id, updated_at);
+
+-- GET /api/notes (default sort: updated_at DESC)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_updated_at ON notes (updated_at);
+
+-- Reverse side of the join tables: tag -> owners (the primary keys only cover owner -> tag)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_note_tags_tag_id_note_id ON note_tags (tag_id, note_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_tags_tag_id_task_id ON task_tags (tag_id, task_id);
@@ -0,0 +1,21 @@
+-- Note revision history: a full snapshot every few revisions and binary deltas in between
+-- (see DeltaCodec). A delta applies to base_revision, the revision immediately before it.
+
+CREATE TABLE note_revisions (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    note_id        BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    revision       INT          NOT NULL,
+    kind           VARCHAR(10)  NOT NULL,
+    base_revision  INT,
+    title          VARCHAR(255) NOT NULL,
+    content_length INT,
+    payload        BYTEA        NOT NULL,
+    payload_size   INT          NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_note_revisions_note_id_revision UNIQUE (note_id, revision),
+    CONSTRAINT ck_note_revisions_kind CHECK (kind IN ('SNAPSHOT', 'DELTA')),
+    CONSTRAINT ck_note_revisions_base CHECK ((kind = 'SNAPSHOT') = (base_revision IS NULL))
+);
+
+-- Compaction looks for notes with several old revisions on the same day
+CREATE INDEX idx_note_revisions_created_at ON note_revisions (created_at);
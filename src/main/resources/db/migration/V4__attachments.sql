@@ -0,0 +1,27 @@
+-- Note attachments. File bytes live on disk under their SHA-256 (see BlobStorage); identical
+-- uploads share one blob, and ref_count tracks how many attachment rows point at it.
+
+CREATE TABLE attachment_blobs (
+    hash       VARCHAR(64)  NOT NULL PRIMARY KEY,
+    size       BIGINT       NOT NULL,
+    ref_count  INT          NOT NULL DEFAULT 0,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT ck_attachment_blobs_ref_count CHECK (ref_count >= 0)
+);
+
+CREATE TABLE attachments (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    note_id      BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    blob_hash    VARCHAR(64)  NOT NULL REFERENCES attachment_blobs (hash),
+    filename     VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    size         BIGINT       NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_attachments_note_id ON attachments (note_id);
+CREATE INDEX idx_attachments_blob_hash ON attachments (blob_hash);
+
+-- Garbage collection sweeps unreferenced blobs
+CREATE INDEX idx_attachment_blobs_unreferenced ON attachment_blobs (updated_at) WHERE ref_count = 0;
@@ -0,0 +1,11 @@
+-- Soft delete for notes and tasks: rows with deleted_at set are hidden from the application
+-- (@SQLRestriction) and hard-deleted later, in batches, by SoftDeletePurger.
+-- Adding a nullable column without a default only touches the catalog. The indexes are built
+-- CONCURRENTLY, which cannot run inside a transaction, hence V5__soft_delete.sql.conf.
+
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6);
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6);
+
+-- Purge queue: only deleted rows are indexed, so these stay tiny
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_deleted_at ON notes (deleted_at) WHERE deleted_at IS NOT NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_deleted_at ON tasks (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,19 @@
+-- Nested categories as a materialized path: '/<root id>/.../<own id>/'. A subtree is the
+-- contiguous key range [path, path || '~'), so "this folder and everything beneath it" is one
+-- index range scan and moving a subtree is one UPDATE over that range. The "C" collation makes
+-- the range byte-ordered ('~' sorts after every digit and '/') independent of the database locale.
+-- The categories table is small, so the migration runs inside a transaction.
+
+ALTER TABLE categories ADD COLUMN parent_id BIGINT REFERENCES categories (id);
+ALTER TABLE categories ADD COLUMN path VARCHAR(1024) COLLATE "C";
+ALTER TABLE categories ADD COLUMN depth INT NOT NULL DEFAULT 0;
+
+-- Existing categories become roots
+UPDATE categories SET path = '/' || id || '/';
+ALTER TABLE categories ALTER COLUMN path SET NOT NULL;
+
+-- Subtree filters and moves (not unique: a new row briefly holds its parent's path until its id is known)
+CREATE INDEX idx_categories_path ON categories (path);
+
+-- Children of a category and the self-referencing foreign key
+CREATE INDEX idx_categories_parent_id ON categories (parent_id);
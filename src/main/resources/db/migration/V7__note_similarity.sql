@@ -0,0 +1,19 @@
+-- MinHash signatures of note content and their LSH band buckets (see MinHash). Two notes are
+-- similarity candidates when they share a (band, bucket) pair, found through the primary key.
+
+CREATE TABLE note_signatures (
+    note_id    BIGINT       PRIMARY KEY REFERENCES notes (id) ON DELETE CASCADE,
+    -- 128 big-endian ints; empty when the content has no words
+    signature  BYTEA        NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE note_lsh_bands (
+    band    SMALLINT NOT NULL,
+    bucket  BIGINT   NOT NULL,
+    note_id BIGINT   NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    PRIMARY KEY (band, bucket, note_id)
+);
+
+-- Bands of one note, replaced whenever its content changes
+CREATE INDEX idx_note_lsh_bands_note_id ON note_lsh_bands (note_id);
@@ -0,0 +1,24 @@
+-- Outgoing [[wiki links]] of each note, stored by normalized target title rather than note id:
+-- a link to a note that does not exist yet resolves once it is created, and a rename changes
+-- which note a title resolves to without touching any link row (see NoteLinkGraph).
+
+CREATE TABLE IF NOT EXISTS note_links (
+    source_id  BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    -- Lower-cased title with surrounding whitespace trimmed and inner runs collapsed (WikiLinks.key)
+    target_key VARCHAR(255) NOT NULL,
+    PRIMARY KEY (source_id, target_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_note_links_target_key ON note_links (target_key);
+
+-- Links already present in existing notes are parsed in batches by NoteLinkBackfill with
+-- WikiLinks.parse, rather than here, so the migration neither reads every note nor rewrites the
+-- table. Every note existing now is marked pending; the default then switches to false, because
+-- NoteLinkService writes the links of notes saved from here on. Both statements only change the
+-- catalog. The index is built CONCURRENTLY, which cannot run inside a transaction, hence
+-- V8__note_links.sql.conf.
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS links_pending BOOLEAN NOT NULL DEFAULT true;
+ALTER TABLE notes ALTER COLUMN links_pending SET DEFAULT false;
+
+-- Notes the backfill still has to parse; empty once it is done, so its runs cost nothing
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_links_pending ON notes (id) WHERE links_pending;
@@ -0,0 +1,13 @@
+-- Blocked-by relations between tasks: task_id cannot start before blocker_id is DONE.
+-- Cycles are rejected by TaskDependencyService before a row is inserted.
+
+CREATE TABLE task_dependencies (
+    task_id    BIGINT       NOT NULL REFERENCES tasks (id) ON DELETE CASCADE,
+    blocker_id BIGINT       NOT NULL REFERENCES tasks (id) ON DELETE CASCADE,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (task_id, blocker_id),
+    CONSTRAINT chk_task_dependencies_not_self CHECK (task_id <> blocker_id)
+);
+
+-- Dependents of a task, for removing its edges when it is deleted
+CREATE INDEX idx_task_dependencies_blocker_id ON task_dependencies (blocker_id);
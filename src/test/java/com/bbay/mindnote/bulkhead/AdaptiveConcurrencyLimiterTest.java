@@ -0,0 +1,82 @@
+package com.bbay.mindnote.bulkhead;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    @Test
+    @DisplayName("Should reject once the limit is reached and the wait deadline passes")
+    void tryAcquire_AtLimit_ShouldRejectAfterDeadline() throws InterruptedException {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        assertTrue(limiter.tryAcquire(Duration.ZERO));
+        assertTrue(limiter.tryAcquire(Duration.ZERO));
+
+        // Act
+        boolean acquired = limiter.tryAcquire(Duration.ofMillis(20));
+
+        // Assert
+        assertFalse(acquired);
+        assertEquals(2, limiter.inflight());
+        assertEquals(1, limiter.rejected());
+    }
+
+    @Test
+    @DisplayName("Should grow the limit on fast calls under load and back off on slow ones")
+    void release_ShouldAdjustLimitAdditivelyAndMultiplicatively() throws InterruptedException {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(Duration.ZERO));
+        }
+
+        // Act
+        limiter.release(FAST, false);
+        int grown = limiter.limit();
+        limiter.release(SLOW, false);
+        limiter.release(FAST, true);
+        int backedOff = limiter.limit();
+
+        // Assert
+        assertEquals(5, grown);
+        assertEquals(4, backedOff);
+    }
+
+    @Test
+    @DisplayName("Should hand a released permit to a waiting caller")
+    void release_WithWaiter_ShouldWakeIt() throws Exception {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        assertTrue(limiter.tryAcquire(Duration.ZERO));
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                assertTrue(limiter.tryAcquire(Duration.ofSeconds(5)));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        while (limiter.queued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        limiter.release(SLOW, false);
+        waiter.join(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(1, limiter.inflight());
+        assertEquals(0, limiter.rejected());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter("test", initialLimit, 1, 10, 10, Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,54 @@
+package com.bbay.mindnote.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.exc.InvalidFormatException;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpochTimeModuleTest {
+
+    private record Event(LocalDateTime at, LocalDate day) {
+    }
+
+    private final CBORMapper mapper = CBORMapper.builder().addModule(new EpochTimeModule()).build();
+
+    @Test
+    @DisplayName("Should write dates and times as epoch numbers and read them back")
+    void roundTrip_ShouldUseEpochNumbers() {
+        // Arrange
+        Event event = new Event(LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_000_000), LocalDate.of(2025, 3, 1));
+
+        // Act
+        byte[] bytes = mapper.writeValueAsBytes(event);
+        JsonNode tree = mapper.readTree(bytes);
+        Event read = mapper.readValue(bytes, Event.class);
+
+        // Assert
+        assertEquals(1740821415123L, tree.get("at").longValue());
+        assertEquals(20148, tree.get("day").longValue());
+        assertEquals(event, read);
+    }
+
+    @Test
+    @DisplayName("Should also accept ISO-8601 strings and reject anything else")
+    void read_ShouldAcceptIsoStrings() {
+        // Arrange
+        byte[] iso = mapper.writeValueAsBytes(Map.of("at", "2025-03-01T09:30:00", "day", "2025-03-01"));
+        byte[] invalid = mapper.writeValueAsBytes(Map.of("at", "yesterday"));
+
+        // Act
+        Event read = mapper.readValue(iso, Event.class);
+
+        // Assert
+        assertEquals(LocalDateTime.of(2025, 3, 1, 9, 30), read.at());
+        assertEquals(LocalDate.of(2025, 3, 1), read.day());
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue(invalid, Event.class));
+    }
+}
@@ -0,0 +1,43 @@
+package com.bbay.mindnote.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    @DisplayName("Should resolve bounded, open-ended and suffix ranges")
+    void resolve_SingleRanges_ShouldBePartial() {
+        // Act
+        ByteRange bounded = ByteRange.resolve("bytes=10-19", null, "\"a\"", 100).orElseThrow();
+        ByteRange openEnded = ByteRange.resolve("bytes=90-", null, "\"a\"", 100).orElseThrow();
+        ByteRange suffix = ByteRange.resolve("bytes=-5", "\"a\"", "\"a\"", 100).orElseThrow();
+
+        // Assert
+        assertEquals("bytes 10-19/100", bounded.contentRange());
+        assertEquals(10, openEnded.count());
+        assertEquals(95, suffix.start());
+        assertTrue(suffix.partial());
+    }
+
+    @Test
+    @DisplayName("Should send everything for stale If-Range, multiple or malformed ranges")
+    void resolve_IgnoredRanges_ShouldBeFull() {
+        // Act & Assert
+        assertFalse(ByteRange.resolve("bytes=0-9", "\"old\"", "\"new\"", 100).orElseThrow().partial());
+        assertFalse(ByteRange.resolve("bytes=0-9,20-29", null, "\"a\"", 100).orElseThrow().partial());
+        assertFalse(ByteRange.resolve("lines=1-2", null, "\"a\"", 100).orElseThrow().partial());
+    }
+
+    @Test
+    @DisplayName("Should report ranges starting past the end as unsatisfiable")
+    void resolve_PastEnd_ShouldBeEmpty() {
+        // Act & Assert
+        assertEquals(Optional.empty(), ByteRange.resolve("bytes=100-", null, "\"a\"", 100));
+        assertEquals(Optional.empty(), ByteRange.resolve("bytes=-5", null, "\"a\"", 0));
+    }
+}
@@ -0,0 +1,65 @@
+package com.bbay.mindnote.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageEnvelopeTest {
+
+    @Test
+    @DisplayName("Should only count when the slice does not tell the total")
+    void of_ShouldCountOnlyWhenNeeded() {
+        // Arrange
+        SliceImpl<Long> lastPage = new SliceImpl<>(List.of(5L, 6L), PageRequest.of(2, 2), false);
+        SliceImpl<Long> middlePage = new SliceImpl<>(List.of(3L, 4L), PageRequest.of(1, 2), true);
+        SliceImpl<Long> pastTheEnd = new SliceImpl<>(List.of(), PageRequest.of(9, 2), false);
+
+        // Act
+        PageEnvelope<Long> last = PageEnvelope.of(lastPage, () -> fail("counted"));
+        PageEnvelope<Long> middle = PageEnvelope.of(middlePage, () -> 6L);
+        PageEnvelope<Long> empty = PageEnvelope.of(pastTheEnd, () -> 6L);
+        PageEnvelope<Long> uncounted = PageEnvelope.of(middlePage, null);
+
+        // Assert
+        assertEquals(6L, last.total());
+        assertNull(last.next());
+        assertEquals(6L, middle.total());
+        assertEquals(2, middle.next());
+        assertEquals(6L, empty.total());
+        assertNull(uncounted.total());
+    }
+
+    @Test
+    @DisplayName("Should load items in batches while they are iterated and serialize them as an array")
+    void mapInBatches_ShouldLoadLazilyInOrder() {
+        // Arrange
+        List<Integer> ids = IntStream.range(0, 7).boxed().toList();
+        PageEnvelope<Integer> keys = PageEnvelope.of(new SliceImpl<>(ids, PageRequest.of(0, 7), false), null);
+        List<List<Integer>> batches = new ArrayList<>();
+
+        // Act
+        PageEnvelope<String> mapped = keys.mapInBatches(3, batch -> {
+            batches.add(List.copyOf(batch));
+            // Id 4 was deleted in the meantime
+            return batch.stream().filter(id -> id != 4).map(id -> "item" + id).toList();
+        });
+        assertTrue(batches.isEmpty());
+        JsonNode json = JsonMapper.builder().build().valueToTree(mapped);
+
+        // Assert
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6)), batches);
+        assertEquals(6, json.get("items").size());
+        assertEquals("item5", json.get("items").get(4).asString());
+        assertFalse(json.has("total"));
+        assertTrue(json.get("next").isNull());
+    }
+}
@@ -0,0 +1,241 @@
+package com.bbay.mindnote.idempotency;
+
+import com.bbay.mindnote.dto.IdempotentResponse;
+import com.bbay.mindnote.exception.IdempotencyKeyMismatchException;
+import com.bbay.mindnote.exception.IdempotentRequestTooLargeException;
+import com.bbay.mindnote.service.IdempotencyKeyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    private static final String NOTE = "{\"title\":\"Groceries\"}";
+
+    @Mock
+    private IdempotencyKeyService keyService;
+
+    @Mock
+    private HandlerExceptionResolver exceptionResolver;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties(true, "Idempotency-Key", Set.of("/api/notes"),
+                Duration.ofHours(24), Duration.ofMinutes(1), Duration.ofSeconds(1),
+                DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), DataSize.ofBytes(64), 500);
+        filter = new IdempotencyFilter(properties, keyService, exceptionResolver, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should execute the first request once and replay its stored response to retries")
+    void retry_ShouldReplayWithoutExecuting() throws Exception {
+        // Arrange
+        IdempotentResponse claim = new IdempotentResponse("hash", null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        when(keyService.claim(eq("POST /api/notes"), eq("k1"), anyString(), any())).thenReturn(Optional.of(claim));
+        when(keyService.complete(eq("POST /api/notes"), eq("k1"), eq(claim), eq(201), any(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(new IdempotentResponse(hash(), 201, invocation.getArgument(4),
+                        invocation.getArgument(5), claim.claimedAt(), LocalDateTime.now().plusDays(1))));
+        doAnswer(invocation -> {
+            // The controller still gets the body the filter read to hash it
+            ServletRequest request = invocation.getArgument(0);
+            assertEquals(NOTE, new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            HttpServletResponse response = invocation.getArgument(1);
+            response.setStatus(201);
+            response.setContentType("application/json");
+            response.getOutputStream().write("{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        // Act
+        MockHttpServletResponse first = send(NOTE, "k1");
+        MockHttpServletResponse retry = send(NOTE, "k1");
+
+        // Assert
+        verify(filterChain, times(1)).doFilter(any(), any());
+        verify(keyService, times(1)).claim(any(), any(), any(), any());
+        assertEquals(201, first.getStatus());
+        assertEquals("{\"id\":7}", first.getContentAsString());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(201, retry.getStatus());
+        assertEquals("{\"id\":7}", retry.getContentAsString());
+        assertEquals("application/json", retry.getHeader(HttpHeaders.CONTENT_TYPE));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different body")
+    void differentBody_ShouldBeRejected() throws Exception {
+        // Arrange
+        IdempotentResponse stored = new IdempotentResponse(hash(), 201, new HttpHeaders(), new byte[0],
+                LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        when(keyService.claim(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(keyService.find("POST /api/notes", "k1")).thenReturn(Optional.of(stored));
+        when(exceptionResolver.resolveException(any(), any(), isNull(), any())).thenReturn(new ModelAndView());
+
+        // Act
+        send("{\"title\":\"Something else\"}", "k1");
+
+        // Assert
+        verify(exceptionResolver).resolveException(any(), any(), isNull(), isA(IdempotencyKeyMismatchException.class));
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    @DisplayName("Should let a duplicate wait for the original still executing and replay its response")
+    void duplicateInFlight_ShouldWaitForOriginal() throws Exception {
+        // Arrange
+        IdempotentResponse claim = new IdempotentResponse("hash", null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        when(keyService.claim(eq("POST /api/notes"), eq("k1"), anyString(), any())).thenReturn(Optional.of(claim));
+        when(keyService.complete(eq("POST /api/notes"), eq("k1"), eq(claim), eq(201), any(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(new IdempotentResponse(hash(), 201, invocation.getArgument(4),
+                        invocation.getArgument(5), claim.claimedAt(), LocalDateTime.now().plusDays(1))));
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            executing.countDown();
+            assertTrue(finish.await(5, TimeUnit.SECONDS));
+            HttpServletResponse response = invocation.getArgument(1);
+            response.setStatus(201);
+            response.getOutputStream().write("{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+        CompletableFuture<MockHttpServletResponse> original = CompletableFuture.supplyAsync(() -> sendUnchecked(NOTE, "k1"));
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> duplicate = new CompletableFuture<>();
+        Thread waiter = new Thread(() -> duplicate.complete(sendUnchecked(NOTE, "k1")));
+
+        // Act
+        waiter.start();
+        // Let the original finish only once the duplicate is blocked on its future
+        while (waiter.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(waiter.isAlive(), "Duplicate finished before the original");
+            Thread.onSpinWait();
+        }
+        finish.countDown();
+
+        // Assert
+        MockHttpServletResponse retry = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(201, original.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(201, retry.getStatus());
+        assertEquals("{\"id\":7}", retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        verify(filterChain, times(1)).doFilter(any(), any());
+        verify(keyService, times(1)).claim(any(), any(), any(), any());
+        verify(keyService, never()).find(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a body larger than the maximum without claiming the key")
+    void oversizedBody_ShouldBeRejected() throws Exception {
+        // Arrange
+        when(exceptionResolver.resolveException(any(), any(), isNull(), any())).thenReturn(new ModelAndView());
+
+        // Act
+        send("{\"title\":\"" + "x".repeat(100) + "\"}", "k1");
+
+        // Assert
+        verify(exceptionResolver).resolveException(any(), any(), isNull(), isA(IdempotentRequestTooLargeException.class));
+        verifyNoInteractions(keyService, filterChain);
+    }
+
+    @Test
+    @DisplayName("Should hand the buffered body to a non-blocking reader at once")
+    void readListener_ShouldReceiveBufferedBody() throws Exception {
+        // Arrange
+        IdempotentResponse claim = new IdempotentResponse("hash", null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        when(keyService.claim(any(), any(), any(), any())).thenReturn(Optional.of(claim));
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        doAnswer(invocation -> {
+            ServletInputStream in = ((ServletRequest) invocation.getArgument(0)).getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        received.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    fail(throwable);
+                }
+            });
+            ((HttpServletResponse) invocation.getArgument(1)).setStatus(500);
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        // Act
+        send(NOTE, "k1");
+
+        // Assert
+        assertEquals(NOTE, received.toString(StandardCharsets.UTF_8));
+        assertTrue(allRead.get());
+    }
+
+    private MockHttpServletResponse sendUnchecked(String body, String key) {
+        try {
+            return send(body, key);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private MockHttpServletResponse send(String body, String key) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/notes");
+        request.addHeader("Idempotency-Key", key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    private static String hash() throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(NOTE.getBytes(StandardCharsets.UTF_8)));
+    }
+}
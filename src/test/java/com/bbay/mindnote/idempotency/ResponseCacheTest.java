@@ -0,0 +1,43 @@
+package com.bbay.mindnote.idempotency;
+
+import com.bbay.mindnote.dto.IdempotentResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Test
+    @DisplayName("Should drop expired responses and evict the least recently used beyond the byte budget")
+    void get_ShouldHonourTtlAndByteBudget() {
+        // Arrange: every response takes 256 bytes of overhead plus its body, so two fit
+        ResponseCache cache = new ResponseCache(800, 400);
+        cache.put("a", response(100, NOW.plusHours(1)));
+        cache.put("b", response(100, NOW.plusHours(2)));
+        cache.get("a", NOW);
+
+        // Act
+        cache.put("c", response(100, NOW.plusHours(2)));
+        cache.put("large", response(200, NOW.plusHours(2)));
+
+        // Assert
+        assertNotNull(cache.get("a", NOW));
+        assertNull(cache.get("b", NOW));
+        assertNotNull(cache.get("c", NOW));
+        assertNull(cache.get("large", NOW));
+        assertEquals(712, cache.bytes());
+        assertNull(cache.get("a", NOW.plusHours(1)));
+        assertEquals(356, cache.bytes());
+        assertEquals(1, cache.size());
+    }
+
+    private static IdempotentResponse response(int bodySize, LocalDateTime expiresAt) {
+        return new IdempotentResponse("hash", 201, new HttpHeaders(), new byte[bodySize], NOW, expiresAt);
+    }
+}
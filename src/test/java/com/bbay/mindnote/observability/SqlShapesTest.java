@@ -0,0 +1,40 @@
+package com.bbay.mindnote.observability;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlShapesTest {
+
+    @Test
+    @DisplayName("Should give statements that differ only in parameters the same shape")
+    void normalize_DifferentLiterals_ShouldMatch() {
+        // Arrange
+        String first = "select c1_0.id,c1_0.name from categories c1_0 where c1_0.id=12";
+        String second = "select c1_0.id,c1_0.name\n  from categories c1_0\n  where c1_0.id=7";
+
+        // Act & Assert
+        assertEquals(SqlShapes.normalize(first), SqlShapes.normalize(second));
+    }
+
+    @Test
+    @DisplayName("Should collapse string literals and IN lists of any length")
+    void normalize_InListsAndStrings_ShouldCollapse() {
+        // Act
+        String shape = SqlShapes.normalize("SELECT * FROM tags t WHERE t.name = 'it''s' AND t.id IN (?, ?, ?)");
+
+        // Assert
+        assertEquals("select * from tags t where t.name = ? and t.id in (?)", shape);
+    }
+
+    @Test
+    @DisplayName("Should keep digits that are part of identifiers")
+    void normalize_Identifiers_ShouldBeKept() {
+        // Act
+        String shape = SqlShapes.normalize("select t1_0.note_id from note_tags t1_0 where t1_0.note_id=?");
+
+        // Assert
+        assertEquals("select t1_0.note_id from note_tags t1_0 where t1_0.note_id=?", shape);
+    }
+}
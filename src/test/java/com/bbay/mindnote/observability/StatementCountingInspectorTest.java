@@ -0,0 +1,59 @@
+package com.bbay.mindnote.observability;
+
+import com.bbay.mindnote.exception.QueryBudgetExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCountingInspectorTest {
+
+    private static final String SELECT_CATEGORY = "select c1_0.id,c1_0.name from categories c1_0 where c1_0.id=?";
+
+    @AfterEach
+    void tearDown() {
+        QueryStats.end();
+    }
+
+    @Test
+    @DisplayName("Should reject the first statement over budget in fail mode")
+    void inspect_OverBudgetInFailMode_ShouldThrow() {
+        // Arrange
+        StatementCountingInspector inspector = inspector(QueryBudgetProperties.Mode.FAIL);
+        QueryStats stats = QueryStats.begin();
+        stats.limitFurther(2, "NoteService.getNoteById");
+
+        // Act
+        inspector.inspect(SELECT_CATEGORY);
+        inspector.inspect(SELECT_CATEGORY);
+        QueryBudgetExceededException ex = assertThrows(QueryBudgetExceededException.class,
+                () -> inspector.inspect(SELECT_CATEGORY));
+
+        // Assert
+        assertTrue(ex.getMessage().startsWith("NoteService.getNoteById exceeded its query budget of 2"));
+    }
+
+    @Test
+    @DisplayName("Should flag a repeated statement shape with its call site in warn mode")
+    void inspect_RepeatedShapeInWarnMode_ShouldRecordCallSite() {
+        // Arrange
+        StatementCountingInspector inspector = inspector(QueryBudgetProperties.Mode.WARN);
+        QueryStats stats = QueryStats.begin();
+        stats.limitFurther(1, "GET /api/notes");
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            inspector.inspect(SELECT_CATEGORY.replace("?", String.valueOf(i)));
+        }
+
+        // Assert
+        assertEquals(3, stats.statements());
+        assertEquals(1, stats.repeatedShapes().size());
+        assertEquals(QueryStats.LAZY_LOAD, stats.statementsByRepository().keySet().iterator().next());
+    }
+
+    private static StatementCountingInspector inspector(QueryBudgetProperties.Mode mode) {
+        return new StatementCountingInspector(new QueryBudgetProperties(mode, 0, 3));
+    }
+}
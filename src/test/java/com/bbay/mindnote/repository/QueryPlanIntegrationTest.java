@@ -0,0 +1,213 @@
+package com.bbay.mindnote.repository;
+
+import com.bbay.mindnote.entity.TaskStatus;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations against a real PostgreSQL, seeds enough rows for the planner's
+ * choice to matter, and checks via EXPLAIN that the list queries as Hibernate generates them
+ * (captured by a statement inspector) are served by the indexes from V2__query_indexes.sql.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanIntegrationTest {
+
+    private static final int ROWS = 20_000;
+
+    private static final Pageable NOTE_PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "updatedAt"));
+    private static final Pageable TASK_PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "dueDate"));
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        /**
+         * Records every statement Hibernate prepares, behind the application's own inspector.
+         */
+        @Bean
+        static BeanPostProcessor capturingStatementInspector() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    if (bean instanceof LocalContainerEntityManagerFactoryBean factory) {
+                        Map<String, Object> properties = factory.getJpaPropertyMap();
+                        StatementInspector delegate = (StatementInspector) properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+                        properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                            String inspected = delegate != null ? delegate.inspect(sql) : sql;
+                            statements.add(inspected);
+                            return inspected;
+                        });
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("TRUNCATE note_tags, task_tags, tasks, notes, tags, categories RESTART IDENTITY CASCADE");
+        // 50 root categories, except 2 to 5 which sit beneath category 1 ('Work')
+        jdbcTemplate.update("INSERT INTO categories (name, path, created_at, updated_at) " +
+                "SELECT CASE WHEN g = 1 THEN 'Work' ELSE 'Category ' || g END, " +
+                "CASE WHEN g BETWEEN 2 AND 5 THEN '/1/' || g || '/' ELSE '/' || g || '/' END, now(), now() " +
+                "FROM generate_series(1, 50) g");
+        jdbcTemplate.update("UPDATE categories SET parent_id = 1, depth = 1 WHERE id BETWEEN 2 AND 5");
+        jdbcTemplate.update("INSERT INTO tags (name, created_at, updated_at) " +
+                "SELECT 'Tag ' || g, now(), now() FROM generate_series(1, 20) g");
+        jdbcTemplate.update("INSERT INTO tags (name, created_at, updated_at) VALUES ('Rare', now(), now())");
+
+        // Filters select a small share of rows spread over the whole sort order, so walking the
+        // sort index and filtering is clearly worse than a filter index: the plan shows which one
+        // the query can use. 'Work' and its subtree hold 80 notes, category 7 holds 40 tasks,
+        // 2% of the tasks are TODO and 'Rare' tags 50 notes.
+        jdbcTemplate.update("INSERT INTO notes (title, content, category_id, created_at, updated_at) " +
+                "SELECT 'Note ' || g, 'Content', " +
+                "CASE WHEN g % 500 = 0 THEN 1 WHEN g % 500 = 250 THEN 2 + g / 500 % 4 ELSE 10 + g % 40 END, " +
+                "now(), now() - g * interval '1 minute' FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO tasks (title, status, priority, due_date, category_id, note_id, created_at, updated_at) " +
+                "SELECT 'Task ' || g, CASE WHEN g % 50 = 0 THEN 'TODO' ELSE 'DONE' END, 'MEDIUM', " +
+                "now() + g * interval '1 hour', CASE WHEN g % 500 = 0 THEN 7 ELSE 10 + g % 40 END, " +
+                "CASE WHEN g % 4 = 0 THEN g END, now(), now() FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO note_tags (note_id, tag_id) SELECT id, 1 + id % 20 FROM notes");
+        jdbcTemplate.update("INSERT INTO note_tags (note_id, tag_id) SELECT id, 21 FROM notes WHERE id % 400 = 0");
+        jdbcTemplate.update("INSERT INTO task_tags (task_id, tag_id) SELECT id, 1 + id % 20 FROM tasks");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    @DisplayName("Note list sorted by update time should walk the update time index")
+    void notePage_ShouldUseUpdatedAtIndex() {
+        String sql = capture(() -> noteRepository.findPageIds(null, null, NOTE_PAGE));
+        assertIndexScan(explain(sql, null, null, null, null, 21), "idx_notes_updated_at");
+    }
+
+    @Test
+    @DisplayName("Note list filtered by category should use the category and update time index")
+    void notePageByCategory_ShouldUseCompositeIndex() {
+        String sql = capture(() -> noteRepository.findPageIds(1L, null, NOTE_PAGE));
+        assertIndexScan(explain(sql, 1L, 1L, null, null, 21), "idx_notes_category_id_updated_at");
+    }
+
+    @Test
+    @DisplayName("Note list filtered by a rare tag should start from the reverse join table index")
+    void notePageByTag_ShouldUseReverseJoinIndex() {
+        String sql = capture(() -> noteRepository.findPageIds(null, "Rare", NOTE_PAGE));
+        assertIndexScan(explain(sql, null, null, "Rare", "Rare", 21), "idx_note_tags_tag_id_note_id");
+    }
+
+    @Test
+    @DisplayName("Note list of a category subtree should reach the notes through the category index")
+    void notePageInSubtree_ShouldUseCompositeIndex() {
+        List<Long> subtree = categoryRepository.findSubtreeIds("Work");
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), subtree.stream().sorted().toList());
+        String sql = capture(() -> noteRepository.findPageIdsInSubtree(subtree, null, NOTE_PAGE));
+        assertIndexScan(explain(sql, 1L, 2L, 3L, 4L, 5L, null, null, 21), "idx_notes_category_id_updated_at");
+    }
+
+    @Test
+    @DisplayName("Task list filtered by status should use the status and due date index")
+    void taskPageByStatus_ShouldUseCompositeIndex() {
+        String sql = capture(() -> taskRepository.findPageIds(TaskStatus.TODO, null, null, null, TASK_PAGE));
+        assertIndexScan(explain(sql, "TODO", "TODO", null, null, null, null, null, null, null, 21),
+                "idx_tasks_status_due_date");
+    }
+
+    @Test
+    @DisplayName("Task list filtered by category or note should use the foreign key indexes")
+    void taskPageByCategoryAndNote_ShouldUseForeignKeyIndexes() {
+        String byCategory = capture(() -> taskRepository.findPageIds(null, 7L, null, null, TASK_PAGE));
+        assertIndexScan(explain(byCategory, null, null, 7L, 7L, null, null, null, null, null, 21), "idx_tasks_category_id");
+
+        String byNote = capture(() -> taskRepository.findPageIds(null, null, null, 4_000L, TASK_PAGE));
+        assertIndexScan(explain(byNote, null, null, null, null, null, null, 4_000L, 4_000L, 4_000L, 21), "idx_tasks_note_id");
+    }
+
+    /**
+     * Runs the repository call and returns the one statement it prepared.
+     */
+    private static String capture(Runnable query) {
+        statements.clear();
+        query.run();
+        assertEquals(1, statements.size(), () -> "Expected a single statement but got " + statements);
+        return statements.getFirst();
+    }
+
+    /**
+     * EXPLAIN of the captured statement with the given values in place of its parameters, in
+     * order. Inlined values give the plan PostgreSQL builds for a statement bound to them (a
+     * custom plan), catch-all {@code (? IS NULL OR ...)} predicates included.
+     */
+    private String explain(String sql, Object... parameters) {
+        Matcher placeholders = Pattern.compile("\\?").matcher(sql);
+        StringBuilder bound = new StringBuilder();
+        int index = 0;
+        while (placeholders.find()) {
+            assertTrue(index < parameters.length, () -> "More parameters than values in: " + sql);
+            Object value = parameters[index++];
+            String literal = value == null ? "NULL"
+                    : value instanceof String text ? "'" + text.replace("'", "''") + "'"
+                    : value.toString();
+            placeholders.appendReplacement(bound, Matcher.quoteReplacement(literal));
+        }
+        placeholders.appendTail(bound);
+        assertEquals(parameters.length, index, () -> "Fewer parameters than values in: " + sql);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + bound, String.class));
+    }
+
+    /**
+     * The plan uses the index and never reads notes or tasks in full. The small categories and
+     * tags tables may be scanned.
+     */
+    private static void assertIndexScan(String plan, String indexName) {
+        assertTrue(plan.contains(indexName) && !plan.contains("Seq Scan on notes") && !plan.contains("Seq Scan on tasks"),
+                () -> "Expected an index scan on " + indexName + " but got:\n" + plan);
+    }
+}
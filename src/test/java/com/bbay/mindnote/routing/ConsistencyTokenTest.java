@@ -0,0 +1,43 @@
+package com.bbay.mindnote.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistencyTokenTest {
+
+    @AfterEach
+    void tearDown() {
+        ConsistencyToken.clear();
+    }
+
+    @Test
+    @DisplayName("Should round-trip LSNs and treat malformed tokens as no requirement")
+    void parse_Tokens_ShouldRoundTrip() {
+        // Act & Assert
+        assertEquals("16/B374D848", ConsistencyToken.format(ConsistencyToken.parse("16/B374D848")));
+        assertEquals("FFFFFFFF/0", ConsistencyToken.format(ConsistencyToken.parse("FFFFFFFF/0")));
+        assertEquals(0L, ConsistencyToken.parse("16B374D848"));
+        assertEquals(0L, ConsistencyToken.parse("16/"));
+        assertEquals(0L, ConsistencyToken.parse(null));
+    }
+
+    @Test
+    @DisplayName("Should order LSNs past the signed range above lower ones")
+    void require_HighLsn_ShouldRaiseRequirement() {
+        // Arrange
+        long low = ConsistencyToken.parse("16/B374D848");
+        long high = ConsistencyToken.parse("FFFFFFFF/0");
+
+        // Act
+        ConsistencyToken.require(low);
+        ConsistencyToken.require(high);
+        ConsistencyToken.require(low);
+
+        // Assert
+        assertEquals(high, ConsistencyToken.requiredLsn());
+        assertTrue(ConsistencyToken.compare(high, low) > 0);
+    }
+}
@@ -0,0 +1,124 @@
+package com.bbay.mindnote.routing;
+
+import com.bbay.mindnote.dto.NoteRequest;
+import com.bbay.mindnote.dto.NoteResponse;
+import com.bbay.mindnote.exception.ResourceNotFoundException;
+import com.bbay.mindnote.service.NoteService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against two independent PostgreSQL instances standing in for a primary and a replica.
+ * They do not replicate, so a note written to the primary is invisible on the "replica", which
+ * makes it observable where each read-only transaction was routed.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true",
+        "mindnote.routing.enabled=true",
+        "mindnote.routing.require-recovery=false",
+        // A single primary connection: a write that needed a second one for its token would stall
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=5000"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class ReadReplicaRoutingIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer primary = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Container
+    static PostgreSQLContainer replica = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private RoutingProperties routingProperties;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        // The replica gets the schema directly since nothing replicates it there; the session-level
+        // lock matches FlywayConfig so the concurrent index builds do not wait on Flyway itself
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("mindnote.routing.replicas[0].url", replica::getJdbcUrl);
+        registry.add("mindnote.routing.replicas[0].username", replica::getUsername);
+        registry.add("mindnote.routing.replicas[0].password", replica::getPassword);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConsistencyToken.clear();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions should be served by the replica")
+    void getNoteById_WithoutToken_ShouldReadFromReplica() {
+        // Arrange
+        NoteResponse created = noteService.createNote(new NoteRequest("Routed", "Written to the primary", null, Set.of()));
+        ConsistencyToken.clear();
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteById(created.id()));
+    }
+
+    @Test
+    @DisplayName("A consistency token newer than the replica should pin reads to the primary")
+    void getNoteById_WithNewerToken_ShouldReadFromPrimary() {
+        // Arrange
+        NoteResponse created = noteService.createNote(new NoteRequest("Sticky", "Read your writes", null, Set.of()));
+        ConsistencyToken.require(ConsistencyToken.parse("FFFFFFFF/0"));
+
+        // Act
+        NoteResponse found = noteService.getNoteById(created.id());
+
+        // Assert
+        assertEquals("Sticky", found.title());
+    }
+
+    @Test
+    @DisplayName("A write in a request should return its consistency token read on its own connection")
+    void createNote_InRequest_ShouldSetConsistencyToken() {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+        // Act
+        try {
+            noteService.createNote(new NoteRequest("Token", "Written to the primary", null, Set.of()));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // Assert
+        String token = response.getHeader(routingProperties.tokenHeader());
+        assertNotNull(token);
+        assertEquals(ConsistencyToken.parse(token), ConsistencyToken.requiredLsn());
+    }
+}
@@ -0,0 +1,72 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.CategoryRequest;
+import com.bbay.mindnote.dto.CategoryResponse;
+import com.bbay.mindnote.entity.Category;
+import com.bbay.mindnote.exception.DuplicateResourceException;
+import com.bbay.mindnote.repository.CategoryRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    @Test
+    @DisplayName("Should keep a category created while the suggestions are loading")
+    void loadSuggestions_WhenCategoryCreatedDuringLoad_ShouldKeepCategory() throws Exception {
+        // Arrange
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> {
+            Category category = invocation.getArgument(0);
+            category.setId(2L);
+            return category;
+        });
+        Thread create = new Thread(() -> categoryService.createCategory(new CategoryRequest("Work", null)));
+        when(categoryRepository.streamAll()).thenAnswer(invocation -> {
+            // The create's index update runs while the load still holds the categories it read before
+            create.start();
+            create.join(200);
+            return Stream.of(new CategoryResponse(1L, "Home", null));
+        });
+
+        // Act
+        categoryService.loadSuggestions();
+        create.join();
+
+        // Assert
+        assertEquals(List.of(new CategoryResponse(2L, "Work", null)), categoryService.suggest("wo", 5));
+        assertEquals(2, categoryService.getTree().size());
+    }
+
+    @Test
+    @DisplayName("Should report a duplicate when a concurrent create takes the name after the check")
+    void createCategory_WhenNameTakenConcurrently_ShouldThrowDuplicate() {
+        // Arrange
+        when(categoryRepository.save(any(Category.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "uk_categories_name")));
+
+        // Act & Assert
+        assertThrows(DuplicateResourceException.class,
+                () -> categoryService.createCategory(new CategoryRequest("Work", null)));
+        assertTrue(categoryService.suggest("wo", 5).isEmpty());
+    }
+}
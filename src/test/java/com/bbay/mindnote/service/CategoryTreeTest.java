@@ -0,0 +1,56 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.CategoryResponse;
+import com.bbay.mindnote.dto.CategoryTreeNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeTest {
+
+    @Test
+    @DisplayName("Should nest categories under their parents with siblings sorted by name")
+    void roots_ShouldNestAndSortChildren() {
+        // Arrange
+        CategoryTree tree = new CategoryTree();
+        tree.replaceAll(List.of(
+                new CategoryResponse(1L, "Work", null),
+                new CategoryResponse(2L, "projects", 1L),
+                new CategoryResponse(3L, "Archive", 1L),
+                new CategoryResponse(4L, "Home", null)));
+
+        // Act
+        List<CategoryTreeNode> roots = tree.roots();
+
+        // Assert
+        assertEquals(List.of("Home", "Work"), roots.stream().map(CategoryTreeNode::name).toList());
+        assertEquals(List.of("Archive", "projects"),
+                roots.get(1).children().stream().map(CategoryTreeNode::name).toList());
+        assertSame(roots, tree.roots());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the snapshot after a move")
+    void move_ShouldInvalidateSnapshot() {
+        // Arrange
+        CategoryTree tree = new CategoryTree();
+        tree.replaceAll(List.of(
+                new CategoryResponse(1L, "Work", null),
+                new CategoryResponse(2L, "Projects", 1L),
+                new CategoryResponse(3L, "Alpha", 2L)));
+        List<CategoryTreeNode> before = tree.roots();
+
+        // Act
+        tree.move(3L, 1L);
+        List<CategoryTreeNode> after = tree.roots();
+
+        // Assert
+        assertNotSame(before, after);
+        assertEquals(List.of("Alpha", "Projects"),
+                after.getFirst().children().stream().map(CategoryTreeNode::name).toList());
+        assertEquals(1L, tree.parentOf(3L));
+    }
+}
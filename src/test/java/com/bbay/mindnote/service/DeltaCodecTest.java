@@ -0,0 +1,66 @@
+package com.bbay.mindnote.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaCodecTest {
+
+    @Test
+    @DisplayName("Should encode a small edit in a long text as a much smaller delta")
+    void encode_SmallEdit_ShouldBeCompact() {
+        // Arrange
+        String text = "Meeting notes for the quarterly planning session. ".repeat(100);
+        byte[] base = text.getBytes(StandardCharsets.UTF_8);
+        byte[] target = text.replaceFirst("quarterly", "annual").getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        byte[] delta = DeltaCodec.encode(base, target);
+
+        // Assert
+        assertTrue(delta.length < 32, "delta was " + delta.length + " bytes");
+        assertArrayEquals(target, DeltaCodec.apply(base, delta));
+    }
+
+    @Test
+    @DisplayName("Should reuse moved blocks of the base and round-trip arbitrary edits")
+    void encode_RandomEdits_ShouldRoundTrip() {
+        // Arrange
+        Random random = new Random(42);
+        byte[] base = new byte[4096];
+        random.nextBytes(base);
+
+        for (int round = 0; round < 50; round++) {
+            // Swap two halves and splice in random bytes, so prefix/suffix matching cannot help
+            byte[] inserted = new byte[random.nextInt(64)];
+            random.nextBytes(inserted);
+            int cut = random.nextInt(base.length);
+            byte[] target = new byte[base.length + inserted.length];
+            System.arraycopy(base, cut, target, 0, base.length - cut);
+            System.arraycopy(inserted, 0, target, base.length - cut, inserted.length);
+            System.arraycopy(base, 0, target, base.length - cut + inserted.length, cut);
+
+            // Act
+            byte[] delta = DeltaCodec.encode(base, target);
+
+            // Assert
+            assertArrayEquals(target, DeltaCodec.apply(base, delta));
+            assertTrue(delta.length < 256, "delta was " + delta.length + " bytes");
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle empty base and empty target")
+    void encode_EmptyInputs_ShouldRoundTrip() {
+        // Arrange
+        byte[] text = "hello".getBytes(StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertArrayEquals(text, DeltaCodec.apply(new byte[0], DeltaCodec.encode(new byte[0], text)));
+        assertArrayEquals(new byte[0], DeltaCodec.apply(text, DeltaCodec.encode(text, new byte[0])));
+    }
+}
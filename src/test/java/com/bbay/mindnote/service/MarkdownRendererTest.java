@@ -0,0 +1,75 @@
+package com.bbay.mindnote.service;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownRendererTest {
+
+    private static String render(String markdown) throws IOException {
+        StringWriter html = new StringWriter();
+        MarkdownRenderer.render(new StringReader(markdown), html);
+        return html.toString();
+    }
+
+    @Test
+    @DisplayName("Should render markdown while escaping raw HTML and dropping unsafe links")
+    void render_ShouldEscapeUnsafeMarkup() throws IOException {
+        // Act
+        String html = render("# Title\n\nSome *text* <script>alert(1)</script>\n\n[x](javascript:alert(1))\n");
+
+        // Assert
+        assertTrue(html.contains("<h1>Title</h1>"));
+        assertTrue(html.contains("<em>text</em>"));
+        assertTrue(html.contains("&lt;script&gt;"));
+        assertFalse(html.contains("<script>"));
+        assertFalse(html.contains("javascript:"));
+    }
+
+    @Test
+    @DisplayName("Should render a note larger than one section exactly like the whole document")
+    void render_ShouldMatchWholeDocumentAcrossSections() throws IOException {
+        // Arrange
+        String markdown = IntStream.range(0, 5_000)
+                .mapToObj(i -> i % 50 == 0
+                        ? "## Heading " + i + "\n\n```\ncode " + i + "\n\nstill code\n```\n"
+                        : "Paragraph " + i + " with **bold** words and a [link](https://example.com/" + i + ").\n")
+                .collect(Collectors.joining("\n"));
+        String expected = HtmlRenderer.builder().escapeHtml(true).sanitizeUrls(true).build()
+                .render(Parser.builder().build().parse(markdown));
+
+        // Act
+        String html = render(markdown);
+
+        // Assert
+        assertTrue(markdown.length() > 4 * MarkdownRenderer.SECTION_CHARS);
+        assertEquals(expected, html);
+    }
+
+    @Test
+    @DisplayName("Should split an oversized code block into consecutive code blocks without losing lines")
+    void render_ShouldReopenFenceWhenCuttingCodeBlock() throws IOException {
+        // Arrange
+        String code = IntStream.range(0, 150_000).mapToObj(i -> "line " + i).collect(Collectors.joining("\n"));
+        String markdown = "~~~~ java\n" + code + "\n~~~~\n\nAfter the code\n";
+
+        // Act
+        String html = render(markdown);
+
+        // Assert
+        int blocks = html.split("<pre><code class=\"language-java\">", -1).length - 1;
+        assertEquals(Math.ceilDiv(markdown.length(), MarkdownRenderer.MAX_SECTION_CHARS), blocks);
+        assertTrue(html.contains("line 0\n") && html.contains("line 149999\n"));
+        assertEquals(150_000, html.split("line \\d+\n", -1).length - 1);
+        assertTrue(html.endsWith("<p>After the code</p>\n"));
+    }
+}
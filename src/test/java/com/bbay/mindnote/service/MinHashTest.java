@@ -0,0 +1,63 @@
+package com.bbay.mindnote.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashTest {
+
+    private static String words(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "word" + i).collect(Collectors.joining(" "));
+    }
+
+    @Test
+    @DisplayName("Should ignore case and punctuation when comparing texts")
+    void similarity_ShouldBeOneForSameWords() {
+        // Arrange
+        int[] a = MinHash.signature("Meeting notes: discuss the Q3 roadmap, budget and hiring.");
+        int[] b = MinHash.signature("meeting NOTES discuss the q3 roadmap budget and hiring");
+
+        // Act
+        double similarity = MinHash.similarity(a, b);
+
+        // Assert
+        assertEquals(1.0, similarity);
+        assertArrayEquals(a, MinHash.decode(MinHash.encode(a)));
+        assertEquals(0, MinHash.signature(" -- ").length);
+    }
+
+    @Test
+    @DisplayName("Should rate a lightly edited copy as similar and share a band bucket")
+    void similarity_ShouldBeHighForNearDuplicate() {
+        // Arrange
+        int[] original = MinHash.signature(words(0, 200));
+        int[] edited = MinHash.signature(words(0, 190) + " appended at the end");
+
+        // Act
+        double similarity = MinHash.similarity(original, edited);
+
+        // Assert
+        assertTrue(similarity > 0.8, "similarity " + similarity);
+        long[] a = MinHash.bandBuckets(original);
+        long[] b = MinHash.bandBuckets(edited);
+        assertTrue(IntStream.range(0, MinHash.BANDS).anyMatch(band -> a[band] == b[band]));
+    }
+
+    @Test
+    @DisplayName("Should rate unrelated texts as dissimilar")
+    void similarity_ShouldBeLowForUnrelatedText() {
+        // Arrange
+        int[] a = MinHash.signature(words(0, 200));
+        int[] b = MinHash.signature(words(1000, 1200));
+
+        // Act
+        double similarity = MinHash.similarity(a, b);
+
+        // Assert
+        assertTrue(similarity < 0.1, "similarity " + similarity);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteRequest;
+import com.bbay.mindnote.dto.NoteResponse;
+import com.bbay.mindnote.entity.Note;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes and backfills the byte copy of large notes against a real PostgreSQL, and checks that
+ * windows read from it match the content.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true",
+        "mindnote.content.backfill-interval=PT1H",
+        "mindnote.content.backfill-batch-size=1"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class NoteContentBytesBackfillIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    // Multibyte, and just over the threshold
+    private static final String LARGE = "Größe ✓ ".repeat(Note.LARGE_CONTENT_BYTES / 12 + 1);
+
+    @Autowired
+    private NoteContentBytesBackfill backfill;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private NoteContentService noteContentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should copy only large notes in batches, and stream the same bytes as before")
+    void backfill_ShouldCopyLargeNotes() {
+        // Arrange
+        Long large = jdbcTemplate.queryForObject("INSERT INTO notes (title, content, created_at, updated_at) " +
+                "VALUES ('Old', ?, now(), now()) RETURNING id", Long.class, LARGE);
+        Long small = jdbcTemplate.queryForObject("INSERT INTO notes (title, content, created_at, updated_at) " +
+                "VALUES ('Old', 'Short', now(), now()) RETURNING id", Long.class);
+        byte[] before = readWindow(large, 1_000_001, 1000);
+
+        // Act
+        backfill.backfill();
+
+        // Assert
+        assertArrayEquals(LARGE.getBytes(StandardCharsets.UTF_8), contentBytes(large));
+        assertNull(contentBytes(small));
+        assertArrayEquals(before, readWindow(large, 1_000_001, 1000));
+    }
+
+    @Test
+    @DisplayName("Should write the copy when a note becomes large and clear it when it shrinks")
+    void save_ShouldKeepCopyInLineWithContent() {
+        // Act
+        NoteResponse created = noteService.createNote(new NoteRequest("New", LARGE, null, Set.of()));
+        byte[] afterCreate = contentBytes(created.id());
+        noteService.updateNote(created.id(), new NoteRequest("New", "Short now", null, Set.of()));
+
+        // Assert
+        assertArrayEquals(LARGE.getBytes(StandardCharsets.UTF_8), afterCreate);
+        assertNull(contentBytes(created.id()));
+    }
+
+    private byte[] contentBytes(Long id) {
+        return jdbcTemplate.queryForObject("SELECT content_bytes FROM notes WHERE id = ?", byte[].class, id);
+    }
+
+    private byte[] readWindow(Long id, long offset, int length) {
+        return noteContentService.readContent(noteContentService.getContentInfo(id), offset, length);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bbay.mindnote.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hashes notes that were stored without a content hash, against a real PostgreSQL, and checks
+ * that the database computes the same hash as a save does.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true",
+        "mindnote.markdown.backfill-interval=PT1H",
+        "mindnote.markdown.backfill-batch-size=2"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class NoteContentHashBackfillIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private NoteContentHashBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should hash every note without a hash in batches, as a save would")
+    void backfill_ShouldHashLikeSave() {
+        // Arrange
+        List<String> contents = List.of("# Plan\n\n- Größe prüfen ✓", "", "Line one\nLine two");
+        for (String content : contents) {
+            jdbcTemplate.update("INSERT INTO notes (title, content, created_at, updated_at) " +
+                    "VALUES ('Old', ?, now(), now())", content);
+        }
+        jdbcTemplate.update("INSERT INTO notes (title, created_at, updated_at) VALUES ('Empty', now(), now())");
+
+        // Act
+        backfill.backfill();
+
+        // Assert
+        List<String> hashes = jdbcTemplate.queryForList("SELECT content_hash FROM notes ORDER BY id", String.class);
+        assertEquals(List.of(NoteHtmlService.contentHash(contents.get(0)), NoteHtmlService.contentHash(contents.get(1)),
+                NoteHtmlService.contentHash(contents.get(2)), NoteHtmlService.contentHash(null)), hashes);
+    }
+}
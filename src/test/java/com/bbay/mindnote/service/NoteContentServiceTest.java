@@ -0,0 +1,51 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteContentInfo;
+import com.bbay.mindnote.repository.NoteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteContentServiceTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @InjectMocks
+    private NoteContentService noteContentService;
+
+    private final NoteContentInfo info = new NoteContentInfo(1L, 1_000, LocalDateTime.of(2026, 1, 1, 12, 0));
+
+    @Test
+    @DisplayName("Should read windows of the version being streamed with 1-based SQL offsets")
+    void readContent_ShouldQueryVersionedWindow() {
+        // Arrange
+        byte[] chunk = {1, 2, 3};
+        when(noteRepository.findContentChunk(1L, info.updatedAt(), 501, 3)).thenReturn(chunk);
+
+        // Act
+        byte[] result = noteContentService.readContent(info, 500, 3);
+
+        // Assert
+        assertSame(chunk, result);
+    }
+
+    @Test
+    @DisplayName("Should fail the download when the note changed between chunks")
+    void readContent_WhenNoteChanged_ShouldThrow() {
+        // Arrange
+        when(noteRepository.findContentChunk(1L, info.updatedAt(), 1, 10)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> noteContentService.readContent(info, 0, 10));
+    }
+}
@@ -0,0 +1,78 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteTitle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parses the links of notes written before note_links existed, against a real PostgreSQL, and
+ * checks that the stored links and the in-memory graph match what a save would produce.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true",
+        "mindnote.links.backfill-interval=PT1H",
+        "mindnote.links.backfill-batch-size=2"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class NoteLinkBackfillIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private NoteLinkBackfill backfill;
+
+    @Autowired
+    private NoteLinkService noteLinkService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should store the links of pending notes in batches, as a save would")
+    void backfill_ShouldParseLikeSave() {
+        // Arrange
+        Long target = insertPending("Sprint Plan", "No links here");
+        Long source = insertPending("Retro", "See [[sprint  plan|the plan]] and [[Ideas#Later]]");
+        String many = IntStream.range(0, WikiLinks.MAX_LINKS_PER_NOTE + 5)
+                .mapToObj(i -> "[[Topic " + i + "]]").collect(Collectors.joining(" "));
+        Long hub = insertPending("Hub", many);
+
+        // Act
+        backfill.backfill();
+
+        // Assert
+        assertEquals(WikiLinks.parse("See [[sprint  plan|the plan]] and [[Ideas#Later]]"), new HashSet<>(links(source)));
+        assertEquals(WikiLinks.parse(many), new HashSet<>(links(hub)));
+        assertEquals(WikiLinks.MAX_LINKS_PER_NOTE, links(hub).size());
+        assertTrue(links(target).isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM notes WHERE links_pending", Integer.class));
+        assertEquals(List.of(new NoteTitle(source, "Retro")), noteLinkService.getBacklinks(target));
+    }
+
+    private Long insertPending(String title, String content) {
+        return jdbcTemplate.queryForObject("INSERT INTO notes (title, content, created_at, updated_at, links_pending) " +
+                "VALUES (?, ?, now(), now(), true) RETURNING id", Long.class, title, content);
+    }
+
+    private List<String> links(Long sourceId) {
+        return jdbcTemplate.queryForList("SELECT target_key FROM note_links WHERE source_id = ?", String.class, sourceId);
+    }
+}
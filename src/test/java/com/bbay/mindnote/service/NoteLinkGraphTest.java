@@ -0,0 +1,70 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteGraphResponse;
+import com.bbay.mindnote.dto.NoteLinkEdge;
+import com.bbay.mindnote.dto.NoteTitle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoteLinkGraphTest {
+
+    @Test
+    @DisplayName("Should parse links by normalized title, ignoring aliases and headings")
+    void parse_ShouldNormalizeTargets() {
+        // Act
+        Set<String> keys = WikiLinks.parse("See [[Project  Plan]], [[project plan|the plan]], "
+                + "[[Budget#Q3]] and [[ ]] or [not a link]");
+
+        // Assert
+        assertEquals(Set.of("project plan", "budget"), keys);
+    }
+
+    @Test
+    @DisplayName("Should re-resolve links when the target note is renamed")
+    void put_ShouldResolveLinksByCurrentTitle() {
+        // Arrange
+        NoteLinkGraph graph = new NoteLinkGraph();
+        graph.replaceAll(
+                List.of(new NoteTitle(1L, "Index"), new NoteTitle(2L, "Draft"), new NoteTitle(3L, "Other")),
+                Map.of(1L, Set.of("plan"), 3L, Set.of("plan", "index")));
+        assertEquals(List.of(), graph.backlinks(2L));
+
+        // Act
+        graph.put(2L, "Plan", null);
+
+        // Assert
+        assertEquals(List.of(new NoteTitle(1L, "Index"), new NoteTitle(3L, "Other")), graph.backlinks(2L));
+        assertEquals(List.of(new NoteTitle(3L, "Other")), graph.backlinks(1L));
+        assertNull(graph.backlinks(99L));
+    }
+
+    @Test
+    @DisplayName("Should walk links in both directions up to the requested depth")
+    void neighborhood_ShouldStopAtDepth() {
+        // Arrange: 1 -> 2 -> 3 -> 4, and 5 -> 1
+        NoteLinkGraph graph = new NoteLinkGraph();
+        graph.replaceAll(
+                List.of(new NoteTitle(1L, "a"), new NoteTitle(2L, "b"), new NoteTitle(3L, "c"),
+                        new NoteTitle(4L, "d"), new NoteTitle(5L, "e")),
+                Map.of(1L, Set.of("b"), 2L, Set.of("c"), 3L, Set.of("d"), 5L, Set.of("a")));
+
+        // Act
+        NoteGraphResponse depthOne = graph.neighborhood(1L, 1, 100);
+        NoteGraphResponse depthTwo = graph.neighborhood(1L, 2, 100);
+        NoteGraphResponse capped = graph.neighborhood(1L, 2, 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 5L), depthOne.nodes().stream().map(NoteTitle::id).toList());
+        assertEquals(Set.of(new NoteLinkEdge(1L, 2L), new NoteLinkEdge(5L, 1L)), Set.copyOf(depthOne.edges()));
+        assertEquals(List.of(1L, 2L, 5L, 3L), depthTwo.nodes().stream().map(NoteTitle::id).toList());
+        assertFalse(depthTwo.truncated());
+        assertEquals(2, capped.nodes().size());
+        assertTrue(capped.truncated());
+    }
+}
@@ -0,0 +1,47 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteTitle;
+import com.bbay.mindnote.repository.NoteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteLinkServiceTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @InjectMocks
+    private NoteLinkService noteLinkService;
+
+    @Test
+    @DisplayName("Should keep a save that commits while the graph is loading")
+    void loadGraph_WhenNoteSavedDuringLoad_ShouldKeepSave() throws Exception {
+        // Arrange
+        Thread save = new Thread(() -> noteLinkService.recordNoteSaved(1L, "Renamed", "Same", "Same"));
+        when(noteRepository.streamTitles()).thenAnswer(invocation -> {
+            // The save's graph update runs while the load still holds the titles it read before
+            save.start();
+            save.join(200);
+            return Stream.of(new NoteTitle(1L, "Original"));
+        });
+        when(noteRepository.streamLinks()).thenReturn(Stream.empty());
+
+        // Act
+        noteLinkService.loadGraph();
+        save.join();
+
+        // Assert
+        assertEquals(List.of(new NoteTitle(1L, "Renamed")), noteLinkService.getGraph(1L, 1).nodes());
+    }
+}
@@ -0,0 +1,99 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.NoteRequest;
+import com.bbay.mindnote.dto.NoteResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Saves one note from two transactions that overlap, against a real PostgreSQL, and checks that
+ * the revision history still rebuilds every saved version.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class NoteRevisionIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private NoteRevisionService revisionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Overlapping saves of one note should be recorded one after the other")
+    void updateNote_WhenSavesOverlap_ShouldKeepHistoryConsistent() throws Exception {
+        // Arrange
+        String original = "Line one\nLine two\nLine three\n".repeat(20);
+        String first = original.replace("Line two", "Line 2");
+        String second = original.replace("Line three", "Line 3");
+        Long id = noteService.createNote(new NoteRequest("Draft", original, null, null)).id();
+        CountDownLatch firstSaved = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Act
+        // The first save stays uncommitted until the second one has started
+        CompletableFuture<NoteResponse> firstSave = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> {
+                    NoteResponse saved = noteService.updateNote(id, new NoteRequest("Draft", first, null, null));
+                    firstSaved.countDown();
+                    await(secondStarted);
+                    sleep();
+                    return saved;
+                }));
+        assertTrue(firstSaved.await(10, TimeUnit.SECONDS));
+        CompletableFuture<NoteResponse> secondSave = CompletableFuture.supplyAsync(() -> {
+            secondStarted.countDown();
+            return noteService.updateNote(id, new NoteRequest("Draft", second, null, null));
+        });
+        firstSave.get(10, TimeUnit.SECONDS);
+        secondSave.get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(original, revisionService.getRevision(id, 1).content());
+        assertEquals(first, revisionService.getRevision(id, 2).content());
+        assertEquals(second, revisionService.getRevision(id, 3).content());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Gives the second save time to read the note before the first one commits, had it not been locked
+    private static void sleep() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
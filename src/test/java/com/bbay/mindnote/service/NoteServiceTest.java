@@ -1,12 +1,16 @@
 package com.bbay.mindnote.service;
 
+import com.bbay.mindnote.dto.FacetCount;
 import com.bbay.mindnote.dto.NoteRequest;
 import com.bbay.mindnote.dto.NoteResponse;
+import com.bbay.mindnote.dto.PageEnvelope;
 import com.bbay.mindnote.entity.Category;
 import com.bbay.mindnote.entity.Note;
 import com.bbay.mindnote.entity.Tag;
+import com.bbay.mindnote.exception.InvalidFacetException;
 import com.bbay.mindnote.exception.ResourceNotFoundException;
 import com.bbay.mindnote.repository.CategoryRepository;
+import com.bbay.mindnote.repository.FacetRow;
 import com.bbay.mindnote.repository.NoteRepository;
 import com.bbay.mindnote.repository.TagRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,14 +20,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -44,6 +48,18 @@ class NoteServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private TagService tagService;
+
+    @Mock
+    private NoteRevisionService revisionService;
+
+    @Mock
+    private NoteSimilarityService similarityService;
+
+    @Mock
+    private NoteLinkService linkService;
+
     @InjectMocks
     private NoteService noteService;
 
@@ -65,44 +81,145 @@ class NoteServiceTest {
     }
 
     @Test
-    @DisplayName("Should return paged notes (no filters)")
-    void getAllNotes_NoFilters_ShouldReturnPage() {
+    @DisplayName("Should return a page of note ids with the total taken from the last page")
+    void getNoteIds_NoFilters_ShouldReturnPage() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Note> notePage = new PageImpl<>(List.of(testNote));
+        when(noteRepository.findPageIds(null, null, pageable)).thenReturn(new SliceImpl<>(List.of(1L), pageable, false));
 
-        when(noteRepository.findAll(pageable)).thenReturn(notePage);
+        // Act
+        PageEnvelope<Long> result = noteService.getNoteIds(null, null, false, true, pageable);
+
+        // Assert
+        assertEquals(List.of(1L), result.items());
+        assertNull(result.next());
+        assertEquals(1L, result.total());
+        verify(noteRepository, never()).countByFilters(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should count filtered notes only when there is a next page")
+    void getNoteIds_WithFilters_ShouldCountWhenMorePagesFollow() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        when(categoryRepository.findIdByName("Work")).thenReturn(Optional.of(1L));
+        when(noteRepository.findPageIds(1L, null, pageable)).thenReturn(new SliceImpl<>(List.of(1L), pageable, true));
+        when(noteRepository.countByFilters(1L, null)).thenReturn(3L);
 
         // Act
-        Page<NoteResponse> result = noteService.getAllNotes(null, null, pageable);
+        PageEnvelope<Long> result = noteService.getNoteIds("Work", null, false, true, pageable);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
-        assertEquals(testNote.getTitle(), result.getContent().get(0).title());
+        assertEquals(1, result.next());
+        assertEquals(3L, result.total());
+    }
+
+    @Test
+    @DisplayName("Should skip the count when the client does not want the total")
+    void getNoteIds_WithoutTotal_ShouldNotCount() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        when(noteRepository.findPageIds(null, "java", pageable)).thenReturn(new SliceImpl<>(List.of(1L), pageable, true));
+
+        // Act
+        PageEnvelope<Long> result = noteService.getNoteIds(null, "java", false, false, pageable);
+
+        // Assert
+        assertNull(result.total());
+        verify(noteRepository, never()).countByFilters(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should query the category subtree when filtering recursively")
+    void getNoteIds_Recursive_ShouldQuerySubtree() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        when(categoryRepository.findSubtreeIds("Work")).thenReturn(List.of(1L, 2L));
+        when(noteRepository.findPageIdsInSubtree(List.of(1L, 2L), null, pageable))
+                .thenReturn(new SliceImpl<>(List.of(1L), pageable, false));
+
+        // Act
+        PageEnvelope<Long> result = noteService.getNoteIds("Work", null, true, true, pageable);
 
-        verify(noteRepository).findAll(pageable);
-        verify(noteRepository, never()).findByFilters(any(), any(), any());
+        // Assert
+        assertEquals(1L, result.total());
+        verify(noteRepository, never()).findPageIds(any(), any(), any());
     }
 
     @Test
-    @DisplayName("Should return paged filtered notes")
-    void getAllNotes_WithFilters_ShouldReturnFilteredPage() {
+    @DisplayName("Should return an empty page without querying notes when the category does not exist")
+    void getNoteIds_UnknownCategory_ShouldReturnEmptyPage() {
         // Arrange
-        String category = "Work";
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Note> notePage = new PageImpl<>(List.of(testNote));
+        when(categoryRepository.findIdByName("Missing")).thenReturn(Optional.empty());
+
+        // Act
+        PageEnvelope<Long> result = noteService.getNoteIds("Missing", null, false, true, pageable);
+
+        // Assert
+        assertFalse(result.items().iterator().hasNext());
+        assertEquals(0L, result.total());
+        verify(noteRepository, never()).findPageIds(any(), any(), any());
+    }
 
-        when(noteRepository.findByFilters(eq(category), eq(null), eq(pageable))).thenReturn(notePage);
+    @Test
+    @DisplayName("Should return notes in the order of the ids, skipping deleted ones")
+    void getNotesByIds_ShouldKeepIdOrder() {
+        // Arrange
+        Note other = new Note();
+        other.setId(2L);
+        other.setTitle("Other");
+        other.setTags(new HashSet<>());
+        when(noteRepository.findAllById(List.of(2L, 3L, 1L))).thenReturn(List.of(testNote, other));
 
         // Act
-        Page<NoteResponse> result = noteService.getAllNotes(category, null, pageable);
+        List<NoteResponse> result = noteService.getNotesByIds(List.of(2L, 3L, 1L));
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
+        assertEquals(List.of(2L, 1L), result.stream().map(NoteResponse::id).toList());
+    }
+
+    @Test
+    @DisplayName("Should return facet counts grouped per requested facet")
+    void getNoteFacets_ShouldGroupCountsByFacet() {
+        // Arrange
+        when(noteRepository.countFacets(null, false, null, false, true, 5))
+                .thenReturn(List.of(facetRow("tag", "java", 7), facetRow("tag", "spring", 3)));
+
+        // Act
+        Map<String, List<FacetCount>> result = noteService.getNoteFacets(null, null, false, List.of("Tag"), 5);
 
-        verify(noteRepository).findByFilters(eq(category), eq(null), eq(pageable));
+        // Assert
+        assertEquals(List.of(new FacetCount("java", 7), new FacetCount("spring", 3)), result.get("tag"));
+        assertFalse(result.containsKey("category"));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown facets before querying")
+    void getNoteFacets_UnknownFacet_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidFacetException.class, () -> noteService.getNoteFacets(
+                null, null, false, List.of("status"), 10));
+        verifyNoInteractions(noteRepository);
+    }
+
+    private static FacetRow facetRow(String facet, String value, long count) {
+        return new FacetRow() {
+            @Override
+            public String getFacet() {
+                return facet;
+            }
+
+            @Override
+            public String getValue() {
+                return value;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
     }
 
     @Test
@@ -196,6 +313,7 @@ class NoteServiceTest {
         NoteRequest updateRequest = new NoteRequest("Updated Title", "Updated Content", null, null);
 
         Note existingNote = testNote;
+        String previousContent = testNote.getContent();
 
         Note updatedNote = new Note();
         updatedNote.setId(1L);
@@ -205,7 +323,7 @@ class NoteServiceTest {
         updatedNote.setCreatedAt(testNote.getCreatedAt());
         updatedNote.setUpdatedAt(LocalDateTime.now());
 
-        when(noteRepository.findById(1L)).thenReturn(Optional.of(existingNote));
+        when(noteRepository.lockById(1L)).thenReturn(Optional.of(existingNote));
         when(noteRepository.save(any(Note.class))).thenReturn(updatedNote);
 
         // Act
@@ -215,20 +333,21 @@ class NoteServiceTest {
         assertNotNull(result);
         assertEquals("Updated Title", result.title());
 
-        verify(noteRepository).findById(1L);
+        verify(noteRepository).lockById(1L);
         verify(noteRepository).save(any(Note.class));
+        verify(revisionService).recordUpdated(updatedNote, "Test Note", previousContent);
     }
 
     @Test
     @DisplayName("Should throw ResourceNotFoundException when updating non-existent note")
     void updateNote_WhenNoteDoesNotExist_ShouldThrowException() {
         // Arrange
-        when(noteRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(noteRepository.lockById(anyLong())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> noteService.updateNote(1L, testRequest));
 
-        verify(noteRepository).findById(1L);
+        verify(noteRepository).lockById(1L);
         verify(noteRepository, never()).save(any(Note.class));
     }
 
@@ -236,14 +355,27 @@ class NoteServiceTest {
     @DisplayName("Should delete note successfully")
     void deleteNote_WhenNoteExists_ShouldDeleteNote() {
         // Arrange
-        when(noteRepository.findById(1L)).thenReturn(Optional.of(testNote));
-        doNothing().when(noteRepository).delete(testNote);
+        Tag tag = new Tag("java");
+        when(noteRepository.findTagsByNoteId(1L)).thenReturn(List.of(tag));
+        when(noteRepository.softDelete(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         // Act
         noteService.deleteNote(1L);
 
         // Assert
-        verify(noteRepository, times(1)).findById(1L);
-        verify(noteRepository, times(1)).delete(testNote);
+        verify(noteRepository).softDelete(eq(1L), any(LocalDateTime.class));
+        verify(noteRepository, never()).findById(anyLong());
+        verify(tagService).recordNoteTagChange(List.of(tag), Set.of());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when deleting non-existent note")
+    void deleteNote_WhenNoteDoesNotExist_ShouldThrowException() {
+        // Arrange
+        when(noteRepository.softDelete(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> noteService.deleteNote(1L));
+        verify(tagService, never()).recordNoteTagChange(any(), any());
     }
 }
\ No newline at end of file
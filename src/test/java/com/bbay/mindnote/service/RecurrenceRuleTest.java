@@ -0,0 +1,81 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.exception.InvalidRecurrenceException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    private static List<LocalDateTime> expand(String rule, LocalDateTime start, LocalDateTime from, LocalDateTime to) {
+        long[] buffer = new long[100];
+        int found = RecurrenceRule.parse(rule).expand(start, from, to, buffer);
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        for (int i = 0; i < found; i++) {
+            occurrences.add(RecurrenceRule.toDateTime(buffer[i]));
+        }
+        return occurrences;
+    }
+
+    @Test
+    @DisplayName("Should expand weekly days within the window only, keeping the time of day")
+    void expand_WeeklyByDay_ShouldStayInWindow() {
+        // Arrange: every other week on Monday and Thursday, starting Thursday 2025-01-02 09:00
+        LocalDateTime start = LocalDateTime.of(2025, 1, 2, 9, 0);
+
+        // Act: a window far from the start, without walking the weeks in between
+        List<LocalDateTime> occurrences = expand("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH", start,
+                LocalDateTime.of(2025, 3, 10, 9, 0), LocalDateTime.of(2025, 3, 25, 0, 0));
+
+        // Assert: 2025-01-02 is in an "on" week, so are the weeks of 03-10 and 03-24
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 3, 10, 9, 0),
+                LocalDateTime.of(2025, 3, 13, 9, 0),
+                LocalDateTime.of(2025, 3, 24, 9, 0)), occurrences);
+    }
+
+    @Test
+    @DisplayName("Should skip missing month days, count from the month end and stop after COUNT")
+    void expand_MonthlyWithCount_ShouldFollowCalendar() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 1, 31, 8, 0);
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        // Act
+        List<LocalDateTime> the31st = expand("FREQ=MONTHLY;COUNT=3", start, from, to);
+        List<LocalDateTime> lastDay = expand("FREQ=MONTHLY;BYMONTHDAY=-1;COUNT=3", start, from, to);
+
+        // Assert
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 31, 8, 0),
+                LocalDateTime.of(2025, 3, 31, 8, 0),
+                LocalDateTime.of(2025, 5, 31, 8, 0)), the31st);
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 31, 8, 0),
+                LocalDateTime.of(2025, 2, 28, 8, 0),
+                LocalDateTime.of(2025, 3, 31, 8, 0)), lastDay);
+    }
+
+    @Test
+    @DisplayName("Should normalize valid rules, honour UNTIL and reject unsupported parts")
+    void parse_ShouldNormalizeAndValidate() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 7, 30);
+        RecurrenceRule rule = RecurrenceRule.parse("rrule:freq=daily;interval=2;until=20250105");
+
+        // Act & Assert
+        assertEquals("FREQ=DAILY;INTERVAL=2;UNTIL=20250105T235959", rule.toString());
+        assertTrue(rule.isOccurrence(start, LocalDateTime.of(2025, 1, 5, 7, 30)));
+        assertFalse(rule.isOccurrence(start, LocalDateTime.of(2025, 1, 4, 7, 30)));
+        assertFalse(rule.isOccurrence(start, LocalDateTime.of(2025, 1, 7, 7, 30)));
+        assertThrows(InvalidRecurrenceException.class, () -> RecurrenceRule.parse("FREQ=YEARLY"));
+        assertThrows(InvalidRecurrenceException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO"));
+        assertThrows(InvalidRecurrenceException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;COUNT=2;UNTIL=20250101"));
+    }
+}
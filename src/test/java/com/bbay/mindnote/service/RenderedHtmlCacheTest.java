@@ -0,0 +1,31 @@
+package com.bbay.mindnote.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedHtmlCacheTest {
+
+    @Test
+    @DisplayName("Should evict the least recently used renderings once the byte budget is exceeded")
+    void put_ShouldEvictLeastRecentlyUsedByBytes() {
+        // Arrange
+        RenderedHtmlCache cache = new RenderedHtmlCache(100);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        cache.get("a");
+
+        // Act
+        cache.put("c", new byte[40]);
+        cache.put("huge", new byte[101]);
+
+        // Assert
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertNull(cache.get("huge"));
+        assertEquals(80, cache.bytes());
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,151 @@
+package com.bbay.mindnote.service;
+
+import com.bbay.mindnote.dto.TagResponse;
+import com.bbay.mindnote.entity.Tag;
+import com.bbay.mindnote.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TagServiceTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    private TagService tagService;
+
+    private Tag java;
+    private Tag spring;
+    private Tag sql;
+
+    @BeforeEach
+    void setUp() {
+        tagService = new TagService(tagRepository, false);
+        java = tag(1L, "Java", 5, 1);
+        spring = tag(2L, "Spring", 2, 0);
+        sql = tag(3L, "SQL", 9, 4);
+    }
+
+    @Test
+    @DisplayName("Should return most used tags first")
+    void getTags_SortByUsage_ShouldReturnTopK() {
+        // Arrange
+        when(tagRepository.streamAllUsage()).thenReturn(Stream.of(usage(java), usage(spring), usage(sql)));
+        tagService.loadUsageIndex();
+
+        // Act
+        List<TagResponse> result = tagService.getTags(true, null, 2);
+
+        // Assert
+        assertEquals(List.of("SQL", "Java"), result.stream().map(TagResponse::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should filter tags by case-insensitive prefix")
+    void getTags_WithPrefix_ShouldFilter() {
+        // Arrange
+        when(tagRepository.streamAllUsage()).thenReturn(Stream.of(usage(java), usage(spring), usage(sql)));
+        tagService.loadUsageIndex();
+
+        // Act
+        List<TagResponse> result = tagService.getTags(false, "s", 10);
+
+        // Assert
+        assertEquals(List.of("Spring", "SQL"), result.stream().map(TagResponse::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should suggest tags for a prefix ranked by usage")
+    void suggest_ShouldRankByUsage() {
+        // Arrange
+        Tag spreadsheet = tag(4L, "spreadsheet", 7, 0);
+        when(tagRepository.streamAllUsage())
+                .thenReturn(Stream.of(usage(java), usage(spring), usage(sql), usage(spreadsheet)));
+        tagService.loadUsageIndex();
+
+        // Act
+        List<TagResponse> sp = tagService.suggest("SP", 10);
+        List<TagResponse> none = tagService.suggest("xyz", 10);
+
+        // Assert
+        assertEquals(List.of("spreadsheet", "Spring"), sp.stream().map(TagResponse::name).toList());
+        assertTrue(none.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should only adjust counters of tags that were added or removed")
+    void recordNoteTagChange_ShouldApplyDiff() {
+        // Arrange
+        when(tagRepository.streamAllUsage()).thenReturn(Stream.of(usage(java), usage(spring), usage(sql)));
+        tagService.loadUsageIndex();
+
+        // Act
+        tagService.recordNoteTagChange(Set.of(java, spring), Set.of(spring, sql));
+
+        // Assert
+        verify(tagRepository).adjustNoteCount(List.of(3L), 1);
+        verify(tagRepository).adjustNoteCount(List.of(1L), -1);
+        verify(tagRepository, never()).adjustTaskCount(anyCollection(), anyLong());
+
+        List<TagResponse> result = tagService.getTags(true, null, 10);
+        assertEquals(10, result.getFirst().noteCount());
+        assertEquals(4, result.stream().filter(t -> t.name().equals("Java")).findFirst().orElseThrow().noteCount());
+        assertEquals(10, tagService.suggest("sq", 1).getFirst().noteCount());
+    }
+
+    @Test
+    @DisplayName("Should keep a tag change that commits while the index is loading")
+    void loadUsageIndex_WhenTagsChangeDuringLoad_ShouldKeepChange() throws Exception {
+        // Arrange
+        Thread change = new Thread(() -> tagService.recordNoteTagChange(Set.of(), Set.of(java)));
+        when(tagRepository.streamAllUsage()).thenAnswer(invocation -> {
+            // The change's index update runs while the load still holds the counters it read before
+            change.start();
+            change.join(200);
+            return Stream.of(usage(java));
+        });
+
+        // Act
+        tagService.loadUsageIndex();
+        change.join();
+
+        // Assert
+        assertEquals(6, tagService.getTags(true, null, 10).getFirst().noteCount());
+        assertEquals(6, tagService.suggest("ja", 1).getFirst().noteCount());
+    }
+
+    @Test
+    @DisplayName("Should not touch counters when the tag set is unchanged")
+    void recordTaskTagChange_Unchanged_ShouldDoNothing() {
+        // Act
+        tagService.recordTaskTagChange(Set.of(java), Set.of(java));
+
+        // Assert
+        verifyNoInteractions(tagRepository);
+    }
+
+    private static TagResponse usage(Tag tag) {
+        return new TagResponse(tag.getId(), tag.getName(), tag.getNoteCount(), tag.getTaskCount());
+    }
+
+    private static Tag tag(Long id, String name, long noteCount, long taskCount) {
+        Tag tag = new Tag(name);
+        tag.setId(id);
+        tag.setNoteCount(noteCount);
+        tag.setTaskCount(taskCount);
+        return tag;
+    }
+}
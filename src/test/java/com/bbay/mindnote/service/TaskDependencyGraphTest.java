@@ -0,0 +1,73 @@
+package com.bbay.mindnote.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskDependencyGraphTest {
+
+    private static TaskDependencyGraph graphOf(long tasks, long categoryId) {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        for (long id = 1; id <= tasks; id++) {
+            graph.putTask(id, categoryId, false);
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("Should reject a dependency that closes a cycle")
+    void wouldCreateCycle_ShouldDetectIndirectCycle() {
+        // Arrange: 3 waits for 2, 2 waits for 1
+        TaskDependencyGraph graph = graphOf(3, 1L);
+        graph.addEdge(3L, 2L);
+        graph.addEdge(2L, 1L);
+
+        // Act & Assert
+        assertTrue(graph.wouldCreateCycle(1L, 3L));
+        assertTrue(graph.wouldCreateCycle(1L, 1L));
+        assertFalse(graph.wouldCreateCycle(3L, 1L));
+    }
+
+    @Test
+    @DisplayName("Should update the ready set as blockers are finished and removed")
+    void ready_ShouldFollowStatusAndEdgeChanges() {
+        // Arrange: 3 waits for 1 and 2
+        TaskDependencyGraph graph = graphOf(3, 1L);
+        graph.addEdge(3L, 1L);
+        graph.addEdge(3L, 2L);
+        assertEquals(List.of(1L, 2L), graph.ready(null, 0, 10).ids());
+
+        // Act
+        graph.putTask(1L, 1L, true);
+        List<Long> afterOneDone = graph.ready(1L, 0, 10).ids();
+        graph.removeTask(2L);
+
+        // Assert
+        assertEquals(List.of(2L), afterOneDone);
+        assertEquals(List.of(3L), graph.ready(1L, 0, 10).ids());
+        assertEquals(List.of(), graph.ready(2L, 0, 10).ids());
+    }
+
+    @Test
+    @DisplayName("Should order a category's open tasks by dependency and find the longest chain")
+    void schedule_ShouldReturnTopologicalOrderAndCriticalPath() {
+        // Arrange: 4 -> 2 -> 1 and 3 -> 1, task 5 is done, task 6 is in another category
+        TaskDependencyGraph graph = graphOf(5, 1L);
+        graph.putTask(6L, 2L, false);
+        graph.addEdge(1L, 2L);
+        graph.addEdge(2L, 4L);
+        graph.addEdge(1L, 3L);
+        graph.addEdge(4L, 6L);
+        graph.putTask(5L, 1L, true);
+
+        // Act
+        TaskDependencyGraph.Schedule schedule = graph.schedule(1L);
+
+        // Assert
+        assertArrayEquals(new long[]{3L, 4L, 2L, 1L}, schedule.order());
+        assertArrayEquals(new long[]{4L, 2L, 1L}, schedule.criticalPath());
+    }
+}
@@ -1,5 +1,8 @@
 package com.bbay.mindnote.service;
 
+import com.bbay.mindnote.dto.AgendaBucket;
+import com.bbay.mindnote.dto.AgendaResponse;
+import com.bbay.mindnote.dto.PageEnvelope;
 import com.bbay.mindnote.dto.TaskRequest;
 import com.bbay.mindnote.dto.TaskResponse;
 import com.bbay.mindnote.entity.*;
@@ -15,11 +18,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
@@ -28,6 +31,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +46,12 @@ class TaskServiceTest {
     private TagRepository tagRepository;
     @Mock
     private NoteRepository noteRepository;
+    @Mock
+    private TagService tagService;
+    @Mock
+    private TaskDependencyService dependencyService;
+    @Mock
+    private TaskReminderScheduler reminderScheduler;
 
     @InjectMocks
     private TaskService taskService;
@@ -69,47 +79,81 @@ class TaskServiceTest {
                 null,
                 null,
                 null,
+                null,
                 null
         );
     }
 
     @Test
-    @DisplayName("Should return paged tasks (no filters)")
-    void getAllTasks_NoFilters_ShouldReturnAll() {
+    @DisplayName("Should return a page of task ids (no filters)")
+    void getTaskIds_NoFilters_ShouldReturnPage() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Task> taskPage = new PageImpl<>(List.of(testTask));
-
-        when(taskRepository.findAll(pageable)).thenReturn(taskPage);
+        when(taskRepository.findPageIds(null, null, null, null, pageable))
+                .thenReturn(new SliceImpl<>(List.of(1L), pageable, false));
 
         // Act
-        Page<TaskResponse> result = taskService.getAllTasks(null, null, null, null, pageable);
+        PageEnvelope<Long> result = taskService.getTaskIds(null, null, false, null, null, true, pageable);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
-        verify(taskRepository).findAll(pageable);
-        verify(taskRepository, never()).findByFilters(any(), any(), any(), any(), any());
+        assertEquals(List.of(1L), result.items());
+        assertEquals(1L, result.total());
+        verify(taskRepository, never()).countByFilters(any(), any(), any(), any());
     }
 
     @Test
-    @DisplayName("Should return filtered tasks")
-    void getAllTasks_WithFilters_ShouldCallFindByFilters() {
+    @DisplayName("Should count filtered tasks when more pages follow")
+    void getTaskIds_WithFilters_ShouldCountWhenMorePagesFollow() {
         // Arrange
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Task> taskPage = new PageImpl<>(List.of(testTask));
+        Pageable pageable = PageRequest.of(0, 1);
         TaskStatus status = TaskStatus.TODO;
+        when(taskRepository.findPageIds(eq(status), isNull(), isNull(), isNull(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(1L), pageable, true));
+        when(taskRepository.countByFilters(status, null, null, null)).thenReturn(4L);
 
-        when(taskRepository.findByFilters(eq(status), isNull(), isNull(), isNull(), eq(pageable)))
-                .thenReturn(taskPage);
+        // Act
+        PageEnvelope<Long> result = taskService.getTaskIds(status, null, false, null, null, true, pageable);
+
+        // Assert
+        assertEquals(1, result.next());
+        assertEquals(4L, result.total());
+    }
+
+    @Test
+    @DisplayName("Should return tasks in the order of the ids")
+    void getTasksByIds_ShouldKeepIdOrder() {
+        // Arrange
+        Task other = new Task();
+        other.setId(2L);
+        other.setTitle("Other");
+        other.setStatus(TaskStatus.TODO);
+        other.setTags(new HashSet<>());
+        when(taskRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testTask, other));
 
         // Act
-        Page<TaskResponse> result = taskService.getAllTasks(status, null, null, null, pageable);
+        List<TaskResponse> result = taskService.getTasksByIds(List.of(2L, 1L));
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
-        verify(taskRepository).findByFilters(eq(status), isNull(), isNull(), isNull(), eq(pageable));
+        assertEquals(List.of(2L, 1L), result.stream().map(TaskResponse::id).toList());
+    }
+
+    @Test
+    @DisplayName("Should show no note for a task whose note is soft-deleted")
+    void getTasksByIds_WhenNoteDeleted_ShouldOmitNote() {
+        // Arrange
+        Note deletedNote = mock(Note.class);
+        Task linked = spy(testTask);
+        linked.setNote(deletedNote);
+        when(linked.isNoteDeleted()).thenReturn(true);
+        when(taskRepository.findAllById(List.of(1L))).thenReturn(List.of(linked));
+
+        // Act
+        List<TaskResponse> result = taskService.getTasksByIds(List.of(1L));
+
+        // Assert
+        assertNull(result.getFirst().noteId());
+        assertNull(result.getFirst().noteTitle());
+        verifyNoInteractions(deletedNote);
     }
 
     @Test
@@ -138,7 +182,7 @@ class TaskServiceTest {
         TaskRequest fullRequest = new TaskRequest(
                 "Full Task", "Desc",
                 TaskStatus.IN_PROGRESS, TaskPriority.HIGH, LocalDateTime.now(),
-                catId, Set.of(tagName), noteId
+                catId, Set.of(tagName), noteId, null
         );
 
         Category mockCategory = new Category("Work");
@@ -184,7 +228,7 @@ class TaskServiceTest {
     void updateTask_SetDone_ShouldSetCompletedAt() {
         // Arrange
         TaskRequest doneRequest = new TaskRequest(
-                "Task", "Desc", TaskStatus.DONE, TaskPriority.MEDIUM, null, null, null, null
+                "Task", "Desc", TaskStatus.DONE, TaskPriority.MEDIUM, null, null, null, null, null
         );
 
         // Existing task is TODO
@@ -209,7 +253,7 @@ class TaskServiceTest {
     void updateTask_Reopen_ShouldClearCompletedAt() {
         // Arrange
         TaskRequest todoRequest = new TaskRequest(
-                "Task", "Desc", TaskStatus.TODO, TaskPriority.MEDIUM, null, null, null, null
+                "Task", "Desc", TaskStatus.TODO, TaskPriority.MEDIUM, null, null, null, null, null
         );
 
         // Existing task is DONE
@@ -233,20 +277,62 @@ class TaskServiceTest {
     @Test
     @DisplayName("Should delete task successfully")
     void deleteTask_WhenExists_ShouldDelete() {
-        when(taskRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(taskRepository).deleteById(1L);
+        when(taskRepository.findTagsByTaskId(1L)).thenReturn(List.of());
+        when(taskRepository.softDelete(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         taskService.deleteTask(1L);
 
-        verify(taskRepository).deleteById(1L);
+        verify(taskRepository).softDelete(eq(1L), any(LocalDateTime.class));
+        verify(taskRepository, never()).deleteById(anyLong());
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existent task")
     void deleteTask_WhenNotExists_ShouldThrowException() {
-        when(taskRepository.existsById(1L)).thenReturn(false);
+        when(taskRepository.softDelete(eq(1L), any(LocalDateTime.class))).thenReturn(0);
 
         assertThrows(ResourceNotFoundException.class, () -> taskService.deleteTask(1L));
-        verify(taskRepository, never()).deleteById(anyLong());
+        verify(tagService, never()).recordTaskTagChange(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should merge stored tasks and recurring occurrences into agenda buckets")
+    void getAgenda_ShouldMergeOccurrencesIntoBuckets() {
+        // Arrange: one stored task on Jan 2, a daily series at 09:00 from Jan 1
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 3);
+        testTask.setDueDate(LocalDateTime.of(2025, 1, 2, 8, 0));
+        TaskRepository.AgendaRow row = mock(TaskRepository.AgendaRow.class);
+        when(row.getId()).thenReturn(1L);
+        when(row.getBucket()).thenReturn(LocalDateTime.of(2025, 1, 2, 0, 0));
+        when(row.getBucketCount()).thenReturn(1L);
+
+        Task series = new Task();
+        series.setId(2L);
+        series.setTitle("Standup");
+        series.setStatus(TaskStatus.TODO);
+        series.setTags(new HashSet<>());
+        series.setDueDate(LocalDateTime.of(2025, 1, 1, 9, 0));
+        series.setRecurrence("FREQ=DAILY");
+
+        when(taskRepository.findAgenda(isNull(), isNull(), eq(false), isNull(), isNull(),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq("day"), eq(1))).thenReturn(List.of(row));
+        when(taskRepository.findAllById(List.of(1L))).thenReturn(List.of(testTask));
+        when(taskRepository.findSeriesStartingBefore(isNull(), eq(false), isNull(), isNull(), any(LocalDateTime.class)))
+                .thenReturn(List.of(series));
+        when(taskRepository.findEditedOccurrences(anyList(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+
+        // Act
+        AgendaResponse result = taskService.getAgenda(null, null, false, null, null, from, to, "Day", 1);
+
+        // Assert: every day has the occurrence, Jan 2 lists the earlier stored task first
+        assertEquals(List.of(from, from.plusDays(1), to), result.buckets().stream().map(AgendaBucket::start).toList());
+        assertEquals(List.of(1L, 2L, 1L), result.buckets().stream().map(AgendaBucket::count).toList());
+        assertEquals(1L, result.buckets().get(1).tasks().getFirst().id());
+        TaskResponse occurrence = result.buckets().get(2).tasks().getFirst();
+        assertNull(occurrence.id());
+        assertEquals(2L, occurrence.seriesId());
+        assertEquals(LocalDateTime.of(2025, 1, 3, 9, 0), occurrence.dueDate());
     }
-}
\ No newline at end of file
+}
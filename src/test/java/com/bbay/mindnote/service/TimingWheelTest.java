@@ -0,0 +1,77 @@
+package com.bbay.mindnote.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    // 10ms ticks, 4 slots, 2 levels: level 0 covers 40ms, level 1 covers 160ms
+    private static TimingWheel<String, String> wheel() {
+        return new TimingWheel<>(10, 4, 2, 0);
+    }
+
+    @Test
+    @DisplayName("Should fire timers across levels and the overflow in deadline order, never early")
+    void advance_ShouldFireInDeadlineOrder() {
+        // Arrange
+        TimingWheel<String, String> wheel = wheel();
+        wheel.schedule("overflow", 500, "overflow");
+        wheel.schedule("level1", 95, "level1");
+        wheel.schedule("level0", 25, "level0");
+
+        // Act
+        List<String> fired = new ArrayList<>();
+        List<Long> firedAt = new ArrayList<>();
+        for (long now = 0; now <= 600; now += 5) {
+            for (String value : wheel.advance(now)) {
+                fired.add(value);
+                firedAt.add(now);
+            }
+        }
+
+        // Assert: deadlines are rounded up to the 10ms tick
+        assertEquals(List.of("level0", "level1", "overflow"), fired);
+        assertEquals(List.of(30L, 100L, 500L), firedAt);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should replace a timer on reschedule and drop it on cancel")
+    void schedule_ShouldReplacePendingTimer() {
+        // Arrange
+        TimingWheel<String, String> wheel = wheel();
+        wheel.schedule("a", 50, "first");
+        wheel.schedule("a", 120, "second");
+        wheel.schedule("b", 60, "b");
+
+        // Act
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.scheduleIfAbsent("a", 10, "ignored"));
+        List<String> early = wheel.advance(110);
+        List<String> late = wheel.advance(120);
+
+        // Assert
+        assertEquals(List.of(), early);
+        assertEquals(List.of("second"), late);
+        assertFalse(wheel.cancel("a"));
+    }
+
+    @Test
+    @DisplayName("Should fire a deadline that has already passed on the next advance")
+    void schedule_ShouldFirePastDeadlineImmediately() {
+        // Arrange
+        TimingWheel<String, String> wheel = wheel();
+        wheel.advance(200);
+
+        // Act
+        wheel.schedule("late", 50, "late");
+
+        // Assert
+        assertEquals(List.of("late"), wheel.advance(200));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bbay.mindnote.storage;
+
+import com.bbay.mindnote.exception.AttachmentTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlobStorageTest {
+
+    @TempDir
+    private Path directory;
+
+    private BlobStorage blobStorage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobStorage = new BlobStorage(new AttachmentProperties(directory, DataSize.ofBytes(16), Duration.ZERO, 10));
+    }
+
+    @Test
+    @DisplayName("Should store identical uploads once, under their SHA-256")
+    void publish_SameContentTwice_ShouldKeepOneFile() throws IOException {
+        // Arrange
+        byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
+        StagedBlob first = blobStorage.receive(new ByteArrayInputStream(content));
+        StagedBlob second = blobStorage.receive(new ByteArrayInputStream(content));
+
+        // Act
+        blobStorage.publish(first);
+        blobStorage.publish(second);
+        blobStorage.discard(second);
+
+        // Assert
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", first.hash());
+        assertEquals(first.hash(), second.hash());
+        assertEquals(5, first.size());
+        assertArrayEquals(content, Files.readAllBytes(blobStorage.pathFor(first.hash())));
+        try (var staged = Files.list(directory.resolve("tmp"))) {
+            assertEquals(0, staged.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject uploads over the size limit without leaving a temporary file")
+    void receive_TooLarge_ShouldThrowAndCleanUp() throws IOException {
+        // Act & Assert
+        assertThrows(AttachmentTooLargeException.class,
+                () -> blobStorage.receive(new ByteArrayInputStream(new byte[17])));
+        try (var staged = Files.list(directory.resolve("tmp"))) {
+            assertEquals(0, staged.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should only resolve paths for well-formed hashes")
+    void pathFor_InvalidHash_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> blobStorage.pathFor("../../etc/passwd"));
+    }
+}